@@ -0,0 +1,60 @@
+-- Change tracking for the changes-since-watermark DAO methods: updated_at
+-- indexes, tombstones for hard deletes and their triggers.
+
+CREATE INDEX idx_appointments_updated_at
+    ON appointments(updated_at);
+
+CREATE INDEX idx_patients_updated_at
+    ON patients(updated_at);
+
+CREATE INDEX idx_doctors_updated_at
+    ON doctors(updated_at);
+
+-- Tombstones for hard deletes, so open tables can drop deleted rows
+-- without reloading everything. TombstoneDAO prunes them after
+-- hospital.tombstones.retentionHours.
+CREATE TABLE IF NOT EXISTS deleted_rows (
+    tombstone_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    table_name VARCHAR(30) NOT NULL,
+    row_id INT NOT NULL,
+    deleted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_deleted_rows_table_time (table_name, deleted_at)
+);
+
+-- Progress of watermark-driven jobs, starting with the tombstone prune horizon
+CREATE TABLE IF NOT EXISTS job_watermarks (
+    job_name VARCHAR(50) PRIMARY KEY,
+    watermark TIMESTAMP NULL
+);
+
+-- Cascaded deletes do not fire triggers in MySQL, so patient and doctor
+-- deletes record tombstones for their appointments before the cascade runs
+DROP TRIGGER IF EXISTS trg_appointments_tombstone;
+DROP TRIGGER IF EXISTS trg_patients_tombstone;
+DROP TRIGGER IF EXISTS trg_doctors_tombstone;
+
+DELIMITER $$
+
+CREATE TRIGGER trg_appointments_tombstone AFTER DELETE ON appointments
+FOR EACH ROW
+BEGIN
+    INSERT INTO deleted_rows (table_name, row_id) VALUES ('appointments', OLD.appointment_id);
+END$$
+
+CREATE TRIGGER trg_patients_tombstone BEFORE DELETE ON patients
+FOR EACH ROW
+BEGIN
+    INSERT INTO deleted_rows (table_name, row_id)
+        SELECT 'appointments', appointment_id FROM appointments WHERE patient_id = OLD.patient_id;
+    INSERT INTO deleted_rows (table_name, row_id) VALUES ('patients', OLD.patient_id);
+END$$
+
+CREATE TRIGGER trg_doctors_tombstone BEFORE DELETE ON doctors
+FOR EACH ROW
+BEGIN
+    INSERT INTO deleted_rows (table_name, row_id)
+        SELECT 'appointments', appointment_id FROM appointments WHERE doctor_id = OLD.doctor_id;
+    INSERT INTO deleted_rows (table_name, row_id) VALUES ('doctors', OLD.doctor_id);
+END$$
+
+DELIMITER ;
@@ -0,0 +1,134 @@
+-- Daily rollups for reports, one row per day and group.
+-- Triggers below queue every day touched by a write in rollup_dirty_days;
+-- RollupDAO.catchUp() recomputes just those days.
+
+-- Indexes for rollup recomputes: per-day scans answered from the index
+CREATE INDEX idx_appointments_date_doctor_status
+    ON appointments(appointment_date, doctor_id, status);
+
+CREATE INDEX idx_bills_date_status
+    ON bills(bill_date, payment_status);
+
+CREATE TABLE IF NOT EXISTS appointment_daily_rollup (
+    rollup_date DATE NOT NULL,
+    doctor_id INT NOT NULL,
+    specialization VARCHAR(100) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    appointment_count INT NOT NULL,
+    fee_total DECIMAL(14,2) NOT NULL,
+    PRIMARY KEY (rollup_date, doctor_id, status),
+    INDEX idx_appointment_rollup_doctor (doctor_id)
+);
+
+CREATE TABLE IF NOT EXISTS bill_daily_rollup (
+    rollup_date DATE NOT NULL,
+    payment_status VARCHAR(20) NOT NULL,
+    bill_count INT NOT NULL,
+    total_amount DECIMAL(14,2) NOT NULL,
+    paid_amount DECIMAL(14,2) NOT NULL,
+    PRIMARY KEY (rollup_date, payment_status)
+);
+
+CREATE TABLE IF NOT EXISTS rollup_dirty_days (
+    rollup_name VARCHAR(30) NOT NULL,
+    rollup_date DATE NOT NULL,
+    PRIMARY KEY (rollup_name, rollup_date)
+);
+
+-- The delete triggers from V2 also queue the days they touch
+DROP TRIGGER IF EXISTS trg_appointments_tombstone;
+DROP TRIGGER IF EXISTS trg_patients_tombstone;
+DROP TRIGGER IF EXISTS trg_doctors_tombstone;
+DROP TRIGGER IF EXISTS trg_appointments_rollup_insert;
+DROP TRIGGER IF EXISTS trg_appointments_rollup_update;
+DROP TRIGGER IF EXISTS trg_bills_rollup_insert;
+DROP TRIGGER IF EXISTS trg_bills_rollup_update;
+DROP TRIGGER IF EXISTS trg_bills_rollup_delete;
+DROP TRIGGER IF EXISTS trg_doctors_rollup_update;
+
+DELIMITER $$
+
+CREATE TRIGGER trg_appointments_tombstone AFTER DELETE ON appointments
+FOR EACH ROW
+BEGIN
+    INSERT INTO deleted_rows (table_name, row_id) VALUES ('appointments', OLD.appointment_id);
+    INSERT IGNORE INTO rollup_dirty_days VALUES ('appointments', OLD.appointment_date);
+END$$
+
+CREATE TRIGGER trg_appointments_rollup_insert AFTER INSERT ON appointments
+FOR EACH ROW
+BEGIN
+    INSERT IGNORE INTO rollup_dirty_days VALUES ('appointments', NEW.appointment_date);
+END$$
+
+CREATE TRIGGER trg_appointments_rollup_update AFTER UPDATE ON appointments
+FOR EACH ROW
+BEGIN
+    INSERT IGNORE INTO rollup_dirty_days VALUES ('appointments', NEW.appointment_date);
+    IF OLD.appointment_date <> NEW.appointment_date THEN
+        INSERT IGNORE INTO rollup_dirty_days VALUES ('appointments', OLD.appointment_date);
+    END IF;
+END$$
+
+CREATE TRIGGER trg_bills_rollup_insert AFTER INSERT ON bills
+FOR EACH ROW
+BEGIN
+    INSERT IGNORE INTO rollup_dirty_days VALUES ('bills', NEW.bill_date);
+END$$
+
+CREATE TRIGGER trg_bills_rollup_update AFTER UPDATE ON bills
+FOR EACH ROW
+BEGIN
+    INSERT IGNORE INTO rollup_dirty_days VALUES ('bills', NEW.bill_date);
+    IF OLD.bill_date <> NEW.bill_date THEN
+        INSERT IGNORE INTO rollup_dirty_days VALUES ('bills', OLD.bill_date);
+    END IF;
+END$$
+
+CREATE TRIGGER trg_bills_rollup_delete AFTER DELETE ON bills
+FOR EACH ROW
+BEGIN
+    INSERT IGNORE INTO rollup_dirty_days VALUES ('bills', OLD.bill_date);
+END$$
+
+-- Doctor renames of specialization or fee apply to existing rollup rows directly
+CREATE TRIGGER trg_doctors_rollup_update AFTER UPDATE ON doctors
+FOR EACH ROW
+BEGIN
+    IF NOT (OLD.specialization <=> NEW.specialization) OR NOT (OLD.consultation_fee <=> NEW.consultation_fee) THEN
+        UPDATE appointment_daily_rollup
+        SET specialization = NEW.specialization,
+            fee_total = appointment_count * COALESCE(NEW.consultation_fee, 0)
+        WHERE doctor_id = NEW.doctor_id;
+    END IF;
+END$$
+
+CREATE TRIGGER trg_patients_tombstone BEFORE DELETE ON patients
+FOR EACH ROW
+BEGIN
+    INSERT INTO deleted_rows (table_name, row_id)
+        SELECT 'appointments', appointment_id FROM appointments WHERE patient_id = OLD.patient_id;
+    INSERT IGNORE INTO rollup_dirty_days
+        SELECT DISTINCT 'appointments', appointment_date FROM appointments WHERE patient_id = OLD.patient_id;
+    INSERT IGNORE INTO rollup_dirty_days
+        SELECT DISTINCT 'bills', bill_date FROM bills WHERE patient_id = OLD.patient_id;
+    INSERT INTO deleted_rows (table_name, row_id) VALUES ('patients', OLD.patient_id);
+END$$
+
+CREATE TRIGGER trg_doctors_tombstone BEFORE DELETE ON doctors
+FOR EACH ROW
+BEGIN
+    INSERT INTO deleted_rows (table_name, row_id)
+        SELECT 'appointments', appointment_id FROM appointments WHERE doctor_id = OLD.doctor_id;
+    INSERT IGNORE INTO rollup_dirty_days
+        SELECT DISTINCT 'appointments', appointment_date FROM appointments WHERE doctor_id = OLD.doctor_id;
+    INSERT INTO deleted_rows (table_name, row_id) VALUES ('doctors', OLD.doctor_id);
+END$$
+
+DELIMITER ;
+
+-- Queue every existing day so the first catch-up builds the rollups
+INSERT IGNORE INTO rollup_dirty_days
+    SELECT DISTINCT 'appointments', appointment_date FROM appointments;
+INSERT IGNORE INTO rollup_dirty_days
+    SELECT DISTINCT 'bills', bill_date FROM bills;
@@ -0,0 +1,24 @@
+-- One bill per appointment, so BillDAO.generateBillsForCompletedAppointments
+-- can rely on INSERT IGNORE when runs overlap.
+--
+-- Existing duplicates are resolved first. Per appointment the bill with the
+-- most paid is kept, then the oldest. Other unpaid copies are deleted;
+-- copies with money on them keep their amounts but are detached from the
+-- appointment.
+
+DELETE b FROM bills b
+JOIN (SELECT bill_id FROM (
+        SELECT bill_id, ROW_NUMBER() OVER (PARTITION BY appointment_id ORDER BY paid_amount DESC, bill_id) AS n
+        FROM bills WHERE appointment_id IS NOT NULL) ranked
+      WHERE n > 1) extra ON extra.bill_id = b.bill_id
+WHERE b.paid_amount = 0;
+
+UPDATE bills b
+JOIN (SELECT bill_id FROM (
+        SELECT bill_id, ROW_NUMBER() OVER (PARTITION BY appointment_id ORDER BY paid_amount DESC, bill_id) AS n
+        FROM bills WHERE appointment_id IS NOT NULL) ranked
+      WHERE n > 1) extra ON extra.bill_id = b.bill_id
+SET b.appointment_id = NULL;
+
+CREATE UNIQUE INDEX uq_bills_appointment
+    ON bills(appointment_id);
@@ -0,0 +1,15 @@
+-- Append-only payments ledger; refunds are negative amounts. bills.paid_amount
+-- and payment_status are derived from it by PaymentDAO.reconcile(), which
+-- keeps its progress in job_watermarks (created in V2).
+CREATE TABLE IF NOT EXISTS payments (
+    payment_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    bill_id INT NOT NULL,
+    amount_minor BIGINT NOT NULL,
+    method VARCHAR(20) NOT NULL,
+    reference VARCHAR(64) NOT NULL,
+    posted_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (bill_id) REFERENCES bills(bill_id) ON DELETE CASCADE,
+    UNIQUE KEY uq_payments_reference (reference),
+    INDEX idx_payments_bill_amount (bill_id, amount_minor),
+    INDEX idx_payments_posted_bill (posted_at, bill_id)
+);
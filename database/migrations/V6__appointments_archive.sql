@@ -0,0 +1,97 @@
+-- Archive for finished appointments older than the archive horizon, moved
+-- out of the hot table by AppointmentArchiveDAO. Ids are never reused, so an
+-- id is in exactly one of the two tables.
+CREATE TABLE IF NOT EXISTS appointments_archive (
+    appointment_id INT PRIMARY KEY,
+    patient_id INT NOT NULL,
+    doctor_id INT NOT NULL,
+    appointment_date DATE NOT NULL,
+    appointment_time TIME NOT NULL,
+    status ENUM('Scheduled', 'Completed', 'Cancelled', 'No Show') NOT NULL,
+    notes TEXT,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (patient_id) REFERENCES patients(patient_id) ON DELETE CASCADE,
+    FOREIGN KEY (doctor_id) REFERENCES doctors(doctor_id) ON DELETE CASCADE,
+    INDEX idx_appointments_archive_patient (patient_id),
+    INDEX idx_appointments_archive_doctor (doctor_id),
+    INDEX idx_appointments_archive_date_doctor_status (appointment_date, doctor_id, status)
+);
+
+-- bills.appointment_id loses its foreign key: archiving moves the appointment
+-- to appointments_archive and the bill must keep pointing at it. The key is
+-- unnamed in version 1, so its generated name is looked up first. The delete
+-- triggers below take over its ON DELETE SET NULL.
+SET @bills_appointment_fk = (
+    SELECT constraint_name FROM information_schema.referential_constraints
+    WHERE constraint_schema = DATABASE() AND table_name = 'bills'
+      AND referenced_table_name = 'appointments'
+    LIMIT 1);
+SET @drop_bills_appointment_fk = IFNULL(
+    CONCAT('ALTER TABLE bills DROP FOREIGN KEY `', @bills_appointment_fk, '`'), 'DO 0');
+PREPARE drop_bills_appointment_fk FROM @drop_bills_appointment_fk;
+EXECUTE drop_bills_appointment_fk;
+DEALLOCATE PREPARE drop_bills_appointment_fk;
+
+-- The archiver sets @archiving_appointments while it moves rows: a move is
+-- not a delete, so it records neither a tombstone nor a dirty day, and the
+-- bill stays linked. A real delete from either table unlinks its bill.
+DROP TRIGGER IF EXISTS trg_appointments_tombstone;
+DROP TRIGGER IF EXISTS trg_appointments_archive_tombstone;
+DROP TRIGGER IF EXISTS trg_patients_tombstone;
+DROP TRIGGER IF EXISTS trg_doctors_tombstone;
+
+DELIMITER $$
+
+CREATE TRIGGER trg_appointments_tombstone AFTER DELETE ON appointments
+FOR EACH ROW
+BEGIN
+    IF @archiving_appointments IS NULL THEN
+        INSERT INTO deleted_rows (table_name, row_id) VALUES ('appointments', OLD.appointment_id);
+        INSERT IGNORE INTO rollup_dirty_days VALUES ('appointments', OLD.appointment_date);
+        UPDATE bills SET appointment_id = NULL WHERE appointment_id = OLD.appointment_id;
+    END IF;
+END$$
+
+CREATE TRIGGER trg_appointments_archive_tombstone AFTER DELETE ON appointments_archive
+FOR EACH ROW
+BEGIN
+    INSERT INTO deleted_rows (table_name, row_id) VALUES ('appointments', OLD.appointment_id);
+    INSERT IGNORE INTO rollup_dirty_days VALUES ('appointments', OLD.appointment_date);
+    UPDATE bills SET appointment_id = NULL WHERE appointment_id = OLD.appointment_id;
+END$$
+
+-- Cascaded deletes do not fire triggers, so these cover archived rows too.
+-- A patient's bills cascade with the patient; a doctor's are unlinked here.
+CREATE TRIGGER trg_patients_tombstone BEFORE DELETE ON patients
+FOR EACH ROW
+BEGIN
+    INSERT INTO deleted_rows (table_name, row_id)
+        SELECT 'appointments', appointment_id FROM appointments WHERE patient_id = OLD.patient_id
+        UNION ALL SELECT 'appointments', appointment_id FROM appointments_archive WHERE patient_id = OLD.patient_id;
+    INSERT IGNORE INTO rollup_dirty_days
+        SELECT DISTINCT 'appointments', appointment_date FROM appointments WHERE patient_id = OLD.patient_id
+        UNION SELECT 'appointments', appointment_date FROM appointments_archive WHERE patient_id = OLD.patient_id;
+    INSERT IGNORE INTO rollup_dirty_days
+        SELECT DISTINCT 'bills', bill_date FROM bills WHERE patient_id = OLD.patient_id;
+    INSERT INTO deleted_rows (table_name, row_id) VALUES ('patients', OLD.patient_id);
+END$$
+
+CREATE TRIGGER trg_doctors_tombstone BEFORE DELETE ON doctors
+FOR EACH ROW
+BEGIN
+    INSERT INTO deleted_rows (table_name, row_id)
+        SELECT 'appointments', appointment_id FROM appointments WHERE doctor_id = OLD.doctor_id
+        UNION ALL SELECT 'appointments', appointment_id FROM appointments_archive WHERE doctor_id = OLD.doctor_id;
+    INSERT IGNORE INTO rollup_dirty_days
+        SELECT DISTINCT 'appointments', appointment_date FROM appointments WHERE doctor_id = OLD.doctor_id
+        UNION SELECT 'appointments', appointment_date FROM appointments_archive WHERE doctor_id = OLD.doctor_id;
+    UPDATE bills b JOIN appointments a ON a.appointment_id = b.appointment_id
+        SET b.appointment_id = NULL WHERE a.doctor_id = OLD.doctor_id;
+    UPDATE bills b JOIN appointments_archive a ON a.appointment_id = b.appointment_id
+        SET b.appointment_id = NULL WHERE a.doctor_id = OLD.doctor_id;
+    INSERT INTO deleted_rows (table_name, row_id) VALUES ('doctors', OLD.doctor_id);
+END$$
+
+DELIMITER ;
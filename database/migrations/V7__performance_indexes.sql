@@ -0,0 +1,27 @@
+-- Index set for the DAO access paths, checked by com.hospital.dao.QueryPlanTest.
+-- Index statements are skipped when already applied and built online.
+
+-- Name lists and searches sort by name; the doctor picker filters by specialization
+CREATE INDEX idx_patients_name
+    ON patients(name);
+
+CREATE INDEX idx_doctors_specialization_name
+    ON doctors(specialization, name);
+
+-- AppointmentDAO.isDoctorAvailable is answered from this index alone, and
+-- getAppointmentsByDoctor seeks it by doctor
+CREATE INDEX idx_appointments_doctor_slot
+    ON appointments(doctor_id, appointment_date, appointment_time, status);
+
+-- Scans by status: past-due transitions, archive candidates and billing of
+-- completed appointments
+CREATE INDEX idx_appointments_status_date
+    ON appointments(status, appointment_date);
+
+-- Duplicates of the primary keys
+DROP INDEX idx_patients_patient_id ON patients;
+
+DROP INDEX idx_doctors_doctor_id ON doctors;
+
+-- A prefix of idx_appointments_doctor_slot, which now serves the doctor_id foreign key
+DROP INDEX idx_appointments_doctor_id ON appointments;
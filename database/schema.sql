@@ -1,4 +1,6 @@
 -- Hospital Management System Database Schema
+-- This is schema version 1. Later changes are in database/migrations and
+-- are applied by the application at startup (SchemaMigrator).
 -- Create database
 CREATE DATABASE IF NOT EXISTS hospital_management;
 USE hospital_management;
@@ -1,7 +1,19 @@
 package com.hospital;
 
+import com.hospital.dao.AppointmentArchiveDAO;
+import com.hospital.dao.PaymentDAO;
+import com.hospital.dao.RollupDAO;
+import com.hospital.dao.TombstoneDAO;
+import com.hospital.job.JobScheduler;
+import com.hospital.job.Schedule;
+import com.hospital.job.StatusTransitionJob;
+import com.hospital.metrics.EdtMonitor;
+import com.hospital.metrics.MetricsServer;
 import com.hospital.ui.LoginFrame;
 import com.hospital.util.ErrorHandler;
+import com.hospital.util.QueryCache;
+import com.hospital.util.SchemaMigrator;
+import java.time.Duration;
 import javax.swing.SwingUtilities;
 import javax.swing.UIManager;
 
@@ -18,8 +30,49 @@ public class Main {
             ErrorHandler.console("Failed to set system Look & Feel.", e);
         }
 
+        EdtMonitor.install();
+        SchemaMigrator.migrate();
+        if (!SchemaMigrator.isSchemaCurrent()) {
+            // the DAOs would fail on missing tables and columns; stop before anything runs
+            SwingUtilities.invokeLater(() -> {
+                ErrorHandler.ui(null, "The database schema is out of date. Apply the scripts in "
+                        + "database/migrations (or enable hospital.migrations.enabled) and restart.", null);
+                System.exit(1);
+            });
+            return;
+        }
+        registerJobs(JobScheduler.getDefault());
+        MetricsServer.startIfConfigured();
+
         SwingUtilities.invokeLater(() -> {
             new LoginFrame().setVisible(true);
         });
     }
-}
\ No newline at end of file
+
+    /**
+     * Background maintenance; runs for the life of the process whatever frames are open
+     */
+    private static void registerJobs(JobScheduler scheduler) {
+        scheduler.register("status-transition", Schedule.cron("0 2 * * *"), Duration.ofMinutes(2),
+                new StatusTransitionJob());
+        // catch up on anything missed while the application was closed
+        scheduler.runOnce("status-transition", Duration.ofMinutes(1));
+
+        scheduler.register("rollup-catch-up", Schedule.fixedDelay(Duration.ofMinutes(5)), Duration.ofSeconds(30),
+                new RollupDAO()::catchUp);
+
+        scheduler.register("payment-reconcile", Schedule.fixedDelay(Duration.ofMinutes(10)), Duration.ofMinutes(1),
+                new PaymentDAO()::reconcile);
+
+        AppointmentArchiveDAO archiveDAO = new AppointmentArchiveDAO();
+        scheduler.register("appointment-archive", Schedule.cron("30 3 * * 0"), Duration.ofMinutes(10),
+                () -> archiveDAO.archiveOldAppointments(AppointmentArchiveDAO.DEFAULT_BATCH_SIZE,
+                        Thread.currentThread()::isInterrupted));
+
+        scheduler.register("tombstone-prune", Schedule.cron("0 4 * * *"), Duration.ofMinutes(10),
+                new TombstoneDAO()::pruneExpired);
+
+        scheduler.register("cache-eviction", Schedule.fixedDelay(Duration.ofMinutes(1)), Duration.ZERO,
+                () -> QueryCache.getAll().forEach(QueryCache::evictExpired));
+    }
+}
@@ -0,0 +1,169 @@
+package com.hospital.dao;
+
+import com.hospital.util.AppLogger;
+import com.hospital.util.DatabaseConnection;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Moves finished appointments older than the archive horizon from the hot
+ * appointments table into appointments_archive, so day-to-day queries only
+ * touch recent and upcoming rows.
+ *
+ * The horizon is -Dhospital.archive.horizonDays (default 365) before today.
+ * Only rows dated before it are ever archived, so a read whose date range
+ * starts on or after the horizon never needs the archive
+ * (see {@link #rangeNeedsArchive(LocalDate)}).
+ */
+public class AppointmentArchiveDAO {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private static final int HORIZON_DAYS = Integer.getInteger("hospital.archive.horizonDays", 365);
+
+    /** Pause between batches so booking desk writes get through */
+    private static final long PAUSE_MILLIS = 20;
+
+    private static final String COLUMNS =
+            "appointment_id, patient_id, doctor_id, appointment_date, appointment_time, status, " +
+            "notes, created_at, updated_at";
+
+    /**
+     * Finished rows before the horizon. Completed appointments stay until
+     * they are billed (or their doctor has no fee and they never will be),
+     * because bill generation only looks at the hot table.
+     */
+    private static final String SELECT_CANDIDATES =
+            "SELECT a.appointment_id FROM appointments a " +
+            "WHERE a.appointment_date < ? AND a.status IN ('Completed', 'Cancelled', 'No Show') " +
+            "AND (a.status <> 'Completed' " +
+            "OR EXISTS (SELECT 1 FROM bills b WHERE b.appointment_id = a.appointment_id) " +
+            "OR EXISTS (SELECT 1 FROM doctors d WHERE d.doctor_id = a.doctor_id AND d.consultation_fee IS NULL)) " +
+            "ORDER BY a.appointment_id LIMIT ? FOR UPDATE";
+
+    /**
+     * First day that is never archived
+     */
+    public static LocalDate horizonStart() {
+        return LocalDate.now().minusDays(HORIZON_DAYS);
+    }
+
+    /**
+     * Whether a read starting at the given date (null for unbounded) may
+     * find rows in the archive
+     */
+    public static boolean rangeNeedsArchive(LocalDate from) {
+        return from == null || from.isBefore(horizonStart());
+    }
+
+    /**
+     * Archive every eligible row in batches, one transaction per batch
+     * @param cancelled checked between batches; return true to stop early
+     * @return number of appointments moved, or -1 on error
+     */
+    public int archiveOldAppointments(int batchSize, BooleanSupplier cancelled) {
+        LocalDate horizon = horizonStart();
+        long started = System.nanoTime();
+        int moved = 0;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int batch;
+            do {
+                batch = archiveBatch(conn, horizon, batchSize);
+                moved += batch;
+                if (batch > 0) {
+                    Thread.sleep(PAUSE_MILLIS);
+                }
+            } while (batch == batchSize && !cancelled.getAsBoolean());
+
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "archiveOldAppointments",
+                    "Error archiving after {count} moved", e, "count", moved);
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (moved > 0) {
+                AppointmentDAO.invalidateAllCached();
+            }
+        }
+
+        AppLogger.info(getClass().getSimpleName(), "archiveOldAppointments",
+                "Archived {count} appointment(s) before {horizon} in {millis} ms",
+                "count", moved, "horizon", horizon, "millis", (System.nanoTime() - started) / 1_000_000);
+        return moved;
+    }
+
+    /**
+     * Number of appointments in the archive
+     */
+    public int getArchivedCount() {
+        try (Connection conn = DatabaseConnection.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM appointments_archive")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "getArchivedCount", "Error occurred", e);
+            return 0;
+        }
+    }
+
+    /**
+     * Copy one batch into the archive and delete it from the hot table.
+     * The session variable tells the delete trigger this is a move, so no
+     * tombstones are written; the archive watermark makes delta readers
+     * reload instead.
+     */
+    private int archiveBatch(Connection conn, LocalDate horizon, int batchSize) throws SQLException {
+        conn.setAutoCommit(false);
+        try (Statement stmt = conn.createStatement()) {
+            List<Integer> ids = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_CANDIDATES)) {
+                pstmt.setDate(1, Date.valueOf(horizon));
+                pstmt.setInt(2, batchSize);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getInt(1));
+                    }
+                }
+            }
+            if (ids.isEmpty()) {
+                conn.commit();
+                return 0;
+            }
+
+            String in = " WHERE appointment_id IN (" + String.join(",", Collections.nCopies(ids.size(), "?")) + ")";
+            stmt.execute("SET @archiving_appointments = 1");
+            try (PreparedStatement copy = conn.prepareStatement(
+                        "INSERT INTO appointments_archive (" + COLUMNS + ") SELECT " + COLUMNS + " FROM appointments" + in);
+                    PreparedStatement delete = conn.prepareStatement("DELETE FROM appointments" + in)) {
+                bindIds(copy, ids);
+                copy.executeUpdate();
+                bindIds(delete, ids);
+                delete.executeUpdate();
+            } finally {
+                stmt.execute("SET @archiving_appointments = NULL");
+            }
+            Tombstones.markArchived(conn);
+            conn.commit();
+            return ids.size();
+
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static void bindIds(PreparedStatement pstmt, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            pstmt.setInt(i + 1, ids.get(i));
+        }
+    }
+}
@@ -4,7 +4,9 @@ import com.hospital.util.AppLogger;
 
 import com.hospital.model.Appointment;
 import com.hospital.util.DatabaseConnection;
+import com.hospital.util.QueryCache;
 
+import java.io.IOException;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -16,6 +18,63 @@ import java.util.List;
  */
 public class AppointmentDAO {
 
+    /**
+     * Shared result cache for date-, doctor- and patient-scoped lists.
+     * TTL can be tuned with -Dhospital.appointmentCache.ttlMillis
+     */
+    private static final QueryCache<String, List<Appointment>> QUERY_CACHE =
+            new QueryCache<>("appointments", Long.getLong("hospital.appointmentCache.ttlMillis", 30_000L));
+
+    private static final String SELECT_WITH_NAMES =
+            "SELECT a.*, p.name as patient_name, d.name as doctor_name, d.specialization, FALSE as archived " +
+            "FROM appointments a " +
+            "JOIN patients p ON a.patient_id = p.patient_id " +
+            "JOIN doctors d ON a.doctor_id = d.doctor_id ";
+
+    /**
+     * The mapped columns only, so the hot and archive selects below can be
+     * combined with UNION ALL (see AppointmentArchiveDAO)
+     */
+    private static final String MAPPED_COLUMNS =
+            "SELECT a.appointment_id, a.patient_id, a.doctor_id, a.appointment_date, a.appointment_time, " +
+            "a.status, a.notes, p.name as patient_name, d.name as doctor_name, d.specialization";
+    private static final String JOIN_NAMES =
+            "JOIN patients p ON a.patient_id = p.patient_id " +
+            "JOIN doctors d ON a.doctor_id = d.doctor_id ";
+    private static final String SELECT_HOT_WITH_NAMES =
+            MAPPED_COLUMNS + ", FALSE as archived FROM appointments a " + JOIN_NAMES;
+    private static final String SELECT_ARCHIVE_WITH_NAMES =
+            MAPPED_COLUMNS + ", TRUE as archived FROM appointments_archive a " + JOIN_NAMES;
+
+    private static String dateKey(LocalDate date) { return "date:" + date; }
+    private static String doctorKey(int doctorId) { return "doctor:" + doctorId; }
+    private static String patientKey(int patientId) { return "patient:" + patientId; }
+
+    /**
+     * Cache used for scoped appointment lists (exposed for diagnostics)
+     */
+    public static QueryCache<String, List<Appointment>> getQueryCache() {
+        return QUERY_CACHE;
+    }
+
+    /**
+     * Drop cached lists touched by an appointment with the given keys
+     */
+    public static void invalidateCached(int patientId, int doctorId, LocalDate date) {
+        QUERY_CACHE.invalidate(patientKey(patientId));
+        QUERY_CACHE.invalidate(doctorKey(doctorId));
+        if (date != null) {
+            QUERY_CACHE.invalidate(dateKey(date));
+        }
+    }
+
+    /**
+     * Drop every cached list, e.g. after a patient or doctor rename
+     */
+    public static void invalidateAllCached() {
+        QUERY_CACHE.invalidateAll();
+    }
+
     private void rowMappingHelper(ResultSet rs, Appointment appointment) throws SQLException {
         appointment.setAppointmentId(rs.getInt("appointment_id"));
         appointment.setPatientId(rs.getInt("patient_id"));
@@ -27,17 +86,18 @@ public class AppointmentDAO {
         appointment.setPatientName(rs.getString("patient_name"));
         appointment.setDoctorName(rs.getString("doctor_name"));
         appointment.setDoctorSpecialization(rs.getString("specialization"));
+        appointment.setArchived(rs.getBoolean("archived"));
     }
 
     /**
-     * Book a new appointment
+     * Book a new appointment; the generated id is set on the appointment
      */
     public boolean bookAppointment(Appointment appointment) {
         String sql = "INSERT INTO appointments (patient_id, doctor_id, appointment_date, " +
                 "appointment_time, status, notes) VALUES (?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
 
             pstmt.setInt(1, appointment.getPatientId());
             pstmt.setInt(2, appointment.getDoctorId());
@@ -47,24 +107,65 @@ public class AppointmentDAO {
             pstmt.setString(6, appointment.getNotes());
 
             int result = pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    appointment.setAppointmentId(keys.getInt(1));
+                }
+            }
+            invalidateCached(appointment.getPatientId(), appointment.getDoctorId(), appointment.getAppointmentDate());
             return result > 0;
 
         } catch (SQLException e) {
-            AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
+            AppLogger.error(getClass().getSimpleName(), "bookAppointment", "Error occurred", e);
             return false;
         }
     }
 
+    /**
+     * Book many appointments with batched inserts, one transaction per chunk.
+     * Generated ids are set on the appointments that were inserted.
+     * No availability check is made; callers are expected to have done it.
+     */
+    public BatchResult bookAppointments(List<Appointment> appointments, int chunkSize) {
+        String sql = "INSERT INTO appointments (patient_id, doctor_id, appointment_date, " +
+                "appointment_time, status, notes) VALUES (?, ?, ?, ?, ?, ?)";
+
+        try {
+            BatchResult result = BatchWriter.insert(sql, appointments, chunkSize, (pstmt, appointment) -> {
+                pstmt.setInt(1, appointment.getPatientId());
+                pstmt.setInt(2, appointment.getDoctorId());
+                pstmt.setDate(3, Date.valueOf(appointment.getAppointmentDate()));
+                pstmt.setTime(4, Time.valueOf(appointment.getAppointmentTime()));
+                pstmt.setString(5, appointment.getStatus() != null ? appointment.getStatus() : "Scheduled");
+                pstmt.setString(6, appointment.getNotes());
+            });
+
+            int[] ids = result.getGeneratedIds();
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] != 0) {
+                    Appointment appointment = appointments.get(i);
+                    appointment.setAppointmentId(ids[i]);
+                    invalidateCached(appointment.getPatientId(), appointment.getDoctorId(), appointment.getAppointmentDate());
+                }
+            }
+            return result;
+
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "bookAppointments", "Error booking appointments in batch", e);
+            return null;
+        }
+    }
+
+    public BatchResult bookAppointments(List<Appointment> appointments) {
+        return bookAppointments(appointments, BatchWriter.DEFAULT_CHUNK_SIZE);
+    }
+
     /**
      * Get all appointments with patient and doctor details
      */
     public List<Appointment> getAllAppointments() {
         List<Appointment> appointments = new ArrayList<>();
-        String sql = "SELECT a.*, p.name as patient_name, d.name as doctor_name, d.specialization " +
-                "FROM appointments a " +
-                "JOIN patients p ON a.patient_id = p.patient_id " +
-                "JOIN doctors d ON a.doctor_id = d.doctor_id " +
-                "ORDER BY a.appointment_date DESC, a.appointment_time DESC";
+        String sql = SELECT_WITH_NAMES + "ORDER BY a.appointment_date DESC, a.appointment_time DESC";
 
         try (Connection conn = DatabaseConnection.getConnection();
                 Statement stmt = conn.createStatement();
@@ -77,219 +178,363 @@ public class AppointmentDAO {
             }
 
         } catch (SQLException e) {
-            AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
+            AppLogger.error(getClass().getSimpleName(), "getAllAppointments", "Error occurred", e);
         }
 
         return appointments;
     }
 
     /**
-     * Get appointment by ID
+     * Receives streamed rows; the Appointment instance is reused between
+     * calls, so copy anything that must outlive the call
      */
-    public Appointment getAppointmentById(int appointmentId) {
-        String sql = "SELECT a.*, p.name as patient_name, d.name as doctor_name, d.specialization " +
-                "FROM appointments a " +
-                "JOIN patients p ON a.patient_id = p.patient_id " +
-                "JOIN doctors d ON a.doctor_id = d.doctor_id " +
-                "WHERE a.appointment_id = ?";
+    public interface RowHandler {
+        void handle(Appointment appointment) throws IOException;
+    }
 
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * Stream matching appointments through a forward-only cursor, one row
+     * at a time, without building a list. The connection stays busy until
+     * every row has been handled. Rows come in id order, archived rows first
+     * when the filter reaches back past the archive horizon.
+     * @return number of rows handled
+     */
+    public long streamAppointments(AppointmentFilter filter, RowHandler handler) throws SQLException, IOException {
+        long count = 0;
+        if (filter.needsArchive()) {
+            count += streamAppointments(SELECT_ARCHIVE_WITH_NAMES, filter, handler);
+        }
+        return count + streamAppointments(SELECT_WITH_NAMES, filter, handler);
+    }
 
-            pstmt.setInt(1, appointmentId);
-            ResultSet rs = pstmt.executeQuery();
+    private long streamAppointments(String select, AppointmentFilter filter, RowHandler handler)
+            throws SQLException, IOException {
+        String sql = select.trim() + filter.toWhereClause() + " ORDER BY a.appointment_id";
 
-            if (rs.next()) {
-                Appointment appointment = new Appointment();
-                rowMappingHelper(rs, appointment);
-                return appointment;
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            // MySQL Connector/J streams row by row only with this exact fetch size
+            pstmt.setFetchSize(Integer.MIN_VALUE);
+            filter.bind(pstmt, 1);
+
+            long count = 0;
+            Appointment appointment = new Appointment();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rowMappingHelper(rs, appointment);
+                    handler.handle(appointment);
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Get appointment by ID, looking in the archive when it is not in the hot table
+     */
+    public Appointment getAppointmentById(int appointmentId) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (String select : new String[] {SELECT_WITH_NAMES, SELECT_ARCHIVE_WITH_NAMES}) {
+                try (PreparedStatement pstmt = conn.prepareStatement(select + "WHERE a.appointment_id = ?")) {
+                    pstmt.setInt(1, appointmentId);
+                    List<Appointment> rows = mapRows(pstmt);
+                    if (!rows.isEmpty()) {
+                        return rows.get(0);
+                    }
+                }
             }
 
         } catch (SQLException e) {
-            AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
+            AppLogger.error(getClass().getSimpleName(), "getAppointmentById", "Error occurred", e);
         }
 
         return null;
     }
 
     /**
-     * Update appointment
+     * Update appointment. Only the hot table is written: archived
+     * appointments ({@link Appointment#isArchived()}) are read-only.
      */
     public boolean updateAppointment(Appointment appointment) {
         String sql = "UPDATE appointments SET patient_id = ?, doctor_id = ?, appointment_date = ?, " +
                 "appointment_time = ?, status = ?, notes = ? WHERE appointment_id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, appointment.getPatientId());
-            pstmt.setInt(2, appointment.getDoctorId());
-            pstmt.setDate(3, Date.valueOf(appointment.getAppointmentDate()));
-            pstmt.setTime(4, Time.valueOf(appointment.getAppointmentTime()));
-            pstmt.setString(5, appointment.getStatus());
-            pstmt.setString(6, appointment.getNotes());
-            pstmt.setInt(7, appointment.getAppointmentId());
-
-            int result = pstmt.executeUpdate();
-            return result > 0;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Appointment previous = lockCacheKeys(conn, appointment.getAppointmentId());
+                int result;
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, appointment.getPatientId());
+                    pstmt.setInt(2, appointment.getDoctorId());
+                    pstmt.setDate(3, Date.valueOf(appointment.getAppointmentDate()));
+                    pstmt.setTime(4, Time.valueOf(appointment.getAppointmentTime()));
+                    pstmt.setString(5, appointment.getStatus());
+                    pstmt.setString(6, appointment.getNotes());
+                    pstmt.setInt(7, appointment.getAppointmentId());
+                    result = pstmt.executeUpdate();
+                }
+                conn.commit();
+                invalidateCached(previous);
+                invalidateCached(appointment.getPatientId(), appointment.getDoctorId(), appointment.getAppointmentDate());
+                return result > 0;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
 
         } catch (SQLException e) {
-            AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
+            AppLogger.error(getClass().getSimpleName(), "updateAppointment", "Error occurred", e);
             return false;
         }
     }
 
     /**
-     * Cancel appointment
+     * Cancel appointment; archived ones are read-only and are not changed
      */
     public boolean cancelAppointment(int appointmentId) {
         String sql = "UPDATE appointments SET status = 'Cancelled' WHERE appointment_id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, appointmentId);
-            int result = pstmt.executeUpdate();
-            return result > 0;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Appointment previous = lockCacheKeys(conn, appointmentId);
+                int result;
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, appointmentId);
+                    result = pstmt.executeUpdate();
+                }
+                conn.commit();
+                invalidateCached(previous);
+                return result > 0;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
 
         } catch (SQLException e) {
-            AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
+            AppLogger.error(getClass().getSimpleName(), "cancelAppointment", "Error occurred", e);
             return false;
         }
     }
 
     /**
-     * Delete appointment
+     * Delete appointment; archived ones are read-only and are not deleted.
+     * Its bill is kept; the delete trigger clears the bill's appointment_id.
      */
     public boolean deleteAppointment(int appointmentId) {
         String sql = "DELETE FROM appointments WHERE appointment_id = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, appointmentId);
-            int result = pstmt.executeUpdate();
-            return result > 0;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Appointment previous = lockCacheKeys(conn, appointmentId);
+                int result;
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, appointmentId);
+                    result = pstmt.executeUpdate();
+                }
+                conn.commit();
+                invalidateCached(previous);
+                return result > 0;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
 
         } catch (SQLException e) {
-            AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
+            AppLogger.error(getClass().getSimpleName(), "deleteAppointment", "Error occurred", e);
             return false;
         }
     }
 
     /**
-     * Get appointments by patient ID
+     * Get appointments by patient ID: the full history, archived ones included
      */
     public List<Appointment> getAppointmentsByPatient(int patientId) {
-        List<Appointment> appointments = new ArrayList<>();
-        String sql = "SELECT a.*, p.name as patient_name, d.name as doctor_name, d.specialization " +
-                "FROM appointments a " +
-                "JOIN patients p ON a.patient_id = p.patient_id " +
-                "JOIN doctors d ON a.doctor_id = d.doctor_id " +
-                "WHERE a.patient_id = ? ORDER BY a.appointment_date DESC";
+        return cachedList(patientKey(patientId),
+                SELECT_HOT_WITH_NAMES + "WHERE a.patient_id = ? " +
+                "UNION ALL " + SELECT_ARCHIVE_WITH_NAMES + "WHERE a.patient_id = ? " +
+                "ORDER BY appointment_date DESC",
+                pstmt -> {
+                    pstmt.setInt(1, patientId);
+                    pstmt.setInt(2, patientId);
+                });
+    }
 
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    /**
+     * Get appointments by doctor ID: the full history, archived ones included
+     */
+    public List<Appointment> getAppointmentsByDoctor(int doctorId) {
+        return cachedList(doctorKey(doctorId),
+                SELECT_HOT_WITH_NAMES + "WHERE a.doctor_id = ? " +
+                "UNION ALL " + SELECT_ARCHIVE_WITH_NAMES + "WHERE a.doctor_id = ? " +
+                "ORDER BY appointment_date DESC",
+                pstmt -> {
+                    pstmt.setInt(1, doctorId);
+                    pstmt.setInt(2, doctorId);
+                });
+    }
 
-            pstmt.setInt(1, patientId);
-            ResultSet rs = pstmt.executeQuery();
+    /**
+     * Get appointments by date, including archived ones for dates before
+     * the archive horizon
+     */
+    public List<Appointment> getAppointmentsByDate(LocalDate date) {
+        if (!AppointmentArchiveDAO.rangeNeedsArchive(date)) {
+            return cachedList(dateKey(date),
+                    SELECT_WITH_NAMES + "WHERE a.appointment_date = ? ORDER BY a.appointment_time",
+                    pstmt -> pstmt.setDate(1, Date.valueOf(date)));
+        }
+        return cachedList(dateKey(date),
+                SELECT_HOT_WITH_NAMES + "WHERE a.appointment_date = ? " +
+                "UNION ALL " + SELECT_ARCHIVE_WITH_NAMES + "WHERE a.appointment_date = ? " +
+                "ORDER BY appointment_time",
+                pstmt -> {
+                    pstmt.setDate(1, Date.valueOf(date));
+                    pstmt.setDate(2, Date.valueOf(date));
+                });
+    }
 
-            while (rs.next()) {
-                Appointment appointment = new Appointment();
-                rowMappingHelper(rs, appointment);
-                appointments.add(appointment);
+    /**
+     * Get appointments changed since the watermark plus ids of deleted ones.
+     * Rows whose patient or doctor was renamed count as changed too.
+     * A null watermark, or one older than the pruned tombstones or the last
+     * move to the archive, returns every appointment as a full reload.
+     */
+    public ChangeSet<Appointment> getAppointmentChangesSince(Timestamp since) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            since = Tombstones.unlessPrunedOrArchived(conn, since);
+            Timestamp watermark = Tombstones.nextWatermark(conn);
+
+            if (since == null) {
+                String sql = SELECT_WITH_NAMES + "ORDER BY a.appointment_date DESC, a.appointment_time DESC";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    return new ChangeSet<>(mapRows(pstmt), new ArrayList<>(), watermark, true);
+                }
+            }
+
+            String sql = SELECT_WITH_NAMES + "WHERE a.updated_at >= ? " +
+                    "UNION " + SELECT_WITH_NAMES + "WHERE p.updated_at >= ? " +
+                    "UNION " + SELECT_WITH_NAMES + "WHERE d.updated_at >= ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setTimestamp(1, since);
+                pstmt.setTimestamp(2, since);
+                pstmt.setTimestamp(3, since);
+                List<Appointment> changed = mapRows(pstmt);
+                List<Integer> deleted = Tombstones.deletedSince(conn, "appointments", since);
+                return new ChangeSet<>(changed, deleted, watermark, false);
             }
 
         } catch (SQLException e) {
-            AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
+            AppLogger.error(getClass().getSimpleName(), "getAppointmentChangesSince", "Error loading appointment changes", e);
+            return null;
         }
-
-        return appointments;
     }
 
     /**
-     * Get appointments by doctor ID
+     * Check if doctor is available at given date and time
      */
-    public List<Appointment> getAppointmentsByDoctor(int doctorId) {
-        List<Appointment> appointments = new ArrayList<>();
-        String sql = "SELECT a.*, p.name as patient_name, d.name as doctor_name, d.specialization " +
-                "FROM appointments a " +
-                "JOIN patients p ON a.patient_id = p.patient_id " +
-                "JOIN doctors d ON a.doctor_id = d.doctor_id " +
-                "WHERE a.doctor_id = ? ORDER BY a.appointment_date DESC";
+    public boolean isDoctorAvailable(int doctorId, LocalDate date, LocalTime time) {
+        String sql = "SELECT COUNT(*) FROM appointments WHERE doctor_id = ? AND appointment_date = ? " +
+                "AND appointment_time = ? AND status != 'Cancelled'";
 
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setInt(1, doctorId);
-            ResultSet rs = pstmt.executeQuery();
+            pstmt.setDate(2, Date.valueOf(date));
+            pstmt.setTime(3, Time.valueOf(time));
 
-            while (rs.next()) {
-                Appointment appointment = new Appointment();
-                rowMappingHelper(rs, appointment);
-                appointments.add(appointment);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getInt(1) == 0;
             }
 
         } catch (SQLException e) {
-            AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
+            AppLogger.error(getClass().getSimpleName(), "isDoctorAvailable", "Error occurred", e);
         }
 
-        return appointments;
+        return false;
+    }
+
+    private interface ParameterBinder {
+        void bind(PreparedStatement pstmt) throws SQLException;
     }
 
     /**
-     * Get appointments by date
+     * Run a scoped list query through the shared cache. Callers get copies
+     * of the cached appointments, so editing one does not change what other
+     * readers see.
      */
-    public List<Appointment> getAppointmentsByDate(LocalDate date) {
-        List<Appointment> appointments = new ArrayList<>();
-        String sql = "SELECT a.*, p.name as patient_name, d.name as doctor_name, d.specialization " +
-                "FROM appointments a " +
-                "JOIN patients p ON a.patient_id = p.patient_id " +
-                "JOIN doctors d ON a.doctor_id = d.doctor_id " +
-                "WHERE a.appointment_date = ? ORDER BY a.appointment_time";
+    private List<Appointment> cachedList(String key, String sql, ParameterBinder binder) {
+        try {
+            List<Appointment> cached = QUERY_CACHE.get(key, () -> queryList(sql, binder));
+            List<Appointment> copies = new ArrayList<>(cached.size());
+            for (Appointment appointment : cached) {
+                copies.add(new Appointment(appointment));
+            }
+            return copies;
+        } catch (Exception e) {
+            AppLogger.error(getClass().getSimpleName(), "cachedList", "Error loading " + key, e);
+            return new ArrayList<>();
+        }
+    }
 
+    private List<Appointment> queryList(String sql, ParameterBinder binder) throws SQLException {
         try (Connection conn = DatabaseConnection.getConnection();
                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
-            pstmt.setDate(1, Date.valueOf(date));
-            ResultSet rs = pstmt.executeQuery();
+            binder.bind(pstmt);
+            return mapRows(pstmt);
+        }
+    }
 
+    private List<Appointment> mapRows(PreparedStatement pstmt) throws SQLException {
+        List<Appointment> appointments = new ArrayList<>();
+        try (ResultSet rs = pstmt.executeQuery()) {
             while (rs.next()) {
                 Appointment appointment = new Appointment();
                 rowMappingHelper(rs, appointment);
                 appointments.add(appointment);
             }
-
-        } catch (SQLException e) {
-            AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
         }
-
         return appointments;
     }
 
     /**
-     * Check if doctor is available at given date and time
+     * Lock an existing row and read the cache keys it currently belongs to,
+     * so they can be invalidated once the transaction that changes or removes
+     * it has committed. The lock keeps a concurrent writer from moving the row
+     * to other keys between this read and the write.
      */
-    public boolean isDoctorAvailable(int doctorId, LocalDate date, LocalTime time) {
-        String sql = "SELECT COUNT(*) FROM appointments WHERE doctor_id = ? AND appointment_date = ? " +
-                "AND appointment_time = ? AND status != 'Cancelled'";
-
-        try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
-
-            pstmt.setInt(1, doctorId);
-            pstmt.setDate(2, Date.valueOf(date));
-            pstmt.setTime(3, Time.valueOf(time));
-
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next()) {
-                return rs.getInt(1) == 0;
+    private Appointment lockCacheKeys(Connection conn, int appointmentId) throws SQLException {
+        String sql = "SELECT patient_id, doctor_id, appointment_date FROM appointments " +
+                "WHERE appointment_id = ? FOR UPDATE";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, appointmentId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new Appointment(rs.getInt("patient_id"), rs.getInt("doctor_id"),
+                            rs.getDate("appointment_date").toLocalDate(), null);
+                }
             }
-
-        } catch (SQLException e) {
-            AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
         }
+        return null;
+    }
 
-        return false;
+    private static void invalidateCached(Appointment keys) {
+        if (keys != null) {
+            invalidateCached(keys.getPatientId(), keys.getDoctorId(), keys.getAppointmentDate());
+        }
     }
 }
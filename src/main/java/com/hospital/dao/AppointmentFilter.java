@@ -0,0 +1,122 @@
+package com.hospital.dao;
+
+import com.hospital.model.Appointment;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Appointment filter shared by the management screen (in memory) and
+ * streaming queries (as SQL), so both select the same rows.
+ * Unset criteria match everything.
+ */
+public class AppointmentFilter {
+    private String searchTerm;
+    private String status;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+
+    public String getSearchTerm() { return searchTerm; }
+
+    /** Matches patient name, doctor name or specialization, case-insensitively */
+    public void setSearchTerm(String searchTerm) {
+        this.searchTerm = searchTerm == null || searchTerm.trim().isEmpty() ? null : searchTerm.trim();
+    }
+
+    public String getStatus() { return status; }
+
+    /** Exact status; null or "All" matches every status */
+    public void setStatus(String status) {
+        this.status = status == null || "All".equals(status) ? null : status;
+    }
+
+    public LocalDate getFromDate() { return fromDate; }
+
+    /** First appointment date included, or null for no lower bound */
+    public void setFromDate(LocalDate fromDate) { this.fromDate = fromDate; }
+
+    public LocalDate getToDate() { return toDate; }
+
+    /** Last appointment date included, or null for no upper bound */
+    public void setToDate(LocalDate toDate) { this.toDate = toDate; }
+
+    /**
+     * In-memory form of the filter, used for table views
+     */
+    public boolean matches(Appointment appointment) {
+        if (status != null && !status.equals(appointment.getStatus())) {
+            return false;
+        }
+        LocalDate date = appointment.getAppointmentDate();
+        if (fromDate != null && date.isBefore(fromDate)) {
+            return false;
+        }
+        if (toDate != null && date.isAfter(toDate)) {
+            return false;
+        }
+        if (searchTerm != null) {
+            String term = searchTerm.toLowerCase();
+            return contains(appointment.getPatientName(), term)
+                    || contains(appointment.getDoctorName(), term)
+                    || contains(appointment.getDoctorSpecialization(), term);
+        }
+        return true;
+    }
+
+    private static boolean contains(String value, String lowerTerm) {
+        return value != null && value.toLowerCase().contains(lowerTerm);
+    }
+
+    /**
+     * Whether matching rows may have been moved to appointments_archive
+     */
+    boolean needsArchive() {
+        return AppointmentArchiveDAO.rangeNeedsArchive(fromDate) && !"Scheduled".equals(status);
+    }
+
+    /**
+     * SQL form of the filter: " WHERE ..." over the a/p/d aliases, or an empty string
+     */
+    String toWhereClause() {
+        List<String> conditions = new ArrayList<>();
+        if (status != null) {
+            conditions.add("a.status = ?");
+        }
+        if (fromDate != null) {
+            conditions.add("a.appointment_date >= ?");
+        }
+        if (toDate != null) {
+            conditions.add("a.appointment_date <= ?");
+        }
+        if (searchTerm != null) {
+            conditions.add("(p.name LIKE ? OR d.name LIKE ? OR d.specialization LIKE ?)");
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    /**
+     * Bind the parameters of {@link #toWhereClause()} starting at the given index
+     * @return next free parameter index
+     */
+    int bind(PreparedStatement pstmt, int index) throws SQLException {
+        if (status != null) {
+            pstmt.setString(index++, status);
+        }
+        if (fromDate != null) {
+            pstmt.setDate(index++, java.sql.Date.valueOf(fromDate));
+        }
+        if (toDate != null) {
+            pstmt.setDate(index++, java.sql.Date.valueOf(toDate));
+        }
+        if (searchTerm != null) {
+            String pattern = "%" + searchTerm.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+            pstmt.setString(index++, pattern);
+            pstmt.setString(index++, pattern);
+            pstmt.setString(index++, pattern);
+        }
+        return index;
+    }
+}
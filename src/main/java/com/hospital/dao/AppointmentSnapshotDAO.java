@@ -0,0 +1,131 @@
+package com.hospital.dao;
+
+import com.hospital.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.List;
+
+/**
+ * Raw column reads for the in-memory appointment snapshot. Rows are pushed
+ * to a sink as primitives, so no Appointment objects are created.
+ * Full loads cover appointments_archive as well; archiving moves rows
+ * without changing them, so incremental reads only need the hot table.
+ * Methods throw SQLException because a partial snapshot is useless.
+ */
+public class AppointmentSnapshotDAO {
+
+    /**
+     * Receives one appointment row as primitive columns
+     */
+    public interface RowSink {
+        void accept(int appointmentId, int patientId, int doctorId,
+                    int epochDay, int minuteOfDay, String status);
+    }
+
+    private static final String COLUMNS =
+            "SELECT appointment_id, patient_id, doctor_id, appointment_date, appointment_time, status ";
+    private static final String SELECT_COLUMNS = COLUMNS + "FROM appointments ";
+
+    /**
+     * Smallest and largest appointment id, or null when the table is empty
+     */
+    public int[] getIdBounds() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT MIN(id_min), MAX(id_max) FROM (" +
+                        "SELECT MIN(appointment_id) AS id_min, MAX(appointment_id) AS id_max FROM appointments " +
+                        "UNION ALL SELECT MIN(appointment_id), MAX(appointment_id) FROM appointments_archive) bounds")) {
+            rs.next();
+            int min = rs.getInt(1);
+            return rs.wasNull() ? null : new int[] {min, rs.getInt(2)};
+        }
+    }
+
+    /**
+     * Number of rows with ids in the inclusive range (a primary key range count)
+     */
+    public int countRange(int fromId, int toId) throws SQLException {
+        String sql = "SELECT (SELECT COUNT(*) FROM appointments WHERE appointment_id BETWEEN ? AND ?) + " +
+                "(SELECT COUNT(*) FROM appointments_archive WHERE appointment_id BETWEEN ? AND ?)";
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, fromId);
+            pstmt.setInt(2, toId);
+            pstmt.setInt(3, fromId);
+            pstmt.setInt(4, toId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * Stream rows with ids in the inclusive range, in id order
+     */
+    public void scanRange(int fromId, int toId, RowSink sink) throws SQLException {
+        String sql = SELECT_COLUMNS + "WHERE appointment_id BETWEEN ? AND ? " +
+                "UNION ALL " + COLUMNS + "FROM appointments_archive WHERE appointment_id BETWEEN ? AND ? " +
+                "ORDER BY appointment_id";
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+
+            pstmt.setFetchSize(Integer.MIN_VALUE);
+            pstmt.setInt(1, fromId);
+            pstmt.setInt(2, toId);
+            pstmt.setInt(3, fromId);
+            pstmt.setInt(4, toId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                emit(rs, sink);
+            }
+        }
+    }
+
+    /**
+     * Watermark to pass to {@link #scanChangesSince} after a full load
+     * taken now
+     */
+    public Timestamp currentWatermark() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return Tombstones.nextWatermark(conn);
+        }
+    }
+
+    /**
+     * Stream rows changed since the watermark, in id order, and collect ids
+     * deleted since then
+     * @param deletedIds receives the deleted ids
+     * @return watermark for the next call, or null without scanning if
+     *         tombstones since the watermark were pruned, or rows were moved
+     *         to the archive, and a full load is needed
+     */
+    public Timestamp scanChangesSince(Timestamp since, RowSink sink, List<Integer> deletedIds) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (Tombstones.unlessPrunedOrArchived(conn, since) == null) {
+                return null;
+            }
+            Timestamp watermark = Tombstones.nextWatermark(conn);
+
+            String sql = SELECT_COLUMNS + "WHERE updated_at >= ? ORDER BY appointment_id";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setTimestamp(1, since);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    emit(rs, sink);
+                }
+            }
+            deletedIds.addAll(Tombstones.deletedSince(conn, "appointments", since));
+            return watermark;
+        }
+    }
+
+    private static void emit(ResultSet rs, RowSink sink) throws SQLException {
+        while (rs.next()) {
+            Time time = rs.getTime(5);
+            sink.accept(rs.getInt(1), rs.getInt(2), rs.getInt(3),
+                    (int) rs.getDate(4).toLocalDate().toEpochDay(),
+                    time.toLocalTime().toSecondOfDay() / 60,
+                    rs.getString(6));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.hospital.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a batched insert: generated ids aligned with the input rows
+ * plus the rows that were rejected by the database.
+ */
+public class BatchResult {
+
+    /**
+     * A single input row the database refused, e.g. a duplicate phone
+     */
+    public static class RowFailure {
+        private final int index;
+        private final String message;
+
+        public RowFailure(int index, String message) {
+            this.index = index;
+            this.message = message;
+        }
+
+        /** Position of the row in the input list */
+        public int getIndex() { return index; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return "row " + index + ": " + message;
+        }
+    }
+
+    private final int[] generatedIds;
+    private final List<RowFailure> failures;
+
+    public BatchResult(int[] generatedIds, List<RowFailure> failures) {
+        this.generatedIds = generatedIds;
+        this.failures = failures;
+    }
+
+    /** Generated id per input row, 0 for rows that failed */
+    public int[] getGeneratedIds() { return generatedIds; }
+
+    public List<RowFailure> getFailures() { return Collections.unmodifiableList(failures); }
+
+    public int getSuccessCount() { return generatedIds.length - failures.size(); }
+
+    public boolean hasFailures() { return !failures.isEmpty(); }
+}
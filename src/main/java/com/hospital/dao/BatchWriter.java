@@ -0,0 +1,156 @@
+package com.hospital.dao;
+
+import com.hospital.util.AppLogger;
+import com.hospital.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Chunked addBatch/executeBatch inserts shared by the DAO batch methods.
+ * Each chunk runs in one transaction. If the batch is rejected (e.g. one
+ * duplicate phone), the chunk is replayed row by row in the same
+ * transaction so only the offending rows are reported and skipped.
+ *
+ * A deadlock or lock wait timeout is different: InnoDB may roll back the
+ * whole transaction, rows inserted before it included, so the chunk is
+ * rolled back and retried from its first row, and reported as failed if
+ * it keeps losing.
+ */
+final class BatchWriter {
+
+    static final int DEFAULT_CHUNK_SIZE = 500;
+
+    /** ER_LOCK_DEADLOCK and ER_LOCK_WAIT_TIMEOUT */
+    private static final int DEADLOCK = 1213;
+    private static final int LOCK_WAIT_TIMEOUT = 1205;
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    interface RowBinder<T> {
+        void bind(PreparedStatement pstmt, T row) throws SQLException;
+    }
+
+    private BatchWriter() {}
+
+    static <T> BatchResult insert(String sql, List<T> rows, int chunkSize, RowBinder<T> binder) throws SQLException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+
+        int[] ids = new int[rows.size()];
+        List<BatchResult.RowFailure> failures = new ArrayList<>();
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            conn.setAutoCommit(false);
+            for (int start = 0; start < rows.size(); start += chunkSize) {
+                int end = Math.min(start + chunkSize, rows.size());
+                int failedBefore = failures.size();
+                for (int attempt = 1; ; attempt++) {
+                    try {
+                        insertChunk(conn, pstmt, rows, binder, start, end, ids, failures);
+                        conn.commit();
+                        break;
+                    } catch (SQLException e) {
+                        if (!isTransactionRollback(e)) {
+                            throw e;
+                        }
+                        pstmt.clearBatch();
+                        conn.rollback();
+                        Arrays.fill(ids, start, end, 0);
+                        failures.subList(failedBefore, failures.size()).clear();
+                        if (attempt == MAX_ATTEMPTS) {
+                            for (int i = start; i < end; i++) {
+                                failures.add(new BatchResult.RowFailure(i, e.getMessage()));
+                            }
+                            AppLogger.warning("BatchWriter", "insert",
+                                    "Rows {from}-{to} failed after {attempts} attempts: {reason}",
+                                    "from", start, "to", end - 1, "attempts", attempt, "reason", e.getMessage());
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        return new BatchResult(ids, failures);
+    }
+
+    private static <T> void insertChunk(Connection conn, PreparedStatement pstmt, List<T> rows, RowBinder<T> binder,
+                                        int start, int end, int[] ids,
+                                        List<BatchResult.RowFailure> failures) throws SQLException {
+        try {
+            for (int i = start; i < end; i++) {
+                binder.bind(pstmt, rows.get(i));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            readKeys(pstmt, ids, start, end);
+        } catch (SQLException e) {
+            if (isTransactionRollback(e)) {
+                throw e;
+            }
+            pstmt.clearBatch();
+            conn.rollback();
+            insertOneByOne(pstmt, rows, binder, start, end, ids, failures);
+        }
+    }
+
+    private static void readKeys(PreparedStatement pstmt, int[] ids, int start, int end) throws SQLException {
+        try (ResultSet keys = pstmt.getGeneratedKeys()) {
+            for (int i = start; i < end && keys.next(); i++) {
+                ids[i] = keys.getInt(1);
+            }
+        }
+    }
+
+    /**
+     * A data error such as a duplicate key only rolls back the failing
+     * statement, so the remaining rows of the chunk still commit together.
+     * @throws SQLException on a deadlock or lock wait timeout, after which
+     *         the rows inserted so far cannot be relied on
+     */
+    private static <T> void insertOneByOne(PreparedStatement pstmt, List<T> rows, RowBinder<T> binder,
+                                           int start, int end, int[] ids,
+                                           List<BatchResult.RowFailure> failures) throws SQLException {
+        int failedBefore = failures.size();
+        for (int i = start; i < end; i++) {
+            try {
+                binder.bind(pstmt, rows.get(i));
+                pstmt.executeUpdate();
+                readKeys(pstmt, ids, i, i + 1);
+            } catch (SQLException e) {
+                if (isTransactionRollback(e)) {
+                    throw e;
+                }
+                ids[i] = 0;
+                failures.add(new BatchResult.RowFailure(i, e.getMessage()));
+            }
+        }
+        int rejected = failures.size() - failedBefore;
+        if (rejected > 0) {
+            AppLogger.warning("BatchWriter", "insert", "{rejected} row(s) rejected in rows {from}-{to}, first: {first}",
+                    "rejected", rejected, "from", start, "to", end - 1, "first", failures.get(failedBefore));
+        }
+    }
+
+    private static boolean isTransactionRollback(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException) {
+                int code = ((SQLException) t).getErrorCode();
+                if (code == DEADLOCK || code == LOCK_WAIT_TIMEOUT) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
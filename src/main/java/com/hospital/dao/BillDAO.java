@@ -0,0 +1,277 @@
+package com.hospital.dao;
+
+import com.hospital.util.AppLogger;
+
+import com.hospital.model.Bill;
+import com.hospital.util.DatabaseConnection;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Data Access Object for Bill operations
+ */
+public class BillDAO {
+
+    /** Days of appointments billed per INSERT ... SELECT, keeping each transaction short */
+    private static final int GENERATION_WINDOW_DAYS = 7;
+
+    private static final String SELECT_WITH_PATIENT =
+            "SELECT b.*, p.name AS patient_name FROM bills b " +
+            "JOIN patients p ON b.patient_id = p.patient_id ";
+
+    /**
+     * Payment status implied by the amounts
+     */
+    public static String paymentStatusFor(BigDecimal totalAmount, BigDecimal paidAmount) {
+        if (paidAmount == null || paidAmount.signum() <= 0) {
+            return "Pending";
+        }
+        return paidAmount.compareTo(totalAmount) >= 0 ? "Paid" : "Partial";
+    }
+
+    /**
+     * Add a bill; sets the generated id on success
+     */
+    public boolean addBill(Bill bill) {
+        String sql = "INSERT INTO bills (patient_id, appointment_id, total_amount, paid_amount, payment_status, " +
+                "bill_date, due_date, services) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+
+            setBillParameters(pstmt, bill);
+            boolean added = pstmt.executeUpdate() > 0;
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    bill.setBillId(keys.getInt(1));
+                }
+            }
+            return added;
+
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "addBill", "Error adding bill", e);
+            return false;
+        }
+    }
+
+    /**
+     * Get bill by ID
+     */
+    public Bill getBillById(int billId) {
+        String sql = SELECT_WITH_PATIENT + "WHERE b.bill_id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, billId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return extractBillFromResultSet(rs);
+                }
+            }
+
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "getBillById", "Error getting bill", e);
+        }
+        return null;
+    }
+
+    /**
+     * One page of bills, newest first
+     */
+    public List<Bill> getBillsPaginated(int limit, int offset) {
+        List<Bill> bills = new ArrayList<>();
+        String sql = SELECT_WITH_PATIENT + "ORDER BY b.bill_id DESC LIMIT ? OFFSET ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, limit);
+            pstmt.setInt(2, offset);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    bills.add(extractBillFromResultSet(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "getBillsPaginated", "Error getting bills", e);
+        }
+        return bills;
+    }
+
+    /**
+     * Total number of bills
+     */
+    public int getTotalBillCount() {
+        try (Connection conn = DatabaseConnection.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM bills")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "getTotalBillCount", "Error counting bills", e);
+            return 0;
+        }
+    }
+
+    /**
+     * All bills of a patient, newest first
+     */
+    public List<Bill> getBillsByPatient(int patientId) {
+        List<Bill> bills = new ArrayList<>();
+        String sql = SELECT_WITH_PATIENT + "WHERE b.patient_id = ? ORDER BY b.bill_date DESC, b.bill_id DESC";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, patientId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    bills.add(extractBillFromResultSet(rs));
+                }
+            }
+
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "getBillsByPatient", "Error getting bills", e);
+        }
+        return bills;
+    }
+
+    /**
+     * Update bill. paid_amount is owned by the payments ledger (see
+     * PaymentDAO), so it is left alone and only the status is re-derived
+     * against the new total.
+     */
+    public boolean updateBill(Bill bill) {
+        String sql = "UPDATE bills SET patient_id = ?, appointment_id = ?, total_amount = ?, " +
+                "payment_status = CASE WHEN paid_amount <= 0 THEN 'Pending' " +
+                "WHEN paid_amount >= total_amount THEN 'Paid' ELSE 'Partial' END, " +
+                "bill_date = ?, due_date = ?, services = ? WHERE bill_id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, bill.getPatientId());
+            if (bill.getAppointmentId() != null) {
+                pstmt.setInt(2, bill.getAppointmentId());
+            } else {
+                pstmt.setNull(2, Types.INTEGER);
+            }
+            pstmt.setBigDecimal(3, bill.getTotalAmount());
+            pstmt.setDate(4, Date.valueOf(bill.getBillDate()));
+            pstmt.setDate(5, bill.getDueDate() != null ? Date.valueOf(bill.getDueDate()) : null);
+            pstmt.setString(6, bill.getServices());
+            pstmt.setInt(7, bill.getBillId());
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "updateBill", "Error updating bill", e);
+            return false;
+        }
+    }
+
+    /**
+     * Delete bill
+     */
+    public boolean deleteBill(int billId) {
+        String sql = "DELETE FROM bills WHERE bill_id = ?";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, billId);
+            return pstmt.executeUpdate() > 0;
+
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "deleteBill", "Error deleting bill", e);
+            return false;
+        }
+    }
+
+    /**
+     * Bill every completed appointment in the date range that has no bill yet,
+     * priced at the doctor's consultation fee and due the given number of days
+     * from today. Runs as set-based INSERT ... SELECT statements, one per week
+     * of appointments. Safe to re-run: billed appointments are skipped, and the
+     * unique key on bills.appointment_id stops concurrent runs billing twice.
+     * Appointments whose doctor has no fee are left unbilled.
+     * @return number of bills created, or -1 on error
+     */
+    public int generateBillsForCompletedAppointments(LocalDate from, LocalDate to, int dueInDays) {
+        String sql = "INSERT IGNORE INTO bills (patient_id, appointment_id, total_amount, paid_amount, " +
+                "payment_status, bill_date, due_date, services) " +
+                "SELECT a.patient_id, a.appointment_id, d.consultation_fee, 0, 'Pending', " +
+                "CURRENT_DATE, CURRENT_DATE + INTERVAL ? DAY, " +
+                "CONCAT('Consultation - Dr. ', d.name, ' (', d.specialization, ') on ', a.appointment_date) " +
+                "FROM appointments a " +
+                "JOIN doctors d ON d.doctor_id = a.doctor_id " +
+                "LEFT JOIN bills b ON b.appointment_id = a.appointment_id " +
+                "WHERE a.status = 'Completed' AND a.appointment_date BETWEEN ? AND ? " +
+                "AND b.bill_id IS NULL AND d.consultation_fee IS NOT NULL";
+
+        long started = System.nanoTime();
+        int created = 0;
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            for (LocalDate start = from; !start.isAfter(to); start = start.plusDays(GENERATION_WINDOW_DAYS)) {
+                LocalDate end = start.plusDays(GENERATION_WINDOW_DAYS - 1);
+                pstmt.setInt(1, dueInDays);
+                pstmt.setDate(2, Date.valueOf(start));
+                pstmt.setDate(3, Date.valueOf(end.isAfter(to) ? to : end));
+                created += pstmt.executeUpdate();
+            }
+
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "generateBillsForCompletedAppointments",
+                    "Error generating bills after " + created + " created", e);
+            return -1;
+        }
+
+        AppLogger.info(getClass().getSimpleName(), "generateBillsForCompletedAppointments",
+                "Created {created} bill(s) for {from}..{to} in {millis} ms",
+                "created", created, "from", from, "to", to, "millis", (System.nanoTime() - started) / 1_000_000);
+        return created;
+    }
+
+    private void setBillParameters(PreparedStatement pstmt, Bill bill) throws SQLException {
+        pstmt.setInt(1, bill.getPatientId());
+        if (bill.getAppointmentId() != null) {
+            pstmt.setInt(2, bill.getAppointmentId());
+        } else {
+            pstmt.setNull(2, Types.INTEGER);
+        }
+        pstmt.setBigDecimal(3, bill.getTotalAmount());
+        pstmt.setBigDecimal(4, bill.getPaidAmount() != null ? bill.getPaidAmount() : BigDecimal.ZERO);
+        pstmt.setString(5, bill.getPaymentStatus() != null ? bill.getPaymentStatus()
+                : paymentStatusFor(bill.getTotalAmount(), bill.getPaidAmount()));
+        pstmt.setDate(6, Date.valueOf(bill.getBillDate()));
+        pstmt.setDate(7, bill.getDueDate() != null ? Date.valueOf(bill.getDueDate()) : null);
+        pstmt.setString(8, bill.getServices());
+    }
+
+    private Bill extractBillFromResultSet(ResultSet rs) throws SQLException {
+        Bill bill = new Bill();
+        bill.setBillId(rs.getInt("bill_id"));
+        bill.setPatientId(rs.getInt("patient_id"));
+        int appointmentId = rs.getInt("appointment_id");
+        bill.setAppointmentId(rs.wasNull() ? null : appointmentId);
+        bill.setTotalAmount(rs.getBigDecimal("total_amount"));
+        bill.setPaidAmount(rs.getBigDecimal("paid_amount"));
+        bill.setPaymentStatus(rs.getString("payment_status"));
+        bill.setBillDate(rs.getDate("bill_date").toLocalDate());
+        Date dueDate = rs.getDate("due_date");
+        bill.setDueDate(dueDate != null ? dueDate.toLocalDate() : null);
+        bill.setServices(rs.getString("services"));
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        bill.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+        Timestamp updatedAt = rs.getTimestamp("updated_at");
+        bill.setUpdatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null);
+        bill.setPatientName(rs.getString("patient_name"));
+        return bill;
+    }
+}
@@ -0,0 +1,37 @@
+package com.hospital.dao;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Rows changed and deleted since a watermark.
+ * Pass {@link #getWatermark()} to the next changes-since call to continue
+ * from where this one stopped.
+ */
+public class ChangeSet<T> {
+    private final List<T> changed;
+    private final List<Integer> deletedIds;
+    private final Timestamp watermark;
+    private final boolean fullReload;
+
+    public ChangeSet(List<T> changed, List<Integer> deletedIds, Timestamp watermark, boolean fullReload) {
+        this.changed = changed;
+        this.deletedIds = deletedIds;
+        this.watermark = watermark;
+        this.fullReload = fullReload;
+    }
+
+    /** Inserted or updated rows (every row when this is a full reload) */
+    public List<T> getChanged() { return changed; }
+
+    /** Ids of rows deleted since the previous watermark */
+    public List<Integer> getDeletedIds() { return deletedIds; }
+
+    /** Watermark to use for the next call */
+    public Timestamp getWatermark() { return watermark; }
+
+    /** True when the result is a complete snapshot rather than a delta */
+    public boolean isFullReload() { return fullReload; }
+
+    public boolean isEmpty() { return changed.isEmpty() && deletedIds.isEmpty(); }
+}
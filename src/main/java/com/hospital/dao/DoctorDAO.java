@@ -39,24 +39,56 @@ public class DoctorDAO {
     }
 
     /**
-     * Add a new doctor to the database
+     * Add a new doctor to the database; the generated id is set on the doctor
      */
     public boolean addDoctor(Doctor doctor) {
         String sql = "INSERT INTO doctors (name, specialization, phone, email, experience_years, " +
                 "qualification, consultation_fee, available_days, available_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
         try (Connection conn = DatabaseConnection.getConnection();
-                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             setDoctorParameter(pstmt, doctor);
             int result = pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    doctor.setDoctorId(keys.getInt(1));
+                }
+            }
             return result > 0;
 
         } catch (SQLException e) {
-            AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
+            AppLogger.error(getClass().getSimpleName(), "addDoctor", "Error occurred", e);
             return false;
         }
     }
 
+    /**
+     * Add many doctors with batched inserts, one transaction per chunk.
+     * Generated ids are set on the doctors that were inserted.
+     */
+    public BatchResult addDoctors(List<Doctor> doctors, int chunkSize) {
+        String sql = "INSERT INTO doctors (name, specialization, phone, email, experience_years, " +
+                "qualification, consultation_fee, available_days, available_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+        try {
+            BatchResult result = BatchWriter.insert(sql, doctors, chunkSize, this::setDoctorParameter);
+            int[] ids = result.getGeneratedIds();
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] != 0) {
+                    doctors.get(i).setDoctorId(ids[i]);
+                }
+            }
+            return result;
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "addDoctors", "Error adding doctors in batch", e);
+            return null;
+        }
+    }
+
+    public BatchResult addDoctors(List<Doctor> doctors) {
+        return addDoctors(doctors, BatchWriter.DEFAULT_CHUNK_SIZE);
+    }
+
     /**
      * Get all doctors from the database
      */
@@ -75,7 +107,7 @@ public class DoctorDAO {
             }
 
         } catch (SQLException e) {
-            AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
+            AppLogger.error(getClass().getSimpleName(), "getAllDoctors", "Error occurred", e);
         }
 
         return doctors;
@@ -100,7 +132,7 @@ public class DoctorDAO {
             }
 
         } catch (SQLException e) {
-            AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
+            AppLogger.error(getClass().getSimpleName(), "getDoctorById", "Error occurred", e);
         }
 
         return null;
@@ -121,16 +153,19 @@ public class DoctorDAO {
             pstmt.setInt(10, doctor.getDoctorId());
 
             int result = pstmt.executeUpdate();
+            // doctor names are embedded in cached appointment lists
+            AppointmentDAO.invalidateAllCached();
             return result > 0;
 
         } catch (SQLException e) {
-            AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
+            AppLogger.error(getClass().getSimpleName(), "updateDoctor", "Error occurred", e);
             return false;
         }
     }
 
     /**
-     * Delete doctor by ID
+     * Delete doctor by ID in one cascading statement. Doctors with a long
+     * history should be removed with {@link PurgeJob#forDoctor(int)} instead.
      */
     public boolean deleteDoctor(int doctorId) {
         String sql = "DELETE FROM doctors WHERE doctor_id = ?";
@@ -140,14 +175,53 @@ public class DoctorDAO {
 
             pstmt.setInt(1, doctorId);
             int result = pstmt.executeUpdate();
+            // cascades into appointments; the delete trigger unlinks their bills
+            AppointmentDAO.invalidateAllCached();
             return result > 0;
 
         } catch (SQLException e) {
-            AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
+            AppLogger.error(getClass().getSimpleName(), "deleteDoctor", "Error occurred", e);
             return false;
         }
     }
 
+    /**
+     * Get doctors changed since the watermark plus ids of deleted ones.
+     * A null watermark, or one older than the pruned tombstones, returns
+     * every doctor as a full reload.
+     */
+    public ChangeSet<Doctor> getDoctorChangesSince(Timestamp since) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            since = Tombstones.unlessPruned(conn, since);
+            String sql = since == null
+                    ? "SELECT * FROM doctors ORDER BY name"
+                    : "SELECT * FROM doctors WHERE updated_at >= ?";
+            Timestamp watermark = Tombstones.nextWatermark(conn);
+            List<Doctor> changed = new ArrayList<>();
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                if (since != null) {
+                    pstmt.setTimestamp(1, since);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        Doctor doctor = new Doctor();
+                        rowMappingHelper(rs, doctor);
+                        changed.add(doctor);
+                    }
+                }
+            }
+
+            List<Integer> deleted = since == null
+                    ? new ArrayList<>() : Tombstones.deletedSince(conn, "doctors", since);
+            return new ChangeSet<>(changed, deleted, watermark, since == null);
+
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "getDoctorChangesSince", "Error loading doctor changes", e);
+            return null;
+        }
+    }
+
     /**
      * Search doctors by name or specialization
      */
@@ -171,7 +245,7 @@ public class DoctorDAO {
             }
 
         } catch (SQLException e) {
-            AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
+            AppLogger.error(getClass().getSimpleName(), "searchDoctors", "Error occurred", e);
         }
 
         return doctors;
@@ -197,7 +271,7 @@ public class DoctorDAO {
             }
 
         } catch (SQLException e) {
-            AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
+            AppLogger.error(getClass().getSimpleName(), "getDoctorsBySpecialization", "Error occurred", e);
         }
 
         return doctors;
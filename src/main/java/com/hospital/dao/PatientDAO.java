@@ -114,16 +114,22 @@ public class PatientDAO {
     }
 
     /**
-     * Add a new patient
+     * Add a new patient; the generated id is set on the patient
      */
     public boolean addPatient(Patient patient) {
         String sql = "INSERT INTO patients (name, age, gender, phone, email, address, disease, " +
                     "blood_group, emergency_contact, admission_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             setPatientParameters(pstmt, patient);
-            return pstmt.executeUpdate() > 0;
+            boolean added = pstmt.executeUpdate() > 0;
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    patient.setPatientId(keys.getInt(1));
+                }
+            }
+            return added;
             
         } catch (SQLException e) {
             AppLogger.error("PatientDAO", "addPatient", "Error adding patient", e);
@@ -131,6 +137,32 @@ public class PatientDAO {
         }
     }
 
+    /**
+     * Add many patients with batched inserts, one transaction per chunk.
+     * Generated ids are set on the patients that were inserted.
+     */
+    public BatchResult addPatients(List<Patient> patients, int chunkSize) {
+        String sql = "INSERT INTO patients (name, age, gender, phone, email, address, disease, " +
+                    "blood_group, emergency_contact, admission_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try {
+            BatchResult result = BatchWriter.insert(sql, patients, chunkSize, this::setPatientParameters);
+            int[] ids = result.getGeneratedIds();
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] != 0) {
+                    patients.get(i).setPatientId(ids[i]);
+                }
+            }
+            return result;
+        } catch (SQLException e) {
+            AppLogger.error("PatientDAO", "addPatients", "Error adding patients in batch", e);
+            return null;
+        }
+    }
+
+    public BatchResult addPatients(List<Patient> patients) {
+        return addPatients(patients, BatchWriter.DEFAULT_CHUNK_SIZE);
+    }
+
     /**
      * Get patient by ID
      */
@@ -163,7 +195,10 @@ public class PatientDAO {
             
             setPatientParameters(pstmt, patient);
             pstmt.setInt(11, patient.getPatientId());
-            return pstmt.executeUpdate() > 0;
+            boolean updated = pstmt.executeUpdate() > 0;
+            // patient names are embedded in cached appointment lists
+            AppointmentDAO.invalidateAllCached();
+            return updated;
             
         } catch (SQLException e) {
             AppLogger.error("PatientDAO", "updatePatient", "Error updating patient", e);
@@ -172,7 +207,8 @@ public class PatientDAO {
     }
 
     /**
-     * Delete patient by ID
+     * Delete patient by ID in one cascading statement. Patients with a long
+     * history should be removed with {@link PurgeJob#forPatient(int)} instead.
      */
     public boolean deletePatient(int patientId) {
         String sql = "DELETE FROM patients WHERE patient_id = ?";
@@ -180,7 +216,10 @@ public class PatientDAO {
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, patientId);
-            return pstmt.executeUpdate() > 0;
+            boolean deleted = pstmt.executeUpdate() > 0;
+            // cascades into appointments
+            AppointmentDAO.invalidateAllCached();
+            return deleted;
             
         } catch (SQLException e) {
             AppLogger.error("PatientDAO", "deletePatient", "Error deleting patient", e);
@@ -188,6 +227,41 @@ public class PatientDAO {
         }
     }
 
+    /**
+     * Get patients changed since the watermark plus ids of deleted ones.
+     * A null watermark, or one older than the pruned tombstones, returns
+     * every patient as a full reload.
+     */
+    public ChangeSet<Patient> getPatientChangesSince(Timestamp since) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            since = Tombstones.unlessPruned(conn, since);
+            String sql = since == null
+                    ? "SELECT * FROM patients ORDER BY patient_id DESC"
+                    : "SELECT * FROM patients WHERE updated_at >= ?";
+            Timestamp watermark = Tombstones.nextWatermark(conn);
+            List<Patient> changed = new ArrayList<>();
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                if (since != null) {
+                    pstmt.setTimestamp(1, since);
+                }
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        changed.add(extractPatientFromResultSet(rs));
+                    }
+                }
+            }
+
+            List<Integer> deleted = since == null
+                    ? new ArrayList<>() : Tombstones.deletedSince(conn, "patients", since);
+            return new ChangeSet<>(changed, deleted, watermark, since == null);
+
+        } catch (SQLException e) {
+            AppLogger.error("PatientDAO", "getPatientChangesSince", "Error getting patient changes", e);
+            return null;
+        }
+    }
+
     /**
      * Search patients by name or phone
      */
@@ -0,0 +1,206 @@
+package com.hospital.dao;
+
+import com.hospital.model.Payment;
+import com.hospital.util.AppLogger;
+import com.hospital.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Data Access Object for the append-only payments ledger.
+ *
+ * Payments are only ever inserted; corrections are posted as negative
+ * amounts. bills.paid_amount and payment_status are derived from the ledger
+ * by {@link #reconcile()}, so bulk posting never takes bill row locks.
+ */
+public class PaymentDAO {
+
+    private static final String RECONCILE_JOB = "payment_reconcile";
+
+    /** References looked up per duplicate check query */
+    private static final int REFERENCE_LOOKUP_SIZE = 500;
+
+    private static final String INSERT_PAYMENT =
+            "INSERT INTO payments (bill_id, amount_minor, method, reference) VALUES (?, ?, ?, ?)";
+
+    /**
+     * Recompute paid_amount and payment_status of every bill with a payment
+     * posted since the watermark from the full ledger of that bill. Summing
+     * everything rather than applying deltas makes a re-run harmless.
+     */
+    private static final String RECONCILE_BILLS =
+            "UPDATE bills b JOIN (" +
+            "SELECT p.bill_id, SUM(p.amount_minor) AS paid_minor FROM payments p " +
+            "JOIN (SELECT DISTINCT bill_id FROM payments WHERE posted_at >= ?) touched " +
+            "ON touched.bill_id = p.bill_id GROUP BY p.bill_id) t ON t.bill_id = b.bill_id " +
+            "SET b.paid_amount = t.paid_minor / 100, " +
+            "b.payment_status = CASE WHEN t.paid_minor <= 0 THEN 'Pending' " +
+            "WHEN t.paid_minor >= b.total_amount * 100 THEN 'Paid' ELSE 'Partial' END";
+
+    /**
+     * Post payments in chunked batches. Posting is idempotent on the
+     * reference: references already in the ledger, or repeated within the
+     * list, are skipped rather than reported as failures, so a cashier file
+     * can safely be posted twice. Generated ids are set on the posted payments.
+     * Call {@link #reconcile()} afterwards to bring the bills up to date.
+     * @return outcome of the posting, or null on error
+     */
+    public PostingResult postPayments(List<Payment> payments, int chunkSize) {
+        try {
+            Set<String> alreadyPosted = findPostedReferences(payments);
+            Set<String> seen = new HashSet<>();
+            List<Payment> fresh = new ArrayList<>(payments.size());
+            List<Integer> freshIndexes = new ArrayList<>(payments.size());
+
+            for (int i = 0; i < payments.size(); i++) {
+                String reference = payments.get(i).getReference();
+                if (!alreadyPosted.contains(reference) && seen.add(reference)) {
+                    fresh.add(payments.get(i));
+                    freshIndexes.add(i);
+                }
+            }
+
+            BatchResult result = BatchWriter.insert(INSERT_PAYMENT, fresh, chunkSize, (pstmt, p) -> {
+                pstmt.setInt(1, p.getBillId());
+                pstmt.setLong(2, p.getAmountMinor());
+                pstmt.setString(3, p.getMethod());
+                pstmt.setString(4, p.getReference());
+            });
+
+            int[] ids = result.getGeneratedIds();
+            for (int i = 0; i < ids.length; i++) {
+                fresh.get(i).setPaymentId(ids[i]);
+            }
+            List<BatchResult.RowFailure> failures = new ArrayList<>();
+            for (BatchResult.RowFailure failure : result.getFailures()) {
+                failures.add(new BatchResult.RowFailure(freshIndexes.get(failure.getIndex()), failure.getMessage()));
+            }
+            return new PostingResult(result.getSuccessCount(), payments.size() - fresh.size(), failures);
+
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "postPayments", "Error occurred", e);
+            return null;
+        }
+    }
+
+    /**
+     * Post a single payment
+     */
+    public boolean postPayment(Payment payment) {
+        PostingResult result = postPayments(Collections.singletonList(payment), 1);
+        return result != null && !result.hasFailures();
+    }
+
+    /**
+     * Bring paid_amount and payment_status up to date for every bill with
+     * payments posted since the last run, in one set-based statement.
+     * @return number of bills whose amounts changed, or -1 on error
+     */
+    public int reconcile() {
+        long started = System.nanoTime();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                Timestamp since = readWatermark(conn);
+                Timestamp next = Tombstones.nextWatermark(conn);
+
+                int updated;
+                try (PreparedStatement pstmt = conn.prepareStatement(RECONCILE_BILLS)) {
+                    pstmt.setTimestamp(1, since != null ? since : new Timestamp(0));
+                    updated = pstmt.executeUpdate();
+                }
+                writeWatermark(conn, next);
+                conn.commit();
+
+                if (updated > 0) {
+                    AppLogger.info(getClass().getSimpleName(), "reconcile", "Reconciled {count} bill(s) in {millis} ms",
+                            "count", updated, "millis", (System.nanoTime() - started) / 1_000_000);
+                }
+                return updated;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "reconcile", "Error occurred", e);
+            return -1;
+        }
+    }
+
+    /**
+     * Ledger entries of a bill, oldest first
+     */
+    public List<Payment> getPaymentsByBill(int billId) {
+        List<Payment> payments = new ArrayList<>();
+        String sql = "SELECT * FROM payments WHERE bill_id = ? ORDER BY payment_id";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setInt(1, billId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Payment payment = new Payment(rs.getInt("bill_id"), rs.getLong("amount_minor"),
+                            rs.getString("method"), rs.getString("reference"));
+                    payment.setPaymentId(rs.getLong("payment_id"));
+                    Timestamp postedAt = rs.getTimestamp("posted_at");
+                    payment.setPostedAt(postedAt != null ? postedAt.toLocalDateTime() : null);
+                    payments.add(payment);
+                }
+            }
+
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "getPaymentsByBill", "Error occurred", e);
+        }
+        return payments;
+    }
+
+    private Set<String> findPostedReferences(List<Payment> payments) throws SQLException {
+        Set<String> posted = new HashSet<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (int start = 0; start < payments.size(); start += REFERENCE_LOOKUP_SIZE) {
+                List<Payment> chunk = payments.subList(start, Math.min(start + REFERENCE_LOOKUP_SIZE, payments.size()));
+                String sql = "SELECT reference FROM payments WHERE reference IN ("
+                        + String.join(",", Collections.nCopies(chunk.size(), "?")) + ")";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setString(i + 1, chunk.get(i).getReference());
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            posted.add(rs.getString(1));
+                        }
+                    }
+                }
+            }
+        }
+        return posted;
+    }
+
+    private static Timestamp readWatermark(Connection conn) throws SQLException {
+        String sql = "SELECT watermark FROM job_watermarks WHERE job_name = ? FOR UPDATE";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, RECONCILE_JOB);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getTimestamp(1) : null;
+            }
+        }
+    }
+
+    private static void writeWatermark(Connection conn, Timestamp watermark) throws SQLException {
+        String sql = "INSERT INTO job_watermarks (job_name, watermark) VALUES (?, ?) " +
+                "ON DUPLICATE KEY UPDATE watermark = VALUES(watermark)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, RECONCILE_JOB);
+            pstmt.setTimestamp(2, watermark);
+            pstmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.hospital.dao;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of posting a batch of payments to the ledger
+ */
+public class PostingResult {
+    private final int posted;
+    private final int duplicates;
+    private final List<BatchResult.RowFailure> failures;
+
+    public PostingResult(int posted, int duplicates, List<BatchResult.RowFailure> failures) {
+        this.posted = posted;
+        this.duplicates = duplicates;
+        this.failures = failures;
+    }
+
+    /** Payments written to the ledger */
+    public int getPosted() { return posted; }
+
+    /** Payments skipped because their reference was already posted */
+    public int getDuplicates() { return duplicates; }
+
+    /** Payments the database refused, e.g. an unknown bill; indexes refer to the input list */
+    public List<BatchResult.RowFailure> getFailures() { return Collections.unmodifiableList(failures); }
+
+    public boolean hasFailures() { return !failures.isEmpty(); }
+
+    @Override
+    public String toString() {
+        return posted + " posted, " + duplicates + " duplicate(s), " + failures.size() + " failed";
+    }
+}
@@ -0,0 +1,267 @@
+package com.hospital.dao;
+
+import com.hospital.util.AppLogger;
+import com.hospital.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes a patient or doctor and everything that depends on it in small
+ * chunks instead of one cascading DELETE.
+ *
+ * Each chunk is a single DELETE by primary key and commits on its own, so
+ * row locks are held only for the duration of one chunk. The chunk size
+ * adapts to keep every chunk under a time cap, and the job pauses between
+ * chunks so booking desk writes get through. Every chunk is idempotent:
+ * a cancelled or failed purge is resumed by running it again.
+ */
+public class PurgeJob {
+
+    public enum Outcome { COMPLETED, CANCELLED, FAILED }
+
+    /**
+     * Receives the running total of deleted rows after every chunk
+     */
+    public interface ProgressListener {
+        void onProgress(String table, long deletedInTable, long deletedTotal);
+    }
+
+    private static final int MIN_CHUNK_SIZE = 10;
+    private static final int MAX_CHUNK_SIZE = 5000;
+
+    /**
+     * One dependent table: ids are selected with a plain (non-locking) read
+     * and deleted by primary key, re-checking the owner in the DELETE. A
+     * step may UPDATE instead, to detach rows that are kept.
+     */
+    private static class Step {
+        final String table;
+        final String selectIds;
+        final String delete;
+
+        Step(String table, String selectIds, String delete) {
+            this.table = table;
+            this.selectIds = selectIds;
+            this.delete = delete;
+        }
+    }
+
+    private final String description;
+    private final int ownerId;
+    private final List<Step> steps;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    /** Written by the purge thread, read from any thread; guarded by itself */
+    private final Map<String, Long> deleted = new LinkedHashMap<>();
+    private final AtomicLong deletedTotal = new AtomicLong();
+
+    private int chunkSize = 200;
+    private long maxChunkMillis = Long.getLong("hospital.purge.maxChunkMillis", 250L);
+    private long pauseMillis = 50;
+    private ProgressListener progressListener;
+
+    private PurgeJob(String description, int ownerId, List<Step> steps) {
+        this.description = description;
+        this.ownerId = ownerId;
+        this.steps = steps;
+    }
+
+    /**
+     * Purge a patient: payments of their bills, bills, appointments (hot and
+     * archived), then the patient
+     */
+    public static PurgeJob forPatient(int patientId) {
+        List<Step> steps = new ArrayList<>();
+        steps.add(new Step("payments",
+                "SELECT p.payment_id FROM payments p JOIN bills b ON b.bill_id = p.bill_id " +
+                "WHERE b.patient_id = ? ORDER BY p.payment_id LIMIT ?",
+                "DELETE p FROM payments p JOIN bills b ON b.bill_id = p.bill_id " +
+                "WHERE b.patient_id = ? AND p.payment_id IN (%s)"));
+        steps.add(new Step("bills",
+                "SELECT bill_id FROM bills WHERE patient_id = ? ORDER BY bill_id LIMIT ?",
+                "DELETE FROM bills WHERE patient_id = ? AND bill_id IN (%s)"));
+        steps.add(new Step("appointments",
+                "SELECT appointment_id FROM appointments WHERE patient_id = ? ORDER BY appointment_id LIMIT ?",
+                "DELETE FROM appointments WHERE patient_id = ? AND appointment_id IN (%s)"));
+        steps.add(new Step("appointments_archive",
+                "SELECT appointment_id FROM appointments_archive WHERE patient_id = ? ORDER BY appointment_id LIMIT ?",
+                "DELETE FROM appointments_archive WHERE patient_id = ? AND appointment_id IN (%s)"));
+        steps.add(new Step("patients",
+                "SELECT patient_id FROM patients WHERE patient_id = ? LIMIT ?",
+                "DELETE FROM patients WHERE patient_id = ? AND patient_id IN (%s)"));
+        return new PurgeJob("patient " + patientId, patientId, steps);
+    }
+
+    /**
+     * Purge a doctor: their appointments (hot and archived), then the doctor.
+     * Bills of those appointments belong to the patients and are kept, with
+     * appointment_id cleared first so they do not point at deleted rows.
+     */
+    public static PurgeJob forDoctor(int doctorId) {
+        List<Step> steps = new ArrayList<>();
+        steps.add(new Step("bills detached",
+                "SELECT b.bill_id FROM bills b JOIN appointments a ON a.appointment_id = b.appointment_id " +
+                "WHERE a.doctor_id = ? ORDER BY b.bill_id LIMIT ?",
+                "UPDATE bills b JOIN appointments a ON a.appointment_id = b.appointment_id " +
+                "SET b.appointment_id = NULL WHERE a.doctor_id = ? AND b.bill_id IN (%s)"));
+        steps.add(new Step("archived bills detached",
+                "SELECT b.bill_id FROM bills b JOIN appointments_archive a ON a.appointment_id = b.appointment_id " +
+                "WHERE a.doctor_id = ? ORDER BY b.bill_id LIMIT ?",
+                "UPDATE bills b JOIN appointments_archive a ON a.appointment_id = b.appointment_id " +
+                "SET b.appointment_id = NULL WHERE a.doctor_id = ? AND b.bill_id IN (%s)"));
+        steps.add(new Step("appointments",
+                "SELECT appointment_id FROM appointments WHERE doctor_id = ? ORDER BY appointment_id LIMIT ?",
+                "DELETE FROM appointments WHERE doctor_id = ? AND appointment_id IN (%s)"));
+        steps.add(new Step("appointments_archive",
+                "SELECT appointment_id FROM appointments_archive WHERE doctor_id = ? ORDER BY appointment_id LIMIT ?",
+                "DELETE FROM appointments_archive WHERE doctor_id = ? AND appointment_id IN (%s)"));
+        steps.add(new Step("doctors",
+                "SELECT doctor_id FROM doctors WHERE doctor_id = ? LIMIT ?",
+                "DELETE FROM doctors WHERE doctor_id = ? AND doctor_id IN (%s)"));
+        return new PurgeJob("doctor " + doctorId, doctorId, steps);
+    }
+
+    /** Rows per chunk to start with; adapted while running */
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(MIN_CHUNK_SIZE, Math.min(MAX_CHUNK_SIZE, chunkSize));
+    }
+
+    /** Upper bound for the time one chunk may hold its locks */
+    public void setMaxChunkMillis(long maxChunkMillis) { this.maxChunkMillis = maxChunkMillis; }
+
+    /** Minimum pause between chunks */
+    public void setPauseMillis(long pauseMillis) { this.pauseMillis = pauseMillis; }
+
+    public void setProgressListener(ProgressListener progressListener) { this.progressListener = progressListener; }
+
+    /** Stop after the current chunk; safe to call from any thread */
+    public void cancel() { cancelled.set(true); }
+
+    public boolean isCancelled() { return cancelled.get(); }
+
+    /** Snapshot of the rows deleted (or detached) so far per step; safe to call from any thread */
+    public Map<String, Long> getDeletedCounts() {
+        synchronized (deleted) {
+            return new LinkedHashMap<>(deleted);
+        }
+    }
+
+    public long getDeletedTotal() { return deletedTotal.get(); }
+
+    /**
+     * Run the purge on the calling thread
+     */
+    public Outcome run() {
+        long started = System.nanoTime();
+        try {
+            for (Step step : steps) {
+                if (!drain(step)) {
+                    AppLogger.info("PurgeJob", "run", "Purge of {purge} cancelled after {count} row(s)",
+                            "purge", description, "count", getDeletedTotal());
+                    return Outcome.CANCELLED;
+                }
+            }
+        } catch (SQLException e) {
+            AppLogger.error("PurgeJob", "run", "Purge of {purge} failed after {count} row(s); run it again to resume",
+                    e, "purge", description, "count", getDeletedTotal());
+            return Outcome.FAILED;
+        } finally {
+            AppointmentDAO.invalidateAllCached();
+        }
+
+        AppLogger.info("PurgeJob", "run", "Purged {purge}: {counts} in {millis} ms",
+                "purge", description, "counts", getDeletedCounts(),
+                "millis", (System.nanoTime() - started) / 1_000_000);
+        return Outcome.COMPLETED;
+    }
+
+    /**
+     * Delete every row of one step
+     * @return false if cancelled
+     */
+    private boolean drain(Step step) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            while (true) {
+                if (cancelled.get()) {
+                    return false;
+                }
+                List<Long> ids = selectIds(conn, step);
+                if (ids.isEmpty()) {
+                    return true;
+                }
+
+                long chunkStart = System.nanoTime();
+                int count = deleteChunk(conn, step, ids);
+                long chunkMillis = (System.nanoTime() - chunkStart) / 1_000_000;
+
+                long tableTotal;
+                synchronized (deleted) {
+                    tableTotal = deleted.merge(step.table, (long) count, Long::sum);
+                }
+                long total = deletedTotal.addAndGet(count);
+                if (progressListener != null) {
+                    progressListener.onProgress(step.table, tableTotal, total);
+                }
+
+                adaptChunkSize(chunkMillis);
+                pause(chunkMillis);
+            }
+        }
+    }
+
+    private List<Long> selectIds(Connection conn, Step step) throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(step.selectIds)) {
+            pstmt.setInt(1, ownerId);
+            pstmt.setInt(2, chunkSize);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getLong(1));
+                }
+            }
+        }
+        return ids;
+    }
+
+    private int deleteChunk(Connection conn, Step step, List<Long> ids) throws SQLException {
+        String sql = String.format(step.delete, String.join(",", Collections.nCopies(ids.size(), "?")));
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, ownerId);
+            for (int i = 0; i < ids.size(); i++) {
+                pstmt.setLong(i + 2, ids.get(i));
+            }
+            return pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Halve the chunk when it ran over the cap, grow it by a quarter when
+     * it finished well inside
+     */
+    private void adaptChunkSize(long chunkMillis) {
+        if (chunkMillis > maxChunkMillis) {
+            chunkSize = Math.max(MIN_CHUNK_SIZE, chunkSize / 2);
+        } else if (chunkMillis < maxChunkMillis / 2) {
+            chunkSize = Math.min(MAX_CHUNK_SIZE, chunkSize + chunkSize / 4);
+        }
+    }
+
+    /**
+     * Sleep at least as long as the chunk held its locks, so the purge never
+     * takes more than half of the time on contended rows
+     */
+    private void pause(long chunkMillis) {
+        try {
+            Thread.sleep(Math.max(pauseMillis, chunkMillis));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.hospital.dao;
+
+import com.hospital.report.BillingRow;
+import com.hospital.report.TrendRow;
+import com.hospital.report.VolumeRow;
+import com.hospital.util.AppLogger;
+import com.hospital.util.DatabaseConnection;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Data Access Object for aggregated reports. Reads the daily rollup tables
+ * maintained by {@link RollupDAO}, so a range costs one row per day and
+ * group instead of one row per appointment or bill.
+ */
+public class ReportDAO {
+
+    /**
+     * Appointment counts per doctor and status in a date range, with
+     * consultation revenue for completed appointments
+     * @return one row per doctor with appointments in the range, or null on error
+     */
+    public List<VolumeRow> getDoctorVolumes(LocalDate from, LocalDate to) {
+        String sql = "SELECT r.doctor_id, d.name, r.specialization, r.status, " +
+                "SUM(r.appointment_count) AS appointment_count, SUM(r.fee_total) AS fee_total " +
+                "FROM appointment_daily_rollup r " +
+                "JOIN doctors d ON d.doctor_id = r.doctor_id " +
+                "WHERE r.rollup_date BETWEEN ? AND ? " +
+                "GROUP BY r.doctor_id, d.name, r.specialization, r.status " +
+                "ORDER BY d.name";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setDate(1, Date.valueOf(from));
+            pstmt.setDate(2, Date.valueOf(to));
+
+            Map<Integer, VolumeRow> byDoctor = new LinkedHashMap<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int doctorId = rs.getInt("doctor_id");
+                    VolumeRow row = byDoctor.get(doctorId);
+                    if (row == null) {
+                        row = new VolumeRow(doctorId, rs.getString("name"), rs.getString("specialization"));
+                        byDoctor.put(doctorId, row);
+                    }
+                    String status = rs.getString("status");
+                    BigDecimal revenue = "Completed".equals(status) ? rs.getBigDecimal("fee_total") : null;
+                    row.addCount(status, rs.getInt("appointment_count"), revenue);
+                }
+            }
+            return new ArrayList<>(byDoctor.values());
+
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "getDoctorVolumes", "Error occurred", e);
+            return null;
+        }
+    }
+
+    /**
+     * Bill counts and amounts per payment status for bills dated in the range
+     * @return one row per payment status present, or null on error
+     */
+    public List<BillingRow> getBillingSummary(LocalDate from, LocalDate to) {
+        String sql = "SELECT payment_status, SUM(bill_count) AS bill_count, " +
+                "SUM(total_amount) AS total_amount, SUM(paid_amount) AS paid_amount " +
+                "FROM bill_daily_rollup WHERE rollup_date BETWEEN ? AND ? " +
+                "GROUP BY payment_status ORDER BY payment_status";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement(sql)) {
+
+            pstmt.setDate(1, Date.valueOf(from));
+            pstmt.setDate(2, Date.valueOf(to));
+
+            List<BillingRow> rows = new ArrayList<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new BillingRow(rs.getString("payment_status"), rs.getInt("bill_count"),
+                            rs.getBigDecimal("total_amount"), rs.getBigDecimal("paid_amount")));
+                }
+            }
+            return rows;
+
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "getBillingSummary", "Error occurred", e);
+            return null;
+        }
+    }
+
+    /**
+     * Appointment volume and billing per calendar month in the range
+     * @return months in order, only those with activity, or null on error
+     */
+    public List<TrendRow> getMonthlyTrend(LocalDate from, LocalDate to) {
+        String appointmentSql = "SELECT YEAR(rollup_date) AS y, MONTH(rollup_date) AS m, status, " +
+                "SUM(appointment_count) AS appointment_count, SUM(fee_total) AS fee_total " +
+                "FROM appointment_daily_rollup WHERE rollup_date BETWEEN ? AND ? " +
+                "GROUP BY y, m, status";
+        String billSql = "SELECT YEAR(rollup_date) AS y, MONTH(rollup_date) AS m, " +
+                "SUM(total_amount) AS total_amount, SUM(paid_amount) AS paid_amount " +
+                "FROM bill_daily_rollup WHERE rollup_date BETWEEN ? AND ? " +
+                "GROUP BY y, m";
+
+        Map<YearMonth, TrendRow> months = new TreeMap<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+
+            try (PreparedStatement pstmt = conn.prepareStatement(appointmentSql)) {
+                pstmt.setDate(1, Date.valueOf(from));
+                pstmt.setDate(2, Date.valueOf(to));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        String status = rs.getString("status");
+                        BigDecimal revenue = "Completed".equals(status) ? rs.getBigDecimal("fee_total") : null;
+                        months.computeIfAbsent(YearMonth.of(rs.getInt("y"), rs.getInt("m")), TrendRow::new)
+                                .getVolume().addCount(status, rs.getInt("appointment_count"), revenue);
+                    }
+                }
+            }
+
+            try (PreparedStatement pstmt = conn.prepareStatement(billSql)) {
+                pstmt.setDate(1, Date.valueOf(from));
+                pstmt.setDate(2, Date.valueOf(to));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        months.computeIfAbsent(YearMonth.of(rs.getInt("y"), rs.getInt("m")), TrendRow::new)
+                                .addBilling(rs.getBigDecimal("total_amount"), rs.getBigDecimal("paid_amount"));
+                    }
+                }
+            }
+            return new ArrayList<>(months.values());
+
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "getMonthlyTrend", "Error occurred", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.hospital.dao;
+
+import com.hospital.util.AppLogger;
+import com.hospital.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Maintains the daily rollup tables read by reports.
+ *
+ * Write triggers queue each touched day in rollup_dirty_days (see the
+ * daily rollups migration in database/migrations). Catching up recomputes
+ * only those days, so the cost follows the amount of change rather than
+ * the size of the history.
+ */
+public class RollupDAO {
+
+    /** Days recomputed per transaction */
+    private static final int DAYS_PER_TRANSACTION = 31;
+
+    /** Only one catch-up per process at a time; a second caller waits and then finds little left */
+    private static final Object CATCH_UP_LOCK = new Object();
+
+    private static final String APPOINTMENTS = "appointments";
+    private static final String BILLS = "bills";
+
+    /** Days may hold both hot and archived appointments, so both tables are read */
+    private static final String RECOMPUTE_APPOINTMENTS =
+            "INSERT INTO appointment_daily_rollup " +
+            "(rollup_date, doctor_id, specialization, status, appointment_count, fee_total) " +
+            "SELECT a.appointment_date, a.doctor_id, d.specialization, a.status, COUNT(*), " +
+            "COUNT(*) * COALESCE(d.consultation_fee, 0) " +
+            "FROM (SELECT appointment_date, doctor_id, status FROM appointments WHERE appointment_date IN (%1$s) " +
+            "UNION ALL SELECT appointment_date, doctor_id, status FROM appointments_archive " +
+            "WHERE appointment_date IN (%1$s)) a " +
+            "JOIN doctors d ON d.doctor_id = a.doctor_id " +
+            "GROUP BY a.appointment_date, a.doctor_id, d.specialization, a.status, d.consultation_fee";
+
+    private static final String RECOMPUTE_BILLS =
+            "INSERT INTO bill_daily_rollup " +
+            "(rollup_date, payment_status, bill_count, total_amount, paid_amount) " +
+            "SELECT bill_date, payment_status, COUNT(*), SUM(total_amount), COALESCE(SUM(paid_amount), 0) " +
+            "FROM bills WHERE bill_date IN (%s) " +
+            "GROUP BY bill_date, payment_status";
+
+    /**
+     * Recompute every queued day of both rollups
+     * @return number of days recomputed, or -1 on error
+     */
+    public int catchUp() {
+        synchronized (CATCH_UP_LOCK) {
+            return catchUpLocked();
+        }
+    }
+
+    private int catchUpLocked() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int days = drain(conn, APPOINTMENTS, "appointment_daily_rollup", RECOMPUTE_APPOINTMENTS);
+            days += drain(conn, BILLS, "bill_daily_rollup", RECOMPUTE_BILLS);
+            if (days > 0) {
+                AppLogger.info(getClass().getSimpleName(), "catchUp", "Recomputed {days} rollup day(s)", "days", days);
+            }
+            return days;
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "catchUp", "Error occurred", e);
+            return -1;
+        }
+    }
+
+    /**
+     * Queue every day present in the source tables, e.g. after restoring a backup.
+     * The next catch-up rebuilds the rollups from scratch.
+     */
+    public boolean markAllDirty() {
+        String sql = "INSERT IGNORE INTO rollup_dirty_days " +
+                "SELECT DISTINCT 'appointments', appointment_date FROM appointments " +
+                "UNION ALL SELECT DISTINCT 'appointments', appointment_date FROM appointments_archive " +
+                "UNION ALL SELECT DISTINCT 'bills', bill_date FROM bills";
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+            return true;
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "markAllDirty", "Error occurred", e);
+            return false;
+        }
+    }
+
+    /**
+     * Number of days waiting to be recomputed
+     */
+    public int getPendingDayCount() {
+        try (Connection conn = DatabaseConnection.getConnection();
+                Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM rollup_dirty_days")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "getPendingDayCount", "Error occurred", e);
+            return 0;
+        }
+    }
+
+    private int drain(Connection conn, String rollupName, String rollupTable, String recomputeSql) throws SQLException {
+        int total = 0;
+        List<Date> days;
+        while (!(days = pendingDays(conn, rollupName)).isEmpty()) {
+            recompute(conn, rollupName, rollupTable, recomputeSql, days);
+            total += days.size();
+        }
+        return total;
+    }
+
+    private List<Date> pendingDays(Connection conn, String rollupName) throws SQLException {
+        String sql = "SELECT rollup_date FROM rollup_dirty_days WHERE rollup_name = ? ORDER BY rollup_date LIMIT ?";
+        List<Date> days = new ArrayList<>();
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, rollupName);
+            pstmt.setInt(2, DAYS_PER_TRANSACTION);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    days.add(rs.getDate(1));
+                }
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Replace the rollup rows of the given days in one transaction. The queue
+     * entries are removed first: a write racing with us blocks on them until it
+     * commits, and any write after that queues the day again.
+     */
+    private void recompute(Connection conn, String rollupName, String rollupTable,
+                           String recomputeSql, List<Date> days) throws SQLException {
+        String placeholders = String.join(",", Collections.nCopies(days.size(), "?"));
+
+        conn.setAutoCommit(false);
+        try (PreparedStatement dequeue = conn.prepareStatement(
+                    "DELETE FROM rollup_dirty_days WHERE rollup_name = ? AND rollup_date IN (" + placeholders + ")");
+                PreparedStatement clear = conn.prepareStatement(
+                    "DELETE FROM " + rollupTable + " WHERE rollup_date IN (" + placeholders + ")");
+                PreparedStatement insert = conn.prepareStatement(String.format(recomputeSql, placeholders))) {
+
+            dequeue.setString(1, rollupName);
+            bindDays(dequeue, 2, days);
+            dequeue.executeUpdate();
+
+            bindDays(clear, 1, days);
+            clear.executeUpdate();
+
+            int index = 1;
+            for (int i = 0; i < placeholderSets(recomputeSql); i++) {
+                index = bindDays(insert, index, days);
+            }
+            insert.executeUpdate();
+
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static int bindDays(PreparedStatement pstmt, int index, List<Date> days) throws SQLException {
+        for (Date day : days) {
+            pstmt.setDate(index++, day);
+        }
+        return index;
+    }
+
+    /**
+     * Number of day lists a recompute statement takes; "%1$s" marks a
+     * list that is repeated
+     */
+    private static int placeholderSets(String recomputeSql) {
+        return recomputeSql.split("%(1\\$)?s", -1).length - 1;
+    }
+}
@@ -0,0 +1,134 @@
+package com.hospital.dao;
+
+import com.hospital.util.AppLogger;
+import com.hospital.util.DatabaseConnection;
+
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Closes out appointments that are still Scheduled after their slot has
+ * passed, so they stop blocking availability and skewing reports.
+ *
+ * An appointment with a bill was evidently seen and becomes Completed;
+ * every other one becomes No Show. Rows are transitioned in chunks of
+ * primary keys, two set-based UPDATEs per chunk in one short transaction.
+ */
+public class StatusTransitionDAO {
+
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+
+    /** Slots are left open this long before they count as past due */
+    private static final int GRACE_MINUTES = Integer.getInteger("hospital.statusJob.graceMinutes", 60);
+
+    private static volatile TransitionStats lastRun;
+
+    private static final String SELECT_PAST_DUE =
+            "SELECT appointment_id FROM appointments WHERE status = 'Scheduled' " +
+            "AND (appointment_date < ? OR (appointment_date = ? AND appointment_time < ?)) " +
+            "ORDER BY appointment_id LIMIT ? FOR UPDATE";
+
+    private static final String MARK_COMPLETED =
+            "UPDATE appointments a SET a.status = 'Completed' WHERE a.status = 'Scheduled' " +
+            "AND EXISTS (SELECT 1 FROM bills b WHERE b.appointment_id = a.appointment_id) " +
+            "AND a.appointment_id IN (%s)";
+
+    private static final String MARK_NO_SHOW =
+            "UPDATE appointments SET status = 'No Show' WHERE status = 'Scheduled' AND appointment_id IN (%s)";
+
+    /**
+     * Metrics of the most recent run in this process, or null
+     */
+    public static TransitionStats getLastRun() {
+        return lastRun;
+    }
+
+    /**
+     * Transition every appointment whose slot ended more than the grace
+     * period ago
+     * @param changedIds receives the ids of each committed chunk, e.g. to refresh views
+     * @return metrics of the run; check {@link TransitionStats#isFailed()}
+     */
+    public TransitionStats transitionPastDue(int chunkSize, Consumer<List<Integer>> changedIds) {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(GRACE_MINUTES);
+        TransitionStats stats = new TransitionStats(LocalDateTime.now(), cutoff);
+        long started = System.nanoTime();
+        boolean failed = false;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            List<Integer> ids;
+            do {
+                ids = transitionChunk(conn, cutoff, chunkSize, stats);
+                if (!ids.isEmpty()) {
+                    changedIds.accept(ids);
+                }
+            } while (ids.size() == chunkSize);
+
+        } catch (SQLException e) {
+            failed = true;
+            AppLogger.error(getClass().getSimpleName(), "transitionPastDue",
+                    "Error after " + stats.getTotal() + " transitioned", e);
+        } finally {
+            if (stats.getTotal() > 0) {
+                AppointmentDAO.invalidateAllCached();
+            }
+        }
+
+        stats.finish((System.nanoTime() - started) / 1_000_000, failed);
+        lastRun = stats;
+        if (!failed) {
+            AppLogger.info(getClass().getSimpleName(), "transitionPastDue",
+                    "Past-due appointments before " + cutoff + ": " + stats);
+        }
+        return stats;
+    }
+
+    private List<Integer> transitionChunk(Connection conn, LocalDateTime cutoff, int chunkSize,
+                                          TransitionStats stats) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            List<Integer> ids = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(SELECT_PAST_DUE)) {
+                pstmt.setDate(1, Date.valueOf(cutoff.toLocalDate()));
+                pstmt.setDate(2, Date.valueOf(cutoff.toLocalDate()));
+                pstmt.setTime(3, Time.valueOf(cutoff.toLocalTime()));
+                pstmt.setInt(4, chunkSize);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        ids.add(rs.getInt(1));
+                    }
+                }
+            }
+            if (ids.isEmpty()) {
+                conn.commit();
+                return ids;
+            }
+
+            String placeholders = String.join(",", Collections.nCopies(ids.size(), "?"));
+            int completed = update(conn, String.format(MARK_COMPLETED, placeholders), ids);
+            int noShow = update(conn, String.format(MARK_NO_SHOW, placeholders), ids);
+            conn.commit();
+            stats.addChunk(noShow, completed);
+            return ids;
+
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private static int update(Connection conn, String sql, List<Integer> ids) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < ids.size(); i++) {
+                pstmt.setInt(i + 1, ids.get(i));
+            }
+            return pstmt.executeUpdate();
+        }
+    }
+}
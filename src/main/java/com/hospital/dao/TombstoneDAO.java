@@ -0,0 +1,80 @@
+package com.hospital.dao;
+
+import com.hospital.util.AppLogger;
+import com.hospital.util.DatabaseConnection;
+
+import java.sql.*;
+
+/**
+ * Prunes the tombstones in deleted_rows, which would otherwise grow forever.
+ *
+ * A watermark counts as in use for hospital.tombstones.retentionHours
+ * (default 24) after it was taken; tombstones older than the oldest such
+ * watermark are deleted in chunks. The horizon is recorded in
+ * job_watermarks before anything is deleted, and a changes-since call with
+ * an older watermark gets a full reload instead of a delta, so a view left
+ * open longer than that never misses a delete.
+ */
+public class TombstoneDAO {
+
+    private static final int RETENTION_HOURS = Integer.getInteger("hospital.tombstones.retentionHours", 24);
+
+    /** Tombstones deleted per statement, keeping each delete's locks short */
+    private static final int CHUNK_SIZE = 5_000;
+
+    private static final String[] TABLES = {"appointments", "patients", "doctors"};
+
+    /**
+     * Delete tombstones older than the retention period
+     * @return number of tombstones deleted, or -1 on error
+     */
+    public int pruneExpired() {
+        String sql = "DELETE FROM deleted_rows WHERE table_name = ? AND deleted_at < ? LIMIT " + CHUNK_SIZE;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            Timestamp horizon = advanceHorizon(conn);
+            int deleted = 0;
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (String table : TABLES) {
+                    int count;
+                    do {
+                        pstmt.setString(1, table);
+                        pstmt.setTimestamp(2, horizon);
+                        count = pstmt.executeUpdate();
+                        deleted += count;
+                    } while (count == CHUNK_SIZE);
+                }
+            }
+            if (deleted > 0) {
+                AppLogger.info(getClass().getSimpleName(), "pruneExpired",
+                        "Pruned {count} tombstone(s) older than {horizon}", "count", deleted, "horizon", horizon);
+            }
+            return deleted;
+
+        } catch (SQLException e) {
+            AppLogger.error(getClass().getSimpleName(), "pruneExpired", "Error occurred", e);
+            return -1;
+        }
+    }
+
+    /**
+     * Move the recorded horizon up to the retention limit, never back
+     */
+    private static Timestamp advanceHorizon(Connection conn) throws SQLException {
+        String sql = "INSERT INTO job_watermarks (job_name, watermark) " +
+                "VALUES (?, CURRENT_TIMESTAMP - INTERVAL ? HOUR) " +
+                "ON DUPLICATE KEY UPDATE watermark = GREATEST(watermark, VALUES(watermark))";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, Tombstones.PRUNE_JOB);
+            pstmt.setInt(2, RETENTION_HOURS);
+            pstmt.executeUpdate();
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT watermark FROM job_watermarks WHERE job_name = ?")) {
+            pstmt.setString(1, Tombstones.PRUNE_JOB);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return rs.getTimestamp(1);
+            }
+        }
+    }
+}
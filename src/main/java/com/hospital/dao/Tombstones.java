@@ -0,0 +1,114 @@
+package com.hospital.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Watermark and tombstone helpers shared by the changes-since DAO methods.
+ * Tombstones are written to deleted_rows by the delete triggers created in
+ * database/migrations, and pruned by {@link TombstoneDAO}.
+ */
+final class Tombstones {
+
+    /**
+     * updated_at has one-second resolution and a long transaction can commit
+     * rows stamped before our read, so each watermark overlaps the previous
+     * window a little. Re-reading a row is harmless; missing one is not.
+     */
+    private static final int OVERLAP_SECONDS = 5;
+
+    /** job_watermarks row holding the prune horizon; older tombstones are gone */
+    static final String PRUNE_JOB = "tombstone_prune";
+
+    /**
+     * job_watermarks row holding when appointments were last moved to the
+     * archive. A move writes no tombstone, so hot-table deltas from before
+     * it cannot tell which rows left.
+     */
+    static final String ARCHIVE_JOB = "appointment_archive";
+
+    private Tombstones() {}
+
+    /**
+     * Watermark for the next changes-since call, taken from the database clock
+     */
+    static Timestamp nextWatermark(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT CURRENT_TIMESTAMP - INTERVAL " + OVERLAP_SECONDS + " SECOND")) {
+            rs.next();
+            return rs.getTimestamp(1);
+        }
+    }
+
+    /**
+     * The watermark itself, or null if tombstones after it may have been
+     * pruned; the caller then does a full reload instead of a delta
+     */
+    static Timestamp unlessPruned(Connection conn, Timestamp since) throws SQLException {
+        return unlessBefore(conn, since, PRUNE_JOB);
+    }
+
+    /**
+     * Like {@link #unlessPruned}, but also null if appointments were moved
+     * to the archive after the watermark
+     */
+    static Timestamp unlessPrunedOrArchived(Connection conn, Timestamp since) throws SQLException {
+        return unlessBefore(conn, since, PRUNE_JOB, ARCHIVE_JOB);
+    }
+
+    /**
+     * Record that appointments were moved to the archive, in the moving
+     * transaction
+     */
+    static void markArchived(Connection conn) throws SQLException {
+        String sql = "INSERT INTO job_watermarks (job_name, watermark) VALUES (?, CURRENT_TIMESTAMP) " +
+                "ON DUPLICATE KEY UPDATE watermark = VALUES(watermark)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, ARCHIVE_JOB);
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static Timestamp unlessBefore(Connection conn, Timestamp since, String... jobs) throws SQLException {
+        if (since == null) {
+            return null;
+        }
+        String sql = "SELECT MAX(watermark) FROM job_watermarks WHERE job_name IN ("
+                + String.join(", ", Collections.nCopies(jobs.length, "?")) + ")";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < jobs.length; i++) {
+                pstmt.setString(i + 1, jobs[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                Timestamp horizon = rs.next() ? rs.getTimestamp(1) : null;
+                return horizon != null && since.before(horizon) ? null : since;
+            }
+        }
+    }
+
+    /**
+     * Ids of rows of the given table deleted at or after the watermark
+     */
+    static List<Integer> deletedSince(Connection conn, String tableName, Timestamp since) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        String sql = "SELECT row_id FROM deleted_rows WHERE table_name = ? AND deleted_at >= ?";
+
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, tableName);
+            pstmt.setTimestamp(2, since);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        return ids;
+    }
+}
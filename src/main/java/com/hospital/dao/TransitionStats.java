@@ -0,0 +1,52 @@
+package com.hospital.dao;
+
+import java.time.LocalDateTime;
+
+/**
+ * Metrics of one run of the past-due status transition
+ */
+public class TransitionStats {
+    private final LocalDateTime startedAt;
+    private final LocalDateTime cutoff;
+    private int chunks;
+    private int markedNoShow;
+    private int markedCompleted;
+    private long elapsedMillis;
+    private boolean failed;
+
+    TransitionStats(LocalDateTime startedAt, LocalDateTime cutoff) {
+        this.startedAt = startedAt;
+        this.cutoff = cutoff;
+    }
+
+    void addChunk(int noShow, int completed) {
+        chunks++;
+        markedNoShow += noShow;
+        markedCompleted += completed;
+    }
+
+    void finish(long elapsedMillis, boolean failed) {
+        this.elapsedMillis = elapsedMillis;
+        this.failed = failed;
+    }
+
+    public LocalDateTime getStartedAt() { return startedAt; }
+
+    /** Appointments scheduled before this moment were transitioned */
+    public LocalDateTime getCutoff() { return cutoff; }
+
+    public int getChunks() { return chunks; }
+    public int getMarkedNoShow() { return markedNoShow; }
+    public int getMarkedCompleted() { return markedCompleted; }
+    public int getTotal() { return markedNoShow + markedCompleted; }
+    public long getElapsedMillis() { return elapsedMillis; }
+
+    /** True if the run stopped on a database error; committed chunks stay applied */
+    public boolean isFailed() { return failed; }
+
+    @Override
+    public String toString() {
+        return String.format("%d No Show, %d Completed in %d chunk(s), %d ms%s",
+                markedNoShow, markedCompleted, chunks, elapsedMillis, failed ? " (failed)" : "");
+    }
+}
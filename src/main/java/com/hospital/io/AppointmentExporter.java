@@ -0,0 +1,192 @@
+package com.hospital.io;
+
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.AppointmentFilter;
+import com.hospital.model.Appointment;
+import com.hospital.util.AppLogger;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.function.LongConsumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams appointments to CSV or JSON lines without holding them in memory.
+ * Rows go straight from the database cursor to a buffered file channel, so
+ * heap use does not depend on how many rows are exported.
+ */
+public class AppointmentExporter {
+
+    public enum Format { CSV, JSON_LINES }
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long PROGRESS_EVERY = 10_000;
+
+    private static final String[] COLUMNS = {
+        "appointment_id", "patient_id", "patient_name", "doctor_id", "doctor_name",
+        "specialization", "appointment_date", "appointment_time", "status", "notes"
+    };
+
+    private final AppointmentDAO appointmentDAO;
+
+    public AppointmentExporter() {
+        this.appointmentDAO = new AppointmentDAO();
+    }
+
+    /**
+     * Pick the format from the file name: ".jsonl" (or ".json") means JSON lines,
+     * anything else CSV; a trailing ".gz" turns on compression
+     */
+    public static Format formatFor(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".gz")) {
+            name = name.substring(0, name.length() - 3);
+        }
+        return name.endsWith(".jsonl") || name.endsWith(".json") ? Format.JSON_LINES : Format.CSV;
+    }
+
+    /** True when the file name ends in ".gz" */
+    public static boolean isGzip(Path file) {
+        return file.getFileName().toString().toLowerCase().endsWith(".gz");
+    }
+
+    /**
+     * Export every appointment matching the filter. The file is written
+     * under a temporary name and only moved into place once complete.
+     * @param progress receives the running row count every 10,000 rows; may be null
+     * @return number of rows written
+     */
+    public long export(AppointmentFilter filter, Path target, Format format, boolean gzip,
+                       LongConsumer progress) throws IOException {
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        long started = System.nanoTime();
+        long rows;
+
+        try (Writer out = openWriter(partial, gzip)) {
+            if (format == Format.CSV) {
+                out.write(String.join(",", COLUMNS));
+                out.write('\n');
+            }
+            rows = appointmentDAO.streamAppointments(filter, new AppointmentDAO.RowHandler() {
+                private long count;
+
+                @Override
+                public void handle(Appointment appointment) throws IOException {
+                    if (format == Format.CSV) {
+                        writeCsv(out, appointment);
+                    } else {
+                        writeJson(out, appointment);
+                    }
+                    if (++count % PROGRESS_EVERY == 0 && progress != null) {
+                        progress.accept(count);
+                    }
+                }
+            });
+        } catch (SQLException | IOException e) {
+            Files.deleteIfExists(partial);
+            AppLogger.error("AppointmentExporter", "export", "Export to {target} failed", e, "target", target);
+            throw e instanceof IOException ? (IOException) e : new IOException("Export query failed", e);
+        }
+
+        Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+        if (progress != null) {
+            progress.accept(rows);
+        }
+        AppLogger.info("AppointmentExporter", "export", "{rows} rows to {file} in {millis} ms",
+                "rows", rows, "file", target.getFileName(), "millis", (System.nanoTime() - started) / 1_000_000);
+        return rows;
+    }
+
+    private static Writer openWriter(Path path, boolean gzip) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        OutputStream stream = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+        if (gzip) {
+            stream = new GZIPOutputStream(stream, BUFFER_SIZE);
+        }
+        return new OutputStreamWriter(stream, StandardCharsets.UTF_8);
+    }
+
+    private static void writeCsv(Writer out, Appointment a) throws IOException {
+        out.write(Integer.toString(a.getAppointmentId()));
+        out.write(',');
+        out.write(Integer.toString(a.getPatientId()));
+        out.write(',');
+        out.write(CsvReader.escape(a.getPatientName()));
+        out.write(',');
+        out.write(Integer.toString(a.getDoctorId()));
+        out.write(',');
+        out.write(CsvReader.escape(a.getDoctorName()));
+        out.write(',');
+        out.write(CsvReader.escape(a.getDoctorSpecialization()));
+        out.write(',');
+        out.write(a.getAppointmentDate().toString());
+        out.write(',');
+        out.write(a.getAppointmentTime().toString());
+        out.write(',');
+        out.write(CsvReader.escape(a.getStatus()));
+        out.write(',');
+        out.write(CsvReader.escape(a.getNotes()));
+        out.write('\n');
+    }
+
+    private static void writeJson(Writer out, Appointment a) throws IOException {
+        out.write("{\"appointment_id\":");
+        out.write(Integer.toString(a.getAppointmentId()));
+        out.write(",\"patient_id\":");
+        out.write(Integer.toString(a.getPatientId()));
+        out.write(",\"patient_name\":");
+        writeJsonString(out, a.getPatientName());
+        out.write(",\"doctor_id\":");
+        out.write(Integer.toString(a.getDoctorId()));
+        out.write(",\"doctor_name\":");
+        writeJsonString(out, a.getDoctorName());
+        out.write(",\"specialization\":");
+        writeJsonString(out, a.getDoctorSpecialization());
+        out.write(",\"appointment_date\":\"");
+        out.write(a.getAppointmentDate().toString());
+        out.write("\",\"appointment_time\":\"");
+        out.write(a.getAppointmentTime().toString());
+        out.write("\",\"status\":");
+        writeJsonString(out, a.getStatus());
+        out.write(",\"notes\":");
+        writeJsonString(out, a.getNotes());
+        out.write("}\n");
+    }
+
+    private static void writeJsonString(Writer out, String value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': out.write("\\\""); break;
+                case '\\': out.write("\\\\"); break;
+                case '\n': out.write("\\n"); break;
+                case '\r': out.write("\\r"); break;
+                case '\t': out.write("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,288 @@
+package com.hospital.io;
+
+import com.hospital.dao.BatchResult;
+import com.hospital.util.AppLogger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Streaming CSV import: read → validate → dedupe by phone → batched insert.
+ *
+ * Each stage runs on its own thread and stages are connected by bounded
+ * queues, so a slow database blocks the reader instead of buffering the
+ * file in memory. Rejected rows (invalid, duplicate in file, refused by the
+ * database) are written to a reject file together with the reason.
+ *
+ * Memory stays flat with file size except for the phone dedupe set, which
+ * costs about 16 bytes per distinct phone number.
+ */
+public class CsvImportPipeline<T> {
+
+    private static final class Parsed<T> {
+        final CsvRow row;
+        final T record;
+
+        Parsed(CsvRow row, T record) {
+            this.row = row;
+            this.record = record;
+        }
+    }
+
+    private static final CsvRow END_OF_ROWS = new CsvRow(-1, new String[0], Collections.emptyMap());
+    private static final Parsed<?> END_OF_RECORDS = new Parsed<>(null, null);
+
+    private final ImportMapper<T> mapper;
+    private int chunkSize = 500;
+    private int queueCapacity = 10_000;
+    private int validatorThreads = 1;
+    private Consumer<ImportStats> progressListener = stats -> {};
+
+    public CsvImportPipeline(ImportMapper<T> mapper) {
+        this.mapper = mapper;
+    }
+
+    /** Rows per batched insert and per transaction */
+    public void setChunkSize(int chunkSize) { this.chunkSize = chunkSize; }
+
+    /** Capacity of each queue between stages */
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+
+    /**
+     * Number of validator threads. With more than one, rows may reach the
+     * writer out of file order, so which duplicate is kept is not fixed.
+     */
+    public void setValidatorThreads(int validatorThreads) { this.validatorThreads = validatorThreads; }
+
+    /** Called from the writer thread after every batch */
+    public void setProgressListener(Consumer<ImportStats> progressListener) { this.progressListener = progressListener; }
+
+    /**
+     * Import a CSV file with a header row
+     * @param input CSV file to read
+     * @param rejectFile file receiving rejected rows with their reasons
+     * @return final counters and throughput
+     */
+    public ImportStats run(Path input, Path rejectFile) throws IOException, InterruptedException {
+        ImportStats stats = new ImportStats();
+        BlockingQueue<CsvRow> rows = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Parsed<T>> records = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+
+        try (CsvReader csv = new CsvReader(Files.newBufferedReader(input, StandardCharsets.UTF_8));
+                RejectWriter rejects = new RejectWriter(rejectFile)) {
+
+            String[] header = csv.readRecord();
+            if (header == null) {
+                stats.finish();
+                return stats;
+            }
+            if (header.length > 0 && header[0].startsWith("\uFEFF")) {
+                header[0] = header[0].substring(1);
+            }
+            Map<String, Integer> columns = indexHeader(header);
+            rejects.writeHeader(header);
+
+            threads.add(stage("csv-import-reader", failure, threads, () -> readRows(csv, columns, rows, stats)));
+            for (int i = 0; i < validatorThreads; i++) {
+                threads.add(stage("csv-import-validator-" + i, failure, threads, () -> validate(rows, records, rejects, stats)));
+            }
+            threads.add(stage("csv-import-writer", failure, threads, () -> write(records, rejects, stats)));
+
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            try {
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+            } catch (InterruptedException e) {
+                threads.forEach(Thread::interrupt);
+                throw e;
+            }
+        } finally {
+            stats.finish();
+        }
+
+        Throwable error = failure.get();
+        if (error != null) {
+            throw new IOException("Import of " + input + " failed", error);
+        }
+        AppLogger.info("CsvImportPipeline", "run", input.getFileName() + ": " + stats);
+        return stats;
+    }
+
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    /**
+     * Run a stage on its own thread; the first failing stage stops the others
+     */
+    private static Thread stage(String name, AtomicReference<Throwable> failure, List<Thread> all, Stage body) {
+        Thread thread = new Thread(() -> {
+            try {
+                body.run();
+            } catch (InterruptedException e) {
+                // stopped because another stage failed
+            } catch (Throwable t) {
+                if (failure.compareAndSet(null, t)) {
+                    all.forEach(Thread::interrupt);
+                }
+            }
+        }, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private void readRows(CsvReader csv, Map<String, Integer> columns,
+                          BlockingQueue<CsvRow> rows, ImportStats stats) throws IOException, InterruptedException {
+        String[] fields;
+        while ((fields = csv.readRecord()) != null) {
+            if (fields.length == 1 && fields[0].trim().isEmpty()) {
+                continue;
+            }
+            stats.read.increment();
+            rows.put(new CsvRow(csv.getRecordLine(), fields, columns));
+        }
+        for (int i = 0; i < validatorThreads; i++) {
+            rows.put(END_OF_ROWS);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void validate(BlockingQueue<CsvRow> rows, BlockingQueue<Parsed<T>> records,
+                          RejectWriter rejects, ImportStats stats) throws IOException, InterruptedException {
+        while (true) {
+            CsvRow row = rows.take();
+            if (row == END_OF_ROWS) {
+                records.put((Parsed<T>) END_OF_RECORDS);
+                return;
+            }
+            try {
+                records.put(new Parsed<>(row, mapper.parse(row)));
+            } catch (IllegalArgumentException e) {
+                stats.invalid.increment();
+                rejects.write(row, e.getMessage());
+            }
+        }
+    }
+
+    private void write(BlockingQueue<Parsed<T>> records, RejectWriter rejects, ImportStats stats)
+            throws IOException, InterruptedException {
+        LongHashSet seenPhones = new LongHashSet(1 << 16);
+        List<Parsed<T>> batch = new ArrayList<>(chunkSize);
+        int finishedValidators = 0;
+
+        while (finishedValidators < validatorThreads) {
+            Parsed<T> item = records.take();
+            if (item == END_OF_RECORDS) {
+                finishedValidators++;
+                continue;
+            }
+            long phoneKey;
+            try {
+                phoneKey = mapper.dedupeKey(item.record);
+            } catch (IllegalArgumentException e) {
+                stats.invalid.increment();
+                rejects.write(item.row, e.getMessage());
+                continue;
+            }
+            if (!seenPhones.add(phoneKey)) {
+                stats.duplicates.increment();
+                rejects.write(item.row, "Duplicate phone number in file.");
+                continue;
+            }
+            batch.add(item);
+            if (batch.size() >= chunkSize) {
+                flush(batch, rejects, stats);
+            }
+        }
+        flush(batch, rejects, stats);
+    }
+
+    private void flush(List<Parsed<T>> batch, RejectWriter rejects, ImportStats stats) throws IOException {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<T> toInsert = new ArrayList<>(batch.size());
+        for (Parsed<T> item : batch) {
+            toInsert.add(item.record);
+        }
+
+        BatchResult result = mapper.insert(toInsert, chunkSize);
+        if (result == null) {
+            for (Parsed<T> item : batch) {
+                rejects.write(item.row, "Database error, see application log.");
+            }
+            stats.failed.add(batch.size());
+        } else {
+            for (BatchResult.RowFailure rowFailure : result.getFailures()) {
+                rejects.write(batch.get(rowFailure.getIndex()).row, rowFailure.getMessage());
+            }
+            stats.failed.add(result.getFailures().size());
+            stats.inserted.add(result.getSuccessCount());
+        }
+
+        batch.clear();
+        progressListener.accept(stats);
+    }
+
+    private static Map<String, Integer> indexHeader(String[] header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            columns.put(header[i].trim().toLowerCase(), i);
+        }
+        return columns;
+    }
+
+    /**
+     * Reject file: line number, reason, then the original fields
+     */
+    private static final class RejectWriter implements AutoCloseable {
+        private final BufferedWriter out;
+
+        RejectWriter(Path path) throws IOException {
+            this.out = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        }
+
+        synchronized void writeHeader(String[] header) throws IOException {
+            out.write("line,reason");
+            for (String column : header) {
+                out.write(',');
+                out.write(CsvReader.escape(column));
+            }
+            out.newLine();
+        }
+
+        synchronized void write(CsvRow row, String reason) throws IOException {
+            out.write(Long.toString(row.getLineNumber()));
+            out.write(',');
+            out.write(CsvReader.escape(reason));
+            for (String field : row.getFields()) {
+                out.write(',');
+                out.write(CsvReader.escape(field));
+            }
+            out.newLine();
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            out.close();
+        }
+    }
+}
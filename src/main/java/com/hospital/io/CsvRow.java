@@ -0,0 +1,45 @@
+package com.hospital.io;
+
+import java.util.Map;
+
+/**
+ * One parsed CSV record with header-based field lookup
+ */
+public class CsvRow {
+    private final long lineNumber;
+    private final String[] fields;
+    private final Map<String, Integer> columns;
+
+    CsvRow(long lineNumber, String[] fields, Map<String, Integer> columns) {
+        this.lineNumber = lineNumber;
+        this.fields = fields;
+        this.columns = columns;
+    }
+
+    public long getLineNumber() { return lineNumber; }
+
+    String[] getFields() { return fields; }
+
+    /**
+     * Trimmed value of a column, or null when the column is missing or blank
+     */
+    public String get(String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.length) {
+            return null;
+        }
+        String value = fields[index].trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Like {@link #get(String)} but rejects the row when the value is blank
+     */
+    public String require(String column, String label) {
+        String value = get(column);
+        if (value == null) {
+            throw new IllegalArgumentException(label + " is required.");
+        }
+        return value;
+    }
+}
@@ -0,0 +1,89 @@
+package com.hospital.io;
+
+import com.hospital.dao.BatchResult;
+import com.hospital.dao.DoctorDAO;
+import com.hospital.model.Doctor;
+import com.hospital.util.ValidationUtil;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * CSV mapping for doctor lists. Applies the same rules as DoctorDialog.
+ */
+public class DoctorImportMapper implements ImportMapper<Doctor> {
+    private static final String[] COLUMNS = {
+        "name", "specialization", "phone", "email", "experience_years",
+        "qualification", "consultation_fee", "available_days", "available_time"
+    };
+
+    private final DoctorDAO doctorDAO = new DoctorDAO();
+
+    @Override
+    public String[] getColumns() {
+        return COLUMNS.clone();
+    }
+
+    @Override
+    public Doctor parse(CsvRow row) {
+        Doctor doctor = new Doctor();
+        doctor.setName(row.require("name", "Name"));
+        doctor.setSpecialization(row.require("specialization", "Specialization"));
+
+        String phone = row.require("phone", "Phone");
+        check(ValidationUtil.checkPhone(phone));
+        doctor.setPhone(phone);
+
+        String email = row.get("email");
+        check(ValidationUtil.checkEmail(email));
+        doctor.setEmail(email);
+
+        String experience = row.get("experience_years");
+        if (experience != null) {
+            try {
+                int years = Integer.parseInt(experience);
+                if (years < 0 || years > 50) {
+                    throw new IllegalArgumentException("Please enter valid experience years (0-50).");
+                }
+                doctor.setExperienceYears(years);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Please enter a valid number for experience years.");
+            }
+        }
+
+        BigDecimal fee = BigDecimal.ZERO;
+        String feeText = row.get("consultation_fee");
+        if (feeText != null) {
+            try {
+                fee = new BigDecimal(feeText);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Please enter a valid consultation fee.");
+            }
+            if (fee.signum() < 0) {
+                throw new IllegalArgumentException("Consultation fee cannot be negative.");
+            }
+        }
+        doctor.setConsultationFee(fee);
+
+        doctor.setQualification(row.get("qualification"));
+        doctor.setAvailableDays(row.get("available_days"));
+        doctor.setAvailableTime(row.get("available_time"));
+        return doctor;
+    }
+
+    @Override
+    public long dedupeKey(Doctor doctor) {
+        return ImportMapper.phoneKey(doctor.getPhone());
+    }
+
+    @Override
+    public BatchResult insert(List<Doctor> doctors, int chunkSize) {
+        return doctorDAO.addDoctors(doctors, chunkSize);
+    }
+
+    private static void check(String error) {
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.hospital.io;
+
+import com.hospital.dao.BatchResult;
+import com.hospital.util.ValidationUtil;
+
+import java.util.List;
+
+/**
+ * Turns CSV records into model objects and writes them in batches.
+ * Implementations must be thread-safe for {@link #parse}, which runs on
+ * several validator threads.
+ */
+public interface ImportMapper<T> {
+
+    /**
+     * Column names this mapper understands, shown when choosing a file
+     */
+    String[] getColumns();
+
+    /**
+     * Validate and convert one record
+     * @param row record fields looked up by header name
+     * @throws IllegalArgumentException with a user-readable reason when the row is invalid
+     */
+    T parse(CsvRow row);
+
+    /**
+     * Normalized phone number used to drop duplicate rows within the file
+     * @throws IllegalArgumentException when the row has no usable phone number
+     */
+    long dedupeKey(T record);
+
+    /**
+     * Insert a batch; rows refused by the database are reported in the result
+     */
+    BatchResult insert(List<T> records, int chunkSize);
+
+    /**
+     * A normalized phone number packed into a long without losing anything:
+     * 2 for a leading "+" (1 without), then every digit, leading zeros
+     * included. Only formatting is ignored, so "+91 98765-43210" and
+     * "+919876543210" count as the same number.
+     * @throws IllegalArgumentException when the number is not at most 18 digits
+     */
+    static long phoneKey(String phone) {
+        String normalized = ValidationUtil.normalizePhone(phone);
+        boolean plus = normalized.startsWith("+");
+        String digits = plus ? normalized.substring(1) : normalized;
+        // 19 digits starting with 1 or 2 still fit in a long
+        if (digits.isEmpty() || digits.length() > 18 || !digits.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            throw new IllegalArgumentException("Please enter a valid phone number (10-15 digits).");
+        }
+        return Long.parseLong((plus ? "2" : "1") + digits);
+    }
+}
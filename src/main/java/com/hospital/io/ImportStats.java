@@ -0,0 +1,55 @@
+package com.hospital.io;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters for a running import; safe to read from any thread
+ */
+public class ImportStats {
+    final LongAdder read = new LongAdder();
+    final LongAdder invalid = new LongAdder();
+    final LongAdder duplicates = new LongAdder();
+    final LongAdder inserted = new LongAdder();
+    final LongAdder failed = new LongAdder();
+    private final long startedAt = System.nanoTime();
+    private volatile long finishedAt;
+
+    /** Records read from the file */
+    public long getRead() { return read.sum(); }
+
+    /** Records that failed validation */
+    public long getInvalid() { return invalid.sum(); }
+
+    /** Records dropped because their phone already appeared earlier in the file */
+    public long getDuplicates() { return duplicates.sum(); }
+
+    /** Records inserted into the database */
+    public long getInserted() { return inserted.sum(); }
+
+    /** Records refused by the database, e.g. a phone that already exists */
+    public long getFailed() { return failed.sum(); }
+
+    /** Every record written to the reject file */
+    public long getRejected() { return getInvalid() + getDuplicates() + getFailed(); }
+
+    public long getElapsedMillis() {
+        long end = finishedAt != 0 ? finishedAt : System.nanoTime();
+        return (end - startedAt) / 1_000_000;
+    }
+
+    public double getRowsPerSecond() {
+        long millis = Math.max(1, getElapsedMillis());
+        return getRead() * 1000.0 / millis;
+    }
+
+    void finish() {
+        finishedAt = System.nanoTime();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("read=%d inserted=%d invalid=%d duplicates=%d failed=%d elapsed=%.1fs rate=%.0f rows/s",
+                getRead(), getInserted(), getInvalid(), getDuplicates(), getFailed(),
+                getElapsedMillis() / 1000.0, getRowsPerSecond());
+    }
+}
@@ -0,0 +1,70 @@
+package com.hospital.io;
+
+/**
+ * Open-addressing set of primitive longs (about 16 bytes per entry),
+ * used to remember phone numbers already seen during an import.
+ * Not thread-safe.
+ */
+class LongHashSet {
+    private static final long EMPTY = 0L;
+
+    private long[] slots;
+    private int size;
+    private boolean containsZero;
+
+    LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        slots = new long[capacity];
+    }
+
+    /**
+     * @return true if the value was not already present
+     */
+    boolean add(long value) {
+        if (value == EMPTY) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        if ((size + 1) * 2 > slots.length) {
+            grow();
+        }
+        if (insert(slots, value)) {
+            size++;
+            return true;
+        }
+        return false;
+    }
+
+    int size() {
+        return size + (containsZero ? 1 : 0);
+    }
+
+    private static boolean insert(long[] table, long value) {
+        int mask = table.length - 1;
+        int index = mix(value) & mask;
+        while (table[index] != EMPTY) {
+            if (table[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        table[index] = value;
+        return true;
+    }
+
+    private void grow() {
+        long[] larger = new long[slots.length * 2];
+        for (long value : slots) {
+            if (value != EMPTY) {
+                insert(larger, value);
+            }
+        }
+        slots = larger;
+    }
+
+    private static int mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,88 @@
+package com.hospital.io;
+
+import com.hospital.dao.BatchResult;
+import com.hospital.dao.PatientDAO;
+import com.hospital.model.Patient;
+import com.hospital.util.ValidationUtil;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * CSV mapping for patient rosters. Applies the same rules as PatientDialog.
+ */
+public class PatientImportMapper implements ImportMapper<Patient> {
+    private static final String[] COLUMNS = {
+        "name", "age", "gender", "phone", "email", "address", "disease",
+        "blood_group", "emergency_contact", "admission_date"
+    };
+    private static final String[] GENDERS = {"Male", "Female", "Other"};
+
+    private final PatientDAO patientDAO = new PatientDAO();
+
+    @Override
+    public String[] getColumns() {
+        return COLUMNS.clone();
+    }
+
+    @Override
+    public Patient parse(CsvRow row) {
+        Patient patient = new Patient();
+        patient.setName(row.require("name", "Name"));
+
+        String ageText = row.get("age");
+        check(ValidationUtil.checkAge(ageText, 0, 150));
+        patient.setAge(Integer.parseInt(ageText));
+
+        patient.setGender(matchGender(row.require("gender", "Gender")));
+
+        String phone = row.require("phone", "Phone");
+        check(ValidationUtil.checkPhone(phone));
+        patient.setPhone(phone);
+
+        String email = row.get("email");
+        check(ValidationUtil.checkEmail(email));
+        patient.setEmail(email);
+
+        patient.setAddress(row.get("address"));
+        patient.setDisease(row.get("disease"));
+        patient.setBloodGroup(row.get("blood_group"));
+        patient.setEmergencyContact(row.get("emergency_contact"));
+
+        String admissionDate = row.get("admission_date");
+        if (admissionDate != null) {
+            try {
+                patient.setAdmissionDate(LocalDate.parse(admissionDate));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Please enter a valid date in YYYY-MM-DD format.");
+            }
+        }
+        return patient;
+    }
+
+    @Override
+    public long dedupeKey(Patient patient) {
+        return ImportMapper.phoneKey(patient.getPhone());
+    }
+
+    @Override
+    public BatchResult insert(List<Patient> patients, int chunkSize) {
+        return patientDAO.addPatients(patients, chunkSize);
+    }
+
+    private static String matchGender(String value) {
+        for (String gender : GENDERS) {
+            if (gender.equalsIgnoreCase(value)) {
+                return gender;
+            }
+        }
+        throw new IllegalArgumentException("Gender must be Male, Female or Other.");
+    }
+
+    private static void check(String error) {
+        if (error != null) {
+            throw new IllegalArgumentException(error);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.hospital.io;
+
+import com.hospital.model.Payment;
+import com.hospital.util.Money;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the cashier's end-of-day payment file: a CSV with the header
+ * bill_id,amount,method,reference (any column order). Amounts are parsed
+ * straight into minor units.
+ */
+public class PaymentFileReader {
+
+    private static final String[] COLUMNS = {"bill_id", "amount", "method", "reference"};
+    private static final int MAX_REFERENCE_LENGTH = 64;
+
+    private PaymentFileReader() {}
+
+    /**
+     * Read every valid payment of the file
+     * @param errors receives one "line N: reason" message per rejected line
+     * @throws IOException if the file cannot be read or lacks a required column
+     */
+    public static List<Payment> read(Path file, List<String> errors) throws IOException {
+        List<Payment> payments = new ArrayList<>();
+
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(file, StandardCharsets.UTF_8))) {
+            String[] header = reader.readRecord();
+            if (header == null) {
+                return payments;
+            }
+            if (header.length > 0 && header[0].startsWith("\uFEFF")) {
+                header[0] = header[0].substring(1);
+            }
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                index.put(header[i].trim().toLowerCase(), i);
+            }
+            for (String column : COLUMNS) {
+                if (!index.containsKey(column)) {
+                    throw new IOException("Missing column: " + column);
+                }
+            }
+
+            String[] record;
+            while ((record = reader.readRecord()) != null) {
+                if (record.length == 1 && record[0].isBlank()) {
+                    continue;
+                }
+                try {
+                    payments.add(parse(record, index));
+                } catch (IllegalArgumentException e) {
+                    errors.add("line " + reader.getRecordLine() + ": " + e.getMessage());
+                }
+            }
+        }
+        return payments;
+    }
+
+    private static Payment parse(String[] record, Map<String, Integer> index) {
+        String billId = field(record, index, "bill_id");
+        String reference = field(record, index, "reference");
+        String method = field(record, index, "method");
+
+        if (reference.isEmpty() || reference.length() > MAX_REFERENCE_LENGTH) {
+            throw new IllegalArgumentException("Reference must be 1-" + MAX_REFERENCE_LENGTH + " characters");
+        }
+        if (method.isEmpty()) {
+            throw new IllegalArgumentException("Method is required");
+        }
+        try {
+            return new Payment(Integer.parseInt(billId), Money.parseMinorUnits(field(record, index, "amount")),
+                    method, reference);
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Invalid bill id or amount");
+        }
+    }
+
+    private static String field(String[] record, Map<String, Integer> index, String column) {
+        int i = index.get(column);
+        return i < record.length ? record[i].trim() : "";
+    }
+}
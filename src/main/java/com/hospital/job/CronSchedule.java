@@ -0,0 +1,134 @@
+package com.hospital.job;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+
+/**
+ * Classic five-field cron schedule: minute, hour, day of month, month,
+ * day of week (0 or 7 = Sunday). Each field accepts *, numbers, ranges
+ * (a-b), steps (&#42;/n, a-b/n) and comma lists.
+ * As in cron, when both day fields are restricted a day matching either
+ * one qualifies.
+ */
+public class CronSchedule implements Schedule {
+
+    /** Give up after this many days without a match, e.g. "0 0 31 2 *" */
+    private static final int MAX_SEARCH_DAYS = 366 * 5;
+
+    private final String expression;
+    private final BitSet minutes;
+    private final BitSet hours;
+    private final BitSet daysOfMonth;
+    private final BitSet months;
+    private final BitSet daysOfWeek;
+    private final boolean dayOfMonthRestricted;
+    private final boolean dayOfWeekRestricted;
+
+    /**
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    public CronSchedule(String expression) {
+        String[] fields = expression.trim().split("\\s+");
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("Expected 5 fields: " + expression);
+        }
+        this.expression = expression.trim();
+        this.minutes = parse(fields[0], 0, 59);
+        this.hours = parse(fields[1], 0, 23);
+        this.daysOfMonth = parse(fields[2], 1, 31);
+        this.months = parse(fields[3], 1, 12);
+        this.daysOfWeek = parse(fields[4], 0, 7);
+        if (daysOfWeek.get(7)) {
+            daysOfWeek.set(0);
+        }
+        this.dayOfMonthRestricted = !fields[2].equals("*");
+        this.dayOfWeekRestricted = !fields[4].equals("*");
+    }
+
+    @Override
+    public LocalDateTime next(LocalDateTime after) {
+        LocalDateTime candidate = after.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+        LocalDate day = candidate.toLocalDate();
+
+        for (int i = 0; i < MAX_SEARCH_DAYS; i++, day = day.plusDays(1)) {
+            if (!matchesDay(day)) {
+                continue;
+            }
+            boolean sameDay = day.equals(candidate.toLocalDate());
+            int fromHour = sameDay ? candidate.getHour() : 0;
+            for (int hour = hours.nextSetBit(fromHour); hour >= 0; hour = hours.nextSetBit(hour + 1)) {
+                int fromMinute = sameDay && hour == candidate.getHour() ? candidate.getMinute() : 0;
+                int minute = minutes.nextSetBit(fromMinute);
+                if (minute >= 0) {
+                    return day.atTime(hour, minute);
+                }
+            }
+        }
+        throw new IllegalStateException("No match within " + MAX_SEARCH_DAYS + " days: " + expression);
+    }
+
+    private boolean matchesDay(LocalDate day) {
+        if (!months.get(day.getMonthValue())) {
+            return false;
+        }
+        boolean dom = daysOfMonth.get(day.getDayOfMonth());
+        boolean dow = daysOfWeek.get(day.getDayOfWeek().getValue() % 7);
+        if (dayOfMonthRestricted && dayOfWeekRestricted) {
+            return dom || dow;
+        }
+        return dom && dow;
+    }
+
+    private static BitSet parse(String field, int min, int max) {
+        BitSet bits = new BitSet(max + 1);
+        for (String part : field.split(",")) {
+            int step = 1;
+            String range = part;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = parseNumber(part.substring(slash + 1), 1, max, part);
+                range = part.substring(0, slash);
+            }
+
+            int from;
+            int to;
+            if (range.equals("*")) {
+                from = min;
+                to = max;
+            } else if (range.contains("-")) {
+                String[] bounds = range.split("-", 2);
+                from = parseNumber(bounds[0], min, max, part);
+                to = parseNumber(bounds[1], min, max, part);
+                if (from > to) {
+                    throw new IllegalArgumentException("Empty range: " + part);
+                }
+            } else {
+                from = parseNumber(range, min, max, part);
+                to = slash >= 0 ? max : from;
+            }
+            for (int value = from; value <= to; value += step) {
+                bits.set(value);
+            }
+        }
+        return bits;
+    }
+
+    private static int parseNumber(String text, int min, int max, String part) {
+        try {
+            int value = Integer.parseInt(text);
+            if (value < min || value > max) {
+                throw new IllegalArgumentException("Out of range " + min + "-" + max + ": " + part);
+            }
+            return value;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number: " + part);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "cron " + expression;
+    }
+}
@@ -0,0 +1,72 @@
+package com.hospital.job;
+
+import java.time.LocalDateTime;
+
+/**
+ * Runtime metrics of one registered job. Updated by the job thread and
+ * read by diagnostics, so every field is volatile; a reader may see the
+ * counters of one run mixed with the timings of the next, which is fine
+ * for display.
+ */
+public class JobMetrics {
+    private final String name;
+    private final String schedule;
+    private volatile long runs;
+    private volatile long failures;
+    private volatile long skipped;
+    private volatile long totalMillis;
+    private volatile long lastMillis;
+    private volatile long maxMillis;
+    private volatile LocalDateTime lastStart;
+    private volatile LocalDateTime nextRun;
+    private volatile String lastError;
+    private volatile boolean running;
+
+    JobMetrics(String name, String schedule) {
+        this.name = name;
+        this.schedule = schedule;
+    }
+
+    void started(LocalDateTime at) {
+        lastStart = at;
+        running = true;
+    }
+
+    void finished(long millis, Throwable error) {
+        runs++;
+        lastMillis = millis;
+        totalMillis += millis;
+        maxMillis = Math.max(maxMillis, millis);
+        if (error != null) {
+            failures++;
+            lastError = error.toString();
+        }
+        running = false;
+    }
+
+    void skipped() { skipped++; }
+
+    void scheduled(LocalDateTime at) { nextRun = at; }
+
+    public String getName() { return name; }
+    public String getSchedule() { return schedule; }
+    public long getRuns() { return runs; }
+    public long getFailures() { return failures; }
+
+    /** Triggers dropped because the previous run was still going */
+    public long getSkipped() { return skipped; }
+
+    public long getLastMillis() { return lastMillis; }
+    public long getMaxMillis() { return maxMillis; }
+    public double getAverageMillis() { return runs == 0 ? 0 : (double) totalMillis / runs; }
+    public LocalDateTime getLastStart() { return lastStart; }
+    public LocalDateTime getNextRun() { return nextRun; }
+    public String getLastError() { return lastError; }
+    public boolean isRunning() { return running; }
+
+    @Override
+    public String toString() {
+        return String.format("%s [%s]: %d run(s), %d failed, %d skipped, last %d ms, max %d ms, next %s",
+                name, schedule, runs, failures, skipped, lastMillis, maxMillis, nextRun);
+    }
+}
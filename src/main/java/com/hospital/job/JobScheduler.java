@@ -0,0 +1,173 @@
+package com.hospital.job;
+
+import com.hospital.util.AppLogger;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs periodic background work on a small pool of daemon threads, away
+ * from the EDT and independent of which frames are open.
+ *
+ * Each job is rescheduled only after its run finishes, so a job never
+ * overlaps itself; a manual trigger while it runs is skipped and counted.
+ * Random jitter spreads jobs that share a schedule. The pool size comes
+ * from -Dhospital.jobs.threads (default 2).
+ */
+public class JobScheduler {
+
+    private static final JobScheduler DEFAULT = new JobScheduler(Integer.getInteger("hospital.jobs.threads", 2));
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+
+    private final class Job {
+        final String name;
+        final Schedule schedule;
+        final long maxJitterMillis;
+        final Runnable task;
+        final JobMetrics metrics;
+        final AtomicBoolean running = new AtomicBoolean();
+        volatile ScheduledFuture<?> next;
+        volatile boolean cancelled;
+
+        Job(String name, Schedule schedule, Duration maxJitter, Runnable task) {
+            this.name = name;
+            this.schedule = schedule;
+            this.maxJitterMillis = maxJitter.toMillis();
+            this.task = task;
+            this.metrics = new JobMetrics(name, schedule.toString());
+        }
+
+        void scheduleNext() {
+            if (cancelled || executor.isShutdown()) {
+                return;
+            }
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime at = schedule.next(now);
+            long jitter = maxJitterMillis > 0 ? ThreadLocalRandom.current().nextLong(maxJitterMillis + 1) : 0;
+            long delay = Duration.between(now, at).toMillis() + jitter;
+            metrics.scheduled(now.plus(Duration.ofMillis(delay)));
+            next = executor.schedule(() -> run(true), delay, TimeUnit.MILLISECONDS);
+        }
+
+        void run(boolean scheduled) {
+            try {
+                if (!running.compareAndSet(false, true)) {
+                    metrics.skipped();
+                    return;
+                }
+                long started = System.nanoTime();
+                metrics.started(LocalDateTime.now());
+                Throwable error = null;
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    error = t;
+                    AppLogger.error("JobScheduler", "run", "Job " + name + " failed", t);
+                } finally {
+                    running.set(false);
+                    metrics.finished((System.nanoTime() - started) / 1_000_000, error);
+                }
+            } finally {
+                if (scheduled) {
+                    scheduleNext();
+                }
+            }
+        }
+    }
+
+    public JobScheduler(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        executor = new ScheduledThreadPoolExecutor(threads, r -> {
+            Thread thread = new Thread(r, "job-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Scheduler shared by the application
+     */
+    public static JobScheduler getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Register a job and schedule its first run
+     * @param maxJitter upper bound of the random delay added to every scheduled run
+     * @return live metrics of the job
+     * @throws IllegalArgumentException if a job with that name exists
+     */
+    public synchronized JobMetrics register(String name, Schedule schedule, Duration maxJitter, Runnable task) {
+        if (jobs.containsKey(name)) {
+            throw new IllegalArgumentException("Job already registered: " + name);
+        }
+        Job job = new Job(name, schedule, maxJitter, task);
+        jobs.put(name, job);
+        job.scheduleNext();
+        AppLogger.info("JobScheduler", "register", "Registered " + name + " (" + schedule + "), next run "
+                + job.metrics.getNextRun());
+        return job.metrics;
+    }
+
+    /**
+     * Stop scheduling a job; a run in progress finishes normally
+     * @return false if no such job
+     */
+    public synchronized boolean unregister(String name) {
+        Job job = jobs.remove(name);
+        if (job == null) {
+            return false;
+        }
+        job.cancelled = true;
+        ScheduledFuture<?> next = job.next;
+        if (next != null) {
+            next.cancel(false);
+        }
+        return true;
+    }
+
+    /**
+     * Run a job once after the given delay, outside its schedule. Skipped
+     * if the job is running at that moment.
+     * @return false if no such job
+     */
+    public synchronized boolean runOnce(String name, Duration delay) {
+        Job job = jobs.get(name);
+        if (job == null) {
+            return false;
+        }
+        executor.schedule(() -> job.run(false), delay.toMillis(), TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    /**
+     * Metrics of every registered job, in registration order
+     */
+    public synchronized List<JobMetrics> getMetrics() {
+        List<JobMetrics> metrics = new ArrayList<>();
+        for (Job job : jobs.values()) {
+            metrics.add(job.metrics);
+        }
+        return metrics;
+    }
+
+    /**
+     * Stop scheduling; running jobs are interrupted
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
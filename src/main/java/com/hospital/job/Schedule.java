@@ -0,0 +1,44 @@
+package com.hospital.job;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * When a job runs next. The scheduler asks again after every run, so a
+ * job never overlaps itself.
+ */
+public interface Schedule {
+
+    /**
+     * Next start time after the given moment
+     */
+    LocalDateTime next(LocalDateTime after);
+
+    /**
+     * Run again the given delay after the previous run finished
+     */
+    static Schedule fixedDelay(Duration delay) {
+        if (delay.isNegative() || delay.isZero()) {
+            throw new IllegalArgumentException("Delay must be positive");
+        }
+        return new Schedule() {
+            @Override
+            public LocalDateTime next(LocalDateTime after) {
+                return after.plus(delay);
+            }
+
+            @Override
+            public String toString() {
+                return "every " + delay.toString().substring(2).toLowerCase();
+            }
+        };
+    }
+
+    /**
+     * Run at the times matched by a five-field cron expression
+     * @see CronSchedule
+     */
+    static Schedule cron(String expression) {
+        return new CronSchedule(expression);
+    }
+}
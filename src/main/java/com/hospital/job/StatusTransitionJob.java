@@ -0,0 +1,48 @@
+package com.hospital.job;
+
+import com.hospital.dao.StatusTransitionDAO;
+import com.hospital.dao.TransitionStats;
+import com.hospital.report.ReportService;
+import com.hospital.util.AppLogger;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Nightly job that moves past-due Scheduled appointments to No Show or
+ * Completed (see StatusTransitionDAO) and tells interested views which
+ * appointments changed.
+ */
+public class StatusTransitionJob implements Runnable {
+
+    private static final List<Consumer<List<Integer>>> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private final StatusTransitionDAO statusTransitionDAO = new StatusTransitionDAO();
+
+    /**
+     * Register a listener for the ids of each committed chunk. Listeners run
+     * on the job thread.
+     */
+    public static void addListener(Consumer<List<Integer>> listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void removeListener(Consumer<List<Integer>> listener) {
+        LISTENERS.remove(listener);
+    }
+
+    @Override
+    public void run() {
+        TransitionStats stats = statusTransitionDAO.transitionPastDue(StatusTransitionDAO.DEFAULT_CHUNK_SIZE,
+                ids -> LISTENERS.forEach(listener -> listener.accept(ids)));
+        if (stats.getTotal() > 0) {
+            // statuses feed the rollups; cached reports would show the old split
+            ReportService.getReportCache().invalidateAll();
+        }
+        if (stats.isFailed()) {
+            AppLogger.warning("StatusTransitionJob", "run", "Run failed after " + stats.getTotal()
+                    + " appointment(s); the rest are picked up by the next run");
+        }
+    }
+}
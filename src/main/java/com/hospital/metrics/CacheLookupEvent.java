@@ -0,0 +1,29 @@
+package com.hospital.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One lookup in a QueryCache; the duration of a miss includes the load
+ */
+@Name("com.hospital.CacheLookup")
+@Label("Cache Lookup")
+@Category({"Hospital", "Cache"})
+@StackTrace(false)
+public final class CacheLookupEvent extends Event {
+
+    @Label("Cache")
+    public String cache;
+
+    @Label("Key")
+    public String key;
+
+    @Label("Hit")
+    public boolean hit;
+
+    @Label("UI Action")
+    public String action;
+}
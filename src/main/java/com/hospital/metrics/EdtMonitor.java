@@ -0,0 +1,230 @@
+package com.hospital.metrics;
+
+import com.hospital.util.AppLogger;
+
+import java.awt.AWTEvent;
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.awt.Window;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+
+import javax.swing.AbstractButton;
+import javax.swing.SwingUtilities;
+
+/**
+ * Watches the Event Dispatch Thread.
+ *
+ * An event queue pushed at startup times every dispatch. A daemon watchdog
+ * thread checks the dispatch in progress every few milliseconds; once one
+ * has run longer than hospital.edt.stallMillis (default 200) it captures
+ * the EDT stack and logs the UI and DAO frames it is stuck in, once per
+ * stall. The same thread posts an empty event every 250 ms and records how
+ * long it waits in the queue, which is the delay a user's click sees.
+ *
+ * Events dispatched by a modal dialog's nested loop are timed on their
+ * own; the outer event that opened the dialog is not counted as a stall.
+ * Each mouse and key event also begins a {@link UiAction}, so statements
+ * it leads to are attributed to the window and button. The watchdog
+ * thread can be turned off with -Dhospital.edt.watchdog=false.
+ */
+public final class EdtMonitor {
+
+    private static final boolean WATCHDOG =
+            Boolean.parseBoolean(System.getProperty("hospital.edt.watchdog", "true"));
+    private static final long STALL_NANOS = Long.getLong("hospital.edt.stallMillis", 200) * 1_000_000;
+    private static final long CHECK_MILLIS = Math.max(10, STALL_NANOS / 4_000_000);
+    private static final long PROBE_NANOS = 250_000_000;
+    private static final int MAX_LOGGED_FRAMES = 30;
+
+    private static final LatencyHistogram DISPATCH_TIMES = new LatencyHistogram();
+    private static final LatencyHistogram STALLS = new LatencyHistogram();
+    private static final LatencyHistogram QUEUE_DELAY = new LatencyHistogram();
+
+    // Written by the EDT, read by the watchdog; a start of 0 means idle
+    private static volatile long dispatchStart;
+    private static volatile long dispatchSequence;
+    private static volatile AWTEvent dispatching;
+    private static volatile Thread edt;
+
+    private static boolean installed;
+
+    private EdtMonitor() {}
+
+    /**
+     * Push the timing event queue and start the watchdog; later calls do nothing
+     */
+    public static synchronized void install() {
+        if (installed) {
+            return;
+        }
+        installed = true;
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(new MonitoredEventQueue());
+        if (!WATCHDOG) {
+            return;
+        }
+
+        Thread watchdog = new Thread(EdtMonitor::watch, "edt-watchdog");
+        watchdog.setDaemon(true);
+        watchdog.start();
+    }
+
+    public static synchronized boolean isInstalled() {
+        return installed;
+    }
+
+    public static long getStallThresholdMillis() {
+        return STALL_NANOS / 1_000_000;
+    }
+
+    /** Time spent dispatching each event */
+    public static LatencyHistogram getDispatchTimes() {
+        return DISPATCH_TIMES;
+    }
+
+    /** Dispatches that took at least the stall threshold */
+    public static LatencyHistogram getStalls() {
+        return STALLS;
+    }
+
+    /** Time a posted event waited before the EDT ran it */
+    public static LatencyHistogram getQueueDelay() {
+        return QUEUE_DELAY;
+    }
+
+    private static final class MonitoredEventQueue extends EventQueue {
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            Thread current = Thread.currentThread();
+            if (edt != current) {
+                edt = current;
+            }
+            long sequence = ++dispatchSequence;
+            long start = System.nanoTime();
+            dispatching = event;
+            dispatchStart = start;
+            UiAction.Scope action = event instanceof InputEvent ? beginAction((InputEvent) event) : null;
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                if (action != null) {
+                    action.close();
+                }
+                // back in a nested loop (or idle): waiting for the next event is not a stall
+                dispatchStart = 0;
+                dispatching = null;
+                if (dispatchSequence == sequence) {
+                    long micros = (System.nanoTime() - start) / 1_000;
+                    DISPATCH_TIMES.record(micros);
+                    if (micros * 1_000 >= STALL_NANOS) {
+                        STALLS.record(micros);
+                    }
+                }
+            }
+        }
+    }
+
+    private static UiAction.Scope beginAction(InputEvent event) {
+        int id = event.getID();
+        String kind;
+        if (id == MouseEvent.MOUSE_PRESSED || id == MouseEvent.MOUSE_RELEASED || id == MouseEvent.MOUSE_CLICKED) {
+            kind = "click";
+        } else if (id == KeyEvent.KEY_PRESSED) {
+            kind = "key";
+        } else {
+            return null;
+        }
+        Component component = event.getComponent();
+        Window window = component == null ? null
+                : component instanceof Window ? (Window) component : SwingUtilities.getWindowAncestor(component);
+        String windowName = window != null ? window.getClass().getSimpleName() : "-";
+        String label;
+        if (component instanceof AbstractButton && !((AbstractButton) component).getText().isEmpty()) {
+            label = "\"" + ((AbstractButton) component).getText() + "\" " + kind;
+        } else {
+            label = (component != null ? component.getClass().getSimpleName() : "?") + " " + kind;
+        }
+        return UiAction.begin(windowName, label);
+    }
+
+    private static void watch() {
+        long reportedSequence = -1;
+        long nextProbe = System.nanoTime();
+        while (true) {
+            try {
+                Thread.sleep(CHECK_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            long now = System.nanoTime();
+
+            long start = dispatchStart;
+            long sequence = dispatchSequence;
+            if (start != 0 && sequence != reportedSequence && now - start >= STALL_NANOS) {
+                reportedSequence = sequence;
+                reportStall(dispatching, (now - start) / 1_000_000);
+            }
+
+            if (now - nextProbe >= 0) {
+                nextProbe = now + PROBE_NANOS;
+                long posted = System.nanoTime();
+                EventQueue.invokeLater(() -> QUEUE_DELAY.record((System.nanoTime() - posted) / 1_000));
+            }
+        }
+    }
+
+    /**
+     * Log where the EDT is stuck: the innermost UI and DAO frames, then the stack
+     */
+    private static void reportStall(AWTEvent event, long blockedMillis) {
+        Thread thread = edt;
+        if (thread == null) {
+            return;
+        }
+        StackTraceElement[] stack = thread.getStackTrace();
+        String uiFrame = innermost(stack, "com.hospital.ui.");
+        String daoFrame = innermost(stack, "com.hospital.dao.");
+
+        StringBuilder message = new StringBuilder(1024);
+        message.append("EDT blocked for ").append(blockedMillis).append(" ms");
+        if (event != null) {
+            message.append(" handling ").append(describe(event));
+        }
+        if (uiFrame != null) {
+            message.append(" in ").append(uiFrame);
+        }
+        if (daoFrame != null) {
+            message.append(" calling ").append(daoFrame);
+        }
+        for (int i = 0; i < stack.length && i < MAX_LOGGED_FRAMES; i++) {
+            message.append(System.lineSeparator()).append("\tat ").append(stack[i]);
+        }
+        if (stack.length > MAX_LOGGED_FRAMES) {
+            message.append(System.lineSeparator()).append("\t... ")
+                    .append(stack.length - MAX_LOGGED_FRAMES).append(" more");
+        }
+        AppLogger.warning(EdtMonitor.class.getSimpleName(), "reportStall", message.toString());
+    }
+
+    private static String innermost(StackTraceElement[] stack, String packagePrefix) {
+        for (StackTraceElement frame : stack) {
+            String cls = frame.getClassName();
+            if (cls.startsWith(packagePrefix)) {
+                String simple = cls.substring(cls.lastIndexOf('.') + 1);
+                return simple + "." + frame.getMethodName() + ":" + frame.getLineNumber();
+            }
+        }
+        return null;
+    }
+
+    private static String describe(AWTEvent event) {
+        Object source = event.getSource();
+        String name = event.getClass().getSimpleName();
+        if (source instanceof AbstractButton) {
+            return name + " on button \"" + ((AbstractButton) source).getText() + "\"";
+        }
+        return source == null ? name : name + " from " + source.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,27 @@
+package com.hospital.metrics;
+
+/**
+ * Switch for the application's Java Flight Recorder events
+ * ({@link QueryEvent}, {@link CacheLookupEvent}, {@link UiActionEvent}).
+ *
+ * Events are only recorded while a recording with them enabled is running,
+ * e.g. jcmd &lt;pid&gt; JFR.start, and each type can be switched on or off in
+ * the recording settings ("com.hospital.Query#enabled=false"). This switch
+ * additionally stops the application creating them at all. Starts as
+ * hospital.jfr.events (default true) and can be changed at runtime.
+ */
+public final class JfrEvents {
+
+    private static volatile boolean enabled =
+            Boolean.parseBoolean(System.getProperty("hospital.jfr.events", "true"));
+
+    private JfrEvents() {}
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        JfrEvents.enabled = enabled;
+    }
+}
@@ -0,0 +1,119 @@
+package com.hospital.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram in microseconds with log-linear buckets, in
+ * the style of HdrHistogram: every power of two is split into 16 linear
+ * sub-buckets, so any recorded value is reported within about 6%.
+ * Recording is a few atomic increments and never allocates.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+
+    /** Values above this (about 12.7 days) are clamped */
+    private static final long MAX_VALUE = (1L << 40) - 1;
+
+    private static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record one value in microseconds; negative values count as zero
+     */
+    public void record(long micros) {
+        long value = Math.max(0, Math.min(micros, MAX_VALUE));
+        counts.incrementAndGet(indexOf(value));
+        count.increment();
+        total.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    public long getCount() { return count.sum(); }
+
+    /** Sum of all recorded values in microseconds */
+    public long getTotalMicros() { return total.sum(); }
+
+    public long getMaxMicros() { return max.get(); }
+
+    public double getMeanMicros() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) total.sum() / n;
+    }
+
+    /**
+     * Smallest bucket bound at or below which the given percentage of values fall
+     * @param percentile 0 to 100
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = snapshotCounts();
+        long n = 0;
+        for (long c : snapshot) {
+            n += c;
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(n * Math.min(100, Math.max(0, percentile)) / 100));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= target) {
+                return Math.min(highestEquivalentValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Copy of the bucket counts, for exporters; bucket i covers values up
+     * to {@link #getBucketUpperBound(int)}
+     */
+    public long[] snapshotCounts() {
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+        }
+        return snapshot;
+    }
+
+    public static int getBucketCount() { return BUCKET_COUNT; }
+
+    /** Largest value in microseconds recorded into the given bucket */
+    public static long getBucketUpperBound(int index) { return highestEquivalentValue(index); }
+
+    /**
+     * Not atomic with concurrent recording; values recorded meanwhile may be
+     * partly kept
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    private static int indexOf(long value) {
+        int bucket = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1));
+        int subIndex = (int) (value >>> bucket);
+        return bucket * SUB_BUCKET_HALF + subIndex;
+    }
+
+    private static long highestEquivalentValue(int index) {
+        int bucket = Math.max(0, index / SUB_BUCKET_HALF - 1);
+        long subIndex = index - (long) bucket * SUB_BUCKET_HALF;
+        return ((subIndex + 1) << bucket) - 1;
+    }
+}
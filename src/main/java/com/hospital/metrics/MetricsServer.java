@@ -0,0 +1,213 @@
+package com.hospital.metrics;
+
+import com.hospital.job.JobMetrics;
+import com.hospital.job.JobScheduler;
+import com.hospital.util.AppLogger;
+import com.hospital.util.DatabaseConnection;
+import com.hospital.util.QueryCache;
+import com.hospital.util.SchemaMigrator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional HTTP endpoint for monitoring, started when hospital.metrics.port
+ * is set. It binds to hospital.metrics.host (default 127.0.0.1).
+ *
+ * GET /metrics serves Prometheus text: per-query latency, pool, caches,
+ * scheduler jobs, JVM memory and GC, EDT stalls, query budget violations
+ * and logging drops, all read from in-process counters. GET /health
+ * borrows a connection through DatabaseConnection.testConnection and
+ * answers 200 or 503, with the schema version the migrator last saw.
+ * Requests are served by two daemon threads.
+ */
+public final class MetricsServer {
+
+    private static final String TEXT_FORMAT = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static HttpServer server;
+
+    private MetricsServer() {}
+
+    /**
+     * Start the server if a port is configured; failures are logged, not thrown
+     */
+    public static synchronized void startIfConfigured() {
+        Integer port = Integer.getInteger("hospital.metrics.port");
+        if (port == null || server != null) {
+            return;
+        }
+        String host = System.getProperty("hospital.metrics.host", "127.0.0.1");
+        try {
+            HttpServer created = HttpServer.create(new InetSocketAddress(host, port), 0);
+            created.createContext("/metrics", exchange -> respond(exchange, 200, TEXT_FORMAT, renderMetrics()));
+            created.createContext("/health", MetricsServer::health);
+            created.setExecutor(newExecutor());
+            created.start();
+            server = created;
+            AppLogger.info("MetricsServer", "startIfConfigured", "Serving /metrics and /health on {host}:{port}",
+                    "host", host, "port", port);
+        } catch (IOException | RuntimeException e) {
+            AppLogger.error("MetricsServer", "startIfConfigured", "Could not start metrics endpoint", e);
+        }
+    }
+
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+    }
+
+    private static ExecutorService newExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(2, r -> {
+            Thread thread = new Thread(r, "metrics-http-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static void health(HttpExchange exchange) throws IOException {
+        boolean up = DatabaseConnection.testConnection();
+        String body = String.format(
+                "{\"status\":\"%s\",\"database\":\"%s\",\"schemaVersion\":%d,\"poolActive\":%d,\"poolSize\":%d}%n",
+                up ? "UP" : "DOWN", up ? "UP" : "DOWN", SchemaMigrator.getCurrentVersion(),
+                DatabaseConnection.getActiveCount(), DatabaseConnection.getPoolSize());
+        respond(exchange, up ? 200 : 503, "application/json", body);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body)
+            throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", contentType);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    static String renderMetrics() {
+        PrometheusWriter out = new PrometheusWriter();
+        List<QueryStats> queries = QueryMetrics.getAll();
+
+        out.family("hospital_query_duration_seconds", "histogram", "Statement execution time by DAO method");
+        for (QueryStats stats : queries) {
+            out.histogram("hospital_query_duration_seconds", stats.getLatency(),
+                    "caller", stats.getCaller(), "sql", stats.getSql());
+        }
+        out.family("hospital_query_errors_total", "counter", "Statements that threw");
+        for (QueryStats stats : queries) {
+            out.sample("hospital_query_errors_total", stats.getErrors(), "caller", stats.getCaller(), "sql", stats.getSql());
+        }
+        out.family("hospital_query_rows_total", "counter", "Rows read or changed");
+        for (QueryStats stats : queries) {
+            out.sample("hospital_query_rows_total", stats.getRows(), "caller", stats.getCaller(), "sql", stats.getSql());
+        }
+        out.family("hospital_slow_queries_total", "counter", "Statements written to the slow query log")
+                .sample("hospital_slow_queries_total", SlowQueryLog.getLoggedCount());
+        out.family("hospital_query_budget_violations_total", "counter", "User actions over their query budget")
+                .sample("hospital_query_budget_violations_total", QueryBudget.getViolationCount());
+
+        out.family("hospital_db_pool_size", "gauge", "Maximum pooled connections")
+                .sample("hospital_db_pool_size", DatabaseConnection.getPoolSize());
+        out.family("hospital_db_pool_active", "gauge", "Connections borrowed")
+                .sample("hospital_db_pool_active", DatabaseConnection.getActiveCount());
+        out.family("hospital_db_pool_idle", "gauge", "Connections waiting in the pool")
+                .sample("hospital_db_pool_idle", DatabaseConnection.getIdleCount());
+
+        out.family("hospital_cache_hits_total", "counter", "Cache lookups answered from the cache");
+        for (QueryCache<?, ?> cache : QueryCache.getAll()) {
+            out.sample("hospital_cache_hits_total", cache.getHitCount(), "cache", cache.getName());
+        }
+        out.family("hospital_cache_misses_total", "counter", "Cache lookups that loaded the value");
+        for (QueryCache<?, ?> cache : QueryCache.getAll()) {
+            out.sample("hospital_cache_misses_total", cache.getMissCount(), "cache", cache.getName());
+        }
+        out.family("hospital_cache_entries", "gauge", "Entries held");
+        for (QueryCache<?, ?> cache : QueryCache.getAll()) {
+            out.sample("hospital_cache_entries", cache.size(), "cache", cache.getName());
+        }
+
+        renderJobs(out);
+        renderJvm(out);
+
+        out.family("hospital_edt_stall_seconds", "histogram", "Event dispatches over the stall threshold")
+                .histogram("hospital_edt_stall_seconds", EdtMonitor.getStalls());
+        out.family("hospital_edt_queue_delay_seconds", "histogram", "Time a posted event waited for the EDT")
+                .histogram("hospital_edt_queue_delay_seconds", EdtMonitor.getQueueDelay());
+
+        out.family("hospital_log_dropped_total", "counter", "Log records dropped because the buffer was full")
+                .sample("hospital_log_dropped_total", AppLogger.getDroppedCount());
+        return out.toString();
+    }
+
+    private static void renderJobs(PrometheusWriter out) {
+        List<JobMetrics> jobs = JobScheduler.getDefault().getMetrics();
+        out.family("hospital_job_runs_total", "counter", "Completed job runs");
+        for (JobMetrics job : jobs) {
+            out.sample("hospital_job_runs_total", job.getRuns(), "job", job.getName());
+        }
+        out.family("hospital_job_failures_total", "counter", "Job runs that threw");
+        for (JobMetrics job : jobs) {
+            out.sample("hospital_job_failures_total", job.getFailures(), "job", job.getName());
+        }
+        out.family("hospital_job_skipped_total", "counter", "Runs skipped because the previous one was still running");
+        for (JobMetrics job : jobs) {
+            out.sample("hospital_job_skipped_total", job.getSkipped(), "job", job.getName());
+        }
+        out.family("hospital_job_last_duration_seconds", "gauge", "Duration of the last run");
+        for (JobMetrics job : jobs) {
+            out.sample("hospital_job_last_duration_seconds", job.getLastMillis() / 1000.0, "job", job.getName());
+        }
+        out.family("hospital_job_running", "gauge", "1 while the job runs");
+        for (JobMetrics job : jobs) {
+            out.sample("hospital_job_running", job.isRunning() ? 1 : 0, "job", job.getName());
+        }
+    }
+
+    private static void renderJvm(PrometheusWriter out) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        MemoryUsage nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+        out.family("jvm_memory_used_bytes", "gauge", "Memory in use")
+                .sample("jvm_memory_used_bytes", heap.getUsed(), "area", "heap")
+                .sample("jvm_memory_used_bytes", nonHeap.getUsed(), "area", "nonheap");
+        out.family("jvm_memory_committed_bytes", "gauge", "Memory committed by the JVM")
+                .sample("jvm_memory_committed_bytes", heap.getCommitted(), "area", "heap")
+                .sample("jvm_memory_committed_bytes", nonHeap.getCommitted(), "area", "nonheap");
+        out.family("jvm_memory_max_bytes", "gauge", "Memory limit, -1 if none")
+                .sample("jvm_memory_max_bytes", heap.getMax(), "area", "heap")
+                .sample("jvm_memory_max_bytes", nonHeap.getMax(), "area", "nonheap");
+
+        out.family("jvm_gc_collection_seconds_total", "counter", "Time spent in garbage collection");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            out.sample("jvm_gc_collection_seconds_total", Math.max(0, gc.getCollectionTime()) / 1000.0,
+                    "gc", gc.getName());
+        }
+        out.family("jvm_gc_collections_total", "counter", "Garbage collections");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            out.sample("jvm_gc_collections_total", Math.max(0, gc.getCollectionCount()), "gc", gc.getName());
+        }
+        out.family("jvm_threads_current", "gauge", "Live threads")
+                .sample("jvm_threads_current", ManagementFactory.getThreadMXBean().getThreadCount());
+    }
+}
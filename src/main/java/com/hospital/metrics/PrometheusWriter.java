@@ -0,0 +1,111 @@
+package com.hospital.metrics;
+
+/**
+ * Builds a Prometheus text exposition (format 0.0.4). Label values are
+ * given as alternating names and values.
+ */
+final class PrometheusWriter {
+
+    /** Histogram bucket bounds in seconds */
+    private static final double[] BOUNDS =
+            {0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private final StringBuilder out = new StringBuilder(16 * 1024);
+
+    /**
+     * Start a metric family; call once before its samples
+     */
+    PrometheusWriter family(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    PrometheusWriter sample(String name, double value, String... labels) {
+        out.append(name);
+        appendLabels(labels, null);
+        out.append(' ').append(format(value)).append('\n');
+        return this;
+    }
+
+    /**
+     * Samples of a histogram family from a latency histogram. Its buckets
+     * are finer than the exposed ones, and each is counted under the first
+     * bound at or above its upper end.
+     */
+    PrometheusWriter histogram(String name, LatencyHistogram histogram, String... labels) {
+        long[] counts = histogram.snapshotCounts();
+        long cumulative = 0;
+        int index = 0;
+        for (double bound : BOUNDS) {
+            long boundMicros = (long) (bound * 1_000_000);
+            while (index < counts.length && LatencyHistogram.getBucketUpperBound(index) <= boundMicros) {
+                cumulative += counts[index++];
+            }
+            out.append(name).append("_bucket");
+            appendLabels(labels, format(bound));
+            out.append(' ').append(cumulative).append('\n');
+        }
+        while (index < counts.length) {
+            cumulative += counts[index++];
+        }
+        out.append(name).append("_bucket");
+        appendLabels(labels, "+Inf");
+        out.append(' ').append(cumulative).append('\n');
+
+        out.append(name).append("_sum");
+        appendLabels(labels, null);
+        out.append(' ').append(format(histogram.getTotalMicros() / 1e6)).append('\n');
+        out.append(name).append("_count");
+        appendLabels(labels, null);
+        out.append(' ').append(cumulative).append('\n');
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+
+    private void appendLabels(String[] labels, String le) {
+        if (labels.length == 0 && le == null) {
+            return;
+        }
+        out.append('{');
+        for (int i = 0; i + 1 < labels.length; i += 2) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(labels[i]).append("=\"");
+            escape(labels[i + 1]);
+            out.append('"');
+        }
+        if (le != null) {
+            out.append(labels.length > 0 ? "," : "").append("le=\"").append(le).append('"');
+        }
+        out.append('}');
+    }
+
+    private void escape(String value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    private static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,202 @@
+package com.hospital.metrics;
+
+import com.hospital.util.AppLogger;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Query budget per user action. When an action ends having run more than
+ * hospital.queryBudget.maxQueries statements (default 10) or spent more
+ * than hospital.queryBudget.maxDbMillis in the database (default 500), it
+ * is logged with its statements per DAO method - a method that ran many
+ * times is usually an N+1 - and kept for the diagnostics window.
+ *
+ * Both limits can be set per window, e.g.
+ * -Dhospital.queryBudget.maxQueries.ReportsFrame=20.
+ *
+ * With hospital.queryBudget.strict=true, for test runs, the statement that
+ * would exceed the query count throws {@link QueryBudgetExceededException}
+ * instead of running, and {@link #assertWithinBudget()} fails if any action
+ * went over either limit.
+ */
+public final class QueryBudget {
+
+    private static final int DEFAULT_MAX_QUERIES = Integer.getInteger("hospital.queryBudget.maxQueries", 10);
+    private static final long DEFAULT_MAX_DB_MILLIS = Long.getLong("hospital.queryBudget.maxDbMillis", 500);
+    private static final boolean STRICT = Boolean.getBoolean("hospital.queryBudget.strict");
+
+    /** Statements of one method in one action at which it is reported as repeated */
+    private static final int REPEATED_CALLS = 3;
+    private static final int MAX_KEPT = 100;
+
+    private static final ConcurrentHashMap<String, Integer> MAX_QUERIES = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, Long> MAX_DB_MILLIS = new ConcurrentHashMap<>();
+    private static final Deque<Violation> RECENT = new ArrayDeque<>();
+    private static final AtomicLong VIOLATIONS = new AtomicLong();
+
+    /**
+     * An action that went over its budget
+     */
+    public static final class Violation {
+        private final LocalDateTime at = LocalDateTime.now();
+        private final String window;
+        private final String action;
+        private final int queries;
+        private final long databaseMicros;
+        private final long elapsedMicros;
+        private final Map<String, Integer> callers;
+
+        private Violation(UiAction action) {
+            this.window = action.getWindow();
+            this.action = action.getLabel();
+            this.queries = action.getQueryCount();
+            this.databaseMicros = action.getDatabaseMicros();
+            this.elapsedMicros = action.getElapsedMicros();
+            this.callers = action.getCallerCounts();
+        }
+
+        public LocalDateTime getAt() { return at; }
+        public String getWindow() { return window; }
+        public String getAction() { return action; }
+        public int getQueries() { return queries; }
+        public long getDatabaseMicros() { return databaseMicros; }
+        public long getElapsedMicros() { return elapsedMicros; }
+
+        /** Statements per DAO method, most frequent first */
+        public Map<String, Integer> getCallers() { return callers; }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %s ran %d queries in %.1f ms (%s)",
+                    window, action, queries, databaseMicros / 1000.0, describe(callers, 1));
+        }
+    }
+
+    private QueryBudget() {}
+
+    /** The query count allowed unless the window has its own */
+    public static int getMaxQueries() {
+        return DEFAULT_MAX_QUERIES;
+    }
+
+    public static long getMaxDbMillis() {
+        return DEFAULT_MAX_DB_MILLIS;
+    }
+
+    public static int getMaxQueries(String window) {
+        return MAX_QUERIES.computeIfAbsent(window,
+                key -> Integer.getInteger("hospital.queryBudget.maxQueries." + key, DEFAULT_MAX_QUERIES));
+    }
+
+    public static long getMaxDbMillis(String window) {
+        return MAX_DB_MILLIS.computeIfAbsent(window,
+                key -> Long.getLong("hospital.queryBudget.maxDbMillis." + key, DEFAULT_MAX_DB_MILLIS));
+    }
+
+    public static boolean isStrict() {
+        return STRICT;
+    }
+
+    /** Actions over budget since startup or the last reset */
+    public static long getViolationCount() {
+        return VIOLATIONS.get();
+    }
+
+    /**
+     * The most recent violations, oldest first
+     */
+    public static List<Violation> getRecentViolations() {
+        synchronized (RECENT) {
+            return new ArrayList<>(RECENT);
+        }
+    }
+
+    public static void reset() {
+        synchronized (RECENT) {
+            RECENT.clear();
+            VIOLATIONS.set(0);
+        }
+    }
+
+    /**
+     * Fail if any action went over budget; for test runs
+     * @throws AssertionError listing the recent violations
+     */
+    public static void assertWithinBudget() {
+        List<Violation> violations = getRecentViolations();
+        if (getViolationCount() > 0) {
+            StringBuilder message = new StringBuilder()
+                    .append(getViolationCount()).append(" action(s) over their query budget");
+            for (Violation violation : violations) {
+                message.append(System.lineSeparator()).append("  ").append(violation);
+            }
+            throw new AssertionError(message.toString());
+        }
+    }
+
+    /**
+     * Called before a statement runs for the action; in strict mode refuses
+     * the statement that would exceed the query count, and the action still
+     * counts as a violation if the exception is swallowed on the way up
+     */
+    static void beforeQuery(UiAction action, String caller) {
+        if (STRICT && action.getQueryCount() >= getMaxQueries(action.getWindow())) {
+            action.overBudget = true;
+            throw new QueryBudgetExceededException(action, caller, getMaxQueries(action.getWindow()));
+        }
+    }
+
+    /**
+     * Called once an action and all work it handed off have finished
+     */
+    static void actionEnded(UiAction action) {
+        int queries = action.getQueryCount();
+        if (queries == 0) {
+            return;
+        }
+        long dbMillis = action.getDatabaseMicros() / 1_000;
+        boolean overCount = queries > getMaxQueries(action.getWindow()) || action.overBudget;
+        boolean overTime = dbMillis > getMaxDbMillis(action.getWindow());
+        if (!overCount && !overTime) {
+            return;
+        }
+
+        Violation violation = new Violation(action);
+        synchronized (RECENT) {
+            if (RECENT.size() == MAX_KEPT) {
+                RECENT.removeFirst();
+            }
+            RECENT.addLast(violation);
+            VIOLATIONS.incrementAndGet();
+        }
+        AppLogger.warning("QueryBudget", "actionEnded",
+                "{window}: {action} over query budget, {queries} queries in {dbMillis} ms",
+                "window", action.getWindow(), "action", action.getLabel(),
+                "queries", queries, "dbMillis", dbMillis,
+                "limit", (overCount ? getMaxQueries(action.getWindow()) + " queries" : "")
+                        + (overCount && overTime ? ", " : "")
+                        + (overTime ? getMaxDbMillis(action.getWindow()) + " ms" : ""),
+                "repeated", describe(violation.getCallers(), REPEATED_CALLS),
+                "callers", describe(violation.getCallers(), 1));
+    }
+
+    /**
+     * Callers with at least minCount statements, e.g. "PatientDAO.getPatientById x12"
+     */
+    private static String describe(Map<String, Integer> callers, int minCount) {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Integer> entry : callers.entrySet()) {
+            if (entry.getValue() >= minCount) {
+                out.append(out.length() > 0 ? ", " : "").append(entry.getKey()).append(" x").append(entry.getValue());
+            }
+        }
+        return out.length() > 0 ? out.toString() : "none";
+    }
+}
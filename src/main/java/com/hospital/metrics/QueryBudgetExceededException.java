@@ -0,0 +1,14 @@
+package com.hospital.metrics;
+
+/**
+ * Thrown in strict mode instead of running a statement that would take a
+ * user action over its query count. It is unchecked so that DAO methods,
+ * which handle SQLException themselves, let it reach the test.
+ */
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(UiAction action, String caller, int maxQueries) {
+        super(action + " exceeded its budget of " + maxQueries + " queries at " + caller
+                + " (ran so far: " + action.getCallerCounts() + ")");
+    }
+}
@@ -0,0 +1,43 @@
+package com.hospital.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One JDBC statement execution. The duration covers the execute call;
+ * rows are counted until the result set is read to the end or closed.
+ */
+@Name("com.hospital.Query")
+@Label("DAO Query")
+@Category({"Hospital", "Database"})
+@Description("A statement executed by a DAO method")
+@StackTrace(false)
+public final class QueryEvent extends Event {
+
+    @Label("Caller")
+    @Description("DAO method that issued the statement")
+    String caller;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Rows")
+    @Description("Rows read or changed")
+    long rows;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Failed")
+    boolean failed;
+
+    @Label("UI Action")
+    @Description("User action that led to the statement, if any")
+    String action;
+}
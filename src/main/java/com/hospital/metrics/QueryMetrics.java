@@ -0,0 +1,155 @@
+package com.hospital.metrics;
+
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-process registry of per-query statistics, fed by JDBC statement
+ * proxies that DatabaseConnection puts around every statement.
+ *
+ * A statement is attributed to the first com.hospital frame outside the
+ * util and metrics packages, so every DAO method shows up by name. The
+ * stack is walked only the first time a SQL string is seen; the result is
+ * remembered with the string, so identical SQL issued from two methods is
+ * counted under the first. Nothing runs unless a query does; with
+ * -Dhospital.metrics.enabled=false statements are not wrapped at all.
+ */
+public final class QueryMetrics {
+
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("hospital.metrics.enabled", "true"));
+
+    /** Distinct SQL strings remembered; beyond this each one walks the stack every time */
+    private static final int MAX_CACHED_SQL = 1000;
+
+    private static final Pattern IN_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+    private static final Pattern VALUES_LIST = Pattern.compile("\\(\\?\\.\\.\\.\\)(\\s*,\\s*\\(\\?\\.\\.\\.\\))+");
+
+    private static final ConcurrentHashMap<String, QueryStats> STATS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, QueryStats> BY_SQL = new ConcurrentHashMap<>();
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private static volatile StatementListener listener;
+
+    private QueryMetrics() {}
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Statistics of every query seen so far, slowest total time first
+     */
+    public static List<QueryStats> getAll() {
+        List<QueryStats> all = new ArrayList<>(STATS.values());
+        all.sort(Comparator.comparingLong((QueryStats s) -> s.getLatency().getTotalMicros()).reversed());
+        return all;
+    }
+
+    /**
+     * Zero every counter; queries stay registered
+     */
+    public static void reset() {
+        STATS.values().forEach(QueryStats::reset);
+    }
+
+    /**
+     * Install the listener told about every successful statement, or null to remove it
+     */
+    public static void setListener(StatementListener statementListener) {
+        listener = statementListener;
+    }
+
+    static StatementListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Wrap a statement so its executions are recorded
+     * @param sql the SQL of a prepared statement, or null for a plain Statement
+     */
+    public static Statement instrument(Statement statement, String sql) {
+        if (!ENABLED) {
+            return statement;
+        }
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        StatementHandler handler = new StatementHandler(statement, sql, sql != null ? statsFor(sql) : null);
+        return (Statement) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+
+    /**
+     * Stats for a statement issued from the current thread's stack
+     */
+    static QueryStats statsFor(String sql) {
+        QueryStats cached = BY_SQL.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String caller = callerName();
+        String normalized = normalize(sql);
+        QueryStats stats = STATS.computeIfAbsent(caller + '\u0000' + normalized,
+                key -> new QueryStats(caller, normalized));
+        if (BY_SQL.size() < MAX_CACHED_SQL) {
+            BY_SQL.putIfAbsent(sql, stats);
+        }
+        return stats;
+    }
+
+    /**
+     * Collapse IN lists and multi-row VALUES so one query with a varying
+     * number of parameters is one logical query
+     */
+    private static String normalize(String sql) {
+        String normalized = IN_LIST.matcher(sql.trim().replaceAll("\\s+", " ")).replaceAll("?...");
+        return VALUES_LIST.matcher(normalized).replaceAll("(?...), ...");
+    }
+
+    /**
+     * Outermost frame of the first application class on the stack, so a
+     * private helper or a cache loader is reported as the public DAO method
+     * that called it
+     */
+    private static String callerName() {
+        return WALKER.walk(frames -> {
+            String owner = null;
+            StackWalker.StackFrame entry = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                String cls = frame.getClassName();
+                if (!cls.startsWith("com.hospital.") || isInfrastructure(cls)) {
+                    continue;
+                }
+                int dollar = cls.indexOf('$');
+                String outer = dollar > 0 ? cls.substring(0, dollar) : cls;
+                if (owner == null) {
+                    owner = outer;
+                } else if (!owner.equals(outer)) {
+                    break;
+                }
+                entry = frame;
+            }
+            if (entry == null) {
+                return "unknown";
+            }
+            String methodName = entry.getMethodName();
+            if (methodName.startsWith("lambda$")) {
+                methodName = methodName.split("\\$")[1];
+            }
+            return owner.substring(owner.lastIndexOf('.') + 1) + "." + methodName;
+        });
+    }
+
+    private static boolean isInfrastructure(String className) {
+        return className.startsWith("com.hospital.util.")
+                || className.startsWith("com.hospital.metrics.")
+                || className.equals("com.hospital.dao.BatchWriter");
+    }
+}
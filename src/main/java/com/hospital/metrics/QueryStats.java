@@ -0,0 +1,65 @@
+package com.hospital.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of one logical query: the DAO method that ran it plus its SQL
+ * with IN lists collapsed
+ */
+public class QueryStats {
+    private final String caller;
+    private final String sql;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    QueryStats(String caller, String sql) {
+        this.caller = caller;
+        this.sql = sql;
+    }
+
+    void recordExecution(long micros, boolean failed) {
+        calls.increment();
+        latency.record(micros);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    void recordFetch(long rowCount, long byteCount) {
+        rows.add(rowCount);
+        bytes.add(byteCount);
+    }
+
+    /** DAO method that issued the query, e.g. "PatientDAO.getAllPatients" */
+    public String getCaller() { return caller; }
+    public String getSql() { return sql; }
+    public long getCalls() { return calls.sum(); }
+    public long getErrors() { return errors.sum(); }
+
+    /** Rows read from result sets, or affected rows for updates */
+    public long getRows() { return rows.sum(); }
+
+    /** Approximate bytes read from result sets (string and binary lengths, 8 per other value) */
+    public long getBytes() { return bytes.sum(); }
+
+    /** Time spent in the execute call, in microseconds */
+    public LatencyHistogram getLatency() { return latency; }
+
+    void reset() {
+        calls.reset();
+        errors.reset();
+        rows.reset();
+        bytes.reset();
+        latency.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d call(s), p50 %d us, p99 %d us, max %d us, %d row(s)",
+                caller, getCalls(), latency.getValueAtPercentile(50), latency.getValueAtPercentile(99),
+                latency.getMaxMicros(), getRows());
+    }
+}
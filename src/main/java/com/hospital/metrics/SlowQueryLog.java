@@ -0,0 +1,237 @@
+package com.hospital.metrics;
+
+import com.hospital.util.AppLogger;
+import com.hospital.util.DatabaseConnection;
+import com.hospital.util.RollingFile;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes statements slower than hospital.slowQuery.thresholdMillis
+ * (default 500) to logs/slow-queries.log, with the caller, row count,
+ * redacted bind parameters and the EXPLAIN plan of the statement.
+ *
+ * Only integers and booleans are written as they are; strings, dates and
+ * other values may be patient data and are written as their type and
+ * length. The raw values are held in memory just long enough to run the
+ * EXPLAIN. Entries are written by one background thread, so the query that
+ * was slow does not also wait for the file or the EXPLAIN; when the queue
+ * is full entries are dropped and counted.
+ */
+public final class SlowQueryLog {
+
+    private static final long THRESHOLD_MICROS =
+            Long.getLong("hospital.slowQuery.thresholdMillis", 500) * 1_000;
+    private static final RollingFile FILE = new RollingFile(
+            Paths.get(System.getProperty("hospital.slowQuery.file", "logs/slow-queries.log")),
+            Long.getLong("hospital.slowQuery.maxBytes", 5L * 1024 * 1024), 3);
+
+    /** The same statement is explained at most once per interval; its plan rarely changes */
+    private static final long EXPLAIN_INTERVAL_MILLIS = 10 * 60_000;
+    private static final int MAX_EXPLAINED_SQL = 1000;
+
+    private static final BlockingQueue<Entry> QUEUE = new ArrayBlockingQueue<>(256);
+    private static final ConcurrentHashMap<String, Long> LAST_EXPLAINED = new ConcurrentHashMap<>();
+    private static final AtomicLong LOGGED = new AtomicLong();
+    private static final AtomicLong DROPPED = new AtomicLong();
+
+    private static final Thread WRITER = new Thread(SlowQueryLog::drain, "slow-query-log");
+
+    static {
+        WRITER.setDaemon(true);
+        WRITER.start();
+    }
+
+    private static final class Entry {
+        final LocalDateTime at = LocalDateTime.now();
+        final String caller;
+        final String sql;
+        final Object[] parameters;
+        final long micros;
+        final long rows;
+
+        Entry(String caller, String sql, Object[] parameters, long micros, long rows) {
+            this.caller = caller;
+            this.sql = sql;
+            this.parameters = parameters;
+            this.micros = micros;
+            this.rows = rows;
+        }
+    }
+
+    private SlowQueryLog() {}
+
+    public static long getThresholdMillis() {
+        return THRESHOLD_MICROS / 1_000;
+    }
+
+    /** Entries written since startup */
+    public static long getLoggedCount() {
+        return LOGGED.get();
+    }
+
+    /** Entries lost because the writer fell behind */
+    public static long getDroppedCount() {
+        return DROPPED.get();
+    }
+
+    static boolean isSlow(long micros) {
+        return micros >= THRESHOLD_MICROS;
+    }
+
+    /**
+     * Queue a slow execution; the EXPLAIN run by the writer itself is never logged
+     * @param rows rows read or changed, or -1 if the statement failed
+     */
+    static void record(String caller, String sql, Object[] parameters, long micros, long rows) {
+        if (Thread.currentThread() == WRITER) {
+            return;
+        }
+        if (!QUEUE.offer(new Entry(caller, sql, parameters, micros, rows))) {
+            DROPPED.incrementAndGet();
+        }
+    }
+
+    private static void drain() {
+        while (true) {
+            Entry entry;
+            try {
+                entry = QUEUE.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                FILE.append(format(entry));
+                FILE.flush();
+                LOGGED.incrementAndGet();
+            } catch (IOException | RuntimeException e) {
+                AppLogger.error(SlowQueryLog.class.getSimpleName(), "drain", "Error writing slow query log", e);
+            }
+        }
+    }
+
+    private static String format(Entry entry) {
+        StringBuilder out = new StringBuilder(512);
+        out.append(entry.at).append("  ").append(entry.micros / 1_000).append(" ms  ")
+                .append(entry.caller).append("  ")
+                .append(entry.rows < 0 ? "failed" : "rows=" + entry.rows).append(System.lineSeparator());
+        out.append("  SQL: ").append(entry.sql.trim().replaceAll("\\s+", " ")).append(System.lineSeparator());
+        if (entry.parameters.length > 0) {
+            out.append("  Params: ").append(redact(entry.parameters)).append(System.lineSeparator());
+        }
+        explain(entry, out);
+        return out.append(System.lineSeparator()).toString();
+    }
+
+    static String redact(Object[] parameters) {
+        List<String> values = new ArrayList<>(parameters.length);
+        for (int i = 0; i < parameters.length; i++) {
+            values.add("[" + (i + 1) + "]=" + redact(parameters[i]));
+        }
+        return String.join(", ", values);
+    }
+
+    private static String redact(Object value) {
+        if (value == null || value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte || value instanceof Boolean) {
+            return String.valueOf(value);
+        }
+        if (value instanceof String) {
+            return "'***'(len " + ((String) value).length() + ")";
+        }
+        if (value instanceof byte[]) {
+            return "bytes(len " + ((byte[]) value).length + ")";
+        }
+        if (value instanceof BigDecimal) {
+            return "decimal";
+        }
+        return value.getClass().getSimpleName().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Append the plan, unless the statement cannot be explained or was
+     * explained recently
+     */
+    private static void explain(Entry entry, StringBuilder out) {
+        if (!isExplainable(entry.sql) || entry.rows < 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Long last = LAST_EXPLAINED.get(entry.sql);
+        if (last != null && now - last < EXPLAIN_INTERVAL_MILLIS) {
+            out.append("  EXPLAIN: see earlier entry").append(System.lineSeparator());
+            return;
+        }
+        if (LAST_EXPLAINED.size() >= MAX_EXPLAINED_SQL) {
+            LAST_EXPLAINED.clear();
+        }
+        LAST_EXPLAINED.put(entry.sql, now);
+
+        try (Connection conn = DatabaseConnection.getConnection();
+                PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + entry.sql)) {
+            for (int i = 0; i < entry.parameters.length; i++) {
+                pstmt.setObject(i + 1, entry.parameters[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                appendTable(rs, out);
+            }
+        } catch (SQLException e) {
+            out.append("  EXPLAIN failed: ").append(e.getMessage()).append(System.lineSeparator());
+        }
+    }
+
+    private static boolean isExplainable(String sql) {
+        String head = sql.stripLeading().toUpperCase(Locale.ROOT);
+        return head.startsWith("SELECT") || head.startsWith("UPDATE") || head.startsWith("DELETE")
+                || head.startsWith("INSERT") || head.startsWith("REPLACE") || head.startsWith("WITH");
+    }
+
+    private static void appendTable(ResultSet rs, StringBuilder out) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columns = meta.getColumnCount();
+        List<String[]> rows = new ArrayList<>();
+        String[] header = new String[columns];
+        int[] widths = new int[columns];
+        for (int c = 0; c < columns; c++) {
+            header[c] = meta.getColumnLabel(c + 1);
+            widths[c] = header[c].length();
+        }
+        while (rs.next()) {
+            String[] row = new String[columns];
+            for (int c = 0; c < columns; c++) {
+                row[c] = String.valueOf(rs.getString(c + 1));
+                widths[c] = Math.max(widths[c], row[c].length());
+            }
+            rows.add(row);
+        }
+
+        out.append("  EXPLAIN:").append(System.lineSeparator());
+        appendRow(header, widths, out);
+        for (String[] row : rows) {
+            appendRow(row, widths, out);
+        }
+    }
+
+    private static void appendRow(String[] cells, int[] widths, StringBuilder out) {
+        out.append("   ");
+        for (int c = 0; c < cells.length; c++) {
+            out.append(c == 0 ? " " : " | ").append(String.format("%-" + widths[c] + "s", cells[c]));
+        }
+        out.append(System.lineSeparator());
+    }
+}
@@ -0,0 +1,219 @@
+package com.hospital.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Proxy behind every instrumented statement: times executions, counts
+ * rows and bytes, remembers bind parameters for the slow query log, hands
+ * slow executions to {@link SlowQueryLog}, emits a {@link QueryEvent}
+ * attributed to the current {@link UiAction} and tells the
+ * {@link StatementListener}, if one is installed.
+ */
+final class StatementHandler implements InvocationHandler {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private static final Object[] NO_PARAMETERS = new Object[0];
+
+    private final Statement statement;
+    private final String preparedSql;
+    private final QueryStats preparedStats;
+    private Object[] parameters = NO_PARAMETERS;
+
+    StatementHandler(Statement statement, String preparedSql, QueryStats preparedStats) {
+        this.statement = statement;
+        this.preparedSql = preparedSql;
+        this.preparedStats = preparedStats;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (!EXECUTE_METHODS.contains(name)) {
+            if (preparedSql != null) {
+                captureParameter(name, args);
+            }
+            return call(statement, method, args);
+        }
+
+        String sql = preparedSql != null ? preparedSql
+                : args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : "(batch)";
+        QueryStats stats = preparedStats != null ? preparedStats : QueryMetrics.statsFor(sql);
+        UiAction action = UiAction.current();
+        if (action != null) {
+            QueryBudget.beforeQuery(action, stats.getCaller());
+        }
+        QueryEvent event = JfrEvents.isEnabled() ? new QueryEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        long started = System.nanoTime();
+        boolean failed = true;
+        Object result;
+        long micros;
+        try {
+            result = call(statement, method, args);
+            failed = false;
+        } finally {
+            micros = (System.nanoTime() - started) / 1_000;
+            stats.recordExecution(micros, failed);
+            if (action != null) {
+                action.recordQuery(stats.getCaller(), micros);
+            }
+            if (event != null) {
+                event.end();
+            }
+            if (failed) {
+                commit(event, stats, action, 0, 0, true);
+                if (SlowQueryLog.isSlow(micros)) {
+                    SlowQueryLog.record(stats.getCaller(), sql, parameters.clone(), micros, -1);
+                }
+            }
+        }
+        StatementListener listener = QueryMetrics.getListener();
+        if (listener != null && (preparedSql != null || args != null && args.length > 0)) {
+            listener.executed(stats.getCaller(), sql, parameters.clone());
+        }
+        return afterExecute(stats, sql, result, micros, event, action);
+    }
+
+    /**
+     * Count rows of updates here; result sets count their own rows as they are read
+     */
+    private Object afterExecute(QueryStats stats, String sql, Object result, long micros,
+                                QueryEvent event, UiAction action) {
+        boolean slow = SlowQueryLog.isSlow(micros);
+        if (result instanceof ResultSet) {
+            Object[] slowParameters = slow ? parameters.clone() : null;
+            FetchListener listener = (rows, bytes) -> {
+                stats.recordFetch(rows, bytes);
+                commit(event, stats, action, rows, bytes, false);
+                if (slowParameters != null) {
+                    SlowQueryLog.record(stats.getCaller(), sql, slowParameters, micros, rows);
+                }
+            };
+            return Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+                    new ResultSetHandler((ResultSet) result, listener));
+        }
+
+        long affected = 0;
+        if (result instanceof Integer || result instanceof Long) {
+            affected = Math.max(0, ((Number) result).longValue());
+        } else if (result instanceof int[]) {
+            for (int n : (int[]) result) {
+                affected += Math.max(0, n);
+            }
+        }
+        stats.recordFetch(affected, 0);
+        commit(event, stats, action, affected, 0, false);
+        if (slow) {
+            SlowQueryLog.record(stats.getCaller(), sql, parameters.clone(), micros, affected);
+        }
+        return result;
+    }
+
+    private static void commit(QueryEvent event, QueryStats stats, UiAction action,
+                               long rows, long bytes, boolean failed) {
+        if (event != null && event.shouldCommit()) {
+            event.caller = stats.getCaller();
+            event.sql = stats.getSql();
+            event.rows = rows;
+            event.bytes = bytes;
+            event.failed = failed;
+            event.action = action != null ? action.toString() : null;
+            event.commit();
+        }
+    }
+
+    /**
+     * Keep the last value bound to each index; a batch keeps its last row
+     */
+    private void captureParameter(String name, Object[] args) {
+        if (name.equals("clearParameters")) {
+            Arrays.fill(parameters, null);
+        } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+            int index = (Integer) args[0];
+            if (index > parameters.length) {
+                parameters = Arrays.copyOf(parameters, Math.max(index, parameters.length * 2));
+            }
+            if (index >= 1) {
+                parameters[index - 1] = name.equals("setNull") ? null : args[1];
+            }
+        }
+    }
+
+    interface FetchListener {
+        void fetched(long rows, long bytes);
+    }
+
+    /**
+     * Counts rows and approximate bytes as they are read and reports once,
+     * at the end of the rows or on close. A result set is used by one thread.
+     */
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet resultSet;
+        private final FetchListener listener;
+        private long rows;
+        private long bytes;
+        private boolean reported;
+
+        ResultSetHandler(ResultSet resultSet, FetchListener listener) {
+            this.resultSet = resultSet;
+            this.listener = listener;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            Object result = call(resultSet, method, args);
+            if (name.equals("next")) {
+                if ((Boolean) result) {
+                    rows++;
+                } else {
+                    report();
+                }
+            } else if (name.startsWith("get") && args != null && args.length >= 1) {
+                bytes += sizeOf(result);
+            } else if (name.equals("close")) {
+                report();
+            }
+            return result;
+        }
+
+        private void report() {
+            if (!reported) {
+                reported = true;
+                listener.fetched(rows, bytes);
+            }
+        }
+
+        private static long sizeOf(Object value) {
+            if (value == null) {
+                return 0;
+            }
+            if (value instanceof String) {
+                return ((String) value).length();
+            }
+            if (value instanceof byte[]) {
+                return ((byte[]) value).length;
+            }
+            return 8;
+        }
+    }
+
+    private static Object call(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.hospital.metrics;
+
+/**
+ * Told about every statement that executed successfully, e.g. to collect
+ * the SQL a piece of code issues. Called on the executing thread, so it
+ * must be quick.
+ */
+public interface StatementListener {
+
+    /**
+     * @param caller DAO method the statement is attributed to
+     * @param sql the SQL as prepared or executed
+     * @param parameters bind parameters by index; a batch passes its last row
+     */
+    void executed(String caller, String sql, Object[] parameters);
+}
@@ -0,0 +1,167 @@
+package com.hospital.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A user action - a click or key press in some window - and the statements
+ * run on its behalf.
+ *
+ * EdtMonitor begins an action for each input event it dispatches, and
+ * statements executed on the EDT meanwhile are counted against it. Work
+ * handed to another thread carries the action along with {@link #retain()}
+ * and {@link #enter()}, or {@link #propagate(Supplier)}; the action ends
+ * once the event and every piece of such work have finished.
+ */
+public final class UiAction {
+
+    private static final ThreadLocal<UiAction> CURRENT = new ThreadLocal<>();
+
+    private final String window;
+    private final String label;
+    private final long startNanos = System.nanoTime();
+    private final AtomicInteger references = new AtomicInteger(1);
+    private final AtomicInteger queries = new AtomicInteger();
+    private final AtomicLong databaseMicros = new AtomicLong();
+    private final Map<String, AtomicInteger> callers = new ConcurrentHashMap<>();
+    private final UiActionEvent event;
+    private volatile long elapsedMicros = -1;
+    /** Set when a statement was refused for going over the query budget */
+    volatile boolean overBudget;
+
+    /**
+     * Restores the previous action of the thread when closed
+     */
+    public final class Scope implements AutoCloseable {
+        private final UiAction previous;
+
+        private Scope(UiAction previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+            release();
+        }
+    }
+
+    private UiAction(String window, String label) {
+        this.window = window;
+        this.label = label;
+        if (JfrEvents.isEnabled()) {
+            event = new UiActionEvent();
+            event.begin();
+        } else {
+            event = null;
+        }
+    }
+
+    /**
+     * Begin an action on the current thread
+     */
+    public static Scope begin(String window, String label) {
+        UiAction action = new UiAction(window, label);
+        UiAction previous = CURRENT.get();
+        CURRENT.set(action);
+        return action.new Scope(previous);
+    }
+
+    /** The action the current thread works for, or null */
+    public static UiAction current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Wrap a task so it runs as part of the current action, if any; the
+     * action stays open until the task has run
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        UiAction action = current();
+        if (action == null) {
+            return task;
+        }
+        action.retain();
+        return () -> {
+            Scope scope = action.enter();
+            try {
+                return task.get();
+            } finally {
+                scope.close();
+            }
+        };
+    }
+
+    /**
+     * Keep the action open for work that will {@link #enter()} it later
+     */
+    public void retain() {
+        references.incrementAndGet();
+    }
+
+    /**
+     * Make this the current thread's action; closing the scope gives up the
+     * reference taken by {@link #retain()}
+     */
+    public Scope enter() {
+        UiAction previous = CURRENT.get();
+        CURRENT.set(this);
+        return new Scope(previous);
+    }
+
+    void recordQuery(String caller, long micros) {
+        queries.incrementAndGet();
+        databaseMicros.addAndGet(micros);
+        callers.computeIfAbsent(caller, key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private void release() {
+        if (references.decrementAndGet() == 0) {
+            elapsedMicros = (System.nanoTime() - startNanos) / 1_000;
+            QueryBudget.actionEnded(this);
+            if (event != null && queries.get() > 0 && event.shouldCommit()) {
+                event.window = window;
+                event.action = label;
+                event.queries = queries.get();
+                event.databaseMicros = databaseMicros.get();
+                event.commit();
+            }
+        }
+    }
+
+    public String getWindow() { return window; }
+    public String getLabel() { return label; }
+    public int getQueryCount() { return queries.get(); }
+    public long getDatabaseMicros() { return databaseMicros.get(); }
+
+    /**
+     * Statements per calling DAO method, most frequent first
+     */
+    public Map<String, Integer> getCallerCounts() {
+        List<Map.Entry<String, AtomicInteger>> entries = new ArrayList<>(callers.entrySet());
+        entries.sort((x, y) -> Integer.compare(y.getValue().get(), x.getValue().get()));
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, AtomicInteger> entry : entries) {
+            counts.put(entry.getKey(), entry.getValue().get());
+        }
+        return counts;
+    }
+
+    /** Time from the input event until the action ended, or -1 while it runs */
+    public long getElapsedMicros() { return elapsedMicros; }
+
+    @Override
+    public String toString() {
+        return window + ": " + label;
+    }
+}
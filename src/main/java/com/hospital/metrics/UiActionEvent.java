@@ -0,0 +1,34 @@
+package com.hospital.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A user action, from the click or key press until the last background
+ * work it started has finished. Only actions that ran queries are recorded.
+ */
+@Name("com.hospital.UiAction")
+@Label("UI Action")
+@Category({"Hospital", "UI"})
+@StackTrace(false)
+public final class UiActionEvent extends Event {
+
+    @Label("Window")
+    String window;
+
+    @Label("Action")
+    @Description("Button or component the user acted on")
+    String action;
+
+    @Label("Queries")
+    int queries;
+
+    @Label("Database Time")
+    @Timespan(Timespan.MICROSECONDS)
+    long databaseMicros;
+}
@@ -17,6 +17,8 @@ public class Appointment {
     private String notes;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Rows read from appointments_archive are history and read-only
+    private boolean archived;
     
     // For display purposes
     private String patientName;
@@ -47,6 +49,18 @@ public class Appointment {
         this.notes = notes;
     }
     
+    // Copy constructor
+    public Appointment(Appointment other) {
+        this(other.appointmentId, other.patientId, other.doctorId, other.appointmentDate,
+                other.appointmentTime, other.status, other.notes);
+        this.createdAt = other.createdAt;
+        this.updatedAt = other.updatedAt;
+        this.patientName = other.patientName;
+        this.doctorName = other.doctorName;
+        this.doctorSpecialization = other.doctorSpecialization;
+        this.archived = other.archived;
+    }
+    
     // Getters and Setters
     public int getAppointmentId() { return appointmentId; }
     public void setAppointmentId(int appointmentId) { this.appointmentId = appointmentId; }
@@ -84,6 +98,9 @@ public class Appointment {
     public String getDoctorSpecialization() { return doctorSpecialization; }
     public void setDoctorSpecialization(String doctorSpecialization) { this.doctorSpecialization = doctorSpecialization; }
     
+    public boolean isArchived() { return archived; }
+    public void setArchived(boolean archived) { this.archived = archived; }
+    
     @Override
     public String toString() {
         return "Appointment{" +
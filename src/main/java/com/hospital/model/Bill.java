@@ -0,0 +1,95 @@
+package com.hospital.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Bill model class representing bill entity
+ */
+public class Bill {
+    private int billId;
+    private int patientId;
+    private Integer appointmentId;
+    private BigDecimal totalAmount;
+    private BigDecimal paidAmount;
+    private String paymentStatus;
+    private LocalDate billDate;
+    private LocalDate dueDate;
+    private String services;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    
+    // For display purposes
+    private String patientName;
+    
+    // Default constructor
+    public Bill() {}
+    
+    // Constructor with essential fields
+    public Bill(int patientId, Integer appointmentId, BigDecimal totalAmount, LocalDate billDate, LocalDate dueDate) {
+        this.patientId = patientId;
+        this.appointmentId = appointmentId;
+        this.totalAmount = totalAmount;
+        this.paidAmount = BigDecimal.ZERO;
+        this.paymentStatus = "Pending";
+        this.billDate = billDate;
+        this.dueDate = dueDate;
+    }
+    
+    // Getters and Setters
+    public int getBillId() { return billId; }
+    public void setBillId(int billId) { this.billId = billId; }
+    
+    public int getPatientId() { return patientId; }
+    public void setPatientId(int patientId) { this.patientId = patientId; }
+    
+    /** Appointment billed, or null for bills not tied to an appointment */
+    public Integer getAppointmentId() { return appointmentId; }
+    public void setAppointmentId(Integer appointmentId) { this.appointmentId = appointmentId; }
+    
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public void setTotalAmount(BigDecimal totalAmount) { this.totalAmount = totalAmount; }
+    
+    public BigDecimal getPaidAmount() { return paidAmount; }
+    public void setPaidAmount(BigDecimal paidAmount) { this.paidAmount = paidAmount; }
+    
+    public String getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(String paymentStatus) { this.paymentStatus = paymentStatus; }
+    
+    public LocalDate getBillDate() { return billDate; }
+    public void setBillDate(LocalDate billDate) { this.billDate = billDate; }
+    
+    public LocalDate getDueDate() { return dueDate; }
+    public void setDueDate(LocalDate dueDate) { this.dueDate = dueDate; }
+    
+    public String getServices() { return services; }
+    public void setServices(String services) { this.services = services; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    public String getPatientName() { return patientName; }
+    public void setPatientName(String patientName) { this.patientName = patientName; }
+    
+    /** Amount still owed */
+    public BigDecimal getBalance() {
+        BigDecimal paid = paidAmount != null ? paidAmount : BigDecimal.ZERO;
+        return totalAmount != null ? totalAmount.subtract(paid) : BigDecimal.ZERO;
+    }
+    
+    @Override
+    public String toString() {
+        return "Bill{" +
+                "billId=" + billId +
+                ", patientName='" + patientName + '\'' +
+                ", totalAmount=" + totalAmount +
+                ", paidAmount=" + paidAmount +
+                ", paymentStatus='" + paymentStatus + '\'' +
+                ", billDate=" + billDate +
+                '}';
+    }
+}
@@ -0,0 +1,57 @@
+package com.hospital.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Payment model class representing one entry of the append-only payments ledger.
+ * The amount is held in minor units (cents); refunds are negative.
+ */
+public class Payment {
+    private long paymentId;
+    private int billId;
+    private long amountMinor;
+    private String method;
+    private String reference;
+    private LocalDateTime postedAt;
+    
+    // Default constructor
+    public Payment() {}
+    
+    // Constructor with essential fields
+    public Payment(int billId, long amountMinor, String method, String reference) {
+        this.billId = billId;
+        this.amountMinor = amountMinor;
+        this.method = method;
+        this.reference = reference;
+    }
+    
+    // Getters and Setters
+    public long getPaymentId() { return paymentId; }
+    public void setPaymentId(long paymentId) { this.paymentId = paymentId; }
+    
+    public int getBillId() { return billId; }
+    public void setBillId(int billId) { this.billId = billId; }
+    
+    public long getAmountMinor() { return amountMinor; }
+    public void setAmountMinor(long amountMinor) { this.amountMinor = amountMinor; }
+    
+    public String getMethod() { return method; }
+    public void setMethod(String method) { this.method = method; }
+    
+    /** Unique reference from the cashier system; posting the same reference twice is a no-op */
+    public String getReference() { return reference; }
+    public void setReference(String reference) { this.reference = reference; }
+    
+    public LocalDateTime getPostedAt() { return postedAt; }
+    public void setPostedAt(LocalDateTime postedAt) { this.postedAt = postedAt; }
+    
+    @Override
+    public String toString() {
+        return "Payment{" +
+                "paymentId=" + paymentId +
+                ", billId=" + billId +
+                ", amountMinor=" + amountMinor +
+                ", reference='" + reference + '\'' +
+                '}';
+    }
+}
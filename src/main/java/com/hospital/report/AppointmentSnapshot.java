@@ -0,0 +1,518 @@
+package com.hospital.report;
+
+import com.hospital.dao.AppointmentSnapshotDAO;
+import com.hospital.util.AppLogger;
+import com.hospital.util.DatabaseConnection;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory columnar copy of the appointments table for interactive pivots.
+ *
+ * Each column is a primitive array (ids, epoch day, minute of day, one byte
+ * of status), about 21 bytes per appointment. Rows are kept in id order so
+ * incremental refreshes can find them by binary search. Pivots are plain
+ * counting loops over the arrays, split across the common fork/join pool.
+ */
+public class AppointmentSnapshot {
+
+    /** Ways to slice appointments in a pivot */
+    public enum Dimension {
+        DOCTOR("Doctor"), STATUS("Status"), HOUR("Hour"), DAY_OF_WEEK("Day of Week"), WEEK("Week"), MONTH("Month");
+
+        private final String label;
+
+        Dimension(String label) { this.label = label; }
+
+        @Override
+        public String toString() { return label; }
+    }
+
+    private static final String[] STATUS_NAMES = {"Scheduled", "Completed", "Cancelled", "No Show"};
+    private static final byte DELETED = -1;
+
+    /** Rows per parallel pivot task */
+    private static final int CHUNK_ROWS = 1 << 20;
+
+    private static final AppointmentSnapshot INSTANCE = new AppointmentSnapshot();
+
+    private final AppointmentSnapshotDAO snapshotDAO = new AppointmentSnapshotDAO();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object refreshLock = new Object();
+
+    // guarded by lock
+    private Columns columns = new Columns(0);
+
+    // guarded by refreshLock
+    private Timestamp watermark;
+
+    private AppointmentSnapshot() {}
+
+    public static AppointmentSnapshot getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Number of live appointments in the snapshot
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return columns.size - columns.deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Bring the snapshot up to date: a parallel full load the first time,
+     * then only rows changed or deleted since the previous refresh
+     */
+    public void refresh() throws SQLException, InterruptedException {
+        synchronized (refreshLock) {
+            if (watermark == null || !applyChanges()) {
+                loadAll();
+            }
+        }
+    }
+
+    /**
+     * Load every row, one id range per thread, straight into its final
+     * position in the columns
+     */
+    private void loadAll() throws SQLException, InterruptedException {
+        long started = System.nanoTime();
+        Timestamp mark = snapshotDAO.currentWatermark();
+        int[] bounds = snapshotDAO.getIdBounds();
+        if (bounds == null) {
+            swap(new Columns(0), mark);
+            return;
+        }
+
+        // leave half the pool to the screens, reports and jobs while loading
+        int threads = Math.max(1, DatabaseConnection.getPoolSize() / 2);
+        long span = (long) bounds[1] - bounds[0] + 1;
+        int ranges = (int) Math.min(threads, span);
+        int[] firstId = new int[ranges + 1];
+        for (int r = 0; r <= ranges; r++) {
+            firstId[r] = (int) (bounds[0] + span * r / ranges);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "snapshot-load");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Callable<Integer>> counts = new ArrayList<>();
+            for (int r = 0; r < ranges; r++) {
+                int from = firstId[r], to = firstId[r + 1] - 1;
+                counts.add(() -> snapshotDAO.countRange(from, to));
+            }
+            int[] offset = new int[ranges + 1];
+            List<Future<Integer>> countResults = executor.invokeAll(counts);
+            for (int r = 0; r < ranges; r++) {
+                offset[r + 1] = offset[r] + get(countResults.get(r));
+            }
+
+            Columns loaded = new Columns(offset[ranges]);
+            loaded.size = offset[ranges];
+            Arrays.fill(loaded.statuses, 0, loaded.size, DELETED);
+            loaded.deletedCount = loaded.size;
+
+            List<Callable<Integer>> scans = new ArrayList<>();
+            for (int r = 0; r < ranges; r++) {
+                int from = firstId[r], to = firstId[r + 1] - 1, start = offset[r], end = offset[r + 1];
+                scans.add(() -> {
+                    int[] position = {start};
+                    // rows beyond the counted slots were inserted meanwhile; the next refresh adds them
+                    snapshotDAO.scanRange(from, to, (id, patientId, doctorId, day, minute, status) -> {
+                        if (position[0] < end) {
+                            loaded.set(position[0]++, id, patientId, doctorId, day, minute, statusCode(status));
+                        }
+                    });
+                    return position[0] - start;
+                });
+            }
+            int filled = 0;
+            for (Future<Integer> scan : executor.invokeAll(scans)) {
+                filled += get(scan);
+            }
+            loaded.deletedCount = loaded.size - filled;
+            // also recomputes maxDoctorId, which the loader threads race on
+            loaded.compact();
+
+            swap(loaded, mark);
+            AppLogger.info("AppointmentSnapshot", "loadAll", String.format("Loaded %d appointments with %d threads in %d ms",
+                    loaded.size, ranges, (System.nanoTime() - started) / 1_000_000));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Apply rows changed or deleted since the watermark
+     * @return false if the watermark is too old for a delta
+     */
+    private boolean applyChanges() throws SQLException {
+        Columns changed = new Columns(16);
+        List<Integer> deletedIds = new ArrayList<>();
+        Timestamp next = snapshotDAO.scanChangesSince(watermark,
+                (id, patientId, doctorId, day, minute, status) ->
+                        changed.add(id, patientId, doctorId, day, minute, statusCode(status)),
+                deletedIds);
+        if (next == null) {
+            return false;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Columns c = columns;
+            // changes arrive in id order, so appended rows stay sorted unless an old id reappears
+            int existing = c.size;
+            boolean outOfOrder = false;
+            for (int i = 0; i < changed.size; i++) {
+                int id = changed.ids[i];
+                int index = Arrays.binarySearch(c.ids, 0, existing, id);
+                if (index >= 0) {
+                    if (c.statuses[index] == DELETED) {
+                        c.deletedCount--;
+                    }
+                    c.set(index, id, changed.patientIds[i], changed.doctorIds[i],
+                            changed.epochDays[i], changed.minutes[i], changed.statuses[i]);
+                } else {
+                    outOfOrder |= c.size > 0 && id < c.ids[c.size - 1];
+                    c.add(id, changed.patientIds[i], changed.doctorIds[i],
+                            changed.epochDays[i], changed.minutes[i], changed.statuses[i]);
+                }
+            }
+            if (outOfOrder) {
+                c.sortById();
+            }
+            for (int id : deletedIds) {
+                int index = Arrays.binarySearch(c.ids, 0, c.size, id);
+                if (index >= 0 && c.statuses[index] != DELETED) {
+                    c.statuses[index] = DELETED;
+                    c.deletedCount++;
+                }
+            }
+            if (c.deletedCount > c.size / 4) {
+                c.compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        watermark = next;
+        return true;
+    }
+
+    private void swap(Columns loaded, Timestamp mark) {
+        lock.writeLock().lock();
+        try {
+            columns = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        watermark = mark;
+    }
+
+    /**
+     * Count appointments dated in the inclusive range by two dimensions
+     * @param doctorNames labels for the DOCTOR dimension; unknown ids show as "Doctor #id"
+     */
+    public PivotTable pivot(Dimension rowDimension, Dimension columnDimension,
+                            LocalDate from, LocalDate to, Map<Integer, String> doctorNames) {
+        long started = System.nanoTime();
+        int dayLo = (int) from.toEpochDay();
+        int dayHi = (int) to.toEpochDay();
+        if (dayHi < dayLo) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+
+        lock.readLock().lock();
+        try {
+            Columns c = columns;
+            Axis rows = axis(rowDimension, c, dayLo, dayHi, doctorNames);
+            Axis cols = axis(columnDimension, c, dayLo, dayHi, doctorNames);
+            int width = cols.cardinality;
+            int cells = rows.cardinality * width;
+            int chunks = Math.max(1, (c.size + CHUNK_ROWS - 1) / CHUNK_ROWS);
+
+            int[] counts = IntStream.range(0, chunks).parallel().mapToObj(chunk -> {
+                int[] local = new int[cells];
+                int start = chunk * CHUNK_ROWS;
+                int end = Math.min(c.size, start + CHUNK_ROWS);
+                int[] days = c.epochDays;
+                byte[] statuses = c.statuses;
+                for (int i = start; i < end; i++) {
+                    int day = days[i];
+                    if (statuses[i] != DELETED && day >= dayLo && day <= dayHi) {
+                        local[rows.key.key(i) * width + cols.key.key(i)]++;
+                    }
+                }
+                return local;
+            }).reduce((a, b) -> {
+                for (int i = 0; i < a.length; i++) {
+                    a[i] += b[i];
+                }
+                return a;
+            }).orElse(new int[cells]);
+
+            return toTable(rows, cols, counts, c.size, (System.nanoTime() - started) / 1000);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static PivotTable toTable(Axis rows, Axis cols, int[] counts, long scanned, long micros) {
+        int width = cols.cardinality;
+        int[] rowTotals = new int[rows.cardinality];
+        int[] colTotals = new int[width];
+        for (int r = 0; r < rows.cardinality; r++) {
+            for (int col = 0; col < width; col++) {
+                rowTotals[r] += counts[r * width + col];
+                colTotals[col] += counts[r * width + col];
+            }
+        }
+
+        int[] keptRows = IntStream.range(0, rows.cardinality).filter(r -> rowTotals[r] > 0).toArray();
+        int[] keptCols = IntStream.range(0, width).filter(col -> colTotals[col] > 0).toArray();
+
+        String[] rowLabels = new String[keptRows.length];
+        String[] colLabels = new String[keptCols.length];
+        int[][] table = new int[keptRows.length][keptCols.length];
+        for (int i = 0; i < keptRows.length; i++) {
+            rowLabels[i] = rows.label(keptRows[i]);
+            for (int j = 0; j < keptCols.length; j++) {
+                table[i][j] = counts[keptRows[i] * width + keptCols[j]];
+            }
+        }
+        for (int j = 0; j < keptCols.length; j++) {
+            colLabels[j] = cols.label(keptCols[j]);
+        }
+        return new PivotTable(rowLabels, colLabels, table, scanned, micros);
+    }
+
+    private interface KeyFunction {
+        int key(int row);
+    }
+
+    private interface LabelFunction {
+        String label(int key);
+    }
+
+    /**
+     * Dense key space for one dimension; day-based dimensions go through a
+     * per-day lookup table built for the requested range
+     */
+    private static final class Axis {
+        final int cardinality;
+        final KeyFunction key;
+        final LabelFunction labels;
+
+        Axis(int cardinality, KeyFunction key, LabelFunction labels) {
+            this.cardinality = cardinality;
+            this.key = key;
+            this.labels = labels;
+        }
+
+        String label(int key) {
+            return labels.label(key);
+        }
+    }
+
+    private static Axis axis(Dimension dimension, Columns c, int dayLo, int dayHi, Map<Integer, String> doctorNames) {
+        int[] days = c.epochDays;
+        switch (dimension) {
+            case DOCTOR: {
+                int[] doctorIds = c.doctorIds;
+                return new Axis(c.maxDoctorId + 1, row -> doctorIds[row],
+                        id -> doctorNames != null && doctorNames.containsKey(id) ? doctorNames.get(id) : "Doctor #" + id);
+            }
+            case STATUS: {
+                byte[] statuses = c.statuses;
+                return new Axis(STATUS_NAMES.length, row -> statuses[row], code -> STATUS_NAMES[code]);
+            }
+            case HOUR: {
+                int[] minutes = c.minutes;
+                return new Axis(24, row -> minutes[row] / 60, hour -> String.format("%02d:00", hour));
+            }
+            case DAY_OF_WEEK: {
+                int[] table = dayTable(dayLo, dayHi, day -> DayOfWeek.from(LocalDate.ofEpochDay(day)).getValue() - 1);
+                return new Axis(7, row -> table[days[row] - dayLo],
+                        key -> DayOfWeek.of(key + 1).getDisplayName(TextStyle.SHORT, Locale.getDefault()));
+            }
+            case WEEK: {
+                LocalDate firstMonday = LocalDate.ofEpochDay(dayLo).with(DayOfWeek.MONDAY);
+                long base = firstMonday.toEpochDay();
+                int[] table = dayTable(dayLo, dayHi, day -> (int) ((day - base) / 7));
+                return new Axis(table[table.length - 1] + 1, row -> table[days[row] - dayLo],
+                        key -> "Week of " + firstMonday.plusWeeks(key));
+            }
+            case MONTH: {
+                YearMonth first = YearMonth.from(LocalDate.ofEpochDay(dayLo));
+                int[] table = dayTable(dayLo, dayHi, day -> monthsBetween(first, YearMonth.from(LocalDate.ofEpochDay(day))));
+                return new Axis(table[table.length - 1] + 1, row -> table[days[row] - dayLo],
+                        key -> first.plusMonths(key).toString());
+            }
+            default:
+                throw new IllegalArgumentException("Unknown dimension " + dimension);
+        }
+    }
+
+    private interface DayKey {
+        int key(long epochDay);
+    }
+
+    private static int[] dayTable(int dayLo, int dayHi, DayKey keyOf) {
+        int[] table = new int[dayHi - dayLo + 1];
+        for (int d = 0; d < table.length; d++) {
+            table[d] = keyOf.key(dayLo + d);
+        }
+        return table;
+    }
+
+    private static int monthsBetween(YearMonth first, YearMonth month) {
+        return (month.getYear() - first.getYear()) * 12 + month.getMonthValue() - first.getMonthValue();
+    }
+
+    private static byte statusCode(String status) {
+        for (byte code = 0; code < STATUS_NAMES.length; code++) {
+            if (STATUS_NAMES[code].equals(status)) {
+                return code;
+            }
+        }
+        return 0;
+    }
+
+    private static int get(Future<Integer> future) throws SQLException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * Parallel primitive arrays, one slot per appointment, in id order.
+     * Deleted rows keep their slot with status DELETED until compacted.
+     */
+    private static final class Columns {
+        int[] ids;
+        int[] patientIds;
+        int[] doctorIds;
+        int[] epochDays;
+        int[] minutes;
+        byte[] statuses;
+        int size;
+        int deletedCount;
+        int maxDoctorId;
+
+        Columns(int capacity) {
+            ids = new int[capacity];
+            patientIds = new int[capacity];
+            doctorIds = new int[capacity];
+            epochDays = new int[capacity];
+            minutes = new int[capacity];
+            statuses = new byte[capacity];
+        }
+
+        void set(int i, int id, int patientId, int doctorId, int day, int minute, byte status) {
+            ids[i] = id;
+            patientIds[i] = patientId;
+            doctorIds[i] = doctorId;
+            epochDays[i] = day;
+            minutes[i] = minute;
+            statuses[i] = status;
+            if (doctorId > maxDoctorId) {
+                maxDoctorId = doctorId;
+            }
+        }
+
+        void add(int id, int patientId, int doctorId, int day, int minute, byte status) {
+            if (size == ids.length) {
+                resize(Math.max(16, size + (size >> 1)));
+            }
+            set(size++, id, patientId, doctorId, day, minute, status);
+        }
+
+        /**
+         * Squeeze out deleted slots in place, keeping id order
+         */
+        void compact() {
+            int live = 0;
+            maxDoctorId = 0;
+            for (int i = 0; i < size; i++) {
+                if (statuses[i] != DELETED) {
+                    maxDoctorId = Math.max(maxDoctorId, doctorIds[i]);
+                    if (live != i) {
+                        ids[live] = ids[i];
+                        patientIds[live] = patientIds[i];
+                        doctorIds[live] = doctorIds[i];
+                        epochDays[live] = epochDays[i];
+                        minutes[live] = minutes[i];
+                        statuses[live] = statuses[i];
+                    }
+                    live++;
+                }
+            }
+            size = live;
+            deletedCount = 0;
+            if (ids.length > live + (live >> 1) + 16) {
+                resize(live);
+            }
+        }
+
+        /**
+         * Restore id order after rows with old ids were appended
+         */
+        void sortById() {
+            long[] order = new long[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = ((long) ids[i] << 32) | i;
+            }
+            Arrays.parallelSort(order);
+
+            Columns sorted = new Columns(ids.length);
+            for (int i = 0; i < size; i++) {
+                int from = (int) order[i];
+                sorted.set(i, ids[from], patientIds[from], doctorIds[from], epochDays[from], minutes[from], statuses[from]);
+            }
+            ids = sorted.ids;
+            patientIds = sorted.patientIds;
+            doctorIds = sorted.doctorIds;
+            epochDays = sorted.epochDays;
+            minutes = sorted.minutes;
+            statuses = sorted.statuses;
+        }
+
+        private void resize(int capacity) {
+            ids = Arrays.copyOf(ids, capacity);
+            patientIds = Arrays.copyOf(patientIds, capacity);
+            doctorIds = Arrays.copyOf(doctorIds, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            minutes = Arrays.copyOf(minutes, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+        }
+    }
+}
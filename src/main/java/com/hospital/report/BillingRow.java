@@ -0,0 +1,29 @@
+package com.hospital.report;
+
+import java.math.BigDecimal;
+
+/**
+ * Bill count and amounts for one payment status
+ */
+public class BillingRow {
+    private final String paymentStatus;
+    private final int billCount;
+    private final BigDecimal totalAmount;
+    private final BigDecimal paidAmount;
+
+    public BillingRow(String paymentStatus, int billCount, BigDecimal totalAmount, BigDecimal paidAmount) {
+        this.paymentStatus = paymentStatus;
+        this.billCount = billCount;
+        this.totalAmount = totalAmount != null ? totalAmount : BigDecimal.ZERO;
+        this.paidAmount = paidAmount != null ? paidAmount : BigDecimal.ZERO;
+    }
+
+    public String getPaymentStatus() { return paymentStatus; }
+    public int getBillCount() { return billCount; }
+    public BigDecimal getTotalAmount() { return totalAmount; }
+    public BigDecimal getPaidAmount() { return paidAmount; }
+
+    public BigDecimal getOutstanding() {
+        return totalAmount.subtract(paidAmount);
+    }
+}
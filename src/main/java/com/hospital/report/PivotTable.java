@@ -0,0 +1,56 @@
+package com.hospital.report;
+
+/**
+ * Appointment counts cross-tabulated by two dimensions.
+ * Rows and columns without any appointments are left out.
+ */
+public class PivotTable {
+    private final String[] rowLabels;
+    private final String[] columnLabels;
+    private final int[][] counts;
+    private final long scannedRows;
+    private final long elapsedMicros;
+
+    PivotTable(String[] rowLabels, String[] columnLabels, int[][] counts, long scannedRows, long elapsedMicros) {
+        this.rowLabels = rowLabels;
+        this.columnLabels = columnLabels;
+        this.counts = counts;
+        this.scannedRows = scannedRows;
+        this.elapsedMicros = elapsedMicros;
+    }
+
+    public int getRowCount() { return rowLabels.length; }
+    public int getColumnCount() { return columnLabels.length; }
+    public String getRowLabel(int row) { return rowLabels[row]; }
+    public String getColumnLabel(int column) { return columnLabels[column]; }
+    public int getCount(int row, int column) { return counts[row][column]; }
+
+    public int getRowTotal(int row) {
+        int total = 0;
+        for (int count : counts[row]) {
+            total += count;
+        }
+        return total;
+    }
+
+    public int getColumnTotal(int column) {
+        int total = 0;
+        for (int[] row : counts) {
+            total += row[column];
+        }
+        return total;
+    }
+
+    public int getGrandTotal() {
+        int total = 0;
+        for (int row = 0; row < counts.length; row++) {
+            total += getRowTotal(row);
+        }
+        return total;
+    }
+
+    /** Snapshot rows examined to build the table */
+    public long getScannedRows() { return scannedRows; }
+
+    public long getElapsedMicros() { return elapsedMicros; }
+}
@@ -0,0 +1,81 @@
+package com.hospital.report;
+
+import com.hospital.dao.ReportDAO;
+import com.hospital.dao.RollupDAO;
+import com.hospital.metrics.UiAction;
+import com.hospital.util.QueryCache;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Builds utilization reports from the daily rollups and caches each result
+ * per date range. TTL can be tuned with -Dhospital.reportCache.ttlMillis
+ */
+public class ReportService {
+
+    private static final QueryCache<String, UtilizationReport> REPORT_CACHE =
+            new QueryCache<>("reports", Long.getLong("hospital.reportCache.ttlMillis", 60_000L));
+
+    private static final ExecutorService QUERY_EXECUTOR = Executors.newFixedThreadPool(3, r -> {
+        Thread thread = new Thread(r, "report-query");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ReportDAO reportDAO;
+    private final RollupDAO rollupDAO;
+
+    public ReportService() {
+        this.reportDAO = new ReportDAO();
+        this.rollupDAO = new RollupDAO();
+    }
+
+    /** Cache of computed reports (exposed for diagnostics) */
+    public static QueryCache<String, UtilizationReport> getReportCache() {
+        return REPORT_CACHE;
+    }
+
+    /**
+     * Report for an inclusive date range; concurrent requests for the same
+     * range share one computation
+     */
+    public UtilizationReport getUtilizationReport(LocalDate from, LocalDate to) throws Exception {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        return REPORT_CACHE.get(from + ".." + to, () -> compute(from, to));
+    }
+
+    /**
+     * Drop the cached report for a range so the next request recomputes it
+     */
+    public void invalidate(LocalDate from, LocalDate to) {
+        REPORT_CACHE.invalidate(from + ".." + to);
+    }
+
+    private UtilizationReport compute(LocalDate from, LocalDate to) throws Exception {
+        long started = System.nanoTime();
+
+        // fold in days changed since the last catch-up so the report is current
+        rollupDAO.catchUp();
+
+        // the queries read different rollups, so run them side by side, as part of the same user action
+        CompletableFuture<List<BillingRow>> billing =
+                CompletableFuture.supplyAsync(
+                        UiAction.propagate(() -> reportDAO.getBillingSummary(from, to)), QUERY_EXECUTOR);
+        CompletableFuture<List<TrendRow>> trend =
+                CompletableFuture.supplyAsync(
+                        UiAction.propagate(() -> reportDAO.getMonthlyTrend(from, to)), QUERY_EXECUTOR);
+        List<VolumeRow> doctors = reportDAO.getDoctorVolumes(from, to);
+
+        if (doctors == null || billing.get() == null || trend.get() == null) {
+            throw new IllegalStateException("Report query failed, see application log");
+        }
+        return new UtilizationReport(from, to, doctors, billing.get(), trend.get(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+}
@@ -0,0 +1,36 @@
+package com.hospital.report;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+
+/**
+ * Appointment volume and revenue for one calendar month
+ */
+public class TrendRow {
+    private final YearMonth month;
+    private final VolumeRow volume;
+    private BigDecimal billed = BigDecimal.ZERO;
+    private BigDecimal collected = BigDecimal.ZERO;
+
+    public TrendRow(YearMonth month) {
+        this.month = month;
+        this.volume = new VolumeRow(0, null, null);
+    }
+
+    public void addBilling(BigDecimal billedAmount, BigDecimal paidAmount) {
+        if (billedAmount != null) {
+            billed = billed.add(billedAmount);
+        }
+        if (paidAmount != null) {
+            collected = collected.add(paidAmount);
+        }
+    }
+
+    public YearMonth getMonth() { return month; }
+
+    /** Appointment counts by status and consultation revenue for the month */
+    public VolumeRow getVolume() { return volume; }
+
+    public BigDecimal getBilled() { return billed; }
+    public BigDecimal getCollected() { return collected; }
+}
@@ -0,0 +1,83 @@
+package com.hospital.report;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Appointment volume, status breakdown and revenue for a date range.
+ * Immutable once built, so cached instances can be shared.
+ */
+public class UtilizationReport {
+    private final LocalDate from;
+    private final LocalDate to;
+    private final List<VolumeRow> byDoctor;
+    private final List<VolumeRow> bySpecialization;
+    private final VolumeRow totals;
+    private final List<BillingRow> billing;
+    private final List<TrendRow> trend;
+    private final long computeMillis;
+
+    public UtilizationReport(LocalDate from, LocalDate to, List<VolumeRow> byDoctor,
+                             List<BillingRow> billing, List<TrendRow> trend, long computeMillis) {
+        this.from = from;
+        this.to = to;
+        this.billing = Collections.unmodifiableList(new ArrayList<>(billing));
+        this.trend = Collections.unmodifiableList(new ArrayList<>(trend));
+        this.computeMillis = computeMillis;
+
+        List<VolumeRow> doctors = new ArrayList<>(byDoctor);
+        doctors.sort(Comparator.comparingInt(VolumeRow::getTotal).reversed());
+        this.byDoctor = Collections.unmodifiableList(doctors);
+
+        Map<String, VolumeRow> specializations = new TreeMap<>();
+        VolumeRow all = new VolumeRow(0, "All doctors", "All");
+        for (VolumeRow row : doctors) {
+            specializations.computeIfAbsent(row.getSpecialization(), s -> new VolumeRow(0, null, s)).merge(row);
+            all.merge(row);
+        }
+        this.bySpecialization = Collections.unmodifiableList(new ArrayList<>(specializations.values()));
+        this.totals = all;
+    }
+
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo() { return to; }
+
+    /** Doctors ordered by appointment volume, busiest first */
+    public List<VolumeRow> getByDoctor() { return byDoctor; }
+
+    /** Specializations in alphabetical order */
+    public List<VolumeRow> getBySpecialization() { return bySpecialization; }
+
+    /** Counts and revenue over every doctor */
+    public VolumeRow getTotals() { return totals; }
+
+    public List<BillingRow> getBilling() { return billing; }
+
+    /** Months in order, only those with activity */
+    public List<TrendRow> getTrend() { return trend; }
+
+    /** Time taken to compute the report, not including cache hits */
+    public long getComputeMillis() { return computeMillis; }
+
+    public BigDecimal getBilledTotal() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BillingRow row : billing) {
+            sum = sum.add(row.getTotalAmount());
+        }
+        return sum;
+    }
+
+    public BigDecimal getCollectedTotal() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BillingRow row : billing) {
+            sum = sum.add(row.getPaidAmount());
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,72 @@
+package com.hospital.report;
+
+import java.math.BigDecimal;
+
+/**
+ * Appointment counts by status and consultation revenue for one doctor,
+ * one specialization or the whole report
+ */
+public class VolumeRow {
+    private final int doctorId;
+    private final String doctorName;
+    private final String specialization;
+    private int scheduled;
+    private int completed;
+    private int cancelled;
+    private int noShow;
+    private BigDecimal consultationRevenue = BigDecimal.ZERO;
+
+    public VolumeRow(int doctorId, String doctorName, String specialization) {
+        this.doctorId = doctorId;
+        this.doctorName = doctorName;
+        this.specialization = specialization;
+    }
+
+    /**
+     * Add appointments with the given status; revenue counts only completed ones
+     */
+    public void addCount(String status, int count, BigDecimal revenue) {
+        switch (status) {
+            case "Scheduled": scheduled += count; break;
+            case "Completed": completed += count; break;
+            case "Cancelled": cancelled += count; break;
+            case "No Show": noShow += count; break;
+            default: return;
+        }
+        if (revenue != null) {
+            consultationRevenue = consultationRevenue.add(revenue);
+        }
+    }
+
+    /**
+     * Fold another row's counts into this one
+     */
+    public void merge(VolumeRow other) {
+        scheduled += other.scheduled;
+        completed += other.completed;
+        cancelled += other.cancelled;
+        noShow += other.noShow;
+        consultationRevenue = consultationRevenue.add(other.consultationRevenue);
+    }
+
+    public int getDoctorId() { return doctorId; }
+    public String getDoctorName() { return doctorName; }
+    public String getSpecialization() { return specialization; }
+    public int getScheduled() { return scheduled; }
+    public int getCompleted() { return completed; }
+    public int getCancelled() { return cancelled; }
+    public int getNoShow() { return noShow; }
+    public BigDecimal getConsultationRevenue() { return consultationRevenue; }
+
+    public int getTotal() {
+        return scheduled + completed + cancelled + noShow;
+    }
+
+    /**
+     * Completed share of appointments that are no longer scheduled, 0-100
+     */
+    public double getCompletionRate() {
+        int closed = completed + cancelled + noShow;
+        return closed == 0 ? 0 : completed * 100.0 / closed;
+    }
+}
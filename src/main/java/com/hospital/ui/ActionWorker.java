@@ -0,0 +1,36 @@
+package com.hospital.ui;
+
+import com.hospital.metrics.UiAction;
+
+import javax.swing.SwingWorker;
+
+/**
+ * SwingWorker whose background work counts towards the user action that
+ * created it, so its queries show up under that click in diagnostics and
+ * Flight Recorder. Subclasses implement {@link #work()} instead of
+ * doInBackground().
+ */
+public abstract class ActionWorker<T, V> extends SwingWorker<T, V> {
+    private final UiAction action = UiAction.current();
+
+    protected ActionWorker() {
+        if (action != null) {
+            action.retain();
+        }
+    }
+
+    protected abstract T work() throws Exception;
+
+    @Override
+    protected final T doInBackground() throws Exception {
+        if (action == null) {
+            return work();
+        }
+        UiAction.Scope scope = action.enter();
+        try {
+            return work();
+        } finally {
+            scope.close();
+        }
+    }
+}
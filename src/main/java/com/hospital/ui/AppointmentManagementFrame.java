@@ -2,21 +2,32 @@ package com.hospital.ui;
 
 import com.hospital.util.AppLogger;
 
+import com.hospital.dao.AppointmentArchiveDAO;
 import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.AppointmentFilter;
+import com.hospital.dao.ChangeSet;
 import com.hospital.dao.PatientDAO;
 import com.hospital.dao.DoctorDAO;
+import com.hospital.io.AppointmentExporter;
+import com.hospital.job.StatusTransitionJob;
 import com.hospital.model.Appointment;
 import com.hospital.model.Patient;
 import com.hospital.model.Doctor;
 import com.hospital.model.User;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.nio.file.Path;
+import java.sql.Timestamp;
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Appointment Management Frame
@@ -27,11 +38,17 @@ public class AppointmentManagementFrame extends JFrame {
     private PatientDAO patientDAO;
     private DoctorDAO doctorDAO;
     private JTable appointmentTable;
-    private DefaultTableModel tableModel;
+    private RecordTableModel<Appointment> tableModel;
     private JTextField searchField;
-    private JButton addButton, editButton, cancelButton, deleteButton, refreshButton;
+    private JButton addButton, editButton, cancelButton, deleteButton, refreshButton, exportButton, archiveButton;
     private JComboBox<String> statusFilter;
     
+    // Incremental refresh state, touched on the EDT only
+    private AppointmentFilter viewFilter = new AppointmentFilter();
+    private Timestamp watermark;
+    private int syncGeneration;
+    private boolean fullReloadPending;
+    
     public AppointmentManagementFrame(User user) {
         this.currentUser = user;
         this.appointmentDAO = new AppointmentDAO();
@@ -43,6 +60,16 @@ public class AppointmentManagementFrame extends JFrame {
         setupEventHandlers();
         loadAppointments();
         
+        // the nightly status job changes rows behind our back; pick them up
+        Consumer<List<Integer>> statusListener = ids -> refreshAppointments();
+        StatusTransitionJob.addListener(statusListener);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                StatusTransitionJob.removeListener(statusListener);
+            }
+        });
+        
         setTitle("Appointment Management");
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
         setExtendedState(JFrame.MAXIMIZED_BOTH);
@@ -52,12 +79,10 @@ public class AppointmentManagementFrame extends JFrame {
     private void initializeComponents() {
         // Table setup
         String[] columnNames = {"ID", "Patient", "Doctor", "Specialization", "Date", "Time", "Status", "Notes"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new RecordTableModel<>(columnNames, this::toRow, Appointment::getAppointmentId,
+            Comparator.comparing(Appointment::getAppointmentDate)
+                .thenComparing(Appointment::getAppointmentTime)
+                .reversed());
         
         appointmentTable = new JTable(tableModel);
         appointmentTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -80,6 +105,8 @@ public class AppointmentManagementFrame extends JFrame {
         cancelButton = createStyledButton("Cancel Appointment", new Color(255, 193, 7));
         deleteButton = createStyledButton("Delete Appointment", new Color(220, 53, 69));
         refreshButton = createStyledButton("Refresh", new Color(108, 117, 125));
+        exportButton = createStyledButton("Export", new Color(23, 162, 184));
+        archiveButton = createStyledButton("Archive Old", new Color(108, 117, 125));
     }
     
     private JButton createStyledButton(String text, Color color) {
@@ -141,6 +168,8 @@ public class AppointmentManagementFrame extends JFrame {
         buttonPanel.add(cancelButton);
         buttonPanel.add(deleteButton);
         buttonPanel.add(refreshButton);
+        buttonPanel.add(exportButton);
+        buttonPanel.add(archiveButton);
         
         // Top Panel combining filter and buttons
         JPanel topPanel = new JPanel(new BorderLayout());
@@ -166,79 +195,133 @@ public class AppointmentManagementFrame extends JFrame {
         editButton.addActionListener(e -> openEditAppointmentDialog());
         cancelButton.addActionListener(e -> cancelSelectedAppointment());
         deleteButton.addActionListener(e -> deleteSelectedAppointment());
-        refreshButton.addActionListener(e -> loadAppointments());
+        refreshButton.addActionListener(e -> refreshAppointments());
+        exportButton.addActionListener(e -> exportAppointments());
+        archiveButton.addActionListener(e -> archiveOldAppointments());
+    }
+    
+    private Object[] toRow(Appointment appointment) {
+        return new Object[] {
+            appointment.getAppointmentId(),
+            appointment.getPatientName(),
+            appointment.getDoctorName(),
+            appointment.getDoctorSpecialization(),
+            appointment.getAppointmentDate(),
+            appointment.getAppointmentTime(),
+            appointment.getStatus(),
+            appointment.getNotes()
+        };
     }
     
+    /**
+     * Full reload of the current view
+     */
     private void loadAppointments() {
-        SwingUtilities.invokeLater(() -> {
-            try {
-                tableModel.setRowCount(0);
-                List<Appointment> appointments = appointmentDAO.getAllAppointments();
+        SwingUtilities.invokeLater(() -> syncAppointments(null, null));
+    }
+    
+    /**
+     * Merge only the rows changed since the last load or refresh
+     */
+    private void refreshAppointments() {
+        SwingUtilities.invokeLater(() -> syncAppointments(watermark, null));
+    }
+    
+    /**
+     * Read the changes in the background and apply them on the EDT.
+     * Only the latest sync is applied; while a full reload is outstanding,
+     * later syncs are full reloads too, so a delta is never merged into a
+     * table loaded for another filter.
+     * @param afterApply run once the changes are in the table, or null
+     */
+    private void syncAppointments(Timestamp since, Runnable afterApply) {
+        Timestamp from = fullReloadPending ? null : since;
+        fullReloadPending = from == null;
+        int generation = ++syncGeneration;
+        AppointmentFilter filter = viewFilter;
+        
+        new ActionWorker<ChangeSet<Appointment>, Void>() {
+            @Override
+            protected ChangeSet<Appointment> work() {
+                return appointmentDAO.getAppointmentChangesSince(from);
+            }
+            
+            @Override
+            protected void done() {
+                if (generation != syncGeneration) {
+                    return;
+                }
+                try {
+                    ChangeSet<Appointment> changes = get();
+                    if (changes != null) {
+                        tableModel.applyChanges(changes, filter::matches);
+                        watermark = changes.getWatermark();
+                        fullReloadPending = false;
+                    }
+                    if (afterApply != null) {
+                        afterApply.run();
+                    }
+                } catch (Exception e) {
+                    JOptionPane.showMessageDialog(AppointmentManagementFrame.this, 
+                        "Error loading appointments: " + e.getMessage(), 
+                        "Database Error", JOptionPane.ERROR_MESSAGE);
+                    AppLogger.error("AppointmentManagementFrame", "syncAppointments", "Error occurred", e);
+                }
+            }
+        }.execute();
+    }
+    
+    /**
+     * Re-read one appointment in the background and patch its row in place.
+     * Rows that were added or moved are selected and scrolled into view.
+     */
+    private void refreshRow(int appointmentId) {
+        new ActionWorker<Appointment, Void>() {
+            @Override
+            protected Appointment work() {
+                return appointmentDAO.getAppointmentById(appointmentId);
+            }
+            
+            @Override
+            protected void done() {
+                Appointment appointment;
+                try {
+                    appointment = get();
+                } catch (Exception e) {
+                    AppLogger.error("AppointmentManagementFrame", "refreshRow", "Error occurred", e);
+                    return;
+                }
+                if (appointment == null || !viewFilter.matches(appointment)) {
+                    tableModel.remove(appointmentId);
+                    return;
+                }
                 
-                for (Appointment appointment : appointments) {
-                    Object[] row = {
-                        appointment.getAppointmentId(),
-                        appointment.getPatientName(),
-                        appointment.getDoctorName(),
-                        appointment.getDoctorSpecialization(),
-                        appointment.getAppointmentDate(),
-                        appointment.getAppointmentTime(),
-                        appointment.getStatus(),
-                        appointment.getNotes()
-                    };
-                    tableModel.addRow(row);
+                tableModel.upsert(appointment);
+                int row = tableModel.indexOf(appointmentId);
+                if (appointmentTable.getSelectedRow() != row) {
+                    appointmentTable.setRowSelectionInterval(row, row);
+                    appointmentTable.scrollRectToVisible(appointmentTable.getCellRect(row, 0, true));
                 }
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error loading appointments: " + e.getMessage(), 
-                    "Database Error", JOptionPane.ERROR_MESSAGE);
-                AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
             }
-        });
+        }.execute();
     }
     
     private void searchAppointments() {
         String searchTerm = searchField.getText().trim();
         
+        viewFilter = new AppointmentFilter();
         if (searchTerm.isEmpty()) {
             loadAppointments();
             return;
         }
         
-        SwingUtilities.invokeLater(() -> {
-            try {
-                tableModel.setRowCount(0);
-                List<Appointment> allAppointments = appointmentDAO.getAllAppointments();
-                
-                for (Appointment appointment : allAppointments) {
-                    if (appointment.getPatientName().toLowerCase().contains(searchTerm.toLowerCase()) ||
-                        appointment.getDoctorName().toLowerCase().contains(searchTerm.toLowerCase()) ||
-                        appointment.getDoctorSpecialization().toLowerCase().contains(searchTerm.toLowerCase())) {
-                        
-                        Object[] row = {
-                            appointment.getAppointmentId(),
-                            appointment.getPatientName(),
-                            appointment.getDoctorName(),
-                            appointment.getDoctorSpecialization(),
-                            appointment.getAppointmentDate(),
-                            appointment.getAppointmentTime(),
-                            appointment.getStatus(),
-                            appointment.getNotes()
-                        };
-                        tableModel.addRow(row);
-                    }
-                }
-                
-                if (tableModel.getRowCount() == 0) {
-                    JOptionPane.showMessageDialog(this, 
-                        "No appointments found matching: " + searchTerm, 
-                        "Search Results", JOptionPane.INFORMATION_MESSAGE);
-                }
-            } catch (Exception e) {
+        viewFilter.setSearchTerm(searchTerm);
+        
+        syncAppointments(null, () -> {
+            if (tableModel.getRowCount() == 0) {
                 JOptionPane.showMessageDialog(this, 
-                    "Error searching appointments: " + e.getMessage(), 
-                    "Database Error", JOptionPane.ERROR_MESSAGE);
-                AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
+                    "No appointments found matching: " + searchTerm, 
+                    "Search Results", JOptionPane.INFORMATION_MESSAGE);
             }
         });
     }
@@ -246,38 +329,100 @@ public class AppointmentManagementFrame extends JFrame {
     private void filterAppointments() {
         String selectedStatus = (String) statusFilter.getSelectedItem();
         
-        if ("All".equals(selectedStatus)) {
-            loadAppointments();
+        viewFilter = new AppointmentFilter();
+        viewFilter.setStatus(selectedStatus);
+        loadAppointments();
+    }
+    
+    /**
+     * Stream every appointment matching the current search or status filter to a file.
+     * The extension picks the format: .csv or .jsonl, optionally followed by .gz
+     */
+    private void exportAppointments() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export Appointments (.csv, .jsonl, add .gz to compress)");
+        chooser.setSelectedFile(new File("appointments-" + LocalDate.now() + ".csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
             return;
         }
         
-        SwingUtilities.invokeLater(() -> {
-            try {
-                tableModel.setRowCount(0);
-                List<Appointment> allAppointments = appointmentDAO.getAllAppointments();
-                
-                for (Appointment appointment : allAppointments) {
-                    if (appointment.getStatus().equals(selectedStatus)) {
-                        Object[] row = {
-                            appointment.getAppointmentId(),
-                            appointment.getPatientName(),
-                            appointment.getDoctorName(),
-                            appointment.getDoctorSpecialization(),
-                            appointment.getAppointmentDate(),
-                            appointment.getAppointmentTime(),
-                            appointment.getStatus(),
-                            appointment.getNotes()
-                        };
-                        tableModel.addRow(row);
-                    }
+        Path target = chooser.getSelectedFile().toPath();
+        AppointmentFilter filter = viewFilter;
+        exportButton.setEnabled(false);
+        
+        new ActionWorker<Long, Long>() {
+            @Override
+            protected Long work() throws Exception {
+                return new AppointmentExporter().export(filter, target,
+                    AppointmentExporter.formatFor(target), AppointmentExporter.isGzip(target), this::publish);
+            }
+            
+            @Override
+            protected void process(List<Long> chunks) {
+                exportButton.setText(String.format("Exported %,d", chunks.get(chunks.size() - 1)));
+            }
+            
+            @Override
+            protected void done() {
+                exportButton.setText("Export");
+                exportButton.setEnabled(true);
+                try {
+                    JOptionPane.showMessageDialog(AppointmentManagementFrame.this,
+                        String.format("Exported %,d appointments to %s", get(), target.getFileName()),
+                        "Export Complete", JOptionPane.INFORMATION_MESSAGE);
+                } catch (Exception e) {
+                    JOptionPane.showMessageDialog(AppointmentManagementFrame.this,
+                        "Export failed: " + e.getMessage(),
+                        "Export Error", JOptionPane.ERROR_MESSAGE);
                 }
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error filtering appointments: " + e.getMessage(), 
-                    "Database Error", JOptionPane.ERROR_MESSAGE);
-                AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
             }
-        });
+        }.execute();
+    }
+    
+    /**
+     * Move finished appointments before the archive horizon out of the hot table
+     */
+    private void archiveOldAppointments() {
+        LocalDate horizon = AppointmentArchiveDAO.horizonStart();
+        if (JOptionPane.showConfirmDialog(this,
+                "Archive completed, cancelled and no-show appointments before " + horizon + "?\n" +
+                "They stay available to reports, exports and date lookups.",
+                "Archive Appointments", JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+            return;
+        }
+        
+        archiveButton.setEnabled(false);
+        new ActionWorker<Integer, Void>() {
+            @Override
+            protected Integer work() {
+                return new AppointmentArchiveDAO().archiveOldAppointments(
+                    AppointmentArchiveDAO.DEFAULT_BATCH_SIZE, () -> !isDisplayable());
+            }
+            
+            @Override
+            protected void done() {
+                archiveButton.setEnabled(true);
+                int moved;
+                try {
+                    moved = get();
+                } catch (Exception e) {
+                    moved = -1;
+                }
+                if (moved < 0) {
+                    JOptionPane.showMessageDialog(AppointmentManagementFrame.this,
+                        "Archiving failed. See the application log.",
+                        "Database Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                JOptionPane.showMessageDialog(AppointmentManagementFrame.this,
+                    String.format("Archived %,d appointment(s).", moved),
+                    "Archive Appointments", JOptionPane.INFORMATION_MESSAGE);
+                if (moved > 0) {
+                    // moved rows leave no tombstones; the archive watermark makes this a full reload
+                    refreshAppointments();
+                }
+            }
+        }.execute();
     }
     
     private void openBookAppointmentDialog() {
@@ -309,7 +454,7 @@ public class AppointmentManagementFrame extends JFrame {
                         JOptionPane.showMessageDialog(this, 
                             "Appointment booked successfully!", 
                             "Success", JOptionPane.INFORMATION_MESSAGE);
-                        loadAppointments();
+                        refreshRow(appointment.getAppointmentId());
                     } else {
                         JOptionPane.showMessageDialog(this, 
                             "Failed to book appointment.", 
@@ -343,6 +488,9 @@ public class AppointmentManagementFrame extends JFrame {
         
         try {
             Appointment appointment = appointmentDAO.getAppointmentById(appointmentId);
+            if (showIfArchived(appointment)) {
+                return;
+            }
             List<Patient> patients = patientDAO.getAllPatients();
             List<Doctor> doctors = doctorDAO.getAllDoctors();
             
@@ -358,7 +506,7 @@ public class AppointmentManagementFrame extends JFrame {
                         JOptionPane.showMessageDialog(this, 
                             "Appointment updated successfully!", 
                             "Success", JOptionPane.INFORMATION_MESSAGE);
-                        loadAppointments();
+                        refreshRow(appointmentId);
                     } else {
                         JOptionPane.showMessageDialog(this, 
                             "Failed to update appointment.", 
@@ -382,6 +530,9 @@ public class AppointmentManagementFrame extends JFrame {
                 "No Selection", JOptionPane.WARNING_MESSAGE);
             return;
         }
+        if (showIfArchived(tableModel.getRecord(selectedRow))) {
+            return;
+        }
         
         String patientName = (String) tableModel.getValueAt(selectedRow, 1);
         String doctorName = (String) tableModel.getValueAt(selectedRow, 2);
@@ -399,7 +550,7 @@ public class AppointmentManagementFrame extends JFrame {
                     JOptionPane.showMessageDialog(this, 
                         "Appointment cancelled successfully!", 
                         "Success", JOptionPane.INFORMATION_MESSAGE);
-                    loadAppointments();
+                    refreshRow(appointmentId);
                 } else {
                     JOptionPane.showMessageDialog(this, 
                         "Failed to cancel appointment.", 
@@ -422,6 +573,9 @@ public class AppointmentManagementFrame extends JFrame {
                 "No Selection", JOptionPane.WARNING_MESSAGE);
             return;
         }
+        if (showIfArchived(tableModel.getRecord(selectedRow))) {
+            return;
+        }
         
         String patientName = (String) tableModel.getValueAt(selectedRow, 1);
         String doctorName = (String) tableModel.getValueAt(selectedRow, 2);
@@ -439,7 +593,7 @@ public class AppointmentManagementFrame extends JFrame {
                     JOptionPane.showMessageDialog(this, 
                         "Appointment deleted successfully!", 
                         "Success", JOptionPane.INFORMATION_MESSAGE);
-                    loadAppointments();
+                    tableModel.remove(appointmentId);
                 } else {
                     JOptionPane.showMessageDialog(this, 
                         "Failed to delete appointment.", 
@@ -453,4 +607,19 @@ public class AppointmentManagementFrame extends JFrame {
             }
         }
     }
+    
+    /**
+     * Archived appointments are history and cannot be changed; say so
+     * instead of letting the change fail
+     * @return true if the appointment is archived
+     */
+    private boolean showIfArchived(Appointment appointment) {
+        if (appointment == null || !appointment.isArchived()) {
+            return false;
+        }
+        JOptionPane.showMessageDialog(this, 
+            "This appointment has been archived and can no longer be changed.", 
+            "Archived Appointment", JOptionPane.INFORMATION_MESSAGE);
+        return true;
+    }
 }
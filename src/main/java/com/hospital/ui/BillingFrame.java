@@ -0,0 +1,350 @@
+package com.hospital.ui;
+
+import com.hospital.dao.BillDAO;
+import com.hospital.dao.PaymentDAO;
+import com.hospital.dao.PostingResult;
+import com.hospital.io.PaymentFileReader;
+import com.hospital.model.Bill;
+import com.hospital.model.Payment;
+import com.hospital.model.User;
+import com.hospital.util.Money;
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import javax.swing.*;
+
+/**
+ * Billing Frame - paginated bill list and invoice generation
+ */
+public class BillingFrame extends JFrame {
+    private static final int DEFAULT_DUE_DAYS = 30;
+    private static final int POSTING_CHUNK_SIZE = 1000;
+    private static final String[] PAYMENT_METHODS = {"Cash", "Card", "Insurance", "Transfer"};
+
+    private BillDAO billDAO;
+    private PaymentDAO paymentDAO;
+    private JTable billTable;
+    private RecordTableModel<Bill> tableModel;
+    private JButton generateButton, paymentButton, postFileButton, deleteButton, refreshButton;
+
+    // Pagination Variables
+    private int currentPage = 1;
+    private final int PAGE_SIZE = 25;
+    private int totalRecords = 0;
+    private JLabel pageInfoLabel;
+    private JButton prevButton, nextButton;
+
+    public BillingFrame(User user) {
+        this.billDAO = new BillDAO();
+        this.paymentDAO = new PaymentDAO();
+        initializeComponents();
+        setupLayout();
+        setupEventHandlers();
+        loadBills();
+
+        setTitle("Billing");
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        setExtendedState(JFrame.MAXIMIZED_BOTH);
+        setLocationRelativeTo(null);
+    }
+
+    private void initializeComponents() {
+        String[] cols = {"ID", "Patient", "Appointment", "Services", "Total", "Paid", "Balance", "Status", "Bill Date", "Due Date"};
+        tableModel = new RecordTableModel<>(cols, this::toRow, Bill::getBillId,
+            Comparator.comparingInt(Bill::getBillId).reversed());
+        billTable = new JTable(tableModel);
+        billTable.setRowHeight(25);
+
+        generateButton = createStyledButton("Generate Bills", new Color(40, 167, 69));
+        paymentButton = createStyledButton("Record Payment", new Color(0, 123, 255));
+        postFileButton = createStyledButton("Post Payment File", new Color(23, 162, 184));
+        deleteButton = createStyledButton("Delete Bill", new Color(220, 53, 69));
+        refreshButton = createStyledButton("Refresh", new Color(108, 117, 125));
+
+        prevButton = new JButton("Previous");
+        nextButton = new JButton("Next");
+        pageInfoLabel = new JLabel("Page 1");
+        pageInfoLabel.setFont(new Font("Arial", Font.BOLD, 12));
+    }
+
+    private void setupLayout() {
+        setLayout(new BorderLayout());
+
+        // Header
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(new Color(0, 123, 255));
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(15, 20, 15, 20));
+        JLabel titleLabel = new JLabel("Billing");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 20));
+        titleLabel.setForeground(Color.WHITE);
+        headerPanel.add(titleLabel, BorderLayout.WEST);
+
+        JPanel actionPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        actionPanel.add(generateButton);
+        actionPanel.add(paymentButton);
+        actionPanel.add(postFileButton);
+        actionPanel.add(deleteButton);
+        actionPanel.add(refreshButton);
+
+        // Pagination Bar
+        JPanel paginationPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 20, 10));
+        paginationPanel.add(prevButton);
+        paginationPanel.add(pageInfoLabel);
+        paginationPanel.add(nextButton);
+
+        JPanel centerContainer = new JPanel(new BorderLayout());
+        centerContainer.add(actionPanel, BorderLayout.NORTH);
+        centerContainer.add(new JScrollPane(billTable), BorderLayout.CENTER);
+        centerContainer.add(paginationPanel, BorderLayout.SOUTH);
+
+        add(headerPanel, BorderLayout.NORTH);
+        add(centerContainer, BorderLayout.CENTER);
+    }
+
+    private void setupEventHandlers() {
+        generateButton.addActionListener(e -> generateBills());
+        paymentButton.addActionListener(e -> recordPayment());
+        postFileButton.addActionListener(e -> postPaymentFile());
+        deleteButton.addActionListener(e -> deleteBill());
+        refreshButton.addActionListener(e -> { currentPage = 1; loadBills(); });
+
+        prevButton.addActionListener(e -> {
+            if (currentPage > 1) {
+                currentPage--;
+                loadBills();
+            }
+        });
+
+        nextButton.addActionListener(e -> {
+            int totalPages = (int) Math.ceil((double) totalRecords / PAGE_SIZE);
+            if (currentPage < totalPages) {
+                currentPage++;
+                loadBills();
+            }
+        });
+    }
+
+    private Object[] toRow(Bill b) {
+        return new Object[]{
+            b.getBillId(), b.getPatientName(), b.getAppointmentId(), b.getServices(), b.getTotalAmount(),
+            b.getPaidAmount(), b.getBalance(), b.getPaymentStatus(), b.getBillDate(), b.getDueDate()
+        };
+    }
+
+    private void loadBills() {
+        SwingUtilities.invokeLater(() -> {
+            totalRecords = billDAO.getTotalBillCount();
+            int offset = (currentPage - 1) * PAGE_SIZE;
+            List<Bill> list = billDAO.getBillsPaginated(PAGE_SIZE, offset);
+
+            tableModel.setRecords(list);
+            updatePageInfo();
+        });
+    }
+
+    private void updatePageInfo() {
+        int totalPages = (int) Math.ceil((double) totalRecords / PAGE_SIZE);
+        if (totalPages == 0) totalPages = 1;
+        pageInfoLabel.setText("Page " + currentPage + " of " + totalPages);
+        prevButton.setEnabled(currentPage > 1);
+        nextButton.setEnabled(currentPage < totalPages);
+    }
+
+    private JButton createStyledButton(String text, Color color) {
+        JButton b = new JButton(text);
+        b.setBackground(color);
+        b.setForeground(Color.WHITE);
+        b.setOpaque(true);
+        b.setBorderPainted(false);
+        return b;
+    }
+
+    /**
+     * Bill completed appointments in a date range, defaulting to last month
+     */
+    private void generateBills() {
+        LocalDate firstOfMonth = LocalDate.now().withDayOfMonth(1);
+        JTextField fromField = new JTextField(firstOfMonth.minusMonths(1).toString(), 10);
+        JTextField toField = new JTextField(firstOfMonth.minusDays(1).toString(), 10);
+        JTextField dueField = new JTextField(String.valueOf(DEFAULT_DUE_DAYS), 4);
+
+        JPanel panel = new JPanel(new GridLayout(3, 2, 5, 5));
+        panel.add(new JLabel("Appointments from (YYYY-MM-DD):"));
+        panel.add(fromField);
+        panel.add(new JLabel("Appointments to (YYYY-MM-DD):"));
+        panel.add(toField);
+        panel.add(new JLabel("Due in days:"));
+        panel.add(dueField);
+
+        if (JOptionPane.showConfirmDialog(this, panel, "Generate Bills",
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        LocalDate from, to;
+        int dueDays;
+        try {
+            from = LocalDate.parse(fromField.getText().trim());
+            to = LocalDate.parse(toField.getText().trim());
+            dueDays = Integer.parseInt(dueField.getText().trim());
+        } catch (DateTimeParseException | NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "Please enter valid dates (YYYY-MM-DD) and a number of days.",
+                "Invalid Input", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+
+        generateButton.setEnabled(false);
+        new ActionWorker<Integer, Void>() {
+            @Override
+            protected Integer work() {
+                return billDAO.generateBillsForCompletedAppointments(from, to, dueDays);
+            }
+
+            @Override
+            protected void done() {
+                generateButton.setEnabled(true);
+                int created;
+                try {
+                    created = get();
+                } catch (Exception e) {
+                    created = -1;
+                }
+                if (created < 0) {
+                    JOptionPane.showMessageDialog(BillingFrame.this, "Bill generation failed. See the application log.",
+                        "Database Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                JOptionPane.showMessageDialog(BillingFrame.this, created + " bill(s) generated.",
+                    "Generate Bills", JOptionPane.INFORMATION_MESSAGE);
+                currentPage = 1;
+                loadBills();
+            }
+        }.execute();
+    }
+
+    /**
+     * Append a payment (or a negative refund) for the selected bill to the ledger
+     */
+    private void recordPayment() {
+        int row = billTable.getSelectedRow();
+        if (row == -1) {
+            JOptionPane.showMessageDialog(this, "Please select a bill.", "No Selection", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        Bill bill = tableModel.getRecord(row);
+
+        JTextField amountField = new JTextField(bill.getBalance().toPlainString(), 10);
+        JComboBox<String> methodCombo = new JComboBox<>(PAYMENT_METHODS);
+        JPanel panel = new JPanel(new GridLayout(2, 2, 5, 5));
+        panel.add(new JLabel("Amount (negative for a refund):"));
+        panel.add(amountField);
+        panel.add(new JLabel("Method:"));
+        panel.add(methodCombo);
+
+        if (JOptionPane.showConfirmDialog(this, panel, "Record Payment - Bill " + bill.getBillId(),
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        long amountMinor;
+        try {
+            amountMinor = Money.parseMinorUnits(amountField.getText());
+        } catch (NumberFormatException | ArithmeticException e) {
+            JOptionPane.showMessageDialog(this, "Please enter a valid amount.", "Invalid Input", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        if (amountMinor == 0) {
+            return;
+        }
+
+        Payment payment = new Payment(bill.getBillId(), amountMinor, (String) methodCombo.getSelectedItem(),
+            "DESK-" + UUID.randomUUID());
+        if (paymentDAO.postPayment(payment) && paymentDAO.reconcile() >= 0) {
+            Bill updated = billDAO.getBillById(bill.getBillId());
+            if (updated != null) {
+                tableModel.upsert(updated);
+            }
+        } else {
+            JOptionPane.showMessageDialog(this, "Failed to record payment.", "Database Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /**
+     * Post the cashier's end-of-day file (bill_id,amount,method,reference) and
+     * reconcile the affected bills. Re-posting a file skips references already in the ledger.
+     */
+    private void postPaymentFile() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Post Payment File");
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+
+        postFileButton.setEnabled(false);
+        new ActionWorker<String, Void>() {
+            @Override
+            protected String work() throws IOException {
+                List<String> errors = new ArrayList<>();
+                List<Payment> payments = PaymentFileReader.read(file.toPath(), errors);
+                PostingResult result = paymentDAO.postPayments(payments, POSTING_CHUNK_SIZE);
+                if (result == null) {
+                    return null;
+                }
+                int reconciled = paymentDAO.reconcile();
+
+                StringBuilder summary = new StringBuilder()
+                    .append(result.getPosted()).append(" payment(s) posted, ")
+                    .append(result.getDuplicates()).append(" already posted, ")
+                    .append(errors.size() + result.getFailures().size()).append(" rejected.\n")
+                    .append(reconciled < 0 ? "Reconciliation failed; it will be retried on the next posting."
+                        : reconciled + " bill(s) updated.");
+                errors.stream().limit(10).forEach(error -> summary.append('\n').append(error));
+                result.getFailures().stream().limit(10).forEach(failure -> summary.append('\n')
+                    .append("reference ").append(payments.get(failure.getIndex()).getReference())
+                    .append(": ").append(failure.getMessage()));
+                return summary.toString();
+            }
+
+            @Override
+            protected void done() {
+                postFileButton.setEnabled(true);
+                String summary;
+                try {
+                    summary = get();
+                } catch (Exception e) {
+                    JOptionPane.showMessageDialog(BillingFrame.this, "Could not read the payment file: "
+                        + e.getCause().getMessage(), "Post Payment File", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                if (summary == null) {
+                    JOptionPane.showMessageDialog(BillingFrame.this, "Posting failed. See the application log.",
+                        "Database Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                JOptionPane.showMessageDialog(BillingFrame.this, summary, "Post Payment File",
+                    JOptionPane.INFORMATION_MESSAGE);
+                loadBills();
+            }
+        }.execute();
+    }
+
+    private void deleteBill() {
+        int row = billTable.getSelectedRow();
+        if (row == -1) return;
+        int id = (int) tableModel.getValueAt(row, 0);
+        if (JOptionPane.showConfirmDialog(this, "Delete bill?") == JOptionPane.YES_OPTION) {
+            if (billDAO.deleteBill(id)) {
+                tableModel.remove(id);
+                totalRecords--;
+                updatePageInfo();
+            }
+        }
+    }
+}
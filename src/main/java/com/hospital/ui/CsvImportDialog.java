@@ -0,0 +1,108 @@
+package com.hospital.ui;
+
+import com.hospital.io.CsvImportPipeline;
+import com.hospital.io.ImportMapper;
+import com.hospital.io.ImportStats;
+import com.hospital.util.AppLogger;
+import java.awt.*;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import javax.swing.*;
+
+/**
+ * Picks a CSV file, imports it in the background and shows live progress.
+ * Rejected rows go to "&lt;file&gt;.rejects.csv" next to the input.
+ */
+public class CsvImportDialog<T> extends JDialog {
+    private final ImportMapper<T> mapper;
+    private final Runnable onFinished;
+    private final JLabel statusLabel = new JLabel("Starting...");
+    private final JProgressBar progressBar = new JProgressBar();
+    private final JButton closeButton = new JButton("Close");
+
+    private CsvImportDialog(JFrame parent, String title, ImportMapper<T> mapper, Runnable onFinished) {
+        super(parent, title, false);
+        this.mapper = mapper;
+        this.onFinished = onFinished;
+
+        progressBar.setIndeterminate(true);
+        closeButton.setEnabled(false);
+        closeButton.addActionListener(e -> dispose());
+
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        panel.add(statusLabel, BorderLayout.NORTH);
+        panel.add(progressBar, BorderLayout.CENTER);
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(closeButton);
+        panel.add(buttons, BorderLayout.SOUTH);
+
+        add(panel);
+        setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        setSize(480, 160);
+        setLocationRelativeTo(parent);
+    }
+
+    /**
+     * Ask for a file and start importing it
+     * @param onFinished run on the EDT once the import ends, e.g. to reload the table
+     */
+    public static <T> void chooseAndImport(JFrame parent, String title, ImportMapper<T> mapper, Runnable onFinished) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle(title + " (columns: " + String.join(", ", mapper.getColumns()) + ")");
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter("CSV files", "csv"));
+        if (chooser.showOpenDialog(parent) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        CsvImportDialog<T> dialog = new CsvImportDialog<>(parent, title, mapper, onFinished);
+        dialog.setVisible(true);
+        dialog.start(chooser.getSelectedFile());
+    }
+
+    private void start(File file) {
+        Path input = file.toPath();
+        Path rejects = input.resolveSibling(file.getName() + ".rejects.csv");
+        CsvImportPipeline<T> pipeline = new CsvImportPipeline<>(mapper);
+
+        new ActionWorker<ImportStats, ImportStats>() {
+            @Override
+            protected ImportStats work() throws Exception {
+                pipeline.setProgressListener(this::publish);
+                return pipeline.run(input, rejects);
+            }
+
+            @Override
+            protected void process(List<ImportStats> chunks) {
+                showStats(chunks.get(chunks.size() - 1));
+            }
+
+            @Override
+            protected void done() {
+                progressBar.setIndeterminate(false);
+                closeButton.setEnabled(true);
+                setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+                try {
+                    ImportStats stats = get();
+                    showStats(stats);
+                    progressBar.setValue(progressBar.getMaximum());
+                    if (stats.getRejected() > 0) {
+                        JOptionPane.showMessageDialog(CsvImportDialog.this,
+                            stats.getRejected() + " row(s) were rejected. See " + rejects.getFileName() + " for reasons.",
+                            "Import finished", JOptionPane.WARNING_MESSAGE);
+                    }
+                } catch (Exception e) {
+                    AppLogger.error("CsvImportDialog", "start", "Import failed", e);
+                    statusLabel.setText("Import failed: " + e.getMessage());
+                }
+                onFinished.run();
+            }
+        }.execute();
+    }
+
+    private void showStats(ImportStats stats) {
+        statusLabel.setText(String.format("Read %d, imported %d, rejected %d (%.0f rows/s)",
+            stats.getRead(), stats.getInserted(), stats.getRejected(), stats.getRowsPerSecond()));
+    }
+}
@@ -6,11 +6,14 @@ import com.hospital.model.User;
 import com.hospital.dao.PatientDAO;
 import com.hospital.dao.DoctorDAO;
 import com.hospital.dao.AppointmentDAO;
+import com.hospital.job.JobScheduler;
+import com.hospital.job.Schedule;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -22,7 +25,7 @@ public class DashboardFrame extends JFrame {
     private JLabel welcomeLabel;
     private JLabel timeLabel;
     private Timer timeTimer;
-    private Timer statsTimer; // Add this field at the top with other timers
+    private String statsJobName;
     
     // Statistics panels
     private JLabel totalPatientsLabel;
@@ -43,14 +46,13 @@ public class DashboardFrame extends JFrame {
         initializeComponents();
         setupLayout();
         setupEventHandlers();
-        updateStatistics();
         startTimeUpdater();
         
         // Refresh when window gains focus
         addWindowFocusListener(new java.awt.event.WindowAdapter() {
             @Override
             public void windowGainedFocus(java.awt.event.WindowEvent e) {
-                updateStatistics();
+                JobScheduler.getDefault().runOnce(statsJobName, Duration.ZERO);
             }
         });
         
@@ -209,7 +211,7 @@ public class DashboardFrame extends JFrame {
     }
     
     private JPanel createMenuPanel() {
-        JPanel menuPanel = new JPanel(new GridLayout(2, 3, 20, 20));
+        JPanel menuPanel = new JPanel(new GridLayout(2, 4, 20, 20));
         menuPanel.setBackground(new Color(248, 249, 250));
         menuPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         
@@ -217,13 +219,15 @@ public class DashboardFrame extends JFrame {
         JButton patientsBtn = createMenuButton("Patient Management", "Manage patient records", new Color(40, 167, 69), "👥");
         JButton doctorsBtn = createMenuButton("Doctor Management", "Manage doctor profiles", new Color(0, 123, 255), "👨‍⚕️");
         JButton appointmentsBtn = createMenuButton("Appointments", "Schedule & manage appointments", new Color(255, 193, 7), "📅");
+        JButton billingBtn = createMenuButton("Billing", "Invoices & payments", new Color(23, 162, 184), "💳");
         JButton reportsBtn = createMenuButton("Reports", "View reports & analytics", new Color(108, 117, 125), "📊");
-        JButton settingsBtn = createMenuButton("Settings", "System settings", new Color(220, 53, 69), "⚙️");
+        JButton settingsBtn = createMenuButton("Settings", "Diagnostics & system health", new Color(220, 53, 69), "⚙️");
         JButton logoutBtn = createMenuButton("Logout", "Exit the system", new Color(52, 58, 64), "🚪");
         
         menuPanel.add(patientsBtn);
         menuPanel.add(doctorsBtn);
         menuPanel.add(appointmentsBtn);
+        menuPanel.add(billingBtn);
         menuPanel.add(reportsBtn);
         menuPanel.add(settingsBtn);
         menuPanel.add(logoutBtn);
@@ -292,13 +296,15 @@ public class DashboardFrame extends JFrame {
         JButton patientsBtn = (JButton) menuPanel.getComponent(0);
         JButton doctorsBtn = (JButton) menuPanel.getComponent(1);
         JButton appointmentsBtn = (JButton) menuPanel.getComponent(2);
-        JButton reportsBtn = (JButton) menuPanel.getComponent(3);
-        JButton settingsBtn = (JButton) menuPanel.getComponent(4);
-        JButton logoutBtn = (JButton) menuPanel.getComponent(5);
+        JButton billingBtn = (JButton) menuPanel.getComponent(3);
+        JButton reportsBtn = (JButton) menuPanel.getComponent(4);
+        JButton settingsBtn = (JButton) menuPanel.getComponent(5);
+        JButton logoutBtn = (JButton) menuPanel.getComponent(6);
         
         patientsBtn.addActionListener(e -> openPatientManagement());
         doctorsBtn.addActionListener(e -> openDoctorManagement());
         appointmentsBtn.addActionListener(e -> openAppointmentManagement());
+        billingBtn.addActionListener(e -> openBilling());
         reportsBtn.addActionListener(e -> openReports());
         settingsBtn.addActionListener(e -> openSettings());
         logoutBtn.addActionListener(e -> logout());
@@ -316,12 +322,16 @@ public class DashboardFrame extends JFrame {
         new AppointmentManagementFrame(currentUser).setVisible(true);
     }
     
+    private void openBilling() {
+        new BillingFrame(currentUser).setVisible(true);
+    }
+    
     private void openReports() {
-        JOptionPane.showMessageDialog(this, "Reports feature coming soon!", "Info", JOptionPane.INFORMATION_MESSAGE);
+        new ReportsFrame(currentUser).setVisible(true);
     }
     
     private void openSettings() {
-        JOptionPane.showMessageDialog(this, "Settings feature coming soon!", "Info", JOptionPane.INFORMATION_MESSAGE);
+        new DiagnosticsFrame().setVisible(true);
     }
     
     private void logout() {
@@ -336,20 +346,23 @@ public class DashboardFrame extends JFrame {
         }
     }
     
+    /**
+     * Query the counts on the job thread and hand them to the EDT
+     */
     private void updateStatistics() {
-        SwingUtilities.invokeLater(() -> {
-            try {
-                int totalPatients = patientDAO.getAllPatients().size();
-                int totalDoctors = doctorDAO.getAllDoctors().size();
-                int todayAppointments = appointmentDAO.getAppointmentsByDate(java.time.LocalDate.now()).size();
-                
+        try {
+            int totalPatients = patientDAO.getAllPatients().size();
+            int totalDoctors = doctorDAO.getAllDoctors().size();
+            int todayAppointments = appointmentDAO.getAppointmentsByDate(java.time.LocalDate.now()).size();
+            
+            SwingUtilities.invokeLater(() -> {
                 totalPatientsLabel.setText(String.valueOf(totalPatients));
                 totalDoctorsLabel.setText(String.valueOf(totalDoctors));
                 todayAppointmentsLabel.setText(String.valueOf(todayAppointments));
-            } catch (Exception e) {
-                AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
-            }
-        });
+            });
+        } catch (Exception e) {
+            AppLogger.error("DashboardFrame", "updateStatistics", "Error occurred", e);
+        }
     }
     
     private void startTimeUpdater() {
@@ -363,14 +376,11 @@ public class DashboardFrame extends JFrame {
         });
         timeTimer.start();
         
-        // Auto-refresh statistics every 5 seconds
-        statsTimer = new Timer(5000, new ActionListener() {
-            @Override
-            public void actionPerformed(ActionEvent e) {
-                updateStatistics();
-            }
-        });
-        statsTimer.start();
+        // Auto-refresh statistics every 5 seconds, off the EDT
+        statsJobName = "dashboard-stats-" + System.identityHashCode(this);
+        JobScheduler.getDefault().register(statsJobName, Schedule.fixedDelay(Duration.ofSeconds(5)),
+            Duration.ZERO, this::updateStatistics);
+        JobScheduler.getDefault().runOnce(statsJobName, Duration.ZERO);
         
         // Initial update
         LocalDateTime now = LocalDateTime.now();
@@ -383,8 +393,8 @@ public class DashboardFrame extends JFrame {
         if (timeTimer != null) {
             timeTimer.stop();
         }
-        if (statsTimer != null) {
-            statsTimer.stop();
+        if (statsJobName != null) {
+            JobScheduler.getDefault().unregister(statsJobName);
         }
         super.dispose();
     }
@@ -0,0 +1,302 @@
+package com.hospital.ui;
+
+import com.hospital.job.JobMetrics;
+import com.hospital.job.JobScheduler;
+import com.hospital.job.Schedule;
+import com.hospital.metrics.EdtMonitor;
+import com.hospital.metrics.JfrEvents;
+import com.hospital.metrics.LatencyHistogram;
+import com.hospital.metrics.QueryBudget;
+import com.hospital.metrics.QueryMetrics;
+import com.hospital.metrics.QueryStats;
+import com.hospital.metrics.SlowQueryLog;
+import com.hospital.util.DatabaseConnection;
+import com.hospital.util.QueryCache;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Live view of in-process counters: connection pool, caches, per-query
+ * latency, EDT responsiveness, heap and GC. Nothing here queries the
+ * database; values are collected on a scheduler thread every two seconds
+ * and handed to the EDT.
+ */
+public class DiagnosticsFrame extends JFrame {
+    private static final Duration REFRESH_INTERVAL = Duration.ofSeconds(2);
+
+    private JLabel poolLabel, heapLabel, gcLabel, edtLabel, stallLabel, slowQueryLabel, budgetLabel;
+    private DefaultTableModel queryModel, cacheModel, jobModel, budgetModel;
+    private JButton resetButton;
+    private JCheckBox jfrCheckBox;
+    private String refreshJobName;
+
+    // GC totals at the previous refresh, to show the time spent since (job thread only)
+    private long lastGcCount, lastGcMillis;
+
+    public DiagnosticsFrame() {
+        initializeComponents();
+        setupLayout();
+        setupEventHandlers();
+
+        refreshJobName = "diagnostics-" + System.identityHashCode(this);
+        JobScheduler.getDefault().register(refreshJobName, Schedule.fixedDelay(REFRESH_INTERVAL),
+                Duration.ZERO, this::collect);
+        JobScheduler.getDefault().runOnce(refreshJobName, Duration.ZERO);
+
+        setTitle("Diagnostics");
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        setSize(1100, 700);
+        setLocationRelativeTo(null);
+    }
+
+    private void initializeComponents() {
+        poolLabel = createValueLabel();
+        heapLabel = createValueLabel();
+        gcLabel = createValueLabel();
+        edtLabel = createValueLabel();
+        stallLabel = createValueLabel();
+        slowQueryLabel = createValueLabel();
+        budgetLabel = createValueLabel();
+
+        queryModel = readOnlyModel(new String[]{"Caller", "Calls", "Errors", "p50 ms", "p95 ms", "p99 ms",
+                "Max ms", "Total ms", "Rows", "SQL"});
+        cacheModel = readOnlyModel(new String[]{"Cache", "Entries", "Hits", "Misses", "Hit %", "TTL s"});
+        jobModel = readOnlyModel(new String[]{"Job", "Schedule", "Runs", "Failures", "Skipped",
+                "Last ms", "Max ms", "Next Run", "Last Error"});
+        budgetModel = readOnlyModel(new String[]{"Time", "Window", "Action", "Queries", "DB ms", "Elapsed ms",
+                "Statements by Caller"});
+
+        resetButton = createStyledButton("Reset Query Stats", new Color(108, 117, 125));
+        jfrCheckBox = new JCheckBox("Flight Recorder events", JfrEvents.isEnabled());
+        jfrCheckBox.setOpaque(false);
+        jfrCheckBox.setForeground(Color.WHITE);
+        jfrCheckBox.setFont(new Font("Arial", Font.BOLD, 12));
+    }
+
+    private JButton createStyledButton(String text, Color color) {
+        JButton button = new JButton(text);
+        button.setFont(new Font("Arial", Font.BOLD, 12));
+        button.setBackground(color);
+        button.setForeground(Color.WHITE);
+        button.setFocusPainted(false);
+        button.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
+        button.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        button.setOpaque(true);
+        button.setBorderPainted(false);
+        return button;
+    }
+
+    private static JLabel createValueLabel() {
+        JLabel label = new JLabel("-");
+        label.setFont(new Font("Arial", Font.PLAIN, 13));
+        return label;
+    }
+
+    private void setupLayout() {
+        setLayout(new BorderLayout());
+
+        // Header Panel
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(new Color(220, 53, 69));
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(15, 20, 15, 20));
+
+        JLabel titleLabel = new JLabel("Diagnostics");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 20));
+        titleLabel.setForeground(Color.WHITE);
+        headerPanel.add(titleLabel, BorderLayout.WEST);
+        JPanel headerButtons = new JPanel(new FlowLayout(FlowLayout.RIGHT, 10, 0));
+        headerButtons.setOpaque(false);
+        headerButtons.add(jfrCheckBox);
+        headerButtons.add(resetButton);
+        headerPanel.add(headerButtons, BorderLayout.EAST);
+
+        // Summary Panel
+        JPanel summaryPanel = new JPanel(new GridLayout(7, 2, 10, 4));
+        summaryPanel.setBackground(Color.WHITE);
+        summaryPanel.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
+        addSummaryRow(summaryPanel, "Connection pool:", poolLabel);
+        addSummaryRow(summaryPanel, "Heap:", heapLabel);
+        addSummaryRow(summaryPanel, "Garbage collection:", gcLabel);
+        addSummaryRow(summaryPanel, "EDT queue delay:", edtLabel);
+        addSummaryRow(summaryPanel, "EDT stalls:", stallLabel);
+        addSummaryRow(summaryPanel, "Slow queries:", slowQueryLabel);
+        addSummaryRow(summaryPanel, "Query budget:", budgetLabel);
+
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.add(headerPanel, BorderLayout.NORTH);
+        topPanel.add(summaryPanel, BorderLayout.CENTER);
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("Queries", new JScrollPane(createTable(queryModel)));
+        tabs.addTab("Caches", new JScrollPane(createTable(cacheModel)));
+        tabs.addTab("Jobs", new JScrollPane(createTable(jobModel)));
+        tabs.addTab("Over Budget", new JScrollPane(createTable(budgetModel)));
+
+        add(topPanel, BorderLayout.NORTH);
+        add(tabs, BorderLayout.CENTER);
+    }
+
+    private static void addSummaryRow(JPanel panel, String title, JLabel valueLabel) {
+        JLabel titleLabel = new JLabel(title);
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 13));
+        panel.add(titleLabel);
+        panel.add(valueLabel);
+    }
+
+    private void setupEventHandlers() {
+        resetButton.addActionListener(e -> {
+            QueryMetrics.reset();
+            QueryBudget.reset();
+            JobScheduler.getDefault().runOnce(refreshJobName, Duration.ZERO);
+        });
+        jfrCheckBox.addActionListener(e -> JfrEvents.setEnabled(jfrCheckBox.isSelected()));
+    }
+
+    /**
+     * Read the counters on the job thread and hand the rows to the EDT
+     */
+    private void collect() {
+        String pool = String.format("%d active, %d idle of %d", DatabaseConnection.getActiveCount(),
+                DatabaseConnection.getIdleCount(), DatabaseConnection.getPoolSize());
+
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        String heapText = String.format("%d MB used, %d MB committed, %s max", heap.getUsed() >> 20,
+                heap.getCommitted() >> 20, heap.getMax() < 0 ? "no" : (heap.getMax() >> 20) + " MB");
+
+        long gcCount = 0, gcMillis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += Math.max(0, gc.getCollectionCount());
+            gcMillis += Math.max(0, gc.getCollectionTime());
+        }
+        String gcText = String.format("%d collections, %d ms total; %d collections, %d ms in the last %d s",
+                gcCount, gcMillis, gcCount - lastGcCount, gcMillis - lastGcMillis, REFRESH_INTERVAL.getSeconds());
+        lastGcCount = gcCount;
+        lastGcMillis = gcMillis;
+
+        String edtText = edtSummary();
+        String stallText = stallSummary();
+
+        String slowQueries = String.format("%d logged over %d ms, %d dropped", SlowQueryLog.getLoggedCount(),
+                SlowQueryLog.getThresholdMillis(), SlowQueryLog.getDroppedCount());
+
+        String budgetText = String.format("%d action(s) over %d queries or %d ms%s",
+                QueryBudget.getViolationCount(), QueryBudget.getMaxQueries(), QueryBudget.getMaxDbMillis(),
+                QueryBudget.isStrict() ? " (strict)" : "");
+
+        List<Object[]> queryRows = new ArrayList<>();
+        for (QueryStats stats : QueryMetrics.getAll()) {
+            LatencyHistogram latency = stats.getLatency();
+            queryRows.add(new Object[]{stats.getCaller(), stats.getCalls(), stats.getErrors(),
+                    millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(95)),
+                    millis(latency.getValueAtPercentile(99)), millis(latency.getMaxMicros()),
+                    millis(latency.getTotalMicros()), stats.getRows(), stats.getSql()});
+        }
+
+        List<Object[]> cacheRows = new ArrayList<>();
+        for (QueryCache<?, ?> cache : QueryCache.getAll()) {
+            cacheRows.add(cacheRow(cache));
+        }
+
+        List<Object[]> jobRows = new ArrayList<>();
+        for (JobMetrics job : JobScheduler.getDefault().getMetrics()) {
+            jobRows.add(new Object[]{job.getName(), job.getSchedule(), job.getRuns(), job.getFailures(),
+                    job.getSkipped(), job.getLastMillis(), job.getMaxMillis(), job.getNextRun(),
+                    job.getLastError()});
+        }
+
+        List<Object[]> budgetRows = new ArrayList<>();
+        List<QueryBudget.Violation> violations = QueryBudget.getRecentViolations();
+        for (int i = violations.size() - 1; i >= 0; i--) {
+            QueryBudget.Violation violation = violations.get(i);
+            budgetRows.add(new Object[]{violation.getAt().toLocalTime().withNano(0), violation.getWindow(),
+                    violation.getAction(), violation.getQueries(), millis(violation.getDatabaseMicros()),
+                    millis(violation.getElapsedMicros()), violation.getCallers()});
+        }
+
+        SwingUtilities.invokeLater(() -> {
+            poolLabel.setText(pool);
+            heapLabel.setText(heapText);
+            gcLabel.setText(gcText);
+            edtLabel.setText(edtText);
+            stallLabel.setText(stallText);
+            slowQueryLabel.setText(slowQueries);
+            budgetLabel.setText(budgetText);
+            replaceRows(queryModel, queryRows);
+            replaceRows(cacheModel, cacheRows);
+            replaceRows(jobModel, jobRows);
+            replaceRows(budgetModel, budgetRows);
+        });
+    }
+
+    private static String edtSummary() {
+        if (!EdtMonitor.isInstalled()) {
+            return "watchdog off";
+        }
+        LatencyHistogram delay = EdtMonitor.getQueueDelay();
+        return String.format("p50 %s ms, p99 %s ms, max %s ms", millis(delay.getValueAtPercentile(50)),
+                millis(delay.getValueAtPercentile(99)), millis(delay.getMaxMicros()));
+    }
+
+    private static String stallSummary() {
+        if (!EdtMonitor.isInstalled()) {
+            return "watchdog off";
+        }
+        LatencyHistogram stalls = EdtMonitor.getStalls();
+        return String.format("%d over %d ms (of %d events), p99 %s ms, max %s ms", stalls.getCount(),
+                EdtMonitor.getStallThresholdMillis(), EdtMonitor.getDispatchTimes().getCount(),
+                millis(stalls.getValueAtPercentile(99)), millis(stalls.getMaxMicros()));
+    }
+
+    private static Object[] cacheRow(QueryCache<?, ?> cache) {
+        long hits = cache.getHitCount();
+        long misses = cache.getMissCount();
+        long lookups = hits + misses;
+        return new Object[]{cache.getName(), cache.size(), hits, misses,
+                lookups == 0 ? "-" : String.format("%.1f", 100.0 * hits / lookups), cache.getTtlMillis() / 1000};
+    }
+
+    private static String millis(long micros) {
+        return String.format("%.1f", micros / 1000.0);
+    }
+
+    private static void replaceRows(DefaultTableModel model, List<Object[]> rows) {
+        model.setRowCount(0);
+        for (Object[] row : rows) {
+            model.addRow(row);
+        }
+    }
+
+    private static DefaultTableModel readOnlyModel(String[] columns) {
+        return new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+    }
+
+    private static JTable createTable(DefaultTableModel model) {
+        JTable table = new JTable(model);
+        table.setRowHeight(25);
+        table.setAutoCreateRowSorter(true);
+        table.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
+        table.setFont(new Font("Arial", Font.PLAIN, 12));
+        return table;
+    }
+
+    @Override
+    public void dispose() {
+        if (refreshJobName != null) {
+            JobScheduler.getDefault().unregister(refreshJobName);
+        }
+        super.dispose();
+    }
+}
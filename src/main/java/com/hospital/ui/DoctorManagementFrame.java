@@ -2,16 +2,20 @@ package com.hospital.ui;
 
 import com.hospital.util.AppLogger;
 
+import com.hospital.dao.ChangeSet;
 import com.hospital.dao.DoctorDAO;
+import com.hospital.dao.PurgeJob;
+import com.hospital.io.DoctorImportMapper;
 import com.hospital.model.Doctor;
 import com.hospital.model.User;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.List;
+import java.sql.Timestamp;
+import java.util.Comparator;
+import java.util.function.Predicate;
 
 /**
  * Doctor Management Frame
@@ -20,9 +24,15 @@ public class DoctorManagementFrame extends JFrame {
     private User currentUser;
     private DoctorDAO doctorDAO;
     private JTable doctorTable;
-    private DefaultTableModel tableModel;
+    private RecordTableModel<Doctor> tableModel;
     private JTextField searchField;
-    private JButton addButton, editButton, deleteButton, refreshButton;
+    private JButton addButton, editButton, deleteButton, refreshButton, importButton;
+    
+    // Incremental refresh state, touched on the EDT only
+    private Predicate<Doctor> viewFilter = doctor -> true;
+    private Timestamp watermark;
+    private int syncGeneration;
+    private boolean fullReloadPending;
     
     public DoctorManagementFrame(User user) {
         this.currentUser = user;
@@ -42,12 +52,8 @@ public class DoctorManagementFrame extends JFrame {
     private void initializeComponents() {
         // Table setup
         String[] columnNames = {"ID", "Name", "Specialization", "Phone", "Email", "Experience", "Qualification", "Fee", "Available Days", "Available Time"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new RecordTableModel<>(columnNames, this::toRow, Doctor::getDoctorId,
+            Comparator.comparing(Doctor::getName, String.CASE_INSENSITIVE_ORDER));
         
         doctorTable = new JTable(tableModel);
         doctorTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
@@ -64,6 +70,7 @@ public class DoctorManagementFrame extends JFrame {
         editButton = createStyledButton("Edit Doctor", new Color(0, 123, 255));
         deleteButton = createStyledButton("Delete Doctor", new Color(220, 53, 69));
         refreshButton = createStyledButton("Refresh", new Color(108, 117, 125));
+        importButton = createStyledButton("Import CSV", new Color(23, 162, 184));
     }
     
     private JButton createStyledButton(String text, Color color) {
@@ -116,6 +123,7 @@ public class DoctorManagementFrame extends JFrame {
         buttonPanel.add(editButton);
         buttonPanel.add(deleteButton);
         buttonPanel.add(refreshButton);
+        buttonPanel.add(importButton);
         
         // Top Panel combining search and buttons
         JPanel topPanel = new JPanel(new BorderLayout());
@@ -141,78 +149,137 @@ public class DoctorManagementFrame extends JFrame {
         addButton.addActionListener(e -> openAddDoctorDialog());
         editButton.addActionListener(e -> openEditDoctorDialog());
         deleteButton.addActionListener(e -> deleteSelectedDoctor());
-        refreshButton.addActionListener(e -> loadDoctors());
+        refreshButton.addActionListener(e -> refreshDoctors());
+        importButton.addActionListener(e -> CsvImportDialog.chooseAndImport(this, "Import Doctors",
+            new DoctorImportMapper(), this::refreshDoctors));
+    }
+    
+    private Object[] toRow(Doctor doctor) {
+        return new Object[] {
+            doctor.getDoctorId(),
+            doctor.getName(),
+            doctor.getSpecialization(),
+            doctor.getPhone(),
+            doctor.getEmail(),
+            doctor.getExperienceYears() + " years",
+            doctor.getQualification(),
+            "$" + doctor.getConsultationFee(),
+            doctor.getAvailableDays(),
+            doctor.getAvailableTime()
+        };
     }
     
+    /**
+     * Full reload of the current view
+     */
     private void loadDoctors() {
-        SwingUtilities.invokeLater(() -> {
-            try {
-                tableModel.setRowCount(0);
-                List<Doctor> doctors = doctorDAO.getAllDoctors();
+        SwingUtilities.invokeLater(() -> syncDoctors(null, null));
+    }
+    
+    /**
+     * Merge only the rows changed since the last load or refresh
+     */
+    private void refreshDoctors() {
+        SwingUtilities.invokeLater(() -> syncDoctors(watermark, null));
+    }
+    
+    /**
+     * Read the changes in the background and apply them on the EDT, the
+     * same way as AppointmentManagementFrame: only the latest sync is
+     * applied, and syncs stay full reloads while one is outstanding.
+     * @param afterApply run once the changes are in the table, or null
+     */
+    private void syncDoctors(Timestamp since, Runnable afterApply) {
+        Timestamp from = fullReloadPending ? null : since;
+        fullReloadPending = from == null;
+        int generation = ++syncGeneration;
+        Predicate<Doctor> filter = viewFilter;
+        
+        new ActionWorker<ChangeSet<Doctor>, Void>() {
+            @Override
+            protected ChangeSet<Doctor> work() {
+                return doctorDAO.getDoctorChangesSince(from);
+            }
+            
+            @Override
+            protected void done() {
+                if (generation != syncGeneration) {
+                    return;
+                }
+                try {
+                    ChangeSet<Doctor> changes = get();
+                    if (changes != null) {
+                        tableModel.applyChanges(changes, filter);
+                        watermark = changes.getWatermark();
+                        fullReloadPending = false;
+                    }
+                    if (afterApply != null) {
+                        afterApply.run();
+                    }
+                } catch (Exception e) {
+                    JOptionPane.showMessageDialog(DoctorManagementFrame.this, 
+                        "Error loading doctors: " + e.getMessage(), 
+                        "Database Error", JOptionPane.ERROR_MESSAGE);
+                    AppLogger.error("DoctorManagementFrame", "syncDoctors", "Error occurred", e);
+                }
+            }
+        }.execute();
+    }
+    
+    /**
+     * Re-read one doctor in the background and patch its row in place.
+     * Rows that were added or moved are selected and scrolled into view.
+     */
+    private void refreshRow(int doctorId) {
+        new ActionWorker<Doctor, Void>() {
+            @Override
+            protected Doctor work() {
+                return doctorDAO.getDoctorById(doctorId);
+            }
+            
+            @Override
+            protected void done() {
+                Doctor doctor;
+                try {
+                    doctor = get();
+                } catch (Exception e) {
+                    AppLogger.error("DoctorManagementFrame", "refreshRow", "Error occurred", e);
+                    return;
+                }
+                if (doctor == null || !viewFilter.test(doctor)) {
+                    tableModel.remove(doctorId);
+                    return;
+                }
                 
-                for (Doctor doctor : doctors) {
-                    Object[] row = {
-                        doctor.getDoctorId(),
-                        doctor.getName(),
-                        doctor.getSpecialization(),
-                        doctor.getPhone(),
-                        doctor.getEmail(),
-                        doctor.getExperienceYears() + " years",
-                        doctor.getQualification(),
-                        "$" + doctor.getConsultationFee(),
-                        doctor.getAvailableDays(),
-                        doctor.getAvailableTime()
-                    };
-                    tableModel.addRow(row);
+                tableModel.upsert(doctor);
+                int row = tableModel.indexOf(doctorId);
+                if (doctorTable.getSelectedRow() != row) {
+                    doctorTable.setRowSelectionInterval(row, row);
+                    doctorTable.scrollRectToVisible(doctorTable.getCellRect(row, 0, true));
                 }
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error loading doctors: " + e.getMessage(), 
-                    "Database Error", JOptionPane.ERROR_MESSAGE);
-                AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
             }
-        });
+        }.execute();
     }
     
     private void searchDoctors() {
         String searchTerm = searchField.getText().trim();
         
         if (searchTerm.isEmpty()) {
+            viewFilter = doctor -> true;
             loadDoctors();
             return;
         }
         
-        SwingUtilities.invokeLater(() -> {
-            try {
-                tableModel.setRowCount(0);
-                List<Doctor> doctors = doctorDAO.searchDoctors(searchTerm);
-                
-                for (Doctor doctor : doctors) {
-                    Object[] row = {
-                        doctor.getDoctorId(),
-                        doctor.getName(),
-                        doctor.getSpecialization(),
-                        doctor.getPhone(),
-                        doctor.getEmail(),
-                        doctor.getExperienceYears() + " years",
-                        doctor.getQualification(),
-                        "$" + doctor.getConsultationFee(),
-                        doctor.getAvailableDays(),
-                        doctor.getAvailableTime()
-                    };
-                    tableModel.addRow(row);
-                }
-                
-                if (doctors.isEmpty()) {
-                    JOptionPane.showMessageDialog(this, 
-                        "No doctors found matching: " + searchTerm, 
-                        "Search Results", JOptionPane.INFORMATION_MESSAGE);
-                }
-            } catch (Exception e) {
+        String term = searchTerm.toLowerCase();
+        viewFilter = doctor ->
+            doctor.getName().toLowerCase().contains(term) ||
+            doctor.getSpecialization().toLowerCase().contains(term);
+        
+        syncDoctors(null, () -> {
+            if (tableModel.getRowCount() == 0) {
                 JOptionPane.showMessageDialog(this, 
-                    "Error searching doctors: " + e.getMessage(), 
-                    "Database Error", JOptionPane.ERROR_MESSAGE);
-                AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
+                    "No doctors found matching: " + searchTerm, 
+                    "Search Results", JOptionPane.INFORMATION_MESSAGE);
             }
         });
     }
@@ -228,7 +295,7 @@ public class DoctorManagementFrame extends JFrame {
                     JOptionPane.showMessageDialog(this, 
                         "Doctor added successfully!", 
                         "Success", JOptionPane.INFORMATION_MESSAGE);
-                    loadDoctors();
+                    refreshRow(doctor.getDoctorId());
                 } else {
                     JOptionPane.showMessageDialog(this, 
                         "Failed to add doctor.", 
@@ -268,7 +335,7 @@ public class DoctorManagementFrame extends JFrame {
                         JOptionPane.showMessageDialog(this, 
                             "Doctor updated successfully!", 
                             "Success", JOptionPane.INFORMATION_MESSAGE);
-                        loadDoctors();
+                        refreshRow(doctorId);
                     } else {
                         JOptionPane.showMessageDialog(this, 
                             "Failed to update doctor.", 
@@ -303,23 +370,14 @@ public class DoctorManagementFrame extends JFrame {
             JOptionPane.WARNING_MESSAGE);
         
         if (choice == JOptionPane.YES_OPTION) {
-            try {
-                if (doctorDAO.deleteDoctor(doctorId)) {
+            PurgeDialog.run(this, "Deleting doctor", PurgeJob.forDoctor(doctorId), outcome -> {
+                if (outcome == PurgeJob.Outcome.COMPLETED) {
                     JOptionPane.showMessageDialog(this, 
                         "Doctor deleted successfully!", 
                         "Success", JOptionPane.INFORMATION_MESSAGE);
-                    loadDoctors();
-                } else {
-                    JOptionPane.showMessageDialog(this, 
-                        "Failed to delete doctor.", 
-                        "Error", JOptionPane.ERROR_MESSAGE);
+                    tableModel.remove(doctorId);
                 }
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error deleting doctor: " + e.getMessage(), 
-                    "Database Error", JOptionPane.ERROR_MESSAGE);
-                AppLogger.error(getClass().getSimpleName(), "", "Error occurred", e);
-            }
+            });
         }
     }
 }
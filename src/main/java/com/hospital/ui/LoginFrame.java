@@ -9,6 +9,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Login Frame for Hospital Management System
@@ -32,12 +33,32 @@ public class LoginFrame extends JFrame {
         setLocationRelativeTo(null);
         pack();
         
-        // Test database connection on startup
-        if (!DatabaseConnection.testConnection()) {
-            JOptionPane.showMessageDialog(this, 
-                "Database connection failed!\nPlease check your MySQL server and database configuration.", 
-                "Database Error", JOptionPane.ERROR_MESSAGE);
-        }
+        checkDatabaseConnection();
+    }
+    
+    /**
+     * Test the database connection off the EDT; the borrow can wait for seconds
+     */
+    private void checkDatabaseConnection() {
+        new ActionWorker<Boolean, Void>() {
+            @Override
+            protected Boolean work() {
+                return DatabaseConnection.testConnection();
+            }
+            
+            @Override
+            protected void done() {
+                try {
+                    if (!get()) {
+                        JOptionPane.showMessageDialog(LoginFrame.this, 
+                            "Database connection failed!\nPlease check your MySQL server and database configuration.", 
+                            "Database Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                } catch (InterruptedException | ExecutionException e) {
+                    AppLogger.error("LoginFrame", "checkDatabaseConnection", "Error occurred", e);
+                }
+            }
+        }.execute();
     }
     
     private void initializeComponents() {
@@ -1,19 +1,21 @@
 package com.hospital.ui;
 
 import com.hospital.dao.PatientDAO;
+import com.hospital.dao.PurgeJob;
+import com.hospital.io.PatientImportMapper;
 import com.hospital.model.Patient;
 import com.hospital.model.User;
 import java.awt.*;
+import java.util.Comparator;
 import java.util.List;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 
 public class PatientManagementFrame extends JFrame {
     private PatientDAO patientDAO;
     private JTable patientTable;
-    private DefaultTableModel tableModel;
+    private RecordTableModel<Patient> tableModel;
     private JTextField searchField;
-    private JButton addButton, editButton, deleteButton, refreshButton;
+    private JButton addButton, editButton, deleteButton, refreshButton, importButton;
     
     // Pagination Variables
     private int currentPage = 1;
@@ -21,6 +23,7 @@ public class PatientManagementFrame extends JFrame {
     private int totalRecords = 0;
     private JLabel pageInfoLabel;
     private JButton prevButton, nextButton;
+    private boolean searchMode = false;
 
     public PatientManagementFrame(User user) {
         this.patientDAO = new PatientDAO();
@@ -37,9 +40,8 @@ public class PatientManagementFrame extends JFrame {
 
     private void initializeComponents() {
         String[] cols = {"ID", "Name", "Age", "Gender", "Phone", "Email", "Disease", "Blood Group", "Admission Date"};
-        tableModel = new DefaultTableModel(cols, 0) {
-            @Override public boolean isCellEditable(int r, int c) { return false; }
-        };
+        tableModel = new RecordTableModel<>(cols, this::toRow, Patient::getPatientId,
+            Comparator.comparingInt(Patient::getPatientId).reversed());
         patientTable = new JTable(tableModel);
         patientTable.setRowHeight(25);
         searchField = new JTextField(20);
@@ -48,6 +50,7 @@ public class PatientManagementFrame extends JFrame {
         editButton = createStyledButton("Edit Patient", new Color(0, 123, 255));
         deleteButton = createStyledButton("Delete Patient", new Color(220, 53, 69));
         refreshButton = createStyledButton("Refresh", new Color(108, 117, 125));
+        importButton = createStyledButton("Import CSV", new Color(23, 162, 184));
 
         prevButton = new JButton("Previous");
         nextButton = new JButton("Next");
@@ -81,6 +84,7 @@ public class PatientManagementFrame extends JFrame {
         actionPanel.add(editButton);
         actionPanel.add(deleteButton);
         actionPanel.add(refreshButton);
+        actionPanel.add(importButton);
 
         topPanel.add(searchBar, BorderLayout.WEST);
         topPanel.add(actionPanel, BorderLayout.EAST);
@@ -107,6 +111,8 @@ public class PatientManagementFrame extends JFrame {
         editButton.addActionListener(e -> openEditDialog());
         deleteButton.addActionListener(e -> deletePatient());
         refreshButton.addActionListener(e -> { currentPage = 1; loadPatients(); });
+        importButton.addActionListener(e -> CsvImportDialog.chooseAndImport(this, "Import Patients",
+            new PatientImportMapper(), () -> { currentPage = 1; loadPatients(); }));
 
         prevButton.addActionListener(e -> {
             if (currentPage > 1) {
@@ -124,38 +130,45 @@ public class PatientManagementFrame extends JFrame {
         });
     }
 
+    private Object[] toRow(Patient p) {
+        return new Object[]{
+            p.getPatientId(), p.getName(), p.getAge(), p.getGender(), 
+            p.getPhone(), p.getEmail(), p.getDisease(), p.getBloodGroup(), p.getAdmissionDate()
+        };
+    }
+
     private void loadPatients() {
         SwingUtilities.invokeLater(() -> {
+            searchMode = false;
             totalRecords = patientDAO.getTotalPatientCount();
             int offset = (currentPage - 1) * PAGE_SIZE;
             List<Patient> list = patientDAO.getPatientsPaginated(PAGE_SIZE, offset);
             
-            tableModel.setRowCount(0);
-            for (Patient p : list) {
-                tableModel.addRow(new Object[]{
-                    p.getPatientId(), p.getName(), p.getAge(), p.getGender(), 
-                    p.getPhone(), p.getEmail(), p.getDisease(), p.getBloodGroup(), p.getAdmissionDate()
-                });
-            }
-            
-            int totalPages = (int) Math.ceil((double) totalRecords / PAGE_SIZE);
-            if (totalPages == 0) totalPages = 1;
-            pageInfoLabel.setText("Page " + currentPage + " of " + totalPages);
-            prevButton.setEnabled(currentPage > 1);
-            nextButton.setEnabled(currentPage < totalPages);
+            tableModel.setRecords(list);
+            updatePageInfo();
         });
     }
 
+    private void updatePageInfo() {
+        if (searchMode) {
+            pageInfoLabel.setText("Search Results (" + tableModel.getRowCount() + ")");
+            return;
+        }
+        int totalPages = (int) Math.ceil((double) totalRecords / PAGE_SIZE);
+        if (totalPages == 0) totalPages = 1;
+        pageInfoLabel.setText("Page " + currentPage + " of " + totalPages);
+        prevButton.setEnabled(currentPage > 1);
+        nextButton.setEnabled(currentPage < totalPages);
+    }
+
     private void searchPatients() {
         String term = searchField.getText().trim();
         if (term.isEmpty()) { loadPatients(); return; }
         
         List<Patient> results = patientDAO.searchPatients(term);
-        tableModel.setRowCount(0);
-        for (Patient p : results) {
-            tableModel.addRow(new Object[]{p.getPatientId(), p.getName(), p.getAge(), p.getGender(), p.getPhone(), p.getEmail(), p.getDisease(), p.getBloodGroup(), p.getAdmissionDate()});
-        }
-        pageInfoLabel.setText("Search Results (" + results.size() + ")");
+        searchMode = true;
+        tableModel.setRecords(results);
+        updatePageInfo();
         prevButton.setEnabled(false);
         nextButton.setEnabled(false);
     }
@@ -172,7 +185,20 @@ public class PatientManagementFrame extends JFrame {
     private void openAddDialog() {
         PatientDialog d = new PatientDialog(this, "Add Patient", null);
         d.setVisible(true);
-        if (d.isConfirmed() && patientDAO.addPatient(d.getPatient())) loadPatients();
+        if (d.isConfirmed()) {
+            Patient p = d.getPatient();
+            if (patientDAO.addPatient(p)) {
+                totalRecords++;
+                // newest patients come first, so only the first page gains the row
+                if (!searchMode && currentPage == 1) {
+                    tableModel.upsert(p);
+                    if (tableModel.getRowCount() > PAGE_SIZE) {
+                        tableModel.remove(tableModel.getRecord(PAGE_SIZE).getPatientId());
+                    }
+                }
+                updatePageInfo();
+            }
+        }
     }
 
     private void openEditDialog() {
@@ -186,7 +212,10 @@ public class PatientManagementFrame extends JFrame {
             if (d.isConfirmed()) {
                 Patient up = d.getPatient();
                 up.setPatientId(id);
-                if (patientDAO.updatePatient(up)) loadPatients();
+                if (patientDAO.updatePatient(up)) {
+                    Patient saved = patientDAO.getPatientById(id);
+                    if (saved != null) tableModel.upsert(saved);
+                }
             }
         }
     }
@@ -196,7 +225,13 @@ public class PatientManagementFrame extends JFrame {
         if (row == -1) return;
         int id = (int) tableModel.getValueAt(row, 0);
         if (JOptionPane.showConfirmDialog(this, "Delete patient?") == JOptionPane.YES_OPTION) {
-            if (patientDAO.deletePatient(id)) loadPatients();
+            PurgeDialog.run(this, "Deleting patient", PurgeJob.forPatient(id), outcome -> {
+                if (outcome == PurgeJob.Outcome.COMPLETED) {
+                    tableModel.remove(id);
+                    totalRecords--;
+                    updatePageInfo();
+                }
+            });
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,93 @@
+package com.hospital.ui;
+
+import com.hospital.dao.PurgeJob;
+import java.awt.*;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.swing.*;
+
+/**
+ * Runs a chunked purge in the background with live progress and a Cancel
+ * button. A cancelled or failed purge can be resumed by deleting again.
+ */
+public class PurgeDialog extends JDialog {
+    private final PurgeJob job;
+    private final Consumer<PurgeJob.Outcome> onFinished;
+    private final JLabel statusLabel = new JLabel("Starting...");
+    private final JProgressBar progressBar = new JProgressBar();
+    private final JButton cancelButton = new JButton("Cancel");
+
+    private PurgeDialog(JFrame parent, String title, PurgeJob job, Consumer<PurgeJob.Outcome> onFinished) {
+        super(parent, title, false);
+        this.job = job;
+        this.onFinished = onFinished;
+
+        progressBar.setIndeterminate(true);
+        cancelButton.addActionListener(e -> {
+            cancelButton.setEnabled(false);
+            statusLabel.setText("Cancelling after the current chunk...");
+            job.cancel();
+        });
+
+        JPanel panel = new JPanel(new BorderLayout(10, 10));
+        panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+        panel.add(statusLabel, BorderLayout.NORTH);
+        panel.add(progressBar, BorderLayout.CENTER);
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(cancelButton);
+        panel.add(buttons, BorderLayout.SOUTH);
+
+        add(panel);
+        setDefaultCloseOperation(JDialog.DO_NOTHING_ON_CLOSE);
+        setSize(480, 160);
+        setLocationRelativeTo(parent);
+    }
+
+    /**
+     * Show the dialog and start the purge
+     * @param onFinished run on the EDT with the outcome once the purge ends
+     */
+    public static void run(JFrame parent, String title, PurgeJob job, Consumer<PurgeJob.Outcome> onFinished) {
+        PurgeDialog dialog = new PurgeDialog(parent, title, job, onFinished);
+        dialog.setVisible(true);
+        dialog.start();
+    }
+
+    private void start() {
+        new ActionWorker<PurgeJob.Outcome, String>() {
+            @Override
+            protected PurgeJob.Outcome work() {
+                job.setProgressListener((table, inTable, total) ->
+                    publish(String.format("Deleted %d row(s); %s: %d", total, table, inTable)));
+                return job.run();
+            }
+
+            @Override
+            protected void process(List<String> chunks) {
+                if (!job.isCancelled()) {
+                    statusLabel.setText(chunks.get(chunks.size() - 1));
+                }
+            }
+
+            @Override
+            protected void done() {
+                dispose();
+                PurgeJob.Outcome outcome;
+                try {
+                    outcome = get();
+                } catch (Exception e) {
+                    outcome = PurgeJob.Outcome.FAILED;
+                }
+                if (outcome == PurgeJob.Outcome.CANCELLED) {
+                    JOptionPane.showMessageDialog(getParent(), "Deletion cancelled after " + job.getDeletedTotal()
+                        + " row(s). Delete again to finish.", "Cancelled", JOptionPane.INFORMATION_MESSAGE);
+                } else if (outcome == PurgeJob.Outcome.FAILED) {
+                    JOptionPane.showMessageDialog(getParent(), "Deletion stopped after " + job.getDeletedTotal()
+                        + " row(s). See the application log; delete again to resume.",
+                        "Database Error", JOptionPane.ERROR_MESSAGE);
+                }
+                onFinished.accept(outcome);
+            }
+        }.execute();
+    }
+}
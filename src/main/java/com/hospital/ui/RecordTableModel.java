@@ -0,0 +1,152 @@
+package com.hospital.ui;
+
+import com.hospital.dao.ChangeSet;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Read-only table model backed by a list of records kept in a fixed order.
+ * Single-row changes fire row-level events, so the table keeps its
+ * selection and scroll position instead of being rebuilt.
+ */
+public class RecordTableModel<T> extends AbstractTableModel {
+    private final String[] columnNames;
+    private final Function<T, Object[]> rowMapper;
+    private final ToIntFunction<T> idOf;
+    private final Comparator<T> order;
+    private final List<T> records = new ArrayList<>();
+    private final List<Object[]> rows = new ArrayList<>();
+
+    public RecordTableModel(String[] columnNames, Function<T, Object[]> rowMapper,
+                            ToIntFunction<T> idOf, Comparator<T> order) {
+        this.columnNames = columnNames;
+        this.rowMapper = rowMapper;
+        this.idOf = idOf;
+        this.order = order;
+    }
+
+    @Override
+    public int getRowCount() { return rows.size(); }
+
+    @Override
+    public int getColumnCount() { return columnNames.length; }
+
+    @Override
+    public String getColumnName(int column) { return columnNames[column]; }
+
+    @Override
+    public Object getValueAt(int row, int column) { return rows.get(row)[column]; }
+
+    @Override
+    public boolean isCellEditable(int row, int column) { return false; }
+
+    public T getRecord(int row) { return records.get(row); }
+
+    public List<T> getRecords() { return Collections.unmodifiableList(records); }
+
+    /**
+     * Replace every row (full reload)
+     */
+    public void setRecords(List<T> newRecords) {
+        records.clear();
+        rows.clear();
+        List<T> sorted = new ArrayList<>(newRecords);
+        sorted.sort(order);
+        for (T record : sorted) {
+            records.add(record);
+            rows.add(rowMapper.apply(record));
+        }
+        fireTableDataChanged();
+    }
+
+    /**
+     * Row index of the record with the given id, or -1
+     */
+    public int indexOf(int id) {
+        for (int i = 0; i < records.size(); i++) {
+            if (idOf.applyAsInt(records.get(i)) == id) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Update the row with the same id in place, or insert it at its sorted position
+     */
+    public void upsert(T record) {
+        int index = indexOf(idOf.applyAsInt(record));
+        if (index >= 0) {
+            if (staysInPlace(index, record)) {
+                records.set(index, record);
+                rows.set(index, rowMapper.apply(record));
+                fireTableRowsUpdated(index, index);
+                return;
+            }
+            records.remove(index);
+            rows.remove(index);
+            fireTableRowsDeleted(index, index);
+        }
+
+        int position = Collections.binarySearch(records, record, order);
+        if (position < 0) {
+            position = -position - 1;
+        }
+        records.add(position, record);
+        rows.add(position, rowMapper.apply(record));
+        fireTableRowsInserted(position, position);
+    }
+
+    private boolean staysInPlace(int index, T record) {
+        boolean afterPrevious = index == 0 || order.compare(records.get(index - 1), record) <= 0;
+        boolean beforeNext = index == records.size() - 1 || order.compare(record, records.get(index + 1)) <= 0;
+        return afterPrevious && beforeNext;
+    }
+
+    /**
+     * Remove the row with the given id, if present
+     */
+    public void remove(int id) {
+        int index = indexOf(id);
+        if (index >= 0) {
+            records.remove(index);
+            rows.remove(index);
+            fireTableRowsDeleted(index, index);
+        }
+    }
+
+    /**
+     * Merge a delta into the model. Changed rows that no longer match the
+     * current view filter are removed rather than updated.
+     */
+    public void applyChanges(ChangeSet<T> changes, Predicate<T> viewFilter) {
+        if (changes.isFullReload()) {
+            List<T> visible = new ArrayList<>();
+            for (T record : changes.getChanged()) {
+                if (viewFilter.test(record)) {
+                    visible.add(record);
+                }
+            }
+            setRecords(visible);
+            return;
+        }
+
+        for (T record : changes.getChanged()) {
+            if (viewFilter.test(record)) {
+                upsert(record);
+            } else {
+                remove(idOf.applyAsInt(record));
+            }
+        }
+        for (int id : changes.getDeletedIds()) {
+            remove(id);
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package com.hospital.ui;
+
+import com.hospital.util.AppLogger;
+
+import com.hospital.dao.DoctorDAO;
+import com.hospital.model.Doctor;
+import com.hospital.model.User;
+import com.hospital.report.AppointmentSnapshot;
+import com.hospital.report.BillingRow;
+import com.hospital.report.PivotTable;
+import com.hospital.report.ReportService;
+import com.hospital.report.TrendRow;
+import com.hospital.report.UtilizationReport;
+import com.hospital.report.VolumeRow;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Reports Frame - appointment volume, status breakdown and revenue over a date range
+ */
+public class ReportsFrame extends JFrame {
+    private static final String[] PRESETS = {"This Month", "Last 30 Days", "This Year", "Last 12 Months", "Last 5 Years", "Custom"};
+
+    private final ReportService reportService;
+    private JComboBox<String> presetCombo;
+    private JTextField fromField, toField;
+    private JButton runButton, refreshButton;
+    private JLabel summaryLabel;
+    private DefaultTableModel doctorModel, specializationModel, billingModel, trendModel;
+
+    // Pivot over the in-memory appointment snapshot
+    private JComboBox<AppointmentSnapshot.Dimension> pivotRowsCombo, pivotColumnsCombo;
+    private JButton pivotButton;
+    private JLabel pivotInfoLabel;
+    private DefaultTableModel pivotModel;
+
+    public ReportsFrame(User user) {
+        this.reportService = new ReportService();
+
+        initializeComponents();
+        setupLayout();
+        setupEventHandlers();
+        applyPreset();
+        runReport(false);
+
+        setTitle("Reports");
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        setSize(1100, 700);
+        setLocationRelativeTo(null);
+    }
+
+    private void initializeComponents() {
+        presetCombo = new JComboBox<>(PRESETS);
+        presetCombo.setFont(new Font("Arial", Font.PLAIN, 12));
+        fromField = new JTextField(10);
+        toField = new JTextField(10);
+
+        runButton = createStyledButton("Run Report", new Color(40, 167, 69));
+        refreshButton = createStyledButton("Recalculate", new Color(108, 117, 125));
+
+        summaryLabel = new JLabel(" ");
+        summaryLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+
+        String[] volumeColumns = {"Scheduled", "Completed", "Cancelled", "No Show", "Total", "Completion %", "Consultation Revenue"};
+        doctorModel = readOnlyModel(concat(new String[]{"Doctor", "Specialization"}, volumeColumns));
+        specializationModel = readOnlyModel(concat(new String[]{"Specialization"}, volumeColumns));
+        billingModel = readOnlyModel(new String[]{"Payment Status", "Bills", "Billed", "Paid", "Outstanding"});
+        pivotRowsCombo = new JComboBox<>(AppointmentSnapshot.Dimension.values());
+        pivotColumnsCombo = new JComboBox<>(AppointmentSnapshot.Dimension.values());
+        pivotRowsCombo.setSelectedItem(AppointmentSnapshot.Dimension.DOCTOR);
+        pivotColumnsCombo.setSelectedItem(AppointmentSnapshot.Dimension.STATUS);
+        pivotButton = createStyledButton("Pivot", new Color(23, 162, 184));
+        pivotInfoLabel = new JLabel(" ");
+        pivotModel = readOnlyModel(new String[0]);
+        trendModel = readOnlyModel(concat(new String[]{"Month"}, concat(volumeColumns, new String[]{"Billed", "Collected"})));
+    }
+
+    private JButton createStyledButton(String text, Color color) {
+        JButton button = new JButton(text);
+        button.setFont(new Font("Arial", Font.BOLD, 12));
+        button.setBackground(color);
+        button.setForeground(Color.WHITE);
+        button.setFocusPainted(false);
+        button.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
+        button.setCursor(new Cursor(Cursor.HAND_CURSOR));
+        button.setOpaque(true);
+        button.setBorderPainted(false);
+        return button;
+    }
+
+    private void setupLayout() {
+        setLayout(new BorderLayout());
+
+        // Header Panel
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(new Color(0, 123, 255));
+        headerPanel.setBorder(BorderFactory.createEmptyBorder(15, 20, 15, 20));
+
+        JLabel titleLabel = new JLabel("Reports");
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 20));
+        titleLabel.setForeground(Color.WHITE);
+        headerPanel.add(titleLabel, BorderLayout.WEST);
+
+        // Range Panel
+        JPanel rangePanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        rangePanel.setBackground(Color.WHITE);
+        rangePanel.setBorder(BorderFactory.createEmptyBorder(10, 20, 10, 20));
+        rangePanel.add(new JLabel("Range:"));
+        rangePanel.add(presetCombo);
+        rangePanel.add(Box.createHorizontalStrut(10));
+        rangePanel.add(new JLabel("From (YYYY-MM-DD):"));
+        rangePanel.add(fromField);
+        rangePanel.add(new JLabel("To:"));
+        rangePanel.add(toField);
+        rangePanel.add(runButton);
+        rangePanel.add(refreshButton);
+
+        JPanel summaryPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        summaryPanel.setBorder(BorderFactory.createEmptyBorder(0, 20, 10, 20));
+        summaryPanel.add(summaryLabel);
+
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.add(headerPanel, BorderLayout.NORTH);
+        topPanel.add(rangePanel, BorderLayout.CENTER);
+        topPanel.add(summaryPanel, BorderLayout.SOUTH);
+
+        JTabbedPane tabs = new JTabbedPane();
+        tabs.addTab("By Doctor", new JScrollPane(createTable(doctorModel)));
+        tabs.addTab("By Specialization", new JScrollPane(createTable(specializationModel)));
+        tabs.addTab("Billing", new JScrollPane(createTable(billingModel)));
+        tabs.addTab("Monthly Trend", new JScrollPane(createTable(trendModel)));
+        tabs.addTab("Pivot", createPivotPanel());
+
+        add(topPanel, BorderLayout.NORTH);
+        add(tabs, BorderLayout.CENTER);
+    }
+
+    private void setupEventHandlers() {
+        presetCombo.addActionListener(e -> {
+            applyPreset();
+            if (!"Custom".equals(presetCombo.getSelectedItem())) {
+                runReport(false);
+            }
+        });
+        runButton.addActionListener(e -> runReport(false));
+        refreshButton.addActionListener(e -> runReport(true));
+        pivotButton.addActionListener(e -> runPivot());
+    }
+
+    private void applyPreset() {
+        LocalDate today = LocalDate.now();
+        LocalDate from;
+        switch ((String) presetCombo.getSelectedItem()) {
+            case "This Month": from = today.withDayOfMonth(1); break;
+            case "Last 30 Days": from = today.minusDays(29); break;
+            case "This Year": from = today.withDayOfYear(1); break;
+            case "Last 12 Months": from = today.minusYears(1).plusDays(1); break;
+            case "Last 5 Years": from = today.minusYears(5).withDayOfMonth(1); break;
+            default: return;
+        }
+        fromField.setText(from.toString());
+        toField.setText(today.toString());
+    }
+
+    /**
+     * Compute the report off the EDT
+     * @param recalculate ignore a cached result for this range
+     */
+    private void runReport(boolean recalculate) {
+        LocalDate from, to;
+        try {
+            from = LocalDate.parse(fromField.getText().trim());
+            to = LocalDate.parse(toField.getText().trim());
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "Please enter dates as YYYY-MM-DD.",
+                "Invalid Date", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        if (recalculate) {
+            reportService.invalidate(from, to);
+        }
+
+        runButton.setEnabled(false);
+        refreshButton.setEnabled(false);
+        summaryLabel.setText("Calculating...");
+
+        new ActionWorker<UtilizationReport, Void>() {
+            @Override
+            protected UtilizationReport work() throws Exception {
+                return reportService.getUtilizationReport(from, to);
+            }
+
+            @Override
+            protected void done() {
+                runButton.setEnabled(true);
+                refreshButton.setEnabled(true);
+                try {
+                    showReport(get());
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    summaryLabel.setText(" ");
+                    JOptionPane.showMessageDialog(ReportsFrame.this,
+                        "Error running report: " + cause.getMessage(),
+                        "Report Error", JOptionPane.ERROR_MESSAGE);
+                    AppLogger.error("ReportsFrame", "runReport", "Error occurred", cause);
+                }
+            }
+        }.execute();
+    }
+
+    private JPanel createPivotPanel() {
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        controls.add(new JLabel("Rows:"));
+        controls.add(pivotRowsCombo);
+        controls.add(new JLabel("Columns:"));
+        controls.add(pivotColumnsCombo);
+        controls.add(pivotButton);
+        controls.add(pivotInfoLabel);
+
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(controls, BorderLayout.NORTH);
+        JTable table = createTable(pivotModel);
+        table.setAutoResizeMode(JTable.AUTO_RESIZE_OFF);
+        panel.add(new JScrollPane(table), BorderLayout.CENTER);
+        return panel;
+    }
+
+    /**
+     * Cross-tabulate appointments in the selected date range. The snapshot
+     * is loaded on first use and only refreshed with changes afterwards.
+     */
+    private void runPivot() {
+        LocalDate from, to;
+        try {
+            from = LocalDate.parse(fromField.getText().trim());
+            to = LocalDate.parse(toField.getText().trim());
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "Please enter dates as YYYY-MM-DD.",
+                "Invalid Date", JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        AppointmentSnapshot.Dimension rows = (AppointmentSnapshot.Dimension) pivotRowsCombo.getSelectedItem();
+        AppointmentSnapshot.Dimension columns = (AppointmentSnapshot.Dimension) pivotColumnsCombo.getSelectedItem();
+
+        pivotButton.setEnabled(false);
+        pivotInfoLabel.setText("Updating snapshot...");
+
+        new ActionWorker<PivotTable, Void>() {
+            @Override
+            protected PivotTable work() throws Exception {
+                AppointmentSnapshot snapshot = AppointmentSnapshot.getInstance();
+                snapshot.refresh();
+                Map<Integer, String> doctorNames = new HashMap<>();
+                for (Doctor doctor : new DoctorDAO().getAllDoctors()) {
+                    doctorNames.put(doctor.getDoctorId(), doctor.getName());
+                }
+                return snapshot.pivot(rows, columns, from, to, doctorNames);
+            }
+
+            @Override
+            protected void done() {
+                pivotButton.setEnabled(true);
+                try {
+                    showPivot(get(), rows);
+                } catch (InterruptedException | ExecutionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    pivotInfoLabel.setText(" ");
+                    JOptionPane.showMessageDialog(ReportsFrame.this,
+                        "Error building pivot: " + cause.getMessage(),
+                        "Report Error", JOptionPane.ERROR_MESSAGE);
+                    AppLogger.error("ReportsFrame", "runPivot", "Error occurred", cause);
+                }
+            }
+        }.execute();
+    }
+
+    private void showPivot(PivotTable pivot, AppointmentSnapshot.Dimension rows) {
+        int columns = pivot.getColumnCount();
+        Object[] header = new Object[columns + 2];
+        header[0] = rows.toString();
+        for (int c = 0; c < columns; c++) {
+            header[c + 1] = pivot.getColumnLabel(c);
+        }
+        header[columns + 1] = "Total";
+
+        Object[][] data = new Object[pivot.getRowCount() + 1][];
+        for (int r = 0; r < pivot.getRowCount(); r++) {
+            Object[] line = new Object[columns + 2];
+            line[0] = pivot.getRowLabel(r);
+            for (int c = 0; c < columns; c++) {
+                line[c + 1] = pivot.getCount(r, c);
+            }
+            line[columns + 1] = pivot.getRowTotal(r);
+            data[r] = line;
+        }
+        Object[] totals = new Object[columns + 2];
+        totals[0] = "Total";
+        for (int c = 0; c < columns; c++) {
+            totals[c + 1] = pivot.getColumnTotal(c);
+        }
+        totals[columns + 1] = pivot.getGrandTotal();
+        data[pivot.getRowCount()] = totals;
+
+        pivotModel.setDataVector(data, header);
+        pivotInfoLabel.setText(String.format("%,d appointments scanned in %.1f ms",
+            pivot.getScannedRows(), pivot.getElapsedMicros() / 1000.0));
+    }
+
+    private void showReport(UtilizationReport report) {
+        VolumeRow totals = report.getTotals();
+        summaryLabel.setText(String.format(
+            "<html><b>%s to %s</b> &nbsp; Appointments: <b>%,d</b> &nbsp; Completed: <b>%,d</b> (%.1f%%) &nbsp; "
+                + "Consultation revenue: <b>%,.2f</b> &nbsp; Billed: <b>%,.2f</b> &nbsp; Collected: <b>%,.2f</b>"
+                + " &nbsp; <i>(%d ms)</i></html>",
+            report.getFrom(), report.getTo(), totals.getTotal(), totals.getCompleted(), totals.getCompletionRate(),
+            totals.getConsultationRevenue(), report.getBilledTotal(), report.getCollectedTotal(),
+            report.getComputeMillis()));
+
+        doctorModel.setRowCount(0);
+        for (VolumeRow row : report.getByDoctor()) {
+            doctorModel.addRow(concat(new Object[]{row.getDoctorName(), row.getSpecialization()}, volumeCells(row)));
+        }
+        specializationModel.setRowCount(0);
+        for (VolumeRow row : report.getBySpecialization()) {
+            specializationModel.addRow(concat(new Object[]{row.getSpecialization()}, volumeCells(row)));
+        }
+        billingModel.setRowCount(0);
+        for (BillingRow row : report.getBilling()) {
+            billingModel.addRow(new Object[]{
+                row.getPaymentStatus(), row.getBillCount(), row.getTotalAmount(), row.getPaidAmount(), row.getOutstanding()
+            });
+        }
+        trendModel.setRowCount(0);
+        for (TrendRow row : report.getTrend()) {
+            trendModel.addRow(trendCells(row));
+        }
+    }
+
+    private static Object[] trendCells(TrendRow row) {
+        return concat(new Object[]{row.getMonth()},
+            concat(volumeCells(row.getVolume()), new Object[]{row.getBilled(), row.getCollected()}));
+    }
+
+    private static Object[] volumeCells(VolumeRow row) {
+        return new Object[]{
+            row.getScheduled(), row.getCompleted(), row.getCancelled(), row.getNoShow(), row.getTotal(),
+            String.format("%.1f", row.getCompletionRate()), row.getConsultationRevenue()
+        };
+    }
+
+    private static DefaultTableModel readOnlyModel(String[] columns) {
+        return new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+    }
+
+    private static JTable createTable(DefaultTableModel model) {
+        JTable table = new JTable(model);
+        table.setRowHeight(25);
+        table.setAutoCreateRowSorter(true);
+        table.getTableHeader().setFont(new Font("Arial", Font.BOLD, 12));
+        table.setFont(new Font("Arial", Font.PLAIN, 12));
+        return table;
+    }
+
+    private static <T> T[] concat(T[] first, T[] second) {
+        T[] result = Arrays.copyOf(first, first.length + second.length);
+        System.arraycopy(second, 0, result, first.length, second.length);
+        return result;
+    }
+}
@@ -1,27 +1,161 @@
 package com.hospital.util;
 
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
-import java.util.logging.Logger;
-import java.util.logging.ConsoleHandler;
-import java.util.logging.SimpleFormatter;
 
 /**
  * Centralized logging utility for the Hospital Management System.
  * Provides consistent logging across all application components.
+ *
+ * Callers only put a record into a bounded lock-free ring buffer; a single
+ * daemon thread formats records and writes them to the console and to a
+ * rolling file (logs/hospital.log). Messages may name fields in braces,
+ * e.g. "Created {count} bill(s)", with the values passed as key/value
+ * pairs after the message; they are substituted on the writer thread, and
+ * fields not named in the message are appended as key=value. Field values
+ * should be immutable, since they are read later.
+ *
+ * When the buffer is full the hospital.log.overflow policy applies: DROP
+ * discards the record, BLOCK waits for space, and DROP_INFO (the default)
+ * discards INFO records but waits for warnings and errors. Dropped records
+ * are counted and reported in the log once there is room again.
+ *
+ * Settings: hospital.log.level (INFO), hospital.log.bufferSize (8192),
+ * hospital.log.console (true), hospital.log.file, hospital.log.maxBytes
+ * (10 MB, five older files kept).
  */
 public class AppLogger {
-    private static final Logger LOGGER = Logger.getLogger("HospitalManagement");
-    
+
+    /** What to do with a record when the buffer is full */
+    public enum OverflowPolicy { DROP, DROP_INFO, BLOCK }
+
+    private static final Level LEVEL = Level.parse(System.getProperty("hospital.log.level", "INFO"));
+    private static final OverflowPolicy OVERFLOW =
+            OverflowPolicy.valueOf(System.getProperty("hospital.log.overflow", "DROP_INFO"));
+    private static final boolean CONSOLE = Boolean.parseBoolean(System.getProperty("hospital.log.console", "true"));
+    private static final RollingFile FILE = new RollingFile(
+            Paths.get(System.getProperty("hospital.log.file", "logs/hospital.log")),
+            Long.getLong("hospital.log.maxBytes", 10L * 1024 * 1024), 5);
+
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final Object[] NO_FIELDS = new Object[0];
+
+    private static final Ring RING = new Ring(Integer.getInteger("hospital.log.bufferSize", 8192));
+    private static final LongAdder DROPPED = new LongAdder();
+
+    private static final Thread WRITER = new Thread(AppLogger::drain, "log-writer");
+    private static volatile boolean writerParked;
+    private static volatile boolean stopping;
+
     static {
-        // Configure logger
-        LOGGER.setLevel(Level.ALL);
-        ConsoleHandler handler = new ConsoleHandler();
-        handler.setLevel(Level.ALL);
-        handler.setFormatter(new SimpleFormatter());
-        LOGGER.addHandler(handler);
-        LOGGER.setUseParentHandlers(false);
-    }
-    
+        WRITER.setDaemon(true);
+        WRITER.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            stopping = true;
+            LockSupport.unpark(WRITER);
+            try {
+                WRITER.join(2_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "log-flush"));
+    }
+
+    private static final class Record {
+        final long millis = System.currentTimeMillis();
+        final String thread = Thread.currentThread().getName();
+        final Level level;
+        final String className;
+        final String methodName;
+        final String message;
+        final Throwable throwable;
+        final Object[] fields;
+
+        Record(Level level, String className, String methodName, String message, Throwable throwable,
+               Object[] fields) {
+            this.level = level;
+            this.className = className;
+            this.methodName = methodName;
+            this.message = message;
+            this.throwable = throwable;
+            this.fields = fields;
+        }
+    }
+
+    /**
+     * Bounded multi-producer queue over an array. Each slot carries a
+     * sequence number saying whether it is free for the producer at that
+     * position or filled for the consumer, so producers only contend on one
+     * compare-and-set. There is a single consumer, the writer thread.
+     */
+    private static final class Ring {
+        private final Record[] records;
+        private final AtomicLongArray sequences;
+        private final int mask;
+        private final AtomicLong tail = new AtomicLong();
+        private long head;
+
+        Ring(int requestedCapacity) {
+            int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+            records = new Record[capacity];
+            sequences = new AtomicLongArray(capacity);
+            mask = capacity - 1;
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, i);
+            }
+        }
+
+        boolean offer(Record record) {
+            long position = tail.get();
+            while (true) {
+                int index = (int) (position & mask);
+                long difference = sequences.get(index) - position;
+                if (difference == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        records[index] = record;
+                        sequences.set(index, position + 1);
+                        return true;
+                    }
+                    position = tail.get();
+                } else if (difference < 0) {
+                    return false;
+                } else {
+                    position = tail.get();
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return sequences.get((int) (head & mask)) != head + 1;
+        }
+
+        Record poll() {
+            int index = (int) (head & mask);
+            if (isEmpty()) {
+                return null;
+            }
+            Record record = records[index];
+            records[index] = null;
+            sequences.set(index, head + mask + 1);
+            head++;
+            return record;
+        }
+    }
+
     /**
      * Log an error message with exception details.
      * @param className The class where the error occurred
@@ -30,9 +164,18 @@ public class AppLogger {
      * @param throwable The exception that was thrown
      */
     public static void error(String className, String methodName, String message, Throwable throwable) {
-        LOGGER.logp(Level.SEVERE, className, methodName, message, throwable);
+        log(Level.SEVERE, className, methodName, message, throwable, NO_FIELDS);
+    }
+
+    /**
+     * Log an error message with exception details and fields.
+     * @param fields alternating field names and values
+     */
+    public static void error(String className, String methodName, String message, Throwable throwable,
+                             Object... fields) {
+        log(Level.SEVERE, className, methodName, message, throwable, fields);
     }
-    
+
     /**
      * Log an error message without exception.
      * @param className The class where the error occurred
@@ -40,9 +183,9 @@ public class AppLogger {
      * @param message The error message
      */
     public static void error(String className, String methodName, String message) {
-        LOGGER.logp(Level.SEVERE, className, methodName, message);
+        log(Level.SEVERE, className, methodName, message, null, NO_FIELDS);
     }
-    
+
     /**
      * Log a warning message.
      * @param className The class name
@@ -50,9 +193,17 @@ public class AppLogger {
      * @param message The warning message
      */
     public static void warning(String className, String methodName, String message) {
-        LOGGER.logp(Level.WARNING, className, methodName, message);
+        log(Level.WARNING, className, methodName, message, null, NO_FIELDS);
+    }
+
+    /**
+     * Log a warning message with fields.
+     * @param fields alternating field names and values
+     */
+    public static void warning(String className, String methodName, String message, Object... fields) {
+        log(Level.WARNING, className, methodName, message, null, fields);
     }
-    
+
     /**
      * Log an info message.
      * @param className The class name
@@ -60,6 +211,162 @@ public class AppLogger {
      * @param message The info message
      */
     public static void info(String className, String methodName, String message) {
-        LOGGER.logp(Level.INFO, className, methodName, message);
+        log(Level.INFO, className, methodName, message, null, NO_FIELDS);
+    }
+
+    /**
+     * Log an info message with fields.
+     * @param fields alternating field names and values
+     */
+    public static void info(String className, String methodName, String message, Object... fields) {
+        log(Level.INFO, className, methodName, message, null, fields);
+    }
+
+    /** Records discarded because the buffer was full */
+    public static long getDroppedCount() {
+        return DROPPED.sum();
+    }
+
+    private static void log(Level level, String className, String methodName, String message,
+                            Throwable throwable, Object[] fields) {
+        if (level.intValue() < LEVEL.intValue()) {
+            return;
+        }
+        Record record = new Record(level, className, methodName, message, throwable, fields);
+        if (RING.offer(record)) {
+            wakeWriter();
+            return;
+        }
+        boolean wait = OVERFLOW == OverflowPolicy.BLOCK
+                || (OVERFLOW == OverflowPolicy.DROP_INFO && level.intValue() > Level.INFO.intValue());
+        // the writer cannot wait for itself, and after shutdown nothing frees space
+        if (!wait || Thread.currentThread() == WRITER || !WRITER.isAlive()) {
+            DROPPED.increment();
+            return;
+        }
+        do {
+            wakeWriter();
+            LockSupport.parkNanos(100_000);
+        } while (!RING.offer(record) && WRITER.isAlive());
+        wakeWriter();
+    }
+
+    private static void wakeWriter() {
+        if (writerParked) {
+            LockSupport.unpark(WRITER);
+        }
+    }
+
+    private static void drain() {
+        Writer console = CONSOLE ? new OutputStreamWriter(System.err, Charset.defaultCharset()) : null;
+        long reportedDrops = 0;
+        while (true) {
+            Record record = RING.poll();
+            if (record == null) {
+                long dropped = DROPPED.sum();
+                if (dropped > reportedDrops) {
+                    record = new Record(Level.WARNING, AppLogger.class.getSimpleName(), "log",
+                            "{count} log record(s) dropped, buffer full", null,
+                            new Object[]{"count", dropped - reportedDrops});
+                    reportedDrops = dropped;
+                }
+            }
+            if (record != null) {
+                write(console, format(record));
+                continue;
+            }
+
+            flush(console);
+            if (stopping) {
+                return;
+            }
+            writerParked = true;
+            if (!stopping && RING.isEmpty()) {
+                LockSupport.parkNanos(200_000_000);
+            }
+            writerParked = false;
+        }
+    }
+
+    private static void write(Writer console, String text) {
+        try {
+            if (console != null) {
+                console.write(text);
+            }
+            FILE.append(text);
+        } catch (IOException e) {
+            System.err.println("[AppLogger] Cannot write " + FILE.getFile() + ": " + e.getMessage());
+        }
+    }
+
+    private static void flush(Writer console) {
+        try {
+            if (console != null) {
+                console.flush();
+            }
+            FILE.flush();
+        } catch (IOException e) {
+            System.err.println("[AppLogger] Cannot write " + FILE.getFile() + ": " + e.getMessage());
+        }
+    }
+
+    private static String format(Record record) {
+        StringBuilder out = new StringBuilder(128);
+        TIMESTAMP.formatTo(Instant.ofEpochMilli(record.millis), out);
+        out.append(' ').append(record.level.getName())
+                .append(" [").append(record.thread).append("] ")
+                .append(record.className).append('.').append(record.methodName).append(" - ");
+        appendMessage(record.message, record.fields, out);
+        out.append(System.lineSeparator());
+        if (record.throwable != null) {
+            StringWriter trace = new StringWriter();
+            record.throwable.printStackTrace(new PrintWriter(trace));
+            out.append(trace);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Substitute {name} placeholders from the fields and append the rest as name=value
+     */
+    private static void appendMessage(String message, Object[] fields, StringBuilder out) {
+        if (fields.length == 0) {
+            out.append(message);
+            return;
+        }
+        boolean[] used = new boolean[fields.length];
+        int from = 0;
+        int open;
+        while ((open = message.indexOf('{', from)) >= 0) {
+            int close = message.indexOf('}', open);
+            if (close < 0) {
+                break;
+            }
+            int field = indexOfField(fields, message.substring(open + 1, close));
+            out.append(message, from, open);
+            if (field >= 0) {
+                out.append(fields[field + 1]);
+                used[field] = true;
+            } else {
+                out.append(message, open, close + 1);
+            }
+            from = close + 1;
+        }
+        out.append(message, from, message.length());
+
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            if (!used[i]) {
+                out.append(' ').append(fields[i]).append('=').append(fields[i + 1]);
+            }
+        }
+    }
+
+    private static int indexOfField(Object[] fields, String name) {
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            if (name.equals(fields[i])) {
+                return i;
+            }
+        }
+        return -1;
     }
 }
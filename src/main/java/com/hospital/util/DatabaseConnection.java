@@ -1,72 +1,246 @@
 package com.hospital.util;
 
+import com.hospital.metrics.QueryMetrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Database connection utility class
- * Handles MySQL database connections using JDBC
+ * Handles MySQL database connections using JDBC.
+ * Connections are pooled: closing a connection returns it to the pool, so
+ * DAOs keep using try-with-resources without reconnecting on every call.
+ * A returned connection is reset to the state it was opened with, or
+ * discarded if that fails, so no borrower sees another's session settings.
+ * Statements are wrapped for per-query metrics, see QueryMetrics.
  */
 public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3307/hospital_management";
-    private static final String USERNAME = "root";
-    private static final String PASSWORD = ""; // Change this to your MySQL password
+    // rewriteBatchedStatements lets executeBatch() send multi-row INSERTs
+    private static final String URL = System.getProperty("hospital.db.url",
+            "jdbc:mysql://localhost:3307/hospital_management?rewriteBatchedStatements=true");
+    private static final String USERNAME = System.getProperty("hospital.db.user", "root");
+    private static final String PASSWORD = System.getProperty("hospital.db.password", ""); // Change this to your MySQL password
     private static final String DRIVER = "com.mysql.cj.jdbc.Driver";
-    
-    private static Connection connection = null;
-    
+
+    // the EDT, the report query executor (3), the job threads (2), the metrics
+    // endpoint (2) and a streaming export can all hold a connection at once
+    private static final int POOL_SIZE = Integer.getInteger("hospital.db.poolSize", 10);
+    private static final long BORROW_TIMEOUT_MILLIS = 10_000;
+    // idle connections older than this are pinged before being handed out
+    private static final long VALIDATE_AFTER_IDLE_MILLIS = 30_000;
+    // session variables the DAOs set; cleared on release if a plain statement ran
+    private static final String CLEAR_SESSION_VARIABLES = "SET @archiving_appointments = NULL";
+
+    private static final BlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>();
+    private static final Semaphore permits = new Semaphore(POOL_SIZE, true);
+    private static final AtomicInteger active = new AtomicInteger();
+
+    private static final class IdleConnection {
+        final Connection physical;
+        final int defaultIsolation;
+        final long idleSince;
+
+        IdleConnection(Connection physical, int defaultIsolation) {
+            this.physical = physical;
+            this.defaultIsolation = defaultIsolation;
+            this.idleSince = System.currentTimeMillis();
+        }
+    }
+
     static {
         try {
             Class.forName(DRIVER);
         } catch (ClassNotFoundException e) {
-            System.err.println("MySQL JDBC Driver not found!");
-            e.printStackTrace();
+            AppLogger.error("DatabaseConnection", "<clinit>", "MySQL JDBC Driver not found", e);
         }
     }
-    
+
     /**
-     * Get database connection
-     * @return Connection object
+     * Borrow a pooled database connection; close it to give it back
+     * @return Connection object, never null
+     * @throws SQLException if the pool stays empty for the borrow timeout or
+     *         a new connection cannot be opened
      */
-    public static Connection getConnection() {
+    public static Connection getConnection() throws SQLException {
         try {
-            if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(URL, USERNAME, PASSWORD);
-                System.out.println("Database connected successfully!");
+            if (!permits.tryAcquire(BORROW_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                AppLogger.warning("DatabaseConnection", "getConnection",
+                        "Timed out after {timeoutMillis} ms waiting for a database connection",
+                        "timeoutMillis", BORROW_TIMEOUT_MILLIS, "poolSize", POOL_SIZE);
+                throw new SQLTransientConnectionException("Timed out after " + BORROW_TIMEOUT_MILLIS
+                        + " ms waiting for one of " + POOL_SIZE + " pooled database connections");
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        }
+
+        try {
+            IdleConnection pooled = takeIdle();
+            if (pooled == null) {
+                Connection physical = DriverManager.getConnection(URL, USERNAME, PASSWORD);
+                try {
+                    pooled = new IdleConnection(physical, physical.getTransactionIsolation());
+                } catch (SQLException e) {
+                    closeQuietly(physical);
+                    throw e;
+                }
+                AppLogger.info("DatabaseConnection", "getConnection", "Opened a database connection",
+                        "active", active.get() + 1, "poolSize", POOL_SIZE);
+            }
+            active.incrementAndGet();
+            return wrap(pooled);
         } catch (SQLException e) {
-            System.err.println("Failed to connect to database!");
-            e.printStackTrace();
+            permits.release();
+            AppLogger.error("DatabaseConnection", "getConnection", "Failed to connect to database", e);
+            throw e;
         }
-        return connection;
     }
-    
+
     /**
-     * Close database connection
+     * Close all pooled database connections
      */
     public static void closeConnection() {
-        try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
-                System.out.println("Database connection closed.");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error closing database connection!");
-            e.printStackTrace();
+        IdleConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            closeQuietly(connection.physical);
         }
+        AppLogger.info("DatabaseConnection", "closeConnection", "Database connections closed");
     }
-    
+
     /**
      * Test database connection
      * @return true if connection is successful
      */
     public static boolean testConnection() {
-        try {
-            Connection testConn = getConnection();
-            return testConn != null && !testConn.isClosed();
+        try (Connection testConn = getConnection()) {
+            return !testConn.isClosed();
         } catch (SQLException e) {
             return false;
         }
     }
+
+    public static int getPoolSize() { return POOL_SIZE; }
+    public static int getActiveCount() { return active.get(); }
+    public static int getIdleCount() { return idle.size(); }
+
+    private static IdleConnection takeIdle() {
+        IdleConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            try {
+                boolean stale = System.currentTimeMillis() - connection.idleSince > VALIDATE_AFTER_IDLE_MILLIS;
+                if (!connection.physical.isClosed() && (!stale || connection.physical.isValid(2))) {
+                    return connection;
+                }
+            } catch (SQLException e) {
+                // fall through and discard
+            }
+            closeQuietly(connection.physical);
+        }
+        return null;
+    }
+
+    /**
+     * Give a connection back: roll back what the borrower left open and put
+     * autocommit, read-only, isolation and the DAOs' session variables back
+     * to their defaults. Only plain statements set session variables here,
+     * so the extra round trip is skipped when none was created.
+     */
+    private static void release(IdleConnection pooled, boolean plainStatementUsed) {
+        Connection physical = pooled.physical;
+        active.decrementAndGet();
+        try {
+            if (!physical.isClosed()) {
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                if (physical.isReadOnly()) {
+                    physical.setReadOnly(false);
+                }
+                if (physical.getTransactionIsolation() != pooled.defaultIsolation) {
+                    physical.setTransactionIsolation(pooled.defaultIsolation);
+                }
+                if (plainStatementUsed) {
+                    try (Statement stmt = physical.createStatement()) {
+                        stmt.execute(CLEAR_SESSION_VARIABLES);
+                    }
+                }
+                idle.offerFirst(new IdleConnection(physical, pooled.defaultIsolation));
+            }
+        } catch (SQLException e) {
+            closeQuietly(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static void closeQuietly(Connection physical) {
+        try {
+            physical.close();
+        } catch (SQLException e) {
+            // already unusable
+        }
+    }
+
+    private static Connection wrap(IdleConnection pooled) {
+        Connection physical = pooled.physical;
+        AtomicBoolean closed = new AtomicBoolean(false);
+        AtomicBoolean plainStatementUsed = new AtomicBoolean(false);
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "close":
+                    if (closed.compareAndSet(false, true)) {
+                        release(pooled, plainStatementUsed.get());
+                    }
+                    return null;
+                case "isClosed":
+                    return closed.get() || physical.isClosed();
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(physical)) {
+                        return physical;
+                    }
+                    break;
+                case "createStatement":
+                    plainStatementUsed.set(true);
+                    // fall through
+                case "prepareStatement":
+                case "prepareCall":
+                    if (closed.get()) {
+                        throw new SQLException("Connection has been returned to the pool");
+                    }
+                    return QueryMetrics.instrument((Statement) invoke(physical, method, args),
+                        args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null);
+                default:
+                    break;
+            }
+            if (closed.get()) {
+                throw new SQLException("Connection has been returned to the pool");
+            }
+            return invoke(physical, method, args);
+        };
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
 }
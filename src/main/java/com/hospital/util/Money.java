@@ -0,0 +1,81 @@
+package com.hospital.util;
+
+import java.math.BigDecimal;
+
+/**
+ * Conversions between decimal amounts and long minor units (cents).
+ * Payment code keeps amounts as longs so bulk posting does no
+ * BigDecimal arithmetic; the database stores DECIMAL(10,2) amounts.
+ */
+public final class Money {
+
+    /** Minor units per major unit; amounts in the schema have two decimals */
+    public static final int MINOR_PER_MAJOR = 100;
+
+    private Money() {}
+
+    /**
+     * Minor units of a decimal amount
+     * @throws ArithmeticException if the amount has more than two decimals
+     */
+    public static long toMinorUnits(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    public static BigDecimal fromMinorUnits(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, 2);
+    }
+
+    /**
+     * Parse an amount such as "1250", "-12.5" or "1,250.75" straight into
+     * minor units without creating a BigDecimal
+     * @throws NumberFormatException if the text is not an amount with at most two decimals
+     */
+    public static long parseMinorUnits(String text) {
+        String s = text.trim();
+        if (s.isEmpty()) {
+            throw new NumberFormatException("Empty amount");
+        }
+        boolean negative = s.charAt(0) == '-';
+        int i = negative || s.charAt(0) == '+' ? 1 : 0;
+        long major = 0;
+        long minor = 0;
+        int decimals = -1;
+        boolean digits = false;
+
+        for (; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = true;
+                if (decimals < 0) {
+                    major = Math.addExact(Math.multiplyExact(major, 10), c - '0');
+                } else if (++decimals <= 2) {
+                    minor = minor * 10 + (c - '0');
+                } else {
+                    throw new NumberFormatException("More than two decimals: " + text);
+                }
+            } else if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c != ',' || decimals >= 0) {
+                throw new NumberFormatException("Not an amount: " + text);
+            }
+        }
+        if (!digits) {
+            throw new NumberFormatException("Not an amount: " + text);
+        }
+        if (decimals == 1) {
+            minor *= 10;
+        }
+        long value = Math.addExact(Math.multiplyExact(major, MINOR_PER_MAJOR), minor);
+        return negative ? -value : value;
+    }
+
+    /**
+     * Format minor units as a plain decimal string, e.g. 125075 -> "1250.75"
+     */
+    public static String format(long minorUnits) {
+        long abs = Math.abs(minorUnits);
+        String cents = Long.toString(abs % MINOR_PER_MAJOR);
+        return (minorUnits < 0 ? "-" : "") + abs / MINOR_PER_MAJOR + "." + (cents.length() == 1 ? "0" + cents : cents);
+    }
+}
@@ -0,0 +1,171 @@
+package com.hospital.util;
+
+import com.hospital.metrics.CacheLookupEvent;
+import com.hospital.metrics.JfrEvents;
+import com.hospital.metrics.UiAction;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Small TTL cache for query results.
+ * Concurrent lookups of the same key share a single load, so only one
+ * query reaches the database while the others wait for its result.
+ * Lookups are recorded as {@link CacheLookupEvent}s for Flight Recorder.
+ */
+public class QueryCache<K, V> {
+
+    /** Every cache created, for diagnostics and metrics; caches live as long as the application */
+    private static final List<QueryCache<?, ?>> ALL = new CopyOnWriteArrayList<>();
+
+    private static final class Entry<V> {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        volatile long loadedAt;
+    }
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final String name;
+    private volatile long ttlMillis;
+
+    public QueryCache(String name, long ttlMillis) {
+        this.name = name;
+        this.ttlMillis = ttlMillis;
+        ALL.add(this);
+    }
+
+    public static List<QueryCache<?, ?>> getAll() {
+        return Collections.unmodifiableList(ALL);
+    }
+
+    /**
+     * Return the cached value for the key, loading it with the given loader
+     * when it is missing or expired. Failed loads are not cached.
+     */
+    public V get(K key, Callable<V> loader) throws Exception {
+        CacheLookupEvent event = JfrEvents.isEnabled() ? new CacheLookupEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        try {
+            return lookup(key, loader, event);
+        } finally {
+            if (event != null && event.shouldCommit()) {
+                event.cache = name;
+                event.key = String.valueOf(key);
+                UiAction action = UiAction.current();
+                event.action = action != null ? action.toString() : null;
+                event.commit();
+            }
+        }
+    }
+
+    private V lookup(K key, Callable<V> loader, CacheLookupEvent event) throws Exception {
+        while (true) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (!entry.future.isDone() || !isExpired(entry)) {
+                    hits.increment();
+                    if (event != null) {
+                        event.hit = true;
+                    }
+                    return await(entry);
+                }
+                entries.remove(key, entry);
+                continue;
+            }
+
+            Entry<V> created = new Entry<>();
+            Entry<V> existing = entries.putIfAbsent(key, created);
+            if (existing != null) {
+                continue;
+            }
+
+            misses.increment();
+            try {
+                V value = loader.call();
+                created.loadedAt = System.currentTimeMillis();
+                created.future.complete(value);
+                return value;
+            } catch (Exception e) {
+                entries.remove(key, created);
+                created.future.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Drop a single key
+     */
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Drop every key matching the predicate
+     */
+    public void invalidateIf(Predicate<K> predicate) {
+        entries.keySet().removeIf(predicate);
+    }
+
+    /**
+     * Drop every cached value
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * Drop expired entries; lookups only replace expired entries they hit,
+     * so keys that are never asked for again would otherwise stay forever
+     * @return number of entries dropped
+     */
+    public int evictExpired() {
+        int evicted = 0;
+        for (Map.Entry<K, Entry<V>> entry : entries.entrySet()) {
+            Entry<V> value = entry.getValue();
+            if (value.future.isDone() && isExpired(value) && entries.remove(entry.getKey(), value)) {
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    public String getName() { return name; }
+
+    public long getTtlMillis() { return ttlMillis; }
+    public void setTtlMillis(long ttlMillis) { this.ttlMillis = ttlMillis; }
+
+    public long getHitCount() { return hits.sum(); }
+    public long getMissCount() { return misses.sum(); }
+    public int size() { return entries.size(); }
+
+    private boolean isExpired(Entry<V> entry) {
+        return System.currentTimeMillis() - entry.loadedAt > ttlMillis;
+    }
+
+    private V await(Entry<V> entry) throws Exception {
+        try {
+            return entry.future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.hospital.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only text file that is renamed to .1 once it reaches a size limit,
+ * shifting older files to .2, .3 and so on. Output is buffered until
+ * {@link #flush()}. Sizes are counted in characters, which is close enough
+ * for a limit.
+ */
+public class RollingFile {
+    private final Path file;
+    private final long maxBytes;
+    private final int keptFiles;
+    private Writer writer;
+    private long size;
+
+    public RollingFile(Path file, long maxBytes, int keptFiles) {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        this.keptFiles = keptFiles;
+    }
+
+    public Path getFile() { return file; }
+
+    public synchronized void append(String text) throws IOException {
+        if (writer == null) {
+            open();
+        }
+        if (size > 0 && size + text.length() > maxBytes) {
+            rotate();
+        }
+        writer.write(text);
+        size += text.length();
+    }
+
+    public synchronized void flush() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private void open() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        size = Files.exists(file) ? Files.size(file) : 0;
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void rotate() throws IOException {
+        close();
+        for (int i = keptFiles - 1; i >= 1; i--) {
+            Path older = rotated(i);
+            if (Files.exists(older)) {
+                Files.move(older, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (keptFiles > 0) {
+            Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.deleteIfExists(file);
+        }
+        open();
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
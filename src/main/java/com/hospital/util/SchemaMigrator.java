@@ -0,0 +1,426 @@
+package com.hospital.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Brings the database schema up to date at startup.
+ *
+ * database/schema.sql is version 1. Later changes are scripts named
+ * V&lt;version&gt;__&lt;description&gt;.sql in hospital.migrations.dir
+ * (default database/migrations), applied in version order. Applied
+ * versions are recorded in schema_version with a checksum of the script;
+ * a database without that table is taken to be at version 1.
+ *
+ * Statements are separated by a semicolon at the end of a line, or by the
+ * delimiter set with a DELIMITER line, so CREATE TRIGGER ... BEGIN ... END
+ * bodies are written as they would be for the mysql client. MySQL commits
+ * each DDL statement, so a script that fails halfway is not rolled back
+ * and runs again from the start next time: scripts use IF NOT EXISTS and
+ * DROP ... IF EXISTS, and index statements are skipped when the index
+ * already exists (CREATE INDEX) or is already gone (DROP INDEX). They are
+ * run with ALGORITHM=INPLACE, LOCK=NONE so reads and writes continue while
+ * an index builds, falling back to the server default where that is not
+ * supported.
+ *
+ * A named lock keeps two instances starting together from migrating at
+ * the same time. Set hospital.migrations.enabled=false to skip migrating;
+ * the application still refuses to start on a schema older than
+ * REQUIRED_VERSION, see isSchemaCurrent().
+ */
+public final class SchemaMigrator {
+
+    private static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("hospital.migrations.enabled", "true"));
+    private static final Path DIRECTORY = Paths.get(System.getProperty("hospital.migrations.dir", "database/migrations"));
+
+    private static final int BASELINE_VERSION = 1;
+    /** Latest migration this build's DAOs depend on; raise it with every new script */
+    public static final int REQUIRED_VERSION = 7;
+    private static final String LOCK_NAME = "hospital_schema_migration";
+    private static final int LOCK_TIMEOUT_SECONDS = 300;
+    private static final String ONLINE = " ALGORITHM=INPLACE LOCK=NONE";
+
+    /** ER_ALTER_OPERATION_NOT_SUPPORTED and ER_ALTER_OPERATION_NOT_SUPPORTED_REASON */
+    private static final int NOT_SUPPORTED = 1845;
+    private static final int NOT_SUPPORTED_REASON = 1846;
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(\\w+)\\.sql");
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+            "CREATE\\s+(?:UNIQUE\\s+|FULLTEXT\\s+)?INDEX\\s+`?(\\w+)`?\\s+ON\\s+`?(\\w+)`?.*",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern DROP_INDEX = Pattern.compile(
+            "DROP\\s+INDEX\\s+`?(\\w+)`?\\s+ON\\s+`?(\\w+)`?.*", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern DELIMITER = Pattern.compile("DELIMITER\\s+(\\S+)", Pattern.CASE_INSENSITIVE);
+
+    private static volatile int currentVersion = -1;
+
+    private static final class Script {
+        final int version;
+        final String description;
+        final String text;
+        final String checksum;
+
+        Script(int version, String description, String text) {
+            this.version = version;
+            this.description = description;
+            this.text = text;
+            this.checksum = sha256(text);
+        }
+    }
+
+    private SchemaMigrator() {}
+
+    /**
+     * Schema version after the last migrate(), or -1 if it is not known
+     */
+    public static int getCurrentVersion() {
+        return currentVersion;
+    }
+
+    /**
+     * Apply every script newer than the database; failures are logged, not thrown
+     * @return true if the schema is at the latest version
+     */
+    public static boolean migrate() {
+        if (!ENABLED) {
+            return false;
+        }
+        List<Script> scripts;
+        try {
+            scripts = loadScripts();
+        } catch (IOException e) {
+            AppLogger.error("SchemaMigrator", "migrate", "Cannot read migrations from " + DIRECTORY, e);
+            return false;
+        }
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (!acquireLock(conn)) {
+                AppLogger.warning("SchemaMigrator", "migrate",
+                        "Another instance is migrating the schema; gave up after {seconds} s",
+                        "seconds", LOCK_TIMEOUT_SECONDS);
+                return false;
+            }
+            try {
+                return migrate(conn, scripts);
+            } finally {
+                releaseLock(conn);
+            }
+        } catch (SQLException e) {
+            AppLogger.error("SchemaMigrator", "migrate", "Error occurred", e);
+            return false;
+        }
+    }
+
+    /**
+     * Whether the schema is at least REQUIRED_VERSION. Reads schema_version
+     * when migrate() did not run or stopped before reading it; a database
+     * that cannot be reached is left to the login screen to report.
+     * @return false only if the schema is known to be older
+     */
+    public static boolean isSchemaCurrent() {
+        int version = currentVersion;
+        if (version < 0) {
+            version = readVersion();
+        }
+        if (version >= 0 && version < REQUIRED_VERSION) {
+            AppLogger.error("SchemaMigrator", "isSchemaCurrent",
+                    "Schema is at version {current} but this build needs version {required}", null,
+                    "current", version, "required", REQUIRED_VERSION, "migrationsDir", DIRECTORY);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Highest version in schema_version, the baseline if there is no such
+     * table yet, or -1 if the database is empty or cannot be read
+     */
+    private static int readVersion() {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            if (!tableExists(conn, "schema_version")) {
+                return tableExists(conn, "patients") ? BASELINE_VERSION : -1;
+            }
+            try (Statement stmt = conn.createStatement();
+                    ResultSet rs = stmt.executeQuery("SELECT MAX(version) FROM schema_version")) {
+                return rs.next() && rs.getObject(1) != null ? rs.getInt(1) : BASELINE_VERSION;
+            }
+        } catch (SQLException e) {
+            AppLogger.error("SchemaMigrator", "readVersion", "Error occurred", e);
+            return -1;
+        }
+    }
+
+    private static boolean migrate(Connection conn, List<Script> scripts) throws SQLException {
+        Map<Integer, String> applied = appliedVersions(conn);
+        if (applied == null) {
+            return false;
+        }
+        int version = applied.keySet().stream().mapToInt(Integer::intValue).max().orElse(BASELINE_VERSION);
+
+        for (Script script : scripts) {
+            if (applied.containsKey(script.version)) {
+                String checksum = applied.get(script.version);
+                if (checksum != null && !checksum.equals(script.checksum)) {
+                    AppLogger.warning("SchemaMigrator", "migrate",
+                            "Migration V{version} changed after it was applied; changes are not re-run",
+                            "version", script.version, "description", script.description);
+                }
+                continue;
+            }
+            if (script.version <= version) {
+                AppLogger.warning("SchemaMigrator", "migrate",
+                        "Migration V{version} is older than schema version {current} and is skipped",
+                        "version", script.version, "current", version);
+                continue;
+            }
+            if (!apply(conn, script)) {
+                currentVersion = version;
+                return false;
+            }
+            version = script.version;
+        }
+        currentVersion = version;
+        return true;
+    }
+
+    /**
+     * Versions recorded in schema_version, creating it at the baseline on
+     * first run; null if the database has no schema at all
+     */
+    private static Map<Integer, String> appliedVersions(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("CREATE TABLE IF NOT EXISTS schema_version (" +
+                    "version INT PRIMARY KEY, " +
+                    "description VARCHAR(200) NOT NULL, " +
+                    "checksum CHAR(64), " +
+                    "execution_millis BIGINT NOT NULL DEFAULT 0, " +
+                    "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+        }
+
+        Map<Integer, String> applied = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT version, checksum FROM schema_version")) {
+            while (rs.next()) {
+                applied.put(rs.getInt(1), rs.getString(2));
+            }
+        }
+        if (!applied.isEmpty()) {
+            return applied;
+        }
+
+        if (!tableExists(conn, "patients")) {
+            AppLogger.error("SchemaMigrator", "migrate",
+                    "Database has no tables; load database/schema.sql before starting the application");
+            return null;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO schema_version (version, description) VALUES (?, 'baseline schema.sql')")) {
+            pstmt.setInt(1, BASELINE_VERSION);
+            pstmt.executeUpdate();
+        }
+        applied.put(BASELINE_VERSION, null);
+        return applied;
+    }
+
+    private static boolean apply(Connection conn, Script script) {
+        long started = System.nanoTime();
+        AppLogger.info("SchemaMigrator", "apply", "Applying migration V{version} {description}",
+                "version", script.version, "description", script.description);
+        for (String sql : statements(script.text)) {
+            try {
+                execute(conn, sql);
+            } catch (SQLException e) {
+                AppLogger.error("SchemaMigrator", "apply", "Migration V{version} failed; schema left at the previous version",
+                        e, "version", script.version, "statement", sql);
+                return false;
+            }
+        }
+
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO schema_version " +
+                "(version, description, checksum, execution_millis) VALUES (?, ?, ?, ?)")) {
+            pstmt.setInt(1, script.version);
+            pstmt.setString(2, script.description);
+            pstmt.setString(3, script.checksum);
+            pstmt.setLong(4, millis);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            AppLogger.error("SchemaMigrator", "apply", "Error occurred", e);
+            return false;
+        }
+        AppLogger.info("SchemaMigrator", "apply", "Applied migration V{version} in {millis} ms",
+                "version", script.version, "millis", millis);
+        return true;
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        Matcher create = CREATE_INDEX.matcher(sql);
+        Matcher drop = DROP_INDEX.matcher(sql);
+        boolean isCreate = create.matches();
+        boolean isDrop = !isCreate && drop.matches();
+        if (isCreate || isDrop) {
+            Matcher index = isCreate ? create : drop;
+            if (indexExists(conn, index.group(2), index.group(1)) != isCreate) {
+                try (Statement stmt = conn.createStatement()) {
+                    executeOnline(stmt, sql);
+                }
+            }
+            return;
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+
+    /**
+     * Run index DDL without blocking writes, if the server can
+     */
+    private static void executeOnline(Statement stmt, String sql) throws SQLException {
+        if (sql.toUpperCase(Locale.ROOT).contains("ALGORITHM")) {
+            stmt.execute(sql);
+            return;
+        }
+        try {
+            stmt.execute(sql + ONLINE);
+        } catch (SQLException e) {
+            if (e.getErrorCode() != NOT_SUPPORTED && e.getErrorCode() != NOT_SUPPORTED_REASON) {
+                throw e;
+            }
+            AppLogger.warning("SchemaMigrator", "execute", "Online DDL not supported, running with locks",
+                    "statement", sql, "reason", e.getMessage());
+            stmt.execute(sql);
+        }
+    }
+
+    private static boolean indexExists(Connection conn, String table, String index) throws SQLException {
+        String sql = "SELECT 1 FROM information_schema.statistics " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ? LIMIT 1";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, table);
+            pstmt.setString(2, index);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static boolean tableExists(Connection conn, String table) throws SQLException {
+        String sql = "SELECT 1 FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, table);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static boolean acquireLock(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    private static void releaseLock(Connection conn) {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            pstmt.setString(1, LOCK_NAME);
+            pstmt.executeQuery().close();
+        } catch (SQLException e) {
+            AppLogger.error("SchemaMigrator", "releaseLock", "Error occurred", e);
+        }
+    }
+
+    /**
+     * Scripts in the migrations directory by version; none if it does not exist
+     */
+    private static List<Script> loadScripts() throws IOException {
+        TreeMap<Integer, Script> scripts = new TreeMap<>();
+        if (!Files.isDirectory(DIRECTORY)) {
+            return new ArrayList<>();
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DIRECTORY, "*.sql")) {
+            for (Path file : files) {
+                Matcher name = FILE_NAME.matcher(file.getFileName().toString());
+                if (!name.matches()) {
+                    AppLogger.warning("SchemaMigrator", "loadScripts", "Ignoring {file}: not named V<n>__<name>.sql",
+                            "file", file);
+                    continue;
+                }
+                int version = Integer.parseInt(name.group(1));
+                Script script = new Script(version, name.group(2).replace('_', ' '),
+                        new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+                if (scripts.put(version, script) != null) {
+                    throw new IOException("Two migrations with version " + version);
+                }
+            }
+        }
+        return new ArrayList<>(scripts.values());
+    }
+
+    /**
+     * Split a script at the delimiter where it ends a line, dropping comment
+     * lines. The delimiter is a semicolon until a DELIMITER line changes it,
+     * so BEGIN ... END bodies keep their inner semicolons.
+     */
+    private static List<String> statements(String text) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        String delimiter = ";";
+        for (String line : text.split("\\R")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                continue;
+            }
+            Matcher delimiterLine = DELIMITER.matcher(trimmed);
+            if (current.length() == 0 && delimiterLine.matches()) {
+                delimiter = delimiterLine.group(1);
+                continue;
+            }
+            current.append(current.length() > 0 ? "\n" : "").append(line);
+            if (trimmed.endsWith(delimiter)) {
+                current.setLength(current.lastIndexOf(delimiter));
+                if (current.toString().trim().length() > 0) {
+                    statements.add(current.toString().trim());
+                }
+                current.setLength(0);
+            }
+        }
+        if (current.toString().trim().length() > 0) {
+            statements.add(current.toString().trim());
+        }
+        return statements;
+    }
+
+    private static String sha256(String text) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
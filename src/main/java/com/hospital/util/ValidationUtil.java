@@ -48,10 +48,10 @@ public class ValidationUtil {
      * Validate email format
      */
     public static String validateEmail(JTextField field) {
-        String email = field.getText().trim();
-        if (!email.isEmpty() && !EMAIL_PATTERN.matcher(email).matches()) {
+        String error = checkEmail(field.getText());
+        if (error != null) {
             highlightError(field);
-            return "Please enter a valid email address (e.g., example@domain.com).";
+            return error;
         }
         clearError(field);
         return null;
@@ -61,10 +61,10 @@ public class ValidationUtil {
      * Validate phone number format
      */
     public static String validatePhone(JTextField field) {
-        String phone = field.getText().trim().replaceAll("[\\s\\-()]", "");
-        if (!phone.isEmpty() && !PHONE_PATTERN.matcher(phone).matches()) {
+        String error = checkPhone(field.getText());
+        if (error != null) {
             highlightError(field);
-            return "Please enter a valid phone number (10-15 digits).";
+            return error;
         }
         clearError(field);
         return null;
@@ -74,27 +74,67 @@ public class ValidationUtil {
      * Validate age range
      */
     public static String validateAge(JTextField field, int min, int max) {
-        String ageText = field.getText().trim();
-        if (ageText.isEmpty()) {
+        String error = checkAge(field.getText(), min, max);
+        if (error != null) {
             highlightError(field);
+            return error;
+        }
+        clearError(field);
+        return null;
+    }
+    
+    /**
+     * Check email format on raw text (empty is allowed)
+     * @return error message, or null when valid
+     */
+    public static String checkEmail(String text) {
+        String email = text == null ? "" : text.trim();
+        if (!email.isEmpty() && !EMAIL_PATTERN.matcher(email).matches()) {
+            return "Please enter a valid email address (e.g., example@domain.com).";
+        }
+        return null;
+    }
+    
+    /**
+     * Check phone format on raw text (empty is allowed)
+     * @return error message, or null when valid
+     */
+    public static String checkPhone(String text) {
+        String phone = normalizePhone(text);
+        if (!phone.isEmpty() && !PHONE_PATTERN.matcher(phone).matches()) {
+            return "Please enter a valid phone number (10-15 digits).";
+        }
+        return null;
+    }
+    
+    /**
+     * Check a required age on raw text
+     * @return error message, or null when valid
+     */
+    public static String checkAge(String text, int min, int max) {
+        String ageText = text == null ? "" : text.trim();
+        if (ageText.isEmpty()) {
             return "Age is required.";
         }
         
         try {
             int age = Integer.parseInt(ageText);
             if (age < min || age > max) {
-                highlightError(field);
                 return "Please enter a valid age between " + min + " and " + max + ".";
             }
         } catch (NumberFormatException e) {
-            highlightError(field);
             return "Please enter a valid number for age.";
         }
-        
-        clearError(field);
         return null;
     }
     
+    /**
+     * Strip spaces, dashes and parentheses from a phone number
+     */
+    public static String normalizePhone(String text) {
+        return text == null ? "" : text.trim().replaceAll("[\\s\\-()]", "");
+    }
+    
     /**
      * Highlight field with error border
      */
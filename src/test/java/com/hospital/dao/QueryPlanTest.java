@@ -0,0 +1,651 @@
+package com.hospital.dao;
+
+import com.hospital.metrics.QueryMetrics;
+import com.hospital.model.Appointment;
+import com.hospital.model.Bill;
+import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
+import com.hospital.model.Payment;
+import com.hospital.model.User;
+import com.hospital.util.DatabaseConnection;
+import com.hospital.util.SchemaMigrator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Query plan regression test for the DAO layer.
+ *
+ * Seeds a large dataset, calls every public method of every *DAO class in
+ * com.hospital.dao while recording the statements they issue, then runs
+ * EXPLAIN on each statement with the parameters it was run with. A table
+ * read fails when it is a full scan (type=ALL) of more than
+ * hospital.planTest.minScanRows estimated rows (default 1000), or when it
+ * estimates more than hospital.planTest.maxRows (default 10000). Reads
+ * that are meant to touch a whole table are listed in EXPECTED_SCANS with
+ * the reason. A DAO method the workload does not call also fails, so a new
+ * query has to be added to the workload below.
+ *
+ * It writes to the database, so it is skipped unless hospital.db.url names
+ * a database whose name contains "test", loaded from database/schema.sql;
+ * pending migrations are applied first, as at application startup. The
+ * dataset is sized by hospital.planTest.scale (default 1: 2,000 doctors,
+ * 50,000 patients, 200,000 appointments) and is only seeded once.
+ */
+class QueryPlanTest {
+
+    private static final long MAX_ROWS = Long.getLong("hospital.planTest.maxRows", 10_000);
+    private static final long MIN_SCAN_ROWS = Long.getLong("hospital.planTest.minScanRows", 1_000);
+    private static final double SCALE = Double.parseDouble(System.getProperty("hospital.planTest.scale", "1"));
+
+    private static final int DOCTORS = (int) (2_000 * SCALE);
+    private static final int PATIENTS = (int) (50_000 * SCALE);
+    private static final int APPOINTMENTS = (int) (200_000 * SCALE);
+    private static final int HISTORY_DAYS = 730;
+    private static final int FUTURE_DAYS = 60;
+    private static final int SEED_BATCH = 5_000;
+
+    /** Steps that read whole tables by design, and why */
+    private static final Map<String, String> EXPECTED_SCANS = Map.ofEntries(
+            Map.entry("PatientDAO.getAllPatients", "loads every patient"),
+            Map.entry("PatientDAO.getTotalPatientCount", "COUNT(*) reads a whole index"),
+            Map.entry("PatientDAO.searchPatients", "LIKE '%term%' cannot seek an index"),
+            Map.entry("DoctorDAO.getAllDoctors", "loads every doctor"),
+            Map.entry("DoctorDAO.searchDoctors", "LIKE '%term%' cannot seek an index"),
+            Map.entry("AppointmentDAO.getAllAppointments", "loads every appointment"),
+            Map.entry("BillDAO.getTotalBillCount", "COUNT(*) reads a whole index"),
+            Map.entry("AppointmentArchiveDAO.getArchivedCount", "COUNT(*) reads a whole index"),
+            Map.entry("AppointmentArchiveDAO.archiveOldAppointments", "batch job over every row past the horizon"),
+            Map.entry("RollupDAO.markAllDirty", "queues every day of the source tables"),
+            Map.entry("RollupDAO.getPendingDayCount", "COUNT(*) reads a whole index"));
+
+    private static final String[] SPECIALIZATIONS = {"Cardiology", "Pediatrics", "Orthopedics", "Dermatology",
+            "Neurology", "Oncology", "Radiology", "Psychiatry", "Urology", "Gastroenterology", "Nephrology",
+            "Endocrinology", "Pulmonology", "Rheumatology", "Ophthalmology", "ENT", "General Surgery",
+            "Anesthesiology", "Hematology", "Geriatrics"};
+    private static final String[] FIRST_NAMES = {"Alice", "Bob", "Carol", "David", "Eva", "Frank", "Grace",
+            "Henry", "Irene", "Jack", "Karen", "Liam", "Maria", "Noah", "Olivia", "Peter", "Quinn", "Rosa",
+            "Sam", "Tina", "Umar", "Vera", "Walter", "Xena", "Yusuf", "Zoe"};
+    private static final String[] LAST_NAMES = {"Johnson", "Smith", "Davis", "Wilson", "Brown", "Taylor",
+            "Anderson", "Thomas", "Moore", "Martin", "Lee", "Walker", "Hall", "Young", "King", "Wright",
+            "Lopez", "Hill", "Scott", "Green"};
+
+    private interface Call {
+        void run() throws Exception;
+    }
+
+    /** A statement issued by one step of the workload */
+    private static final class Captured {
+        final String step;
+        final String sql;
+        final Object[] parameters;
+
+        Captured(String step, String sql, Object[] parameters) {
+            this.step = step;
+            this.sql = sql;
+            this.parameters = parameters;
+        }
+    }
+
+    /** Ids in the seeded data that the workload reads and changes */
+    private static final class Sample {
+        int patientId;
+        int doctorId;
+        int appointmentId;
+        int billId;
+        String specialization;
+        Timestamp now;
+    }
+
+    private static final Map<String, Captured> captured = new LinkedHashMap<>();
+    private static final Set<String> steps = new TreeSet<>();
+    private static final List<String> stepFailures = new ArrayList<>();
+    private static volatile String currentStep;
+
+    /**
+     * Seed the dataset and run the workload once, recording its statements
+     */
+    @BeforeAll
+    static void runWorkload() throws SQLException {
+        assumeTrue(System.getProperty("hospital.db.url", "").toLowerCase(Locale.ROOT).contains("test"),
+                "set hospital.db.url to a database whose name contains \"test\"");
+        Sample sample;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            String database = conn.getCatalog();
+            assertTrue(database != null && database.toLowerCase(Locale.ROOT).contains("test"),
+                    "refusing to seed " + database);
+            assertTrue(SchemaMigrator.migrate(), "schema migration failed, see the log");
+            seed(conn);
+            sample = sample(conn);
+        }
+
+        QueryMetrics.setListener((caller, sql, parameters) -> {
+            String step = currentStep;
+            if (step != null) {
+                captured.putIfAbsent(step + '\u0000' + sql, new Captured(step, sql, parameters));
+            }
+        });
+        try {
+            workload(sample);
+        } finally {
+            QueryMetrics.setListener(null);
+        }
+    }
+
+    @AfterAll
+    static void closePool() {
+        DatabaseConnection.closeConnection();
+    }
+
+    @Test
+    void everyStepRuns() {
+        assertEquals(List.of(), stepFailures);
+    }
+
+    /**
+     * Every public instance method of a *DAO class must be a step, or
+     * statements it issues are never checked
+     */
+    @Test
+    void everyDaoMethodIsCovered() throws Exception {
+        List<String> missing = new ArrayList<>();
+        for (Class<?> type : daoClasses()) {
+            for (Method method : type.getDeclaredMethods()) {
+                int modifiers = method.getModifiers();
+                String name = type.getSimpleName() + "." + method.getName();
+                if (Modifier.isPublic(modifiers) && !Modifier.isStatic(modifiers) && !method.isSynthetic()
+                        && !steps.contains(name)) {
+                    missing.add(name);
+                }
+            }
+        }
+        assertEquals(List.of(), missing, "DAO methods not called by the workload");
+    }
+
+    @Test
+    void noStatementScansATable() throws SQLException {
+        List<String> problems = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (Captured statement : captured.values()) {
+                problems.addAll(explain(conn, statement));
+            }
+        }
+        assertTrue(problems.isEmpty(), String.join("\n", problems));
+    }
+
+    // ---------------------------------------------------------------- seeding
+
+    private static void seed(Connection conn) throws SQLException {
+        if (count(conn, "SELECT (SELECT COUNT(*) FROM appointments) + (SELECT COUNT(*) FROM appointments_archive)")
+                >= APPOINTMENTS * 9L / 10) {
+            return;
+        }
+        Random random = new Random(42);
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            seedDoctors(conn, random);
+            seedPatients(conn, random);
+            seedAppointments(conn, random);
+            seedBills(conn);
+            seedUsers(conn);
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("ANALYZE TABLE patients, doctors, appointments, appointments_archive, bills, payments, users");
+        }
+    }
+
+    private static void seedDoctors(Connection conn, Random random) throws SQLException {
+        int base = (int) count(conn, "SELECT COALESCE(MAX(doctor_id), 0) FROM doctors");
+        String sql = "INSERT INTO doctors (name, specialization, phone, email, experience_years, qualification, " +
+                "consultation_fee, available_days, available_time) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 1; i <= DOCTORS; i++) {
+                int n = base + i;
+                pstmt.setString(1, "Dr. " + pick(FIRST_NAMES, random) + " " + pick(LAST_NAMES, random) + " " + n);
+                pstmt.setString(2, SPECIALIZATIONS[n % SPECIALIZATIONS.length]);
+                pstmt.setString(3, String.format("70%08d", n));
+                pstmt.setString(4, "doctor" + n + "@plan.test");
+                pstmt.setInt(5, 1 + random.nextInt(35));
+                pstmt.setString(6, "MD");
+                pstmt.setBigDecimal(7, BigDecimal.valueOf(200 + random.nextInt(60) * 10));
+                pstmt.setString(8, "Mon,Tue,Wed,Thu,Fri");
+                pstmt.setString(9, "09:00-17:00");
+                addBatch(conn, pstmt, i);
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        }
+    }
+
+    private static void seedPatients(Connection conn, Random random) throws SQLException {
+        int base = (int) count(conn, "SELECT COALESCE(MAX(patient_id), 0) FROM patients");
+        String sql = "INSERT INTO patients (name, age, gender, phone, email, address, disease, blood_group, " +
+                "emergency_contact, admission_date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String[] genders = {"Male", "Female", "Other"};
+        String[] bloodGroups = {"A+", "A-", "B+", "B-", "O+", "O-", "AB+", "AB-"};
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 1; i <= PATIENTS; i++) {
+                int n = base + i;
+                pstmt.setString(1, pick(FIRST_NAMES, random) + " " + pick(LAST_NAMES, random));
+                pstmt.setInt(2, 1 + random.nextInt(95));
+                pstmt.setString(3, genders[random.nextInt(genders.length)]);
+                pstmt.setString(4, String.format("60%08d", n));
+                pstmt.setString(5, "patient" + n + "@plan.test");
+                pstmt.setString(6, n + " Main St, City");
+                pstmt.setString(7, "Checkup");
+                pstmt.setString(8, bloodGroups[random.nextInt(bloodGroups.length)]);
+                pstmt.setString(9, String.format("61%08d", n));
+                pstmt.setDate(10, Date.valueOf(LocalDate.now().minusDays(random.nextInt(HISTORY_DAYS))));
+                addBatch(conn, pstmt, i);
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        }
+    }
+
+    private static void seedAppointments(Connection conn, Random random) throws SQLException {
+        int[] patients = ids(conn, "SELECT patient_id FROM patients");
+        int[] doctors = ids(conn, "SELECT doctor_id FROM doctors");
+        LocalDate today = LocalDate.now();
+        String sql = "INSERT INTO appointments (patient_id, doctor_id, appointment_date, appointment_time, " +
+                "status, notes) VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int i = 1; i <= APPOINTMENTS; i++) {
+                LocalDate date = today.plusDays(random.nextInt(HISTORY_DAYS + FUTURE_DAYS) - HISTORY_DAYS);
+                int roll = random.nextInt(100);
+                String status = !date.isBefore(today) ? "Scheduled"
+                        : roll < 80 ? "Completed" : roll < 92 ? "Cancelled" : "No Show";
+                pstmt.setInt(1, patients[random.nextInt(patients.length)]);
+                pstmt.setInt(2, doctors[random.nextInt(doctors.length)]);
+                pstmt.setDate(3, Date.valueOf(date));
+                pstmt.setTime(4, Time.valueOf(LocalTime.of(9, 0).plusMinutes(30L * random.nextInt(16))));
+                pstmt.setString(5, status);
+                pstmt.setString(6, null);
+                addBatch(conn, pstmt, i);
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        }
+    }
+
+    /**
+     * Bills for four in five completed appointments, half of them paid
+     * through the payments ledger
+     */
+    private static void seedBills(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("INSERT IGNORE INTO bills (patient_id, appointment_id, total_amount, paid_amount, " +
+                    "payment_status, bill_date, due_date, services) " +
+                    "SELECT a.patient_id, a.appointment_id, COALESCE(d.consultation_fee, 0), 0, 'Pending', " +
+                    "a.appointment_date, a.appointment_date + INTERVAL 30 DAY, 'Consultation' " +
+                    "FROM appointments a JOIN doctors d ON d.doctor_id = a.doctor_id " +
+                    "WHERE a.status = 'Completed' AND a.appointment_id % 5 <> 0");
+            stmt.executeUpdate("INSERT IGNORE INTO payments (bill_id, amount_minor, method, reference) " +
+                    "SELECT bill_id, ROUND(total_amount * 100), 'Card', CONCAT('SEED-', bill_id) " +
+                    "FROM bills WHERE bill_id % 2 = 0");
+            stmt.executeUpdate("UPDATE bills SET paid_amount = total_amount, payment_status = 'Paid' " +
+                    "WHERE bill_id % 2 = 0");
+            conn.commit();
+        }
+    }
+
+    private static void seedUsers(Connection conn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("INSERT IGNORE INTO users " +
+                "(username, password, role, full_name, email) VALUES (?, 'seeded', 'Staff', ?, ?)")) {
+            for (int i = 1; i <= 200; i++) {
+                pstmt.setString(1, "staff" + i);
+                pstmt.setString(2, "Staff Member " + i);
+                pstmt.setString(3, "staff" + i + "@plan.test");
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+            conn.commit();
+        }
+    }
+
+    private static void addBatch(Connection conn, PreparedStatement pstmt, int row) throws SQLException {
+        pstmt.addBatch();
+        if (row % SEED_BATCH == 0) {
+            pstmt.executeBatch();
+            conn.commit();
+        }
+    }
+
+    private static Sample sample(Connection conn) throws SQLException {
+        Sample sample = new Sample();
+        sample.patientId = (int) count(conn, "SELECT patient_id FROM bills ORDER BY bill_id LIMIT 1");
+        sample.billId = (int) count(conn, "SELECT bill_id FROM bills ORDER BY bill_id LIMIT 1");
+        sample.appointmentId = (int) count(conn,
+                "SELECT appointment_id FROM appointments WHERE appointment_date > CURRENT_DATE LIMIT 1");
+        sample.doctorId = (int) count(conn, "SELECT doctor_id FROM doctors ORDER BY doctor_id DESC LIMIT 1");
+        try (Statement stmt = conn.createStatement();
+                ResultSet rs = stmt.executeQuery("SELECT specialization, CURRENT_TIMESTAMP FROM doctors LIMIT 1")) {
+            rs.next();
+            sample.specialization = rs.getString(1);
+            sample.now = rs.getTimestamp(2);
+        }
+        return sample;
+    }
+
+    // --------------------------------------------------------------- workload
+
+    /**
+     * One step per public DAO method, named Class.method. Writes work on
+     * rows the workload adds itself where it can.
+     */
+    private static void workload(Sample s) {
+        LocalDate today = LocalDate.now();
+        LocalDate beforeHorizon = AppointmentArchiveDAO.horizonStart().minusDays(30);
+
+        PatientDAO patients = new PatientDAO();
+        Patient patient = newPatient("Plan Suite Patient");
+        step("PatientDAO.getPatientsPaginated", () -> patients.getPatientsPaginated(50, 0));
+        step("PatientDAO.getTotalPatientCount", patients::getTotalPatientCount);
+        step("PatientDAO.getAllPatients", patients::getAllPatients);
+        step("PatientDAO.getPatientById", () -> patients.getPatientById(s.patientId));
+        step("PatientDAO.searchPatients", () -> patients.searchPatients("Smith"));
+        step("PatientDAO.getPatientChangesSince", () -> patients.getPatientChangesSince(s.now));
+        step("PatientDAO.addPatient", () -> patients.addPatient(patient));
+        step("PatientDAO.addPatients", () -> patients.addPatients(List.of(newPatient("Plan Suite Batch A"),
+                newPatient("Plan Suite Batch B"))));
+        step("PatientDAO.updatePatient", () -> {
+            patient.setDisease("Follow-up");
+            patients.updatePatient(patient);
+        });
+
+        DoctorDAO doctors = new DoctorDAO();
+        Doctor doctor = newDoctor("Dr. Plan Suite");
+        step("DoctorDAO.getAllDoctors", doctors::getAllDoctors);
+        step("DoctorDAO.getDoctorById", () -> doctors.getDoctorById(s.doctorId));
+        step("DoctorDAO.searchDoctors", () -> doctors.searchDoctors("Cardio"));
+        step("DoctorDAO.getDoctorsBySpecialization", () -> doctors.getDoctorsBySpecialization(s.specialization));
+        step("DoctorDAO.getDoctorChangesSince", () -> doctors.getDoctorChangesSince(s.now));
+        step("DoctorDAO.addDoctor", () -> doctors.addDoctor(doctor));
+        step("DoctorDAO.addDoctors", () -> doctors.addDoctors(List.of(newDoctor("Dr. Plan Suite Batch"))));
+        step("DoctorDAO.updateDoctor", () -> {
+            doctor.setExperienceYears(6);
+            doctors.updateDoctor(doctor);
+        });
+
+        AppointmentDAO appointments = new AppointmentDAO();
+        Appointment appointment = new Appointment(patient.getPatientId(), doctor.getDoctorId(),
+                today.plusDays(7), LocalTime.of(10, 0));
+        AppointmentFilter filter = new AppointmentFilter();
+        filter.setFromDate(today.minusDays(7));
+        filter.setToDate(today);
+        filter.setSearchTerm("Smith");
+        step("AppointmentDAO.getAllAppointments", appointments::getAllAppointments);
+        step("AppointmentDAO.streamAppointments", () -> appointments.streamAppointments(filter, row -> { }));
+        step("AppointmentDAO.getAppointmentById", () -> appointments.getAppointmentById(s.appointmentId));
+        step("AppointmentDAO.getAppointmentsByPatient", () -> appointments.getAppointmentsByPatient(s.patientId));
+        step("AppointmentDAO.getAppointmentsByDoctor", () -> appointments.getAppointmentsByDoctor(s.doctorId));
+        step("AppointmentDAO.getAppointmentsByDate", () -> {
+            appointments.getAppointmentsByDate(today.plusDays(1));
+            appointments.getAppointmentsByDate(beforeHorizon);
+        });
+        step("AppointmentDAO.getAppointmentChangesSince", () -> appointments.getAppointmentChangesSince(s.now));
+        step("AppointmentDAO.isDoctorAvailable",
+                () -> appointments.isDoctorAvailable(s.doctorId, today.plusDays(3), LocalTime.of(11, 0)));
+        step("AppointmentDAO.bookAppointment", () -> appointments.bookAppointment(appointment));
+        step("AppointmentDAO.bookAppointments", () -> appointments.bookAppointments(List.of(
+                new Appointment(patient.getPatientId(), doctor.getDoctorId(), today.plusDays(8), LocalTime.of(9, 0)),
+                new Appointment(patient.getPatientId(), doctor.getDoctorId(), today.plusDays(9), LocalTime.of(9, 0)))));
+        step("AppointmentDAO.updateAppointment", () -> {
+            appointment.setNotes("Bring previous reports");
+            appointments.updateAppointment(appointment);
+        });
+        step("AppointmentDAO.cancelAppointment", () -> appointments.cancelAppointment(appointment.getAppointmentId()));
+        step("AppointmentDAO.deleteAppointment", () -> appointments.deleteAppointment(appointment.getAppointmentId()));
+
+        AppointmentSnapshotDAO snapshots = new AppointmentSnapshotDAO();
+        AppointmentSnapshotDAO.RowSink sink = (id, patientId, doctorId, epochDay, minuteOfDay, status) -> { };
+        step("AppointmentSnapshotDAO.getIdBounds", snapshots::getIdBounds);
+        step("AppointmentSnapshotDAO.countRange", () -> snapshots.countRange(1, 5_000));
+        step("AppointmentSnapshotDAO.scanRange", () -> snapshots.scanRange(1, 5_000, sink));
+        step("AppointmentSnapshotDAO.currentWatermark", snapshots::currentWatermark);
+        step("AppointmentSnapshotDAO.scanChangesSince",
+                () -> snapshots.scanChangesSince(s.now, sink, new ArrayList<>()));
+
+        BillDAO bills = new BillDAO();
+        Bill bill = new Bill(patient.getPatientId(), null, new BigDecimal("250.00"), today, today.plusDays(30));
+        step("BillDAO.addBill", () -> bills.addBill(bill));
+        step("BillDAO.getBillById", () -> bills.getBillById(s.billId));
+        step("BillDAO.getBillsPaginated", () -> bills.getBillsPaginated(50, 0));
+        step("BillDAO.getTotalBillCount", bills::getTotalBillCount);
+        step("BillDAO.getBillsByPatient", () -> bills.getBillsByPatient(s.patientId));
+        step("BillDAO.updateBill", () -> {
+            bill.setServices("Consultation, X-ray");
+            bills.updateBill(bill);
+        });
+        step("BillDAO.generateBillsForCompletedAppointments",
+                () -> bills.generateBillsForCompletedAppointments(today.minusDays(14), today.minusDays(1), 30));
+
+        PaymentDAO payments = new PaymentDAO();
+        String reference = "PLAN-" + System.currentTimeMillis();
+        step("PaymentDAO.postPayments", () -> payments.postPayments(
+                List.of(new Payment(bill.getBillId(), 5_000, "Cash", reference + "-1")), 100));
+        step("PaymentDAO.postPayment",
+                () -> payments.postPayment(new Payment(bill.getBillId(), 2_500, "Card", reference + "-2")));
+        step("PaymentDAO.reconcile", payments::reconcile);
+        step("PaymentDAO.getPaymentsByBill", () -> payments.getPaymentsByBill(s.billId));
+        step("BillDAO.deleteBill", () -> bills.deleteBill(bill.getBillId()));
+
+        StatusTransitionDAO transitions = new StatusTransitionDAO();
+        step("StatusTransitionDAO.transitionPastDue", () -> transitions.transitionPastDue(500, ids -> { }));
+
+        RollupDAO rollups = new RollupDAO();
+        step("RollupDAO.markAllDirty", rollups::markAllDirty);
+        step("RollupDAO.getPendingDayCount", rollups::getPendingDayCount);
+        step("RollupDAO.catchUp", rollups::catchUp);
+
+        ReportDAO reports = new ReportDAO();
+        step("ReportDAO.getDoctorVolumes", () -> reports.getDoctorVolumes(today.minusDays(90), today));
+        step("ReportDAO.getBillingSummary", () -> reports.getBillingSummary(today.minusDays(90), today));
+        step("ReportDAO.getMonthlyTrend", () -> reports.getMonthlyTrend(today.minusDays(365), today));
+
+        AppointmentArchiveDAO archive = new AppointmentArchiveDAO();
+        boolean[] ranOnce = {false};
+        step("AppointmentArchiveDAO.archiveOldAppointments", () -> archive.archiveOldAppointments(100, () -> {
+            boolean stop = ranOnce[0];
+            ranOnce[0] = true;
+            return stop;
+        }));
+        step("AppointmentArchiveDAO.getArchivedCount", archive::getArchivedCount);
+
+        UserDAO users = new UserDAO();
+        User user = new User("plan-suite-" + System.currentTimeMillis(), "secret", "Staff", "Plan Suite");
+        step("UserDAO.authenticateUser", () -> users.authenticateUser("admin", "admin123"));
+        step("UserDAO.getAllUsers", users::getAllUsers);
+        step("UserDAO.usernameExists", () -> users.usernameExists(user.getUsername()));
+        step("UserDAO.addUser", () -> users.addUser(user));
+        // addUser does not return the generated id
+        users.getAllUsers().stream()
+                .filter(u -> u.getUsername().equals(user.getUsername()))
+                .findFirst()
+                .ifPresent(u -> user.setUserId(u.getUserId()));
+        step("UserDAO.updateUser", () -> {
+            user.setFullName("Plan Suite Updated");
+            users.updateUser(user);
+        });
+        step("UserDAO.deleteUser", () -> users.deleteUser(user.getUserId()));
+
+        step("PurgeJob.run", () -> PurgeJob.forDoctor(doctor.getDoctorId()).run());
+        step("DoctorDAO.deleteDoctor", () -> doctors.deleteDoctor(newDoctorId(doctors)));
+        step("PatientDAO.deletePatient", () -> patients.deletePatient(patient.getPatientId()));
+        step("TombstoneDAO.pruneExpired", new TombstoneDAO()::pruneExpired);
+    }
+
+    private static void step(String name, Call call) {
+        steps.add(name);
+        currentStep = name;
+        try {
+            call.run();
+        } catch (Exception e) {
+            stepFailures.add(name + ": " + e);
+        } finally {
+            currentStep = null;
+        }
+    }
+
+    private static Patient newPatient(String name) {
+        Patient patient = new Patient(name, 40, "Other", String.format("62%08d", (int) (Math.random() * 1e8)),
+                "Checkup");
+        patient.setAdmissionDate(LocalDate.now());
+        return patient;
+    }
+
+    private static Doctor newDoctor(String name) {
+        return new Doctor(name, "Cardiology", String.format("63%08d", (int) (Math.random() * 1e8)),
+                new BigDecimal("300.00"));
+    }
+
+    /** A doctor with no appointments, so deleting it does not cascade */
+    private static int newDoctorId(DoctorDAO doctors) {
+        Doctor doctor = newDoctor("Dr. Plan Suite Delete");
+        doctors.addDoctor(doctor);
+        return doctor.getDoctorId();
+    }
+
+    private static List<Class<?>> daoClasses() throws IOException, URISyntaxException, ClassNotFoundException {
+        List<Class<?>> classes = new ArrayList<>();
+        String packagePath = PatientDAO.class.getPackage().getName().replace('.', '/');
+        URL location = PatientDAO.class.getProtectionDomain().getCodeSource().getLocation();
+        File source = new File(location.toURI());
+        List<String> names = new ArrayList<>();
+        if (source.isDirectory()) {
+            String[] files = new File(source, packagePath).list();
+            if (files != null) {
+                names.addAll(List.of(files));
+            }
+        } else {
+            try (JarFile jar = new JarFile(source)) {
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    String entry = entries.nextElement().getName();
+                    if (entry.startsWith(packagePath + "/") && entry.indexOf('/', packagePath.length() + 1) < 0) {
+                        names.add(entry.substring(packagePath.length() + 1));
+                    }
+                }
+            }
+        }
+        for (String file : names) {
+            if (file.endsWith("DAO.class")) {
+                String className = packagePath.replace('/', '.') + "." + file.substring(0, file.length() - 6);
+                classes.add(Class.forName(className));
+            }
+        }
+        return classes;
+    }
+
+    // ---------------------------------------------------------------- EXPLAIN
+
+    /**
+     * The problems EXPLAIN shows for one statement, unless its step is
+     * expected to scan
+     */
+    private static List<String> explain(Connection conn, Captured statement) {
+        List<String> problems = new ArrayList<>();
+        String head = statement.sql.stripLeading().toUpperCase(Locale.ROOT);
+        if (!(head.startsWith("SELECT") || head.startsWith("UPDATE") || head.startsWith("DELETE")
+                || head.startsWith("INSERT") || head.startsWith("REPLACE") || head.startsWith("WITH"))
+                || EXPECTED_SCANS.containsKey(statement.step)) {
+            return problems;
+        }
+        String sql = statement.sql.trim().replaceAll("\\s+", " ");
+        try (PreparedStatement pstmt = conn.prepareStatement("EXPLAIN " + statement.sql)) {
+            for (int i = 0; i < statement.parameters.length; i++) {
+                pstmt.setObject(i + 1, statement.parameters[i]);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    String problem = problem(rs.getString("select_type"), rs.getString("table"),
+                            rs.getString("type"), rs.getString("key"), rs.getString("rows"));
+                    if (problem != null) {
+                        problems.add(statement.step + ": " + problem + "\n    " + sql);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            problems.add(statement.step + ": EXPLAIN failed: " + e.getMessage() + "\n    " + sql);
+        }
+        return problems;
+    }
+
+    /**
+     * Why one row of an EXPLAIN is too expensive, or null if it is fine.
+     * Derived tables and the target of INSERT ... VALUES are not reads.
+     */
+    static String problem(String selectType, String table, String type, String key, String rows) {
+        if (table == null || table.startsWith("<") || "INSERT".equals(selectType) || "REPLACE".equals(selectType)
+                || rows == null) {
+            return null;
+        }
+        long estimated = Long.parseLong(rows);
+        if ("ALL".equals(type) && estimated > MIN_SCAN_ROWS) {
+            return String.format("full scan of %s, about %d rows", table, estimated);
+        }
+        if (estimated > MAX_ROWS) {
+            return String.format("%s reads about %d rows via %s (%s)", table, estimated,
+                    key == null ? "no index" : key, type);
+        }
+        return null;
+    }
+
+    // ---------------------------------------------------------------- helpers
+
+    private static long count(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private static int[] ids(Connection conn, String sql) throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                ids.add(rs.getInt(1));
+            }
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
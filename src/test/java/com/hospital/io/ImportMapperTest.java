@@ -0,0 +1,31 @@
+package com.hospital.io;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ImportMapperTest {
+
+    @Test
+    void phoneKeyIgnoresFormatting() {
+        assertEquals(ImportMapper.phoneKey("+919876543210"), ImportMapper.phoneKey("+91 98765-43210"));
+        assertEquals(ImportMapper.phoneKey("0123456789"), ImportMapper.phoneKey("(012) 345-6789"));
+    }
+
+    @Test
+    void phoneKeyKeepsLeadingZerosAndPlus() {
+        assertNotEquals(ImportMapper.phoneKey("0123456789"), ImportMapper.phoneKey("123456789"));
+        assertNotEquals(ImportMapper.phoneKey("+0123456789"), ImportMapper.phoneKey("0123456789"));
+        assertNotEquals(ImportMapper.phoneKey("+0123456789"), ImportMapper.phoneKey("123456789"));
+    }
+
+    @Test
+    void phoneKeyRejectsNumbersThatDoNotFit() {
+        assertEquals(1_999_999_999_999_999_999L, ImportMapper.phoneKey("999999999999999999"));
+        assertThrows(IllegalArgumentException.class, () -> ImportMapper.phoneKey("1234567890123456789"));
+        assertThrows(IllegalArgumentException.class, () -> ImportMapper.phoneKey(""));
+        assertThrows(IllegalArgumentException.class, () -> ImportMapper.phoneKey("12345x7890"));
+    }
+}